@@ -28,6 +28,10 @@ public interface AmqpAdapterMetrics extends Metrics {
 
         private Noop() {
         }
+
+        @Override
+        public void incrementLinkCreditStalls(final String tenantId) {
+        }
     }
 
     /**
@@ -35,5 +39,12 @@ public interface AmqpAdapterMetrics extends Metrics {
      */
     AmqpAdapterMetrics NOOP = new Noop();
 
-    // empty for now
+    /**
+     * Reports that a device's link for uploading messages has been stalled
+     * because the downstream sender has run out of credit.
+     * 
+     * @param tenantId The tenant that the messages have been uploaded for.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    void incrementLinkCreditStalls(String tenantId);
 }
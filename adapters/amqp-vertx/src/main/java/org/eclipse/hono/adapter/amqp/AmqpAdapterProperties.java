@@ -31,9 +31,24 @@ public class AmqpAdapterProperties extends ProtocolAdapterProperties {
      * The default maximum number of frames that can be in flight for an AMQP session.
      */
     public static final int DEFAULT_MAX_SESSION_FRAMES = 30;
+    /**
+     * The default number of credits initially issued to a device for a link.
+     */
+    public static final int DEFAULT_INITIAL_LINK_CREDIT = 30;
+    /**
+     * The default maximum number of credits issued to a device for a link.
+     */
+    public static final int DEFAULT_MAX_LINK_CREDIT = 300;
+    /**
+     * The default maximum number of credits issued to a device for all links of a connection.
+     */
+    public static final int DEFAULT_MAX_CONNECTION_CREDIT = 1000;
 
     private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE_BYTES;
     private int maxSessionFrames = DEFAULT_MAX_SESSION_FRAMES;
+    private int initialLinkCredit = DEFAULT_INITIAL_LINK_CREDIT;
+    private int maxLinkCredit = DEFAULT_MAX_LINK_CREDIT;
+    private int maxConnectionCredit = DEFAULT_MAX_CONNECTION_CREDIT;
 
     /**
      * Gets the maximum number of bytes that can be sent in an AMQP message delivery
@@ -102,4 +117,94 @@ public class AmqpAdapterProperties extends ProtocolAdapterProperties {
     public int getMaxSessionWindowSize() {
         return maxSessionFrames * maxFrameSize;
     }
+
+    /**
+     * Gets the number of credits initially issued to a device for a link
+     * used for uploading messages.
+     * <p>
+     * The credit is subsequently adapted to the credit available for forwarding
+     * the messages downstream.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_INITIAL_LINK_CREDIT}.
+     * 
+     * @return The number of credits.
+     */
+    public final int getInitialLinkCredit() {
+        return initialLinkCredit;
+    }
+
+    /**
+     * Sets the number of credits initially issued to a device for a link
+     * used for uploading messages.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_INITIAL_LINK_CREDIT}.
+     * 
+     * @param initialLinkCredit The number of credits.
+     * @throws IllegalArgumentException if the number is less than 1.
+     */
+    public final void setInitialLinkCredit(final int initialLinkCredit) {
+        if (initialLinkCredit < 1) {
+            throw new IllegalArgumentException("initial link credit must be at least 1");
+        }
+        this.initialLinkCredit = initialLinkCredit;
+    }
+
+    /**
+     * Gets the maximum number of credits issued to a device for a link
+     * used for uploading messages.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_LINK_CREDIT}.
+     * 
+     * @return The number of credits.
+     */
+    public final int getMaxLinkCredit() {
+        return maxLinkCredit;
+    }
+
+    /**
+     * Sets the maximum number of credits issued to a device for a link
+     * used for uploading messages.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_LINK_CREDIT}.
+     * 
+     * @param maxLinkCredit The number of credits.
+     * @throws IllegalArgumentException if the number is less than 1.
+     */
+    public final void setMaxLinkCredit(final int maxLinkCredit) {
+        if (maxLinkCredit < 1) {
+            throw new IllegalArgumentException("max link credit must be at least 1");
+        }
+        this.maxLinkCredit = maxLinkCredit;
+    }
+
+    /**
+     * Gets the maximum number of credits issued to a device for all links
+     * of a connection.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_CONNECTION_CREDIT}.
+     * 
+     * @return The number of credits.
+     */
+    public final int getMaxConnectionCredit() {
+        return maxConnectionCredit;
+    }
+
+    /**
+     * Sets the maximum number of credits issued to a device for all links
+     * of a connection.
+     * <p>
+     * Note that each link of a connection is granted a single credit
+     * regardless of this limit.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_MAX_CONNECTION_CREDIT}.
+     * 
+     * @param maxConnectionCredit The number of credits.
+     * @throws IllegalArgumentException if the number is less than 1.
+     */
+    public final void setMaxConnectionCredit(final int maxConnectionCredit) {
+        if (maxConnectionCredit < 1) {
+            throw new IllegalArgumentException("max connection credit must be at least 1");
+        }
+        this.maxConnectionCredit = maxConnectionCredit;
+    }
 }
@@ -13,10 +13,13 @@
 
 package org.eclipse.hono.adapter.amqp;
 
+import java.util.Objects;
+
 import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
 import org.springframework.stereotype.Component;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 
 /**
  * Micrometer based metrics for the AMQP adapter.
@@ -24,6 +27,11 @@ import io.micrometer.core.instrument.MeterRegistry;
 @Component
 public class MicrometerBasedAmqpAdapterMetrics extends MicrometerBasedMetrics implements AmqpAdapterMetrics {
 
+    /**
+     * The name of the meter for stalled device links.
+     */
+    public static final String METER_LINK_CREDIT_STALLS = "hono.amqp.link.credit.stalls";
+
     /**
      * Create a new metrics instance for the AMQP adapter.
      * 
@@ -34,4 +42,10 @@ public class MicrometerBasedAmqpAdapterMetrics extends MicrometerBasedMetrics im
     public MicrometerBasedAmqpAdapterMetrics(final MeterRegistry registry) {
         super(registry);
     }
+
+    @Override
+    public void incrementLinkCreditStalls(final String tenantId) {
+        Objects.requireNonNull(tenantId);
+        registry.counter(METER_LINK_CREDIT_STALLS, Tags.of(getTenantTag(tenantId))).increment();
+    }
 }
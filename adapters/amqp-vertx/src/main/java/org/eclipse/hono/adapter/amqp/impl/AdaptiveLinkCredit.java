@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.amqp.impl;
+
+import java.util.Objects;
+
+import org.apache.qpid.proton.engine.Record;
+import org.eclipse.hono.client.CreditBasedSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Handler;
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * Manages the credit that a device is granted on a link for uploading messages.
+ * <p>
+ * Instead of using a fixed prefetch window, the credit issued to the device follows
+ * the credit that the corresponding downstream sender has been granted by the
+ * AMQP Messaging Network:
+ * <ul>
+ * <li>The link's window is doubled (up to a maximum) whenever the device has used up
+ * all of its credit while the downstream sender still has enough credit left.</li>
+ * <li>The window is halved (down to a single credit) whenever the downstream sender's
+ * credit has fallen below the window.</li>
+ * <li>No credit is issued at all while the downstream sender has run out of credit.
+ * The link is replenished once the downstream sender has been granted more credit.</li>
+ * </ul>
+ * The credit outstanding on all links of a connection is limited by a per connection
+ * maximum. However, a link always gets at least a single credit if it has no
+ * outstanding credit at all.
+ * <p>
+ * Instances are not thread safe and must be used on the vert.x context of
+ * the device's connection only.
+ */
+final class AdaptiveLinkCredit {
+
+    /**
+     * The key that the credit shared by all links of a connection is stored under
+     * in a {@code ProtonConnection}'s attachments.
+     */
+    static final String KEY_CONNECTION_CREDIT = "CONNECTION_CREDIT";
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveLinkCredit.class);
+
+    private final ProtonReceiver receiver;
+    private final ConnectionCredit connectionCredit;
+    private final int maxCredit;
+    private final Handler<AmqpContext> stallHandler;
+    private int window;
+    private int outstanding;
+    private boolean waitingForDownstreamCredit;
+    private boolean closed;
+
+    /**
+     * Creates credit management for a link.
+     *
+     * @param receiver The link to manage credit for.
+     * @param connectionCredit The credit shared by all links of the link's connection.
+     * @param initialCredit The credit to initially issue to the device.
+     * @param maxCredit The maximum credit to issue to the device.
+     * @param stallHandler The handler to notify about the link being stalled due to
+     *                     the downstream sender having run out of credit.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalArgumentException if initial or maximum credit are less than 1.
+     */
+    AdaptiveLinkCredit(
+            final ProtonReceiver receiver,
+            final ConnectionCredit connectionCredit,
+            final int initialCredit,
+            final int maxCredit,
+            final Handler<AmqpContext> stallHandler) {
+
+        if (initialCredit < 1 || maxCredit < 1) {
+            throw new IllegalArgumentException("credit must be at least 1");
+        }
+        this.receiver = Objects.requireNonNull(receiver);
+        this.connectionCredit = Objects.requireNonNull(connectionCredit);
+        this.stallHandler = Objects.requireNonNull(stallHandler);
+        this.maxCredit = maxCredit;
+        this.window = Math.min(initialCredit, maxCredit);
+    }
+
+    /**
+     * Gets the credit shared by all links of a connection.
+     *
+     * @param attachments The connection's attachments.
+     * @param maxConnectionCredit The maximum credit to use if the connection does not
+     *                            have shared credit yet.
+     * @return The credit.
+     */
+    static ConnectionCredit getConnectionCredit(final Record attachments, final int maxConnectionCredit) {
+
+        ConnectionCredit credit = attachments.get(KEY_CONNECTION_CREDIT, ConnectionCredit.class);
+        if (credit == null) {
+            credit = new ConnectionCredit(maxConnectionCredit);
+            attachments.set(KEY_CONNECTION_CREDIT, ConnectionCredit.class, credit);
+        }
+        return credit;
+    }
+
+    /**
+     * Issues the initial credit to the device.
+     */
+    void open() {
+        replenish(null, null);
+    }
+
+    /**
+     * Adapts the window and replenishes the device's credit after a message received
+     * over the link has been settled.
+     *
+     * @param ctx The context of the settled message.
+     */
+    void onDeliverySettled(final AmqpContext ctx) {
+
+        if (closed) {
+            return;
+        }
+        outstanding = Math.max(0, outstanding - 1);
+        connectionCredit.release(1);
+        final CreditBasedSender downstreamSender = ctx.getDownstreamSender();
+        if (downstreamSender != null) {
+            adjustWindow(downstreamSender.getCredit());
+        }
+        replenish(ctx, downstreamSender);
+    }
+
+    /**
+     * Returns the device's outstanding credit to the connection.
+     */
+    void close() {
+
+        if (!closed) {
+            closed = true;
+            connectionCredit.release(outstanding);
+            outstanding = 0;
+        }
+    }
+
+    /**
+     * Gets the current size of the link's credit window.
+     *
+     * @return The number of credits.
+     */
+    int getWindow() {
+        return window;
+    }
+
+    private void adjustWindow(final int downstreamCredit) {
+
+        if (downstreamCredit < window) {
+            window = Math.max(1, window / 2);
+        } else if (receiver.getCredit() <= 0 && window < maxCredit) {
+            // the device has used up its credit before we could replenish it
+            window = Math.min(maxCredit, window * 2);
+        }
+    }
+
+    private void replenish(final AmqpContext ctx, final CreditBasedSender downstreamSender) {
+
+        if (waitingForDownstreamCredit) {
+            return;
+        }
+        if (downstreamSender != null && downstreamSender.getCredit() <= 0) {
+            stallHandler.handle(ctx);
+            try {
+                downstreamSender.sendQueueDrainHandler(replenished -> {
+                    waitingForDownstreamCredit = false;
+                    if (!closed) {
+                        replenish(null, null);
+                    }
+                });
+                waitingForDownstreamCredit = true;
+                LOG.trace("link [{}] is waiting for downstream credit", receiver.getName());
+                return;
+            } catch (final IllegalStateException e) {
+                // another link is already waiting for the sender to be replenished,
+                // fall back to issuing a single credit at a time
+                window = 1;
+            }
+        }
+
+        final int requested = window - outstanding;
+        if (requested <= 0) {
+            return;
+        }
+        int credit = connectionCredit.acquire(requested);
+        if (credit == 0 && outstanding == 0) {
+            credit = connectionCredit.acquireAtLeastOne();
+        }
+        if (credit > 0) {
+            outstanding += credit;
+            receiver.flow(credit);
+        }
+    }
+
+    /**
+     * The credit shared by all links of a connection.
+     */
+    static final class ConnectionCredit {
+
+        private final int maxCredit;
+        private int granted;
+
+        /**
+         * Creates shared credit.
+         *
+         * @param maxCredit The maximum credit outstanding on all links of the connection.
+         */
+        ConnectionCredit(final int maxCredit) {
+            this.maxCredit = maxCredit;
+        }
+
+        int acquire(final int requested) {
+            final int credit = Math.max(0, Math.min(requested, maxCredit - granted));
+            granted += credit;
+            return credit;
+        }
+
+        int acquireAtLeastOne() {
+            granted++;
+            return 1;
+        }
+
+        void release(final int credit) {
+            granted = Math.max(0, granted - credit);
+        }
+
+        int getGranted() {
+            return granted;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.apache.qpid.proton.amqp.transport.AmqpError;
 import org.apache.qpid.proton.amqp.transport.ErrorCondition;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.auth.Device;
+import org.eclipse.hono.client.CreditBasedSender;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
 import org.eclipse.hono.util.Constants;
@@ -44,6 +45,9 @@ public class AmqpContext extends MapBasedExecutionContext {
     private Buffer payload;
     private EndpointType endpoint;
     private Sample timer;
+    private CreditBasedSender downstreamSender;
+    private ValidatedAddressCache addressCache;
+    private ResourceIdentifier validatedAddress;
 
     /**
      * Creates an AmqpContext instance using the specified delivery, message and authenticated device.
@@ -59,6 +63,29 @@ public class AmqpContext extends MapBasedExecutionContext {
      * @throws IllegalArgumentException if the message's address is not a valid resource identifier.
      */
     static AmqpContext fromMessage(final ProtonDelivery delivery, final Message message, final Device authenticatedDevice) {
+        return fromMessage(delivery, message, authenticatedDevice, null);
+    }
+
+    /**
+     * Creates an AmqpContext instance using the specified delivery, message and authenticated device.
+     * <p>
+     * If the message's address is contained in the given cache, the cached outcome of parsing and
+     * validating the address is used instead of parsing the address again.
+     * 
+     * @param delivery The delivery of the message.
+     * @param message The AMQP 1.0 message. The message must contain a valid address.
+     * @param authenticatedDevice The device that authenticates to the adapter or {@code null} if the device is unauthenticated.
+     * @param addressCache The cache of the addresses that have already been validated for the
+     *                     device's connection or {@code null} if no cache should be used.
+     * @return The context.
+     * @throws NullPointerException if the delivery or the message are {@code null}.
+     */
+    static AmqpContext fromMessage(
+            final ProtonDelivery delivery,
+            final Message message,
+            final Device authenticatedDevice,
+            final ValidatedAddressCache addressCache) {
+
         Objects.requireNonNull(delivery);
         Objects.requireNonNull(message);
         final AmqpContext ctx = new AmqpContext();
@@ -66,7 +93,14 @@ public class AmqpContext extends MapBasedExecutionContext {
         ctx.message = message;
         ctx.authenticatedDevice = authenticatedDevice;
         ctx.payload = MessageHelper.getPayload(message);
-        if (message.getAddress() != null) {
+        ctx.addressCache = addressCache;
+        final ValidatedAddressCache.ValidatedAddress cachedAddress = addressCache == null ? null
+                : addressCache.get(message.getAddress());
+        if (cachedAddress != null) {
+            ctx.address = cachedAddress.getParsedAddress();
+            ctx.endpoint = cachedAddress.getEndpoint();
+            ctx.validatedAddress = cachedAddress.getValidatedAddress();
+        } else if (message.getAddress() != null) {
             try {
                 ctx.address = ResourceIdentifier.fromString(message.getAddress());
                 ctx.endpoint = EndpointType.fromString(ctx.address.getEndpoint());
@@ -187,6 +221,66 @@ public class AmqpContext extends MapBasedExecutionContext {
         return timer;
     }
 
+    /**
+     * Gets the outcome of validating the message's address.
+     * 
+     * @return The validated address or {@code null} if the address has not been validated yet.
+     */
+    ResourceIdentifier getValidatedAddress() {
+        return validatedAddress;
+    }
+
+    /**
+     * Sets the outcome of validating the message's address.
+     * <p>
+     * The validated address is also put to the cache of validated addresses
+     * (if set) so that the address does not need to be validated again for
+     * subsequent messages sent over the same connection.
+     * 
+     * @param validatedAddress The validated address.
+     */
+    void setValidatedAddress(final ResourceIdentifier validatedAddress) {
+        this.validatedAddress = validatedAddress;
+        if (addressCache != null && validatedAddress != null && message.getAddress() != null) {
+            addressCache.put(message.getAddress(), address, endpoint, validatedAddress);
+        }
+    }
+
+    /**
+     * Removes the message's address from the cache of validated addresses (if set).
+     * <p>
+     * This method should be invoked if the message has been rejected because of a
+     * problem related to its target address, e.g. because the adapter is (no longer)
+     * enabled for the tenant.
+     */
+    void invalidateValidatedAddress() {
+        if (addressCache != null) {
+            if (validatedAddress != null) {
+                addressCache.invalidateTenant(validatedAddress.getTenantId());
+            }
+            addressCache.invalidate(message.getAddress());
+        }
+    }
+
+    /**
+     * Sets the sender that has been used for forwarding the message downstream.
+     * 
+     * @param sender The sender.
+     */
+    void setDownstreamSender(final CreditBasedSender sender) {
+        this.downstreamSender = sender;
+    }
+
+    /**
+     * Gets the sender that has been used for forwarding the message downstream.
+     * 
+     * @return The sender or {@code null} if the message has not been forwarded
+     *         using a credit based sender.
+     */
+    CreditBasedSender getDownstreamSender() {
+        return downstreamSender;
+    }
+
     /**
      * Creates an AMQP error condition for an throwable.
      * <p>
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.amqp.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.qpid.proton.engine.Record;
+import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
+import org.eclipse.hono.util.ResourceIdentifier;
+
+/**
+ * A cache of the message addresses that have been validated for the device
+ * connected to the adapter by means of a particular connection.
+ * <p>
+ * Devices, in particular gateways, usually upload messages for a small and stable set
+ * of addresses over a connection. Caching the outcome of parsing and validating these
+ * addresses allows the adapter to skip these steps for all but the first message
+ * uploaded to an address.
+ * <p>
+ * The number of cached addresses is limited. The least recently used address is evicted
+ * from the cache once the limit has been reached.
+ * <p>
+ * Instances are not thread safe and must be used on the vert.x context of
+ * the device's connection only.
+ */
+final class ValidatedAddressCache {
+
+    /**
+     * The key that the cache is stored under in a {@code ProtonConnection}'s attachments.
+     */
+    static final String KEY_VALIDATED_ADDRESS_CACHE = "VALIDATED_ADDRESS_CACHE";
+    /**
+     * The default maximum number of addresses to cache per connection.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 100;
+
+    private final Map<String, ValidatedAddress> entries;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries The maximum number of addresses to cache.
+     * @throws IllegalArgumentException if max entries is less than 1.
+     */
+    ValidatedAddressCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("cache must support at least one entry");
+        }
+        this.entries = new LinkedHashMap<String, ValidatedAddress>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, ValidatedAddress> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache for a connection.
+     *
+     * @param attachments The connection's attachments.
+     * @return The cache.
+     * @throws NullPointerException if attachments is {@code null}.
+     */
+    static ValidatedAddressCache getInstance(final Record attachments) {
+
+        Objects.requireNonNull(attachments);
+        ValidatedAddressCache cache = attachments.get(KEY_VALIDATED_ADDRESS_CACHE, ValidatedAddressCache.class);
+        if (cache == null) {
+            cache = new ValidatedAddressCache(DEFAULT_MAX_ENTRIES);
+            attachments.set(KEY_VALIDATED_ADDRESS_CACHE, ValidatedAddressCache.class, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the outcome of validating an address.
+     *
+     * @param address The address as contained in the message.
+     * @return The validated address or {@code null} if the address has not been validated yet.
+     */
+    ValidatedAddress get(final String address) {
+        return address == null ? null : entries.get(address);
+    }
+
+    /**
+     * Puts the outcome of validating an address to the cache.
+     *
+     * @param address The address as contained in the message.
+     * @param parsedAddress The parsed address.
+     * @param endpoint The endpoint that the address refers to.
+     * @param validatedAddress The address resulting from the validation, i.e. including
+     *                         the tenant and device identifiers.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    void put(
+            final String address,
+            final ResourceIdentifier parsedAddress,
+            final EndpointType endpoint,
+            final ResourceIdentifier validatedAddress) {
+
+        entries.put(
+                Objects.requireNonNull(address),
+                new ValidatedAddress(parsedAddress, endpoint, validatedAddress));
+    }
+
+    /**
+     * Removes an address from the cache.
+     *
+     * @param address The address as contained in the message.
+     */
+    void invalidate(final String address) {
+        if (address != null) {
+            entries.remove(address);
+        }
+    }
+
+    /**
+     * Removes all addresses of a tenant from the cache.
+     *
+     * @param tenantId The tenant.
+     */
+    void invalidateTenant(final String tenantId) {
+        entries.values().removeIf(entry -> entry.validatedAddress.getTenantId().equals(tenantId));
+    }
+
+    /**
+     * Removes all addresses from the cache.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of cached addresses.
+     *
+     * @return The number of addresses.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * The outcome of successfully validating an address.
+     */
+    static final class ValidatedAddress {
+
+        private final ResourceIdentifier parsedAddress;
+        private final EndpointType endpoint;
+        private final ResourceIdentifier validatedAddress;
+
+        private ValidatedAddress(
+                final ResourceIdentifier parsedAddress,
+                final EndpointType endpoint,
+                final ResourceIdentifier validatedAddress) {
+            this.parsedAddress = Objects.requireNonNull(parsedAddress);
+            this.endpoint = Objects.requireNonNull(endpoint);
+            this.validatedAddress = Objects.requireNonNull(validatedAddress);
+        }
+
+        ResourceIdentifier getParsedAddress() {
+            return parsedAddress;
+        }
+
+        EndpointType getEndpoint() {
+            return endpoint;
+        }
+
+        ResourceIdentifier getValidatedAddress() {
+            return validatedAddress;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.eclipse.hono.client.ServerErrorException;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.service.AbstractProtocolAdapterBase;
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
 import org.eclipse.hono.service.metric.MetricsTags.QoS;
 import org.eclipse.hono.tracing.TracingHelper;
@@ -57,6 +58,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import io.micrometer.core.instrument.Timer.Sample;
 import io.opentracing.Span;
+import io.opentracing.Tracer;
 import io.opentracing.log.Fields;
 import io.opentracing.tag.Tags;
 import io.vertx.core.AsyncResult;
@@ -432,6 +434,13 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
      * <p>
      * If the attach frame contains a target address, this method simply closes the link,
      * otherwise, it accepts and opens the link.
+     * <p>
+     * A device may use <em>settled</em> as the link's <em>snd-settle-mode</em> in order to
+     * upload pre-settled telemetry messages only. Events and command responses sent over such
+     * a link are discarded because they require <em>AT LEAST ONCE</em> delivery semantics.
+     * <p>
+     * The credit issued to the device for the link is managed by means of an
+     * {@link AdaptiveLinkCredit} instance.
      * 
      * @param conn The connection through which the request is initiated.
      * @param receiver The receiver link for receiving the data.
@@ -443,14 +452,7 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
 
         final Span span = newSpan("attach receiver", authenticatedDevice);
 
-        if (ProtonQoS.AT_MOST_ONCE.equals(receiver.getRemoteQoS())) {
-            // the device needs to send all types of message over this link
-            // so we must make sure that it does not allow for pre-settled messages
-            // to be sent only
-            final Exception ex = new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST,
-                    "unsupported snd-settle-mode: settled");
-            closeLinkWithError(receiver, ex, span);
-        } else  if (receiver.getRemoteTarget() != null && receiver.getRemoteTarget().getAddress() != null) {
+        if (receiver.getRemoteTarget() != null && receiver.getRemoteTarget().getAddress() != null) {
             if (!receiver.getRemoteTarget().getAddress().isEmpty()) {
                 LOG.debug("Closing link due to the present of Target [address : {}]", receiver.getRemoteTarget().getAddress());
             }
@@ -462,17 +464,40 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
             receiver.setTarget(receiver.getRemoteTarget());
             receiver.setSource(receiver.getRemoteSource());
             receiver.setQoS(receiver.getRemoteQoS());
-            receiver.setPrefetch(30);
-            // manage disposition handling manually
+            // manage credit and disposition handling manually
+            receiver.setPrefetch(0);
             receiver.setAutoAccept(false);
-            HonoProtonHelper.setCloseHandler(receiver, remoteDetach -> onLinkDetach(receiver));
-            HonoProtonHelper.setDetachHandler(receiver, remoteDetach -> onLinkDetach(receiver));
+            final AdaptiveLinkCredit linkCredit = new AdaptiveLinkCredit(
+                    receiver,
+                    AdaptiveLinkCredit.getConnectionCredit(conn.attachments(), getConfig().getMaxConnectionCredit()),
+                    getConfig().getInitialLinkCredit(),
+                    getConfig().getMaxLinkCredit(),
+                    stalledCtx -> {
+                        // the raw address of a message sent by an authenticated device
+                        // may not contain a tenant
+                        final ResourceIdentifier validatedAddress = stalledCtx.getValidatedAddress();
+                        if (validatedAddress != null) {
+                            metrics.incrementLinkCreditStalls(validatedAddress.getTenantId());
+                        }
+                    });
+            final ValidatedAddressCache addressCache = ValidatedAddressCache.getInstance(conn.attachments());
+            HonoProtonHelper.setCloseHandler(receiver, remoteDetach -> {
+                linkCredit.close();
+                addressCache.clear();
+                onLinkDetach(receiver);
+            });
+            HonoProtonHelper.setDetachHandler(receiver, remoteDetach -> {
+                linkCredit.close();
+                addressCache.clear();
+                onLinkDetach(receiver);
+            });
             receiver.handler((delivery, message) -> {
-                final AmqpContext ctx = AmqpContext.fromMessage(delivery, message, authenticatedDevice);
+                final AmqpContext ctx = AmqpContext.fromMessage(delivery, message, authenticatedDevice, addressCache);
                 ctx.setTimer(metrics.startTimer());
-                onMessageReceived(ctx);
+                onMessageReceived(ctx).setHandler(settled -> linkCredit.onDeliverySettled(ctx));
             });
             receiver.open();
+            linkCredit.open();
             if (authenticatedDevice == null) {
                 LOG.debug("established link for receiving messages from device [container: {}]",
                         conn.getRemoteContainer());
@@ -480,7 +505,9 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
                 LOG.debug("established link for receiving messages from device [tenant: {}, device-id: {}]]",
                         authenticatedDevice.getTenantId(), authenticatedDevice.getDeviceId());
             }
-            span.log("link established");
+            span.log(ProtonQoS.AT_MOST_ONCE.equals(receiver.getRemoteQoS())
+                    ? "link for pre-settled messages established"
+                    : "link established");
         }
         span.finish();
     }
@@ -494,6 +521,13 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
      * <li><em>rejected</em> if the message could not be processed due to a problem caused by the device.</li>
      * <li><em>released</em> if the message could not be forwarded to a downstream consumer.</li>
      * </ul>
+     * A transfer that has been pre-settled by the device is accepted and settled right away, before
+     * the message is being forwarded. The outcome of forwarding the message does not result in
+     * any disposition update in this case.
+     * <p>
+     * The outcome of validating the message's address is cached for the device's connection
+     * and is removed from the cache if the message cannot be processed due to a problem
+     * caused by the device.
      * 
      * @param ctx The context for the message.
      * @return A future indicating the outcome of processing the message.
@@ -505,15 +539,40 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
         final Span msgSpan = newSpan("upload message", ctx.getAuthenticatedDevice());
         msgSpan.log(Collections.singletonMap(Tags.MESSAGE_BUS_DESTINATION.getKey(), ctx.getAddress()));
 
+        final boolean preSettled = ctx.isRemotelySettled();
+        if (preSettled) {
+            // the device does not care about the outcome (fire and forget)
+            ProtonHelper.accepted(ctx.delivery(), true);
+        }
+
         return validateEndpoint(ctx)
-        .compose(validatedEndpoint -> validateAddress(validatedEndpoint.getAddress(), validatedEndpoint.getAuthenticatedDevice()))
+        .compose(validatedEndpoint -> {
+            if (validatedEndpoint.getValidatedAddress() != null) {
+                // address has already been validated for a previous message sent over the connection
+                return Future.succeededFuture(validatedEndpoint.getValidatedAddress());
+            } else {
+                return validateAddress(validatedEndpoint.getAddress(), validatedEndpoint.getAuthenticatedDevice())
+                        .map(validatedAddress -> {
+                            validatedEndpoint.setValidatedAddress(validatedAddress);
+                            return validatedAddress;
+                        });
+            }
+        })
         .compose(validatedAddress -> uploadMessage(ctx, validatedAddress, msgSpan))
         .map(d -> {
-            ProtonHelper.accepted(ctx.delivery(), true);
+            if (!preSettled) {
+                ProtonHelper.accepted(ctx.delivery(), true);
+            }
             msgSpan.finish();
             return d;
         }).recover(t -> {
             if (t instanceof ClientErrorException) {
+                // e.g. the adapter has been disabled for the tenant
+                ctx.invalidateValidatedAddress();
+            }
+            if (preSettled) {
+                LOG.debug("discarding pre-settled message [address: {}]", ctx.getAddress(), t);
+            } else if (t instanceof ClientErrorException) {
                 final ErrorCondition condition = AmqpContext.getErrorCondition(t);
                 MessageHelper.rejected(ctx.delivery(), condition);
             } else {
@@ -593,18 +652,18 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
     }
 
     private Span newSpan(final String operationName, final Device authenticatedDevice) {
-        final Span span = tracer.buildSpan(operationName)
+        final Tracer.SpanBuilder spanBuilder = tracer.buildSpan(operationName)
                 .ignoreActiveSpan()
                 .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
                 .withTag(Tags.COMPONENT.getKey(), getTypeName())
-                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null)
-                .start();
+                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null);
 
         if (authenticatedDevice != null) {
-            span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, authenticatedDevice.getTenantId());
-            span.setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, authenticatedDevice.getDeviceId());
+            // set on the builder so that the tenant's sampling rate applies
+            spanBuilder.withTag(MessageHelper.APP_PROPERTY_TENANT_ID, authenticatedDevice.getTenantId());
+            spanBuilder.withTag(MessageHelper.APP_PROPERTY_DEVICE_ID, authenticatedDevice.getDeviceId());
         }
-        return span;
+        return spanBuilder.start();
     }
 
     private Future<MessageConsumer> openCommandSenderLink(
@@ -843,6 +902,7 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
                 .compose(ok -> {
 
                     final MessageSender sender = senderFuture.result();
+                    context.setDownstreamSender(sender);
                     final Message downstreamMessage = addProperties(
                             context.getMessage(),
                             ResourceIdentifier.from(context.getEndpoint().getCanonicalName(), resource.getTenantId(), resource.getResourceId()),
@@ -853,10 +913,11 @@ public final class VertxBasedAmqpProtocolAdapter extends AbstractProtocolAdapter
 
                     if (context.isRemotelySettled()) {
                         // client uses AT_MOST_ONCE delivery semantics -> fire and forget
-                        return sender.send(downstreamMessage, currentSpan.context());
+                        return timeStage(PipelineStage.DISPOSITION, () -> sender.send(downstreamMessage, currentSpan.context()));
                     } else {
                         // client uses AT_LEAST_ONCE delivery semantics
-                        return sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context());
+                        return timeStage(PipelineStage.DISPOSITION,
+                                () -> sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()));
                     }
 
                 }).recover(t -> {
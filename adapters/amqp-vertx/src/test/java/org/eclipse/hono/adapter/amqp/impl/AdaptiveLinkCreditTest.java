@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.amqp.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.client.MessageSender;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Handler;
+import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonHelper;
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * Verifies behavior of {@link AdaptiveLinkCredit}.
+ *
+ */
+public class AdaptiveLinkCreditTest {
+
+    private ProtonReceiver receiver;
+    private MessageSender downstreamSender;
+    private Handler<AmqpContext> stallHandler;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        receiver = mock(ProtonReceiver.class);
+        downstreamSender = mock(MessageSender.class);
+        stallHandler = mock(Handler.class);
+    }
+
+    /**
+     * Verifies that the window grows when the device has used up its credit
+     * and the downstream sender has plenty of credit left.
+     */
+    @Test
+    public void testWindowGrowsForDeviceUsingUpItsCredit() {
+
+        // GIVEN a link with an initial window of 10 credits
+        final AdaptiveLinkCredit linkCredit = new AdaptiveLinkCredit(
+                receiver, new AdaptiveLinkCredit.ConnectionCredit(1000), 10, 100, stallHandler);
+        linkCredit.open();
+        verify(receiver).flow(10);
+
+        // WHEN a message has been forwarded using a sender with plenty of credit
+        // after the device has used up all of its credit
+        when(downstreamSender.getCredit()).thenReturn(500);
+        when(receiver.getCredit()).thenReturn(0);
+        linkCredit.onDeliverySettled(newContext());
+
+        // THEN the window is doubled
+        assertThat(linkCredit.getWindow(), is(20));
+        // and the device is issued the additional credit
+        verify(receiver).flow(11);
+    }
+
+    /**
+     * Verifies that the window shrinks when the downstream sender's credit falls
+     * below the window.
+     */
+    @Test
+    public void testWindowShrinksUnderDownstreamPressure() {
+
+        // GIVEN a link with an initial window of 10 credits
+        final AdaptiveLinkCredit linkCredit = new AdaptiveLinkCredit(
+                receiver, new AdaptiveLinkCredit.ConnectionCredit(1000), 10, 100, stallHandler);
+        linkCredit.open();
+
+        // WHEN a message has been forwarded using a sender with little credit left
+        when(downstreamSender.getCredit()).thenReturn(3);
+        when(receiver.getCredit()).thenReturn(9);
+        reset(receiver);
+        linkCredit.onDeliverySettled(newContext());
+
+        // THEN the window is halved
+        assertThat(linkCredit.getWindow(), is(5));
+        // and the device is not issued any more credit
+        verify(receiver, never()).flow(anyInt());
+    }
+
+    /**
+     * Verifies that no credit is issued while the downstream sender has no credit
+     * and that the link is replenished once the sender has been replenished.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLinkStallsWhileDownstreamSenderHasNoCredit() {
+
+        // GIVEN a link with an initial window of a single credit
+        final AdaptiveLinkCredit linkCredit = new AdaptiveLinkCredit(
+                receiver, new AdaptiveLinkCredit.ConnectionCredit(1000), 1, 100, stallHandler);
+        linkCredit.open();
+        verify(receiver).flow(1);
+
+        // WHEN a message has been forwarded using a sender that has run out of credit
+        when(downstreamSender.getCredit()).thenReturn(0);
+        final AmqpContext ctx = newContext();
+        linkCredit.onDeliverySettled(ctx);
+
+        // THEN the stall is reported
+        verify(stallHandler).handle(ctx);
+        // and the device is not issued any more credit
+        verify(receiver).flow(anyInt());
+        // until the downstream sender has been replenished
+        final ArgumentCaptor<Handler<Void>> drainHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(downstreamSender).sendQueueDrainHandler(drainHandler.capture());
+        reset(receiver);
+        drainHandler.getValue().handle(null);
+        verify(receiver).flow(1);
+    }
+
+    /**
+     * Verifies that the credit issued for all links of a connection is limited
+     * but that each link is issued at least a single credit.
+     */
+    @Test
+    public void testConnectionCreditIsLimited() {
+
+        // GIVEN a connection with a maximum of 15 credits
+        final AdaptiveLinkCredit.ConnectionCredit connectionCredit = new AdaptiveLinkCredit.ConnectionCredit(15);
+
+        // WHEN three links with an initial window of 10 credits are opened
+        final ProtonReceiver firstReceiver = mock(ProtonReceiver.class);
+        final ProtonReceiver secondReceiver = mock(ProtonReceiver.class);
+        final ProtonReceiver thirdReceiver = mock(ProtonReceiver.class);
+        new AdaptiveLinkCredit(firstReceiver, connectionCredit, 10, 100, stallHandler).open();
+        new AdaptiveLinkCredit(secondReceiver, connectionCredit, 10, 100, stallHandler).open();
+        final AdaptiveLinkCredit thirdLink = new AdaptiveLinkCredit(thirdReceiver, connectionCredit, 10, 100, stallHandler);
+        thirdLink.open();
+
+        // THEN the second link is only issued the credit left
+        verify(firstReceiver).flow(10);
+        verify(secondReceiver).flow(5);
+        // and the third link is issued a single credit
+        verify(thirdReceiver).flow(1);
+        assertThat(connectionCredit.getGranted(), is(16));
+
+        // and the credit is returned to the connection when the link is closed
+        thirdLink.close();
+        assertThat(connectionCredit.getGranted(), is(15));
+    }
+
+    private AmqpContext newContext() {
+        final Message message = ProtonHelper.message("telemetry/tenant/device", "hello");
+        final AmqpContext ctx = AmqpContext.fromMessage(mock(ProtonDelivery.class), message, null);
+        ctx.setDownstreamSender(downstreamSender);
+        return ctx;
+    }
+}
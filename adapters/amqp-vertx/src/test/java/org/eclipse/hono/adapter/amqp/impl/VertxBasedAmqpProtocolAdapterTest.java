@@ -13,9 +13,11 @@
 package org.eclipse.hono.adapter.amqp.impl;
 
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -87,6 +89,7 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.proton.ProtonConnection;
 import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonMessageHandler;
 import io.vertx.proton.ProtonQoS;
 import io.vertx.proton.ProtonReceiver;
 import io.vertx.proton.ProtonSender;
@@ -218,6 +221,162 @@ public class VertxBasedAmqpProtocolAdapterTest {
         verify(link).close();
     }
 
+    /**
+     * Verifies that the AMQP Adapter opens links that use <em>settled</em> as the
+     * <em>snd-settle-mode</em>.
+     */
+    @Test
+    public void testAdapterAcceptsReceiverForPreSettledMessages() {
+        // GIVEN an AMQP adapter with a configured server.
+        final ProtonServer server = getAmqpServer();
+        final VertxBasedAmqpProtocolAdapter adapter = getAdapter(server);
+
+        // WHEN a device opens a link for sending pre-settled messages only
+        final ProtonReceiver link = getReceiver(ProtonQoS.AT_MOST_ONCE, null);
+
+        adapter.handleRemoteReceiverOpen(getConnection(null), link);
+
+        // THEN the adapter opens the link
+        verify(link).setQoS(ProtonQoS.AT_MOST_ONCE);
+        verify(link).open();
+        verify(link, never()).close();
+    }
+
+    /**
+     * Verifies that the adapter flows credit to an authenticated device again after
+     * the link has been stalled due to a lack of downstream credit, even if the device
+     * sends its messages to the bare telemetry address.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testStalledLinkOfAuthenticatedDeviceIsReplenished() {
+
+        // GIVEN an AMQP adapter that issues a single credit to each link
+        config.setInitialLinkCredit(1);
+        final VertxBasedAmqpProtocolAdapter adapter = givenAnAmqpAdapter();
+        // and a downstream sender that has run out of credit
+        final MessageSender telemetrySender = givenATelemetrySenderForAnyTenant();
+        when(telemetrySender.send(any(Message.class), (SpanContext) any())).thenReturn(Future.succeededFuture(mock(ProtonDelivery.class)));
+        when(telemetrySender.getCredit()).thenReturn(0);
+        givenAConfiguredTenant(TEST_TENANT_ID, true);
+
+        // and an authenticated device that has opened a link
+        final Device device = new Device(TEST_TENANT_ID, TEST_DEVICE);
+        final ProtonReceiver link = getReceiver(ProtonQoS.AT_MOST_ONCE, null);
+        adapter.handleRemoteReceiverOpen(getConnection(device), link);
+        final ArgumentCaptor<ProtonMessageHandler> messageHandler = ArgumentCaptor.forClass(ProtonMessageHandler.class);
+        verify(link).handler(messageHandler.capture());
+        verify(link).flow(1);
+
+        // WHEN the device sends a pre-settled message to the bare telemetry address
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        when(delivery.remotelySettled()).thenReturn(true);
+        messageHandler.getValue().handle(delivery, getFakeMessage(TelemetryConstants.TELEMETRY_ENDPOINT, Buffer.buffer("payload")));
+
+        // THEN the stalled link is reported for the device's tenant
+        verify(metrics).incrementLinkCreditStalls(TEST_TENANT_ID);
+        // and no credit is flowed to the device until the downstream sender has been replenished
+        final ArgumentCaptor<Handler<Void>> drainHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(telemetrySender).sendQueueDrainHandler(drainHandler.capture());
+        verify(link, times(1)).flow(anyInt());
+        drainHandler.getValue().handle(null);
+        verify(link, times(2)).flow(1);
+    }
+
+    /**
+     * Verifies that a pre-settled telemetry message that cannot be forwarded
+     * does not result in a disposition update being sent to the device.
+     * 
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testUploadPreSettledTelemetryDoesNotRejectFailedMessage(final TestContext ctx) {
+        // GIVEN an AMQP adapter
+        final VertxBasedAmqpProtocolAdapter adapter = givenAnAmqpAdapter();
+        final MessageSender telemetrySender = givenATelemetrySenderForAnyTenant();
+
+        // which is disabled for a tenant
+        givenAConfiguredTenant(TEST_TENANT_ID, false);
+
+        // IF a device sends a 'fire and forget' telemetry message
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        when(delivery.remotelySettled()).thenReturn(true);
+        final String to = ResourceIdentifier.from(TelemetryConstants.TELEMETRY_ENDPOINT, TEST_TENANT_ID, TEST_DEVICE).toString();
+
+        adapter.onMessageReceived(AmqpContext.fromMessage(delivery, getFakeMessage(to, Buffer.buffer("payload")), null))
+        .setHandler(ctx.asyncAssertFailure(t -> {
+            // THEN the adapter has not forwarded the message downstream
+            verify(telemetrySender, never()).send(any(Message.class), (SpanContext) any());
+            // and has accepted and settled the transfer up front only
+            verify(delivery).disposition(any(Accepted.class), eq(true));
+            verify(delivery, never()).disposition(any(Rejected.class), anyBoolean());
+            verify(delivery, never()).disposition(any(Released.class), anyBoolean());
+        }));
+    }
+
+    /**
+     * Verifies that the outcome of validating a message's address is cached for
+     * subsequent messages sent over the same connection.
+     * 
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testUploadTelemetryUsesCachedAddressValidation(final TestContext ctx) {
+        // GIVEN an AMQP adapter
+        final VertxBasedAmqpProtocolAdapter adapter = givenAnAmqpAdapter();
+        final MessageSender telemetrySender = givenATelemetrySenderForAnyTenant();
+        when(telemetrySender.send(any(Message.class), (SpanContext) any())).thenReturn(Future.succeededFuture(mock(ProtonDelivery.class)));
+        givenAConfiguredTenant(TEST_TENANT_ID, true);
+        final ValidatedAddressCache addressCache = new ValidatedAddressCache(10);
+        final Device gateway = new Device(TEST_TENANT_ID, "gw");
+        final String to = ResourceIdentifier.from(TelemetryConstants.TELEMETRY_ENDPOINT, TEST_TENANT_ID, TEST_DEVICE).toString();
+
+        // WHEN a gateway uploads a telemetry message for a device
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        when(delivery.remotelySettled()).thenReturn(true);
+        final AmqpContext firstMessage = AmqpContext.fromMessage(delivery, getFakeMessage(to, Buffer.buffer("one")), gateway, addressCache);
+        assertNull(firstMessage.getValidatedAddress());
+        adapter.onMessageReceived(firstMessage).setHandler(ctx.asyncAssertSuccess(first -> {
+
+            // THEN the validated address is cached
+            assertThat(addressCache.size(), equalTo(1));
+
+            // and a subsequent message for the same device uses the cached address
+            final AmqpContext secondMessage = AmqpContext.fromMessage(delivery, getFakeMessage(to, Buffer.buffer("two")), gateway, addressCache);
+            assertThat(secondMessage.getValidatedAddress(), equalTo(firstMessage.getValidatedAddress()));
+            assertThat(secondMessage.getEndpoint(), equalTo(EndpointType.TELEMETRY));
+            adapter.onMessageReceived(secondMessage).setHandler(ctx.asyncAssertSuccess(second -> {
+                verify(telemetrySender, times(2)).send(any(Message.class), (SpanContext) any());
+            }));
+        }));
+    }
+
+    /**
+     * Verifies that a cached address is invalidated if the adapter has been disabled
+     * for the tenant.
+     * 
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testUploadTelemetryInvalidatesCachedAddressForDisabledTenant(final TestContext ctx) {
+        // GIVEN an AMQP adapter
+        final VertxBasedAmqpProtocolAdapter adapter = givenAnAmqpAdapter();
+        givenATelemetrySenderForAnyTenant();
+        // that has been disabled for a tenant
+        givenAConfiguredTenant(TEST_TENANT_ID, false);
+        // after an address of the tenant has been validated
+        final ValidatedAddressCache addressCache = new ValidatedAddressCache(10);
+        final String to = ResourceIdentifier.from(TelemetryConstants.TELEMETRY_ENDPOINT, TEST_TENANT_ID, TEST_DEVICE).toString();
+        addressCache.put(to, ResourceIdentifier.fromString(to), EndpointType.TELEMETRY, ResourceIdentifier.fromString(to));
+
+        // WHEN a device uploads a message to the address
+        final AmqpContext context = AmqpContext.fromMessage(mock(ProtonDelivery.class), getFakeMessage(to, Buffer.buffer("one")), null, addressCache);
+        adapter.onMessageReceived(context).setHandler(ctx.asyncAssertFailure(t -> {
+            // THEN the address is removed from the cache
+            assertThat(addressCache.size(), equalTo(0));
+        }));
+    }
+
     /**
      * Verifies that a request to upload a pre-settled telemetry message results
      * in the downstream sender not waiting for the consumer's acknowledgment.
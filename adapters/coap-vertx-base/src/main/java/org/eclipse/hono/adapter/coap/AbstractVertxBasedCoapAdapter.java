@@ -24,32 +24,47 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import org.apache.qpid.proton.amqp.transport.ErrorCondition;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.californium.core.CoapServer;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.coap.MessageObserverAdapter;
+import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.core.network.Endpoint;
 import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.californium.scandium.DTLSConnector;
 import org.eclipse.californium.scandium.config.DtlsConnectorConfig;
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.ClientErrorException;
+import org.eclipse.hono.client.Command;
+import org.eclipse.hono.client.CommandContext;
+import org.eclipse.hono.client.MessageConsumer;
 import org.eclipse.hono.client.MessageSender;
 import org.eclipse.hono.config.KeyLoader;
 import org.eclipse.hono.service.AbstractProtocolAdapterBase;
 import org.eclipse.hono.service.metric.MetricsTags;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
+import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.ResourceIdentifier;
 import org.eclipse.hono.util.TenantObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import io.micrometer.core.instrument.Timer.Sample;
+import io.opentracing.Span;
+import io.opentracing.tag.Tags;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
@@ -80,8 +95,12 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
      */
     private CoapServer server;
     private CoapAdapterMetrics metrics = CoapAdapterMetrics.NOOP;
-    private volatile Endpoint secureEndpoint;
-    private volatile Endpoint insecureEndpoint;
+    private volatile SharedCoapServer sharedServer;
+    /**
+     * The devices' observations of commands, only accessed on this adapter's context.
+     */
+    private final Map<String, CommandObservation> commandObservations = new HashMap<>();
+    private final Map<ObserveRelation, CommandObservation> commandObservationsByRelation = new HashMap<>();
 
     /**
      * Sets the metrics for this service.
@@ -133,7 +152,7 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
     @Override
     protected final int getActualPort() {
         int port = Constants.PORT_UNCONFIGURED;
-        final Endpoint endpoint = secureEndpoint;
+        final Endpoint endpoint = sharedServer == null ? null : sharedServer.getSecureEndpoint();
         if (endpoint != null) {
             port = endpoint.getAddress().getPort();
         }
@@ -143,7 +162,7 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
     @Override
     protected final int getActualInsecurePort() {
         int port = Constants.PORT_UNCONFIGURED;
-        final Endpoint endpoint = insecureEndpoint;
+        final Endpoint endpoint = sharedServer == null ? null : sharedServer.getInsecureEndpoint();
         if (endpoint != null) {
             port = endpoint.getAddress().getPort();
         }
@@ -164,7 +183,9 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
      * Sets the coap server instance configured to serve requests.
      * <p>
      * If no server is set using this method, then a server instance is created during startup of this adapter based on
-     * the <em>config</em> properties.
+     * the <em>config</em> properties. That server is shared by all instances of this adapter running in the same
+     * vert.x instance, dispatching requests to the instances' resources based on the identity or address of
+     * the peer.
      * 
      * @param server The coap server.
      * @throws NullPointerException if server is {@code null}.
@@ -186,16 +207,35 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
 
             return CompositeFuture.all(secureConfig, insecureConfig)
                 .map(ok -> {
-                    final CoapServer startingServer = server == null ? new CoapServer(insecureConfig.result()) : server;
-                    addResources(startingServer);
-                    bindSecureEndpoint(startingServer, secureConfig.result());
-                    bindInsecureEndpoint(startingServer, insecureConfig.result());
-                    startingServer.start();
-                    if (secureEndpoint != null) {
-                        LOG.info("coaps/udp endpoint running on {}", secureEndpoint.getAddress());
-                    }
-                    if (insecureEndpoint != null) {
-                        LOG.info("coap/udp endpoint running on {}", insecureEndpoint.getAddress());
+                    sharedServer = server == null ? SharedCoapServer.getInstance(getVertx(), getSharedServerKey())
+                            : SharedCoapServer.unshared();
+                    final CoapPreSharedKeyHandler pskHandler = sharedServer.getPskHandler(
+                            context,
+                            getCredentialsServiceClient(),
+                            () -> new CoapPreSharedKeyHandler(context, getConfig(), getCredentialsServiceClient()));
+                    authenticationHandlerMap.put(pskHandler.getType(), pskHandler);
+
+                    final boolean first = sharedServer.register(context, resourcesToAdd,
+                            () -> server == null ? new CoapServer(insecureConfig.result()) : server);
+                    resourcesToAdd.clear();
+                    if (first) {
+                        final CoapServer startingServer = sharedServer.getServer();
+                        try {
+                            bindSecureEndpoint(startingServer, secureConfig.result(), pskHandler);
+                            bindInsecureEndpoint(startingServer, insecureConfig.result());
+                            startingServer.start();
+                        } catch (final RuntimeException e) {
+                            sharedServer.unregister(context);
+                            throw e;
+                        }
+                        if (sharedServer.getSecureEndpoint() != null) {
+                            LOG.info("coaps/udp endpoint running on {}", sharedServer.getSecureEndpoint().getAddress());
+                        }
+                        if (sharedServer.getInsecureEndpoint() != null) {
+                            LOG.info("coap/udp endpoint running on {}", sharedServer.getInsecureEndpoint().getAddress());
+                        }
+                    } else {
+                        LOG.info("added resources to CoAP server shared with other adapter instances");
                     }
                     return ok;
                 });
@@ -210,16 +250,16 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
         }, startFuture);
     }
 
-    private void addResources(final CoapServer startingServer) {
-        resourcesToAdd.forEach(resource -> startingServer.add(new VertxCoapResource(resource, context)));
-        resourcesToAdd.clear();
+    private String getSharedServerKey() {
+        return String.format("%s:%d,%s:%d",
+                getConfig().getBindAddress(), getConfig().getPort(getPortDefaultValue()),
+                getConfig().getInsecurePortBindAddress(), getConfig().getInsecurePort(getInsecurePortDefaultValue()));
     }
 
-    private void bindSecureEndpoint(final CoapServer startingServer, final NetworkConfig config) {
-
-        final CoapPreSharedKeyHandler pskHandler = new CoapPreSharedKeyHandler(context, getConfig(),
-                getCredentialsServiceClient());
-        authenticationHandlerMap.put(pskHandler.getType(), pskHandler);
+    private void bindSecureEndpoint(
+            final CoapServer startingServer,
+            final NetworkConfig config,
+            final CoapPreSharedKeyHandler pskHandler) {
 
         final DtlsConnectorConfig.Builder dtlsConfig = new DtlsConnectorConfig.Builder();
         dtlsConfig.setClientAuthenticationRequired(getConfig().isAuthenticationRequired());
@@ -242,8 +282,9 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
             final CoapEndpoint.Builder builder = new CoapEndpoint.Builder();
             builder.setNetworkConfig(config);
             builder.setConnector(new DTLSConnector(dtlsConfig.build()));
-            this.secureEndpoint = builder.build();
-            startingServer.addEndpoint(this.secureEndpoint);
+            final Endpoint secureEndpoint = builder.build();
+            startingServer.addEndpoint(secureEndpoint);
+            sharedServer.setSecureEndpoint(secureEndpoint);
 
         } catch (final IllegalStateException ex) {
             LOG.warn("failed to create secure endpoint", ex);
@@ -261,8 +302,9 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
                 builder.setInetSocketAddress(new InetSocketAddress(
                         getConfig().getInsecurePortBindAddress(),
                         getConfig().getInsecurePort(getInsecurePortDefaultValue())));
-                this.insecureEndpoint = builder.build();
-                startingServer.addEndpoint(this.insecureEndpoint);
+                final Endpoint insecureEndpoint = builder.build();
+                startingServer.addEndpoint(insecureEndpoint);
+                sharedServer.setInsecureEndpoint(insecureEndpoint);
             }
         }
     }
@@ -386,10 +428,11 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
         }
 
         final Future<Void> serverStopTracker = Future.future();
-        if (server != null) {
+        final CoapServer serverToStop = sharedServer == null ? null : sharedServer.unregister(context);
+        if (serverToStop != null) {
             getVertx().executeBlocking(future -> {
                 // Call some blocking API
-                server.stop();
+                serverToStop.stop();
                 future.complete();
             }, serverStopTracker);
         } else {
@@ -416,6 +459,250 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
         return Future.succeededFuture();
     }
 
+    /**
+     * Registers a device's interest in commands by means of a CoAP <em>Observe</em> relation
+     * and delivers commands to the device as notifications.
+     * <p>
+     * This method is invoked for the request registering the observation as well as for each
+     * notification triggered by this adapter:
+     * <ul>
+     * <li>When the observation is registered, the adapter opens a command consumer for the device
+     * and responds with an empty <em>2.05 (Content)</em> response. A previous observation of the
+     * device is terminated.</li>
+     * <li>When a command for the device is received, the adapter notifies the observer with a
+     * <em>2.05 (Content)</em> response containing the command's payload and content format.
+     * The command's name and request ID are conveyed in <em>Location-Query</em> options
+     * {@value Constants#HEADER_COMMAND} and {@value Constants#HEADER_COMMAND_REQUEST_ID}.
+     * If the observation has been registered using a confirmable request, the notification is sent
+     * as a confirmable message and the command is accepted once the device has acknowledged
+     * the notification. Otherwise, the notification is sent as a non-confirmable message and the
+     * command is accepted right away.</li>
+     * <li>The observation is terminated by means of a <em>5.03 (Service Unavailable)</em>
+     * notification after the configured <em>commandObservationTimeout</em>.</li>
+     * </ul>
+     * 
+     * @param context The context representing the request to be processed.
+     * @param authenticatedDevice The authenticated device or {@code null} if the device has not been authenticated.
+     * @param device The device to deliver commands to.
+     * @throws NullPointerException if context or device are {@code null}.
+     */
+    public final void observeCommands(final CoapContext context, final Device authenticatedDevice, final Device device) {
+
+        Objects.requireNonNull(context);
+        Objects.requireNonNull(device);
+
+        final ObserveRelation relation = context.getExchange().advanced().getRelation();
+        if (relation == null) {
+            // command delivery requires the Observe option
+            context.respondWithCode(ResponseCode.BAD_OPTION);
+            return;
+        }
+
+        final String key = Device.asAddress(device);
+        final CommandObservation existingObservation = commandObservations.get(key);
+
+        if (relation.isEstablished()) {
+            // this is a notification triggered by this adapter
+            if (existingObservation == null || existingObservation.relation != relation) {
+                // the observation has expired or has been replaced
+                context.respondWithCode(ResponseCode.SERVICE_UNAVAILABLE);
+            } else {
+                sendCommand(existingObservation, context);
+            }
+            return;
+        }
+
+        if (existingObservation != null) {
+            LOG.debug("replacing observation of commands [tenant: {}, device-id: {}]",
+                    device.getTenantId(), device.getDeviceId());
+            removeCommandObservation(existingObservation);
+        }
+
+        final CommandObservation observation = new CommandObservation(key, device.getTenantId(), relation,
+                context.getExchange().advanced().getRequest().isConfirmable());
+        getTenantConfiguration(device.getTenantId(), null)
+        .compose(tenantObject -> isAdapterEnabled(tenantObject))
+        .compose(ok -> getRegistrationAssertion(device.getTenantId(), device.getDeviceId(), authenticatedDevice, null))
+        .compose(assertion -> getCommandConnection().createCommandConsumer(
+                device.getTenantId(),
+                device.getDeviceId(),
+                commandContext -> onCommandReceived(observation, commandContext),
+                remoteClose -> {
+                    LOG.debug("peer closed command receiver link [tenant-id: {}, device-id: {}]",
+                            device.getTenantId(), device.getDeviceId());
+                    observation.consumer = null;
+                    terminateCommandObservation(observation);
+                }))
+        .map(consumer -> {
+            observation.consumer = consumer;
+            if (relation.isCanceled()) {
+                observation.close();
+            } else {
+                commandObservations.put(key, observation);
+                commandObservationsByRelation.put(relation, observation);
+                observation.timerId = getVertx().setTimer(
+                        getConfig().getCommandObservationTimeout() * 1000L,
+                        id -> {
+                            observation.timerId = null;
+                            LOG.debug("observation of commands has expired [tenant: {}, device-id: {}]",
+                                    device.getTenantId(), device.getDeviceId());
+                            terminateCommandObservation(observation);
+                        });
+                LOG.debug("device is observing commands [tenant: {}, device-id: {}, confirmable: {}]",
+                        device.getTenantId(), device.getDeviceId(), observation.confirmable);
+                context.respondWithCode(ResponseCode.CONTENT);
+            }
+            return consumer;
+        }).otherwise(t -> {
+            LOG.debug("cannot register observation of commands [tenant: {}, device-id: {}]",
+                    device.getTenantId(), device.getDeviceId(), t);
+            observation.close();
+            CoapErrorResponse.respond(context.getExchange(), t);
+            return null;
+        });
+    }
+
+    /**
+     * Removes a device's observation of commands after the observe relation has been canceled,
+     * e.g. because the device has deregistered or has not acknowledged a notification.
+     * <p>
+     * This method may be invoked on any thread.
+     * 
+     * @param relation The canceled relation.
+     */
+    public final void cancelCommandObservation(final ObserveRelation relation) {
+
+        runOnAdapterContext(v -> {
+            final CommandObservation observation = commandObservationsByRelation.get(relation);
+            if (observation != null) {
+                LOG.debug("device has canceled observation of commands [{}]", observation.key);
+                removeCommandObservation(observation);
+            }
+        });
+    }
+
+    private void runOnAdapterContext(final Handler<Void> handler) {
+        context.runOnContext(handler);
+    }
+
+    private void removeCommandObservation(final CommandObservation observation) {
+        commandObservations.remove(observation.key, observation);
+        commandObservationsByRelation.remove(observation.relation, observation);
+        if (observation.timerId != null) {
+            getVertx().cancelTimer(observation.timerId);
+            observation.timerId = null;
+        }
+        observation.close();
+    }
+
+    /**
+     * Terminates an observation by means of a final notification.
+     */
+    private void terminateCommandObservation(final CommandObservation observation) {
+        removeCommandObservation(observation);
+        observation.relation.notifyObservers();
+    }
+
+    private void onCommandReceived(final CommandObservation observation, final CommandContext commandContext) {
+
+        Tags.COMPONENT.set(commandContext.getCurrentSpan(), getTypeName());
+        final Command command = commandContext.getCommand();
+        final String tenantId = observation.tenantId;
+        final Sample commandSample = metrics.startTimer();
+        final MetricsTags.Direction direction = command.isOneWay() ? MetricsTags.Direction.ONE_WAY : MetricsTags.Direction.REQUEST;
+
+        if (!command.isValid()) {
+            metrics.reportCommand(direction, tenantId, MetricsTags.ProcessingOutcome.UNPROCESSABLE, command.getPayloadSize(), commandSample);
+            commandContext.reject(new ErrorCondition(Constants.AMQP_BAD_REQUEST, "malformed command message"), 1);
+        } else if (observation.closed || observation.pendingCommand != null) {
+            metrics.reportCommand(direction, tenantId, MetricsTags.ProcessingOutcome.UNDELIVERABLE, command.getPayloadSize(), commandSample);
+            commandContext.release();
+        } else {
+            observation.pendingCommand = commandContext;
+            observation.pendingCommandSample = commandSample;
+            // triggers invocation of the observed resource's GET handler
+            observation.relation.notifyObservers();
+        }
+    }
+
+    private void sendCommand(final CommandObservation observation, final CoapContext context) {
+
+        final CommandContext commandContext = observation.pendingCommand;
+        if (commandContext == null) {
+            // nothing to deliver
+            context.respondWithCode(ResponseCode.CONTENT);
+            return;
+        }
+        final Sample commandSample = observation.pendingCommandSample;
+        observation.pendingCommand = null;
+        observation.pendingCommandSample = null;
+
+        final Command command = commandContext.getCommand();
+        final Response response = new Response(ResponseCode.CONTENT);
+        response.setType(observation.confirmable ? Type.CON : Type.NON);
+        response.getOptions().addLocationQuery(Constants.HEADER_COMMAND + "=" + command.getName());
+        if (!command.isOneWay()) {
+            response.getOptions().addLocationQuery(Constants.HEADER_COMMAND_REQUEST_ID + "=" + command.getRequestId());
+        }
+        if (command.getContentType() != null) {
+            final int contentFormat = MediaTypeRegistry.parse(command.getContentType());
+            if (contentFormat != MediaTypeRegistry.UNDEFINED) {
+                response.getOptions().setContentFormat(contentFormat);
+            }
+        }
+        if (command.getPayload() != null) {
+            response.setPayload(command.getPayload().getBytes());
+        }
+
+        final String tenantId = observation.tenantId;
+        if (observation.confirmable) {
+            response.addMessageObserver(new MessageObserverAdapter() {
+
+                @Override
+                public void onAcknowledgement() {
+                    runOnAdapterContext(v -> onCommandDelivered(commandContext, tenantId, commandSample));
+                }
+
+                @Override
+                protected void failed() {
+                    runOnAdapterContext(v -> onCommandNotDelivered(commandContext, tenantId, commandSample));
+                }
+            });
+            context.getExchange().respond(response);
+        } else {
+            context.getExchange().respond(response);
+            onCommandDelivered(commandContext, tenantId, commandSample);
+        }
+    }
+
+    private void onCommandDelivered(final CommandContext commandContext, final String tenantId, final Sample commandSample) {
+
+        final Command command = commandContext.getCommand();
+        commandContext.getCurrentSpan().log("forwarded command to device in CoAP notification");
+        // flow credit for the device's next command
+        commandContext.accept(1);
+        metrics.reportCommand(
+                command.isOneWay() ? MetricsTags.Direction.ONE_WAY : MetricsTags.Direction.REQUEST,
+                tenantId,
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                command.getPayloadSize(),
+                commandSample);
+    }
+
+    private void onCommandNotDelivered(final CommandContext commandContext, final String tenantId, final Sample commandSample) {
+
+        final Command command = commandContext.getCommand();
+        commandContext.getCurrentSpan().log("failed to forward command to device in CoAP notification");
+        // the observation is canceled by Californium
+        commandContext.release();
+        metrics.reportCommand(
+                command.isOneWay() ? MetricsTags.Direction.ONE_WAY : MetricsTags.Direction.REQUEST,
+                tenantId,
+                MetricsTags.ProcessingOutcome.UNDELIVERABLE,
+                command.getPayloadSize(),
+                commandSample);
+    }
+
     /**
      * Forwards the body of a CoAP request to the south bound Telemetry API of the AMQP 1.0 Messaging Network.
      * 
@@ -505,11 +792,21 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
             context.respondWithCode(ResponseCode.NOT_ACCEPTABLE);
         } else {
 
+            // the tenant is set on the builder so that the tenant's sampling rate applies
+            final Span currentSpan = tracer.buildSpan("upload " + endpoint.getCanonicalName())
+                    .ignoreActiveSpan()
+                    .withTag(Tags.COMPONENT.getKey(), getTypeName())
+                    .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
+                    .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, device.getTenantId())
+                    .withTag(MessageHelper.APP_PROPERTY_DEVICE_ID, device.getDeviceId())
+                    .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null)
+                    .start();
+
             final Future<JsonObject> tokenTracker = getRegistrationAssertion(
                     device.getTenantId(), device.getDeviceId(),
                     authenticatedDevice,
-                    null);
-            final Future<TenantObject> tenantEnabledTracker = getTenantConfiguration(device.getTenantId(), null)
+                    currentSpan.context());
+            final Future<TenantObject> tenantEnabledTracker = getTenantConfiguration(device.getTenantId(), currentSpan.context())
                     .compose(tenantObject -> isAdapterEnabled(tenantObject));
             CompositeFuture.all(tokenTracker, senderTracker, tenantEnabledTracker).compose(ok -> {
                     final MessageSender sender = senderTracker.result();
@@ -524,9 +821,10 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
                     customizeDownstreamMessage(downstreamMessage, context);
                     if (waitForOutcome) {
                         // wait for outcome, ensure message order, if CoAP NSTART-1 is used.
-                        return sender.sendAndWaitForOutcome(downstreamMessage);
+                        return timeStage(PipelineStage.DISPOSITION,
+                                () -> sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()));
                     } else {
-                        return sender.send(downstreamMessage);
+                        return timeStage(PipelineStage.DISPOSITION, () -> sender.send(downstreamMessage, currentSpan.context()));
                     }
             }).map(delivery -> {
                 LOG.trace("successfully processed message for device [tenantId: {}, deviceId: {}, endpoint: {}]",
@@ -539,6 +837,7 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
                         payload.length(),
                         context.getTimer());
                 context.respondWithCode(ResponseCode.CHANGED);
+                currentSpan.finish();
                 return delivery;
             }).recover(t -> {
                 LOG.debug("cannot process message for device [tenantId: {}, deviceId: {}, endpoint: {}]",
@@ -551,8 +850,49 @@ public abstract class AbstractVertxBasedCoapAdapter<T extends CoapAdapterPropert
                         payload.length(),
                         context.getTimer());
                 CoapErrorResponse.respond(context.getExchange(), t);
+                TracingHelper.logError(currentSpan, t);
+                currentSpan.finish();
                 return Future.failedFuture(t);
             });
         }
     }
+
+    /**
+     * A device's observation of commands.
+     */
+    private static final class CommandObservation {
+
+        private final String key;
+        private final String tenantId;
+        private final ObserveRelation relation;
+        private final boolean confirmable;
+        private MessageConsumer consumer;
+        private Long timerId;
+        private CommandContext pendingCommand;
+        private Sample pendingCommandSample;
+        private boolean closed;
+
+        CommandObservation(
+                final String key,
+                final String tenantId,
+                final ObserveRelation relation,
+                final boolean confirmable) {
+            this.key = key;
+            this.tenantId = tenantId;
+            this.relation = relation;
+            this.confirmable = confirmable;
+        }
+
+        void close() {
+            closed = true;
+            if (consumer != null) {
+                consumer.close(null);
+                consumer = null;
+            }
+            if (pendingCommand != null) {
+                pendingCommand.release();
+                pendingCommand = null;
+            }
+        }
+    }
 }
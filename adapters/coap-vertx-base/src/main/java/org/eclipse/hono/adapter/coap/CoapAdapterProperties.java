@@ -34,6 +34,18 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
      * The default maximum size of device cache.
      */
     public static final long DEFAULT_DEVICE_CACHE_MAX_SIZE = 1000000L;
+    /**
+     * The default number of seconds after which a cached pre-shared key is refreshed.
+     */
+    public static final int DEFAULT_PSK_REFRESH_INTERVAL = 300;
+    /**
+     * The default number of milliseconds to wait for a pre-shared key that is not cached.
+     */
+    public static final long DEFAULT_PSK_LOOKUP_TIMEOUT = 10000L;
+    /**
+     * The default number of seconds after which a device's observation of commands expires.
+     */
+    public static final int DEFAULT_COMMAND_OBSERVATION_TIMEOUT = 600;
 
     private String idSplitRegex = DEFAULT_ID_SPLIT_REGEX;
     private String networkConfig = null;
@@ -43,6 +55,9 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
     private int coapThreads = 2;
     private int deviceCacheMinSize = DEFAULT_DEVICE_CACHE_MIN_SIZE;
     private long deviceCacheMaxSize = DEFAULT_DEVICE_CACHE_MAX_SIZE;
+    private int pskRefreshInterval = DEFAULT_PSK_REFRESH_INTERVAL;
+    private long pskLookupTimeout = DEFAULT_PSK_LOOKUP_TIMEOUT;
+    private int commandObservationTimeout = DEFAULT_COMMAND_OBSERVATION_TIMEOUT;
 
     public final String getIdSplitRegex() {
         return idSplitRegex;
@@ -193,6 +208,94 @@ public class CoapAdapterProperties extends ProtocolAdapterProperties {
         this.deviceCacheMaxSize = size;
     }
 
+    /**
+     * Gets the number of seconds after which a cached pre-shared key is refreshed.
+     * <p>
+     * A DTLS handshake using a key that has been cached for a longer period of time
+     * still uses the cached key but triggers a refresh of the key in the background.
+     * Keys that have not been refreshed for twice the interval are removed from the cache.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_REFRESH_INTERVAL}.
+     *
+     * @return The refresh interval in seconds.
+     */
+    public final int getPskRefreshInterval() {
+        return pskRefreshInterval;
+    }
+
+    /**
+     * Sets the number of seconds after which a cached pre-shared key is refreshed.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_REFRESH_INTERVAL}.
+     *
+     * @param interval The refresh interval in seconds.
+     * @throws IllegalArgumentException if interval is &lt; 1.
+     */
+    public final void setPskRefreshInterval(final int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("refresh interval must be at least one second");
+        }
+        this.pskRefreshInterval = interval;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds a DTLS handshake waits for a pre-shared
+     * key that is not cached.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_LOOKUP_TIMEOUT}.
+     *
+     * @return The timeout in milliseconds.
+     */
+    public final long getPskLookupTimeout() {
+        return pskLookupTimeout;
+    }
+
+    /**
+     * Sets the maximum number of milliseconds a DTLS handshake waits for a pre-shared
+     * key that is not cached.
+     * <p>
+     * The default value is {@link #DEFAULT_PSK_LOOKUP_TIMEOUT}.
+     *
+     * @param timeout The timeout in milliseconds.
+     * @throws IllegalArgumentException if timeout is &lt; 1.
+     */
+    public final void setPskLookupTimeout(final long timeout) {
+        if (timeout < 1) {
+            throw new IllegalArgumentException("lookup timeout must be at least one millisecond");
+        }
+        this.pskLookupTimeout = timeout;
+    }
+
+    /**
+     * Gets the number of seconds after which a device's observation of commands expires.
+     * <p>
+     * The adapter terminates an observation of the command resource after this period
+     * of time by means of a <em>5.03</em> notification. Devices are expected to
+     * re-register their interest in commands afterwards.
+     * <p>
+     * The default value is {@link #DEFAULT_COMMAND_OBSERVATION_TIMEOUT}.
+     *
+     * @return The timeout in seconds.
+     */
+    public final int getCommandObservationTimeout() {
+        return commandObservationTimeout;
+    }
+
+    /**
+     * Sets the number of seconds after which a device's observation of commands expires.
+     * <p>
+     * The default value is {@link #DEFAULT_COMMAND_OBSERVATION_TIMEOUT}.
+     *
+     * @param timeout The timeout in seconds.
+     * @throws IllegalArgumentException if timeout is &lt; 1.
+     */
+    public final void setCommandObservationTimeout(final int timeout) {
+        if (timeout < 1) {
+            throw new IllegalArgumentException("command observation timeout must be at least one second");
+        }
+        this.commandObservationTimeout = timeout;
+    }
+
     /**
      * Gets the number of connector threads.
      * 
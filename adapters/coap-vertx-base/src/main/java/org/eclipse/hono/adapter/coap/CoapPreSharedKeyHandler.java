@@ -18,9 +18,12 @@ import java.net.InetSocketAddress;
 import java.security.Principal;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -33,6 +36,7 @@ import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.HonoClient;
 import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.util.CacheDirective;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.CredentialsObject;
 import org.slf4j.Logger;
@@ -44,9 +48,28 @@ import com.google.common.cache.CacheBuilder;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 
 /**
  * A coap pre-shared-key store based on a credentials service client.
+ * <p>
+ * Scandium invokes {@link #getKey(String)} on its DTLS handshake threads and expects the key
+ * to be returned synchronously. In order to not tie the handshake throughput to the latency
+ * of the Credentials service, this store keeps the keys and the corresponding devices in a
+ * cache:
+ * <ul>
+ * <li>Handshakes of devices with a cached key never wait for the Credentials service.</li>
+ * <li>Cached keys that are older than the configured refresh interval are still used but are
+ * refreshed in the background. The refresh is also triggered when a device with a stale key
+ * is authenticated for a request, so that its next handshake finds a fresh key.</li>
+ * <li>Keys are not used for longer than twice the refresh interval or the <em>max-age</em> of
+ * the Credentials service's cache directive, whichever is shorter. Keys of credentials that
+ * must not be cached are not kept at all.</li>
+ * <li>Keys are evicted if a refresh finds that the credentials are disabled or no longer exist.</li>
+ * <li>Concurrent handshakes for the same identity share a single lookup. A handshake waits at
+ * most for the configured lookup timeout for a key that is not cached.</li>
+ * </ul>
  */
 public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHandler {
 
@@ -55,26 +78,31 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
     /**
      * The vert.x context to run interactions with Hono services on.
      */
-    private final Context context;
+    private volatile Context context;
     /**
      * Credentials provider for pre-shared-key secrets.
      */
-    private final HonoClient credentialsServiceClient;
+    private volatile HonoClient credentialsServiceClient;
     /**
-     * Cache mapping principal information to hono devices.
+     * Cache mapping principal information to pre-shared keys and hono devices.
      */
-    private final Cache<PreSharedKeyDeviceIdentity, Device> devices;
+    private final Cache<PreSharedKeyDeviceIdentity, PskEntry> devices;
+    /**
+     * Lookups of pre-shared keys that are currently in progress.
+     */
+    private final Map<PreSharedKeyDeviceIdentity, CompletableFuture<PskEntry>> pendingLookups = new ConcurrentHashMap<>();
     /**
      * Configuration used to split identity into authentication id and tenant.
      */
     private final CoapAdapterProperties config;
+    private final long refreshIntervalMillis;
 
     /**
      * Creates a new coap pre-shared-key for a given configuration.
      * 
      * @param context The vert.x context to run on.
-     * @param config The adapter configuration. Specify the minimum and maximum cache size and the split of the identity
-     *            into authentication id and tenant
+     * @param config The adapter configuration. Specify the minimum and maximum cache size, the refresh interval
+     *            and lookup timeout of keys and the split of the identity into authentication id and tenant
      * @param credentialsServiceClient The credentials service client.
      * @throws NullPointerException if any of the parameters are {@code null}.
      */
@@ -84,19 +112,39 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
         this.context = Objects.requireNonNull(context);
         this.config = Objects.requireNonNull(config);
         this.credentialsServiceClient = Objects.requireNonNull(credentialsServiceClient);
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(config.getPskRefreshInterval());
+        // entries with a shorter max-age are expired by getCachedEntry
         final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
                 .concurrencyLevel(1)
                 .softValues()
+                .expireAfterWrite(2 * refreshIntervalMillis, TimeUnit.MILLISECONDS)
                 .initialCapacity(config.getDeviceCacheMinSize())
                 .maximumSize(config.getDeviceCacheMaxSize());
         this.devices = builder.build();
     }
 
+    /**
+     * Binds this handler to another vert.x context and Credentials service client.
+     * <p>
+     * This method is invoked when the adapter instance that this handler is shared by
+     * and that has provided the context and client is undeployed. Subsequent lookups
+     * are run on the given context using the given client. Cached keys are retained.
+     * 
+     * @param context The vert.x context to run on.
+     * @param credentialsServiceClient The credentials service client.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    final void bind(final Context context, final HonoClient credentialsServiceClient) {
+        this.credentialsServiceClient = Objects.requireNonNull(credentialsServiceClient);
+        this.context = Objects.requireNonNull(context);
+    }
+
     /**
      * Gets the pre-shared key for an identity used by a device in a PSK based DTLS
      * handshake.
      * <p>
-     * On success, add hono device to cache.
+     * On success, add hono device and key to cache. If no key is registered for the
+     * identity, the cached entry (if any) is removed.
      * 
      * @param handshakeIdentity The identity used by the device.
      * @return A future completed with the key or failed with a {@link ServiceInvocationException}.
@@ -104,21 +152,110 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
     protected final Future<byte[]> getSharedKeyForDevice(final PreSharedKeyDeviceIdentity handshakeIdentity) {
 
         Objects.requireNonNull(handshakeIdentity);
+        return getEntryForDevice(handshakeIdentity).map(PskEntry::getKey);
+    }
+
+    private Future<PskEntry> getEntryForDevice(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
         return credentialsServiceClient.getOrCreateCredentialsClient(handshakeIdentity.getTenantId())
-                .compose(client -> client.get(handshakeIdentity.getType(), handshakeIdentity.getAuthId()))
-                .compose((credentials) -> {
-                    final byte[] key = getCandidateKey(credentials);
+                .compose(client -> client.getCredentialsResult(
+                        handshakeIdentity.getType(), handshakeIdentity.getAuthId(), new JsonObject(), null))
+                .compose((result) -> {
+                    final CredentialsObject credentials = result.getPayload();
+                    final byte[] key = credentials.isEnabled() ? getCandidateKey(credentials) : null;
                     if (key != null) {
-                        devices.put(handshakeIdentity,
-                                new Device(handshakeIdentity.getTenantId(), credentials.getDeviceId()));
-                        return Future.succeededFuture(key);
+                        final PskEntry entry = new PskEntry(key,
+                                new Device(handshakeIdentity.getTenantId(), credentials.getDeviceId()),
+                                getMaxAgeMillis(result.getCacheDirective()));
+                        if (entry.isExpired()) {
+                            devices.invalidate(handshakeIdentity);
+                        } else {
+                            devices.put(handshakeIdentity, entry);
+                        }
+                        return Future.succeededFuture(entry);
                     } else {
                         return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_UNAUTHORIZED,
                                 "no shared key registered for identity"));
                     }
+                }).recover(t -> {
+                    if (t instanceof ClientErrorException) {
+                        devices.invalidate(handshakeIdentity);
+                    }
+                    return Future.failedFuture(t);
                 });
     }
 
+    /**
+     * Gets the time for which a key may be used.
+     *
+     * @param cacheDirective The cache directive contained in the Credentials service's response
+     *                       or {@code null} if the response did not contain a directive.
+     * @return The time in milliseconds.
+     */
+    private long getMaxAgeMillis(final CacheDirective cacheDirective) {
+
+        final long maxAgeMillis = 2 * refreshIntervalMillis;
+        if (cacheDirective == null) {
+            return maxAgeMillis;
+        } else if (cacheDirective.isCachingAllowed()) {
+            return Math.min(maxAgeMillis, TimeUnit.SECONDS.toMillis(cacheDirective.getMaxAge()));
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Looks up the pre-shared key for an identity.
+     * <p>
+     * Only one lookup is run at a time for an identity. Concurrent invocations
+     * for the same identity share the outcome of the pending lookup.
+     * 
+     * @param handshakeIdentity The identity used by the device.
+     * @return A future completed with the key or failed if the key could not be retrieved.
+     */
+    private CompletableFuture<PskEntry> lookup(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
+        final CompletableFuture<PskEntry> result = new CompletableFuture<>();
+        final CompletableFuture<PskEntry> pendingLookup = pendingLookups.putIfAbsent(handshakeIdentity, result);
+        if (pendingLookup != null) {
+            return pendingLookup;
+        }
+        context.runOnContext((v) -> {
+            getEntryForDevice(handshakeIdentity).setHandler((getAttempt) -> {
+                pendingLookups.remove(handshakeIdentity);
+                if (getAttempt.succeeded()) {
+                    result.complete(getAttempt.result());
+                } else {
+                    result.completeExceptionally(getAttempt.cause());
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Gets the cached entry for an identity.
+     * <p>
+     * Triggers a refresh of the entry in the background if it is stale.
+     * 
+     * @param handshakeIdentity The identity used by the device.
+     * @return The entry or {@code null} if no (unexpired) entry is cached.
+     */
+    private PskEntry getCachedEntry(final PreSharedKeyDeviceIdentity handshakeIdentity) {
+
+        final PskEntry entry = devices.getIfPresent(handshakeIdentity);
+        if (entry == null) {
+            return null;
+        } else if (entry.isExpired()) {
+            devices.invalidate(handshakeIdentity);
+            return null;
+        } else if (entry.isStale(refreshIntervalMillis)) {
+            LOG.debug("refreshing PSK for identity [{}]", handshakeIdentity.getAuthId());
+            lookup(handshakeIdentity);
+        }
+        return entry;
+    }
+
     /**
      * Extracts the (pre-shared) key from the candidate secret(s) on record for the device.
      * 
@@ -162,20 +299,16 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
             return null;
         }
 
-        final CompletableFuture<byte[]> secret = new CompletableFuture<>();
-        context.runOnContext((v) -> {
-            getSharedKeyForDevice(handshakeIdentity).setHandler((getAttempt) -> {
-                if (getAttempt.succeeded()) {
-                    secret.complete(getAttempt.result());
-                } else {
-                    secret.completeExceptionally(getAttempt.cause());
-                }
-            });
-        });
+        final PskEntry cachedEntry = getCachedEntry(handshakeIdentity);
+        if (cachedEntry != null) {
+            return cachedEntry.getKey();
+        }
         try {
             // timeout, don't block handshake too long
-            return secret.get(10000, TimeUnit.MILLISECONDS);
+            final PskEntry entry = lookup(handshakeIdentity).get(config.getPskLookupTimeout(), TimeUnit.MILLISECONDS);
+            return entry.getKey();
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (TimeoutException e) {
         } catch (CancellationException e) {
         } catch (ExecutionException e) {
@@ -212,7 +345,10 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
     public Device getCachedDevice(final String identity) {
         final PreSharedKeyDeviceIdentity handshakeIdentity = getHandshakeIdentity(identity);
         if (handshakeIdentity != null) {
-            return devices.getIfPresent(handshakeIdentity);
+            final PskEntry entry = devices.getIfPresent(handshakeIdentity);
+            if (entry != null && !entry.isExpired()) {
+                return entry.getDevice();
+            }
         }
         return null;
     }
@@ -230,13 +366,74 @@ public class CoapPreSharedKeyHandler implements PskStore, CoapAuthenticationHand
             final PreSharedKeyDeviceIdentity handshakeIdentity = getHandshakeIdentity(
                     ((PreSharedKeyIdentity) peer).getIdentity());
             if (handshakeIdentity != null) {
-                final Device authorizedDevice = devices.getIfPresent(handshakeIdentity);
-                if (authorizedDevice != null) {
-                    return Future.succeededFuture(authorizedDevice);
+                final PskEntry entry = getCachedEntry(handshakeIdentity);
+                if (entry != null) {
+                    return Future.succeededFuture(entry.getDevice());
                 }
+                // the entry has been evicted since the handshake
+                final Future<Device> result = Future.future();
+                // complete the result on the caller's context which may differ from
+                // this handler's context if the handler is shared by multiple adapter instances
+                final Context currentContext = Optional.ofNullable(Vertx.currentContext()).orElse(context);
+                lookup(handshakeIdentity).whenComplete((lookedUpEntry, error) -> currentContext.runOnContext(v -> {
+                    if (error == null) {
+                        result.complete(lookedUpEntry.getDevice());
+                    } else {
+                        result.fail("missing device for " + peer + "!");
+                    }
+                }));
+                return result;
             }
             return Future.failedFuture("missing device for " + peer + "!");
         }
         return Future.failedFuture(new IllegalArgumentException("Principal not supported by this handler!"));
     }
+
+    /**
+     * A cached pre-shared key along with the device it has been registered for.
+     */
+    private static final class PskEntry {
+
+        private final byte[] key;
+        private final Device device;
+        private final long created = System.currentTimeMillis();
+        private final long maxAgeMillis;
+
+        PskEntry(final byte[] key, final Device device, final long maxAgeMillis) {
+            this.key = key;
+            this.device = device;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        /**
+         * Gets a copy of the key.
+         * 
+         * @return The key.
+         */
+        byte[] getKey() {
+            return key.clone();
+        }
+
+        Device getDevice() {
+            return device;
+        }
+
+        /**
+         * Checks if the key should be refreshed.
+         * <p>
+         * An entry is stale once it is older than the refresh interval or half of its
+         * maximum age, so that entries with a short maximum age are also refreshed
+         * before they expire.
+         *
+         * @param refreshIntervalMillis The refresh interval.
+         * @return {@code true} if the key should be refreshed.
+         */
+        boolean isStale(final long refreshIntervalMillis) {
+            return System.currentTimeMillis() - created >= Math.min(refreshIntervalMillis, maxAgeMillis / 2);
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - created >= maxAgeMillis;
+        }
+    }
 }
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.coap;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.eclipse.californium.core.CoapServer;
+import org.eclipse.californium.core.network.Endpoint;
+import org.eclipse.californium.core.server.resources.Resource;
+import org.eclipse.hono.client.HonoClient;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A CoAP server that is shared by the CoAP adapter instances running in the same vert.x instance.
+ * <p>
+ * In contrast to TCP based servers, the UDP socket of a CoAP endpoint cannot be bound by
+ * multiple verticle instances. The first adapter instance registering with this server
+ * therefore creates the Californium server and binds its endpoints, whereas subsequent
+ * instances only add their resources as additional shards to the resources already
+ * registered (see {@link VertxCoapResource}). CoAP exchanges are thus dispatched to all
+ * adapter instances, each one using its own vert.x context and Hono clients.
+ * <p>
+ * The pre-shared key handler is shared as well. It uses the vert.x context and Credentials
+ * service client of one of the registered instances and is re-bound to another instance when
+ * that instance unregisters.
+ * <p>
+ * The Californium server is stopped once the last adapter instance has unregistered.
+ */
+final class SharedCoapServer implements Shareable {
+
+    private static final String SHARED_DATA_NAME = SharedCoapServer.class.getName();
+
+    private final Map<String, VertxCoapResource> resources = new HashMap<>();
+    private final Set<Context> contexts = new HashSet<>();
+    private final Map<Context, HonoClient> credentialsServiceClients = new LinkedHashMap<>();
+    private final LocalMap<String, SharedCoapServer> sharedServers;
+    private final String key;
+    private CoapServer server;
+    private CoapPreSharedKeyHandler pskHandler;
+    private Context pskHandlerContext;
+    private volatile Endpoint secureEndpoint;
+    private volatile Endpoint insecureEndpoint;
+
+    private SharedCoapServer(final LocalMap<String, SharedCoapServer> sharedServers, final String key) {
+        this.sharedServers = sharedServers;
+        this.key = key;
+    }
+
+    /**
+     * Creates a server that is not shared with other adapter instances.
+     *
+     * @return The server.
+     */
+    static SharedCoapServer unshared() {
+        return new SharedCoapServer(null, null);
+    }
+
+    /**
+     * Gets the server shared by all adapter instances of a vert.x instance that use the same key.
+     *
+     * @param vertx The vert.x instance.
+     * @param key The key identifying the server, e.g. based on the addresses the endpoints are bound to.
+     * @return The server.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    static SharedCoapServer getInstance(final Vertx vertx, final String key) {
+
+        Objects.requireNonNull(vertx);
+        Objects.requireNonNull(key);
+        final LocalMap<String, SharedCoapServer> servers = vertx.sharedData().getLocalMap(SHARED_DATA_NAME);
+        final SharedCoapServer newServer = new SharedCoapServer(servers, key);
+        final SharedCoapServer existingServer = servers.putIfAbsent(key, newServer);
+        return existingServer == null ? newServer : existingServer;
+    }
+
+    /**
+     * Registers the resources of an adapter instance.
+     * <p>
+     * The first instance to register is responsible for binding the endpoints
+     * and starting the Californium server.
+     *
+     * @param context The vert.x context of the adapter instance.
+     * @param resourcesToAdd The resources of the adapter instance.
+     * @param serverFactory The factory to create the Californium server with if
+     *                      no instance has registered yet.
+     * @return {@code true} if the invoking instance is the first one to register.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    synchronized boolean register(
+            final Context context,
+            final Set<Resource> resourcesToAdd,
+            final Supplier<CoapServer> serverFactory) {
+
+        Objects.requireNonNull(context);
+        Objects.requireNonNull(resourcesToAdd);
+        Objects.requireNonNull(serverFactory);
+
+        final boolean first = server == null;
+        if (first) {
+            server = serverFactory.get();
+        }
+        contexts.add(context);
+        for (final Resource resource : resourcesToAdd) {
+            final VertxCoapResource existingResource = resources.get(resource.getName());
+            if (existingResource == null) {
+                final VertxCoapResource newResource = new VertxCoapResource(resource, context);
+                resources.put(resource.getName(), newResource);
+                server.add(newResource);
+            } else {
+                existingResource.addShard(resource, context);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Unregisters the resources of an adapter instance.
+     *
+     * @param context The vert.x context of the adapter instance.
+     * @return The Californium server if the invoking instance has been the last one
+     *         registered, {@code null} otherwise. The caller is responsible for stopping
+     *         the returned server.
+     */
+    synchronized CoapServer unregister(final Context context) {
+
+        resources.values().forEach(resource -> resource.removeShards(context));
+        contexts.remove(context);
+        credentialsServiceClients.remove(context);
+        if (pskHandler != null && pskHandlerContext == context && !credentialsServiceClients.isEmpty()) {
+            final Map.Entry<Context, HonoClient> newOwner = credentialsServiceClients.entrySet().iterator().next();
+            pskHandler.bind(newOwner.getKey(), newOwner.getValue());
+            pskHandlerContext = newOwner.getKey();
+        }
+        if (contexts.isEmpty()) {
+            if (sharedServers != null) {
+                sharedServers.removeIfPresent(key, this);
+            }
+            final CoapServer serverToStop = server;
+            server = null;
+            pskHandler = null;
+            pskHandlerContext = null;
+            credentialsServiceClients.clear();
+            resources.clear();
+            return serverToStop;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the Californium server.
+     *
+     * @return The server or {@code null} if no adapter instance has registered yet.
+     */
+    synchronized CoapServer getServer() {
+        return server;
+    }
+
+    /**
+     * Gets the pre-shared key handler used by all adapter instances.
+     * <p>
+     * The adapter instance's context and client are used by the handler if the
+     * instance that the handler is currently bound to unregisters.
+     *
+     * @param context The vert.x context of the adapter instance.
+     * @param credentialsServiceClient The adapter instance's Credentials service client.
+     * @param handlerFactory The factory to create the handler with if none has been created yet.
+     *                       The created handler must use the given context and client.
+     * @return The handler.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    synchronized CoapPreSharedKeyHandler getPskHandler(
+            final Context context,
+            final HonoClient credentialsServiceClient,
+            final Supplier<CoapPreSharedKeyHandler> handlerFactory) {
+
+        Objects.requireNonNull(context);
+        Objects.requireNonNull(credentialsServiceClient);
+        Objects.requireNonNull(handlerFactory);
+
+        credentialsServiceClients.put(context, credentialsServiceClient);
+        if (pskHandler == null) {
+            pskHandler = handlerFactory.get();
+            pskHandlerContext = context;
+        }
+        return pskHandler;
+    }
+
+    Endpoint getSecureEndpoint() {
+        return secureEndpoint;
+    }
+
+    void setSecureEndpoint(final Endpoint endpoint) {
+        this.secureEndpoint = endpoint;
+    }
+
+    Endpoint getInsecureEndpoint() {
+        return insecureEndpoint;
+    }
+
+    void setInsecureEndpoint(final Endpoint endpoint) {
+        this.insecureEndpoint = endpoint;
+    }
+}
@@ -13,10 +13,16 @@
 
 package org.eclipse.hono.adapter.coap;
 
+import java.security.Principal;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Response;
 
 import org.eclipse.californium.core.network.Endpoint;
 import org.eclipse.californium.core.network.Exchange;
@@ -24,6 +30,7 @@ import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.californium.core.server.resources.ResourceAttributes;
 import org.eclipse.californium.core.server.resources.ResourceObserver;
+import org.eclipse.californium.elements.EndpointContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,16 +42,21 @@ import io.vertx.core.Context;
  * This class delegates all method invocations to the wrapped resource.
  * The <em>handleRequest</em> method is executed on the vert.x context
  * passed in to the constructor.
+ * <p>
+ * Resources of other adapter instances with the same name can be added as
+ * additional <em>shards</em>. Requests are then dispatched to one of the shards' resources
+ * based on a stable hash of the peer's identity or address, and are executed on that shard's
+ * vert.x context. All requests of a device are thus processed by the same adapter instance.
+ * Invocations of all other methods are delegated to the resource of a currently registered
+ * shard, and changes of the resource's name, path or parent are applied to all shards, so that
+ * the wrapper keeps working after the adapter instance that has created it has been undeployed.
  */
 class VertxCoapResource implements Resource {
 
     private static final Logger LOG = LoggerFactory.getLogger(VertxCoapResource.class);
 
-    /**
-     * Vertx context to forward requests.
-     */
-    private final Context adapterContext;
     private final Resource resource;
+    private volatile Shard[] shards;
 
     /**
      * Wraps a resource.
@@ -55,132 +67,251 @@ class VertxCoapResource implements Resource {
      */
     VertxCoapResource(final Resource resource, final Context adapterContext) {
         this.resource = Objects.requireNonNull(resource);
-        this.adapterContext = Objects.requireNonNull(adapterContext);
+        this.shards = new Shard[] { new Shard(resource, Objects.requireNonNull(adapterContext)) };
+    }
+
+    /**
+     * Adds a resource that requests may be dispatched to.
+     * <p>
+     * The resource gets the same parent as the already registered resources.
+     * 
+     * @param shardResource The resource.
+     * @param shardContext The vert.x context to run the resource's request handler on.
+     * @throws NullPointerException if any of the params are {@code null}.
+     */
+    final synchronized void addShard(final Resource shardResource, final Context shardContext) {
+        final Resource parent = getParent();
+        if (parent != null) {
+            shardResource.setParent(parent);
+        }
+        final Shard[] newShards = Arrays.copyOf(shards, shards.length + 1);
+        newShards[shards.length] = new Shard(Objects.requireNonNull(shardResource), Objects.requireNonNull(shardContext));
+        shards = newShards;
+    }
+
+    /**
+     * Removes all resources that are run on a vert.x context.
+     * 
+     * @param shardContext The vert.x context.
+     * @return {@code true} if no resources are left to dispatch requests to.
+     */
+    final synchronized boolean removeShards(final Context shardContext) {
+        shards = Arrays.stream(shards).filter(shard -> shard.context != shardContext).toArray(Shard[]::new);
+        return shards.length == 0;
+    }
+
+    final int getNumberOfShards() {
+        return shards.length;
     }
 
     final Resource getWrappedResource() {
-        return resource;
+        return getDelegate();
     }
 
-    final Context getContext() {
-        return adapterContext;
+    /**
+     * Gets the resource to delegate invocations to.
+     * 
+     * @return The resource of the first currently registered shard or the
+     *         initially wrapped resource if no shards are left.
+     */
+    private Resource getDelegate() {
+        final Shard[] currentShards = shards;
+        return currentShards.length == 0 ? resource : currentShards[0].resource;
+    }
+
+    private void forEachShard(final Consumer<Resource> action) {
+        final Shard[] currentShards = shards;
+        if (currentShards.length == 0) {
+            action.accept(resource);
+        } else {
+            for (final Shard shard : currentShards) {
+                action.accept(shard.resource);
+            }
+        }
     }
 
     /**
      * {@inheritDoc}
      * <p>
-     * This method invokes the wrapped resource's {@code CoapResource.handleRequest()}
-     * method on the vert.x context.
+     * This method invokes the {@code CoapResource.handleRequest()} method of the
+     * shard responsible for the exchange's peer on the shard's vert.x context.
      */
     @Override
     public final void handleRequest(final Exchange exchange) {
 
-        LOG.debug("running handler for resource [/{}] on vert.x context", resource.getName());
-        adapterContext.runOnContext(s -> resource.handleRequest(exchange));
+        final Shard[] currentShards = shards;
+        final Shard shard;
+        switch (currentShards.length) {
+        case 0:
+            exchange.sendResponse(new Response(ResponseCode.SERVICE_UNAVAILABLE));
+            return;
+        case 1:
+            shard = currentShards[0];
+            break;
+        default:
+            shard = selectShard(currentShards, exchange);
+        }
+        LOG.debug("running handler for resource [/{}] on vert.x context", shard.resource.getName());
+        shard.context.runOnContext(s -> shard.resource.handleRequest(exchange));
+    }
+
+    private static Shard selectShard(final Shard[] currentShards, final Exchange exchange) {
+        return currentShards[Math.floorMod(getShardKey(exchange).hashCode(), currentShards.length)];
+    }
+
+    private static Object getShardKey(final Exchange exchange) {
+
+        final EndpointContext sourceContext = exchange.getRequest().getSourceContext();
+        if (sourceContext == null) {
+            return exchange.getRequest().getURI();
+        }
+        final Principal peer = sourceContext.getPeerIdentity();
+        return peer != null ? peer.getName() : sourceContext.getPeerAddress();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the wrapped resource handles requests for its child resources itself,
+     * this wrapper is returned instead so that such requests are executed on the
+     * vert.x context as well.
+     */
     @Override
     public Resource getChild(final String name) {
-        return resource.getChild(name);
+        final Resource delegate = getDelegate();
+        final Resource child = delegate.getChild(name);
+        return child == delegate ? this : child;
     }
 
     @Override
     public String getName() {
-        return resource.getName();
+        return getDelegate().getName();
     }
 
     @Override
     public void setName(final String name) {
-        resource.setName(name);
+        forEachShard(shardResource -> shardResource.setName(name));
     }
 
     @Override
     public String getPath() {
-        return resource.getPath();
+        return getDelegate().getPath();
     }
 
     @Override
     public void setPath(final String path) {
-        resource.setPath(path);
+        forEachShard(shardResource -> shardResource.setPath(path));
     }
 
     @Override
     public String getURI() {
-        return resource.getURI();
+        return getDelegate().getURI();
     }
 
     @Override
     public boolean isVisible() {
-        return resource.isVisible();
+        return getDelegate().isVisible();
     }
 
     @Override
     public boolean isCachable() {
-        return resource.isCachable();
+        return getDelegate().isCachable();
     }
 
     @Override
     public boolean isObservable() {
-        return resource.isObservable();
+        return getDelegate().isObservable();
     }
 
     @Override
     public ResourceAttributes getAttributes() {
-        return resource.getAttributes();
+        return getDelegate().getAttributes();
     }
 
     @Override
     public void add(final Resource child) {
-        resource.add(child);
+        getDelegate().add(child);
     }
 
     @Override
     public boolean delete(final Resource child) {
-        return resource.delete(child);
+        return getDelegate().delete(child);
     }
 
     @Override
     public Collection<Resource> getChildren() {
-        return resource.getChildren();
+        return getDelegate().getChildren();
     }
 
     @Override
     public Resource getParent() {
-        return resource.getParent();
+        return getDelegate().getParent();
     }
 
     @Override
     public void setParent(final Resource parent) {
-        resource.setParent(parent);
+        forEachShard(shardResource -> shardResource.setParent(parent));
     }
 
     @Override
     public void addObserver(final ResourceObserver observer) {
-        resource.addObserver(observer);
+        forEachShard(shardResource -> shardResource.addObserver(observer));
     }
 
     @Override
     public void removeObserver(final ResourceObserver observer) {
-        resource.removeObserver(observer);
+        forEachShard(shardResource -> shardResource.removeObserver(observer));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The relation is added to the resource of the shard responsible for the relation's peer.
+     */
     @Override
     public void addObserveRelation(final ObserveRelation relation) {
-        resource.addObserveRelation(relation);
+        getResponsibleResource(relation).addObserveRelation(relation);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The relation is removed from the resource of the shard responsible for the relation's peer.
+     */
     @Override
     public void removeObserveRelation(final ObserveRelation relation) {
-        resource.removeObserveRelation(relation);
+        getResponsibleResource(relation).removeObserveRelation(relation);
+    }
+
+    private Resource getResponsibleResource(final ObserveRelation relation) {
+        final Shard[] currentShards = shards;
+        if (currentShards.length < 2 || relation.getExchange() == null) {
+            return getDelegate();
+        }
+        return selectShard(currentShards, relation.getExchange()).resource;
     }
 
     @Override
     public ExecutorService getExecutor() {
-        return resource.getExecutor();
+        return getDelegate().getExecutor();
     }
 
     @Override
     public List<Endpoint> getEndpoints() {
-        return resource.getEndpoints();
+        return getDelegate().getEndpoints();
+    }
+
+    /**
+     * A resource along with the vert.x context to run it on.
+     */
+    private static final class Shard {
+
+        private final Resource resource;
+        private final Context context;
+
+        Shard(final Resource resource, final Context context) {
+            this.resource = resource;
+            this.context = context;
+        }
     }
 }
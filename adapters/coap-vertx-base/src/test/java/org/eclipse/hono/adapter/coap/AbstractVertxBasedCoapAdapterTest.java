@@ -13,10 +13,12 @@
 
 package org.eclipse.hono.adapter.coap;
 
+import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -25,29 +27,43 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
+import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.CoapServer;
 import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.coap.MediaTypeRegistry;
 import org.eclipse.californium.core.coap.OptionSet;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.Exchange;
 import org.eclipse.californium.core.network.Exchange.Origin;
+import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
+import org.eclipse.californium.elements.AddressEndpointContext;
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.ClientErrorException;
+import org.eclipse.hono.client.Command;
 import org.eclipse.hono.client.CommandConnection;
+import org.eclipse.hono.client.CommandContext;
 import org.eclipse.hono.client.HonoClient;
+import org.eclipse.hono.client.MessageConsumer;
 import org.eclipse.hono.client.MessageSender;
 import org.eclipse.hono.client.RegistrationClient;
 import org.eclipse.hono.client.TenantClient;
+import org.eclipse.hono.config.TracingSamplingProperties;
+import org.eclipse.hono.tracing.SamplingAwareTracer;
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.MessageHelper;
 import org.eclipse.hono.util.RegistrationConstants;
 import org.eclipse.hono.util.TenantConstants;
 import org.eclipse.hono.util.TenantObject;
@@ -59,6 +75,10 @@ import org.junit.rules.Timeout;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -69,6 +89,8 @@ import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonHelper;
+import io.vertx.proton.ProtonReceiver;
 
 /**
  * Verifies behavior of {@link AbstractVertxBasedCoapAdapter}.
@@ -251,6 +273,97 @@ public class AbstractVertxBasedCoapAdapterTest {
         resourceInvocation.await();
     }
 
+    /**
+     * Verifies that requests to a resource with multiple shards are dispatched
+     * to the shards based on the peer's address.
+     * 
+     * @param ctx The helper to use for running async tests on vertx.
+     */
+    @Test
+    public void testResourceDispatchesRequestsToShards(final TestContext ctx) {
+
+        // GIVEN a resource that is sharded across two vert.x contexts
+        final Context firstContext = vertx.getOrCreateContext();
+        final Context secondContext = vertx.getOrCreateContext();
+        final Map<Integer, Context> invocations = new ConcurrentHashMap<>();
+        final Async requestsHandled = ctx.async(4);
+        final Resource resource = new CoapResource("test") {
+
+            @Override
+            public void handleGET(final CoapExchange exchange) {
+                invocations.merge(exchange.getSourcePort(), Vertx.currentContext(), (existing, current) -> {
+                    // requests of the same peer must always be dispatched to the same shard
+                    ctx.assertEquals(existing, current);
+                    return current;
+                });
+                requestsHandled.countDown();
+            }
+        };
+        final VertxCoapResource shardedResource = new VertxCoapResource(resource, firstContext);
+        shardedResource.addShard(resource, secondContext);
+
+        // WHEN two peers send two requests each
+        for (int i = 0; i < 2; i++) {
+            for (int port = 10000; port < 10002; port++) {
+                final Request request = new Request(Code.GET);
+                request.setSourceContext(new AddressEndpointContext(new InetSocketAddress("127.0.0.1", port)));
+                shardedResource.handleRequest(new Exchange(request, Origin.REMOTE, mock(Executor.class)));
+            }
+        }
+
+        // THEN the requests of the two peers have been processed on different contexts
+        requestsHandled.await();
+        ctx.assertEquals(2, invocations.size());
+        ctx.assertNotEquals(invocations.get(10000), invocations.get(10001));
+    }
+
+    /**
+     * Verifies that a resource with multiple shards delegates to the resource of a
+     * remaining shard once the shard that it has been created for has been removed.
+     * 
+     * @param ctx The helper to use for running async tests on vertx.
+     */
+    @Test
+    public void testResourceDelegatesToRemainingShard(final TestContext ctx) {
+
+        // GIVEN a resource that is sharded across two vert.x contexts
+        final Context firstContext = vertx.getOrCreateContext();
+        final Context secondContext = vertx.getOrCreateContext();
+        final Async requestHandled = ctx.async();
+        final Resource firstResource = new CoapResource("test");
+        final Resource secondResource = new CoapResource("test") {
+
+            @Override
+            public Resource getChild(final String name) {
+                // handle requests for child resources
+                return this;
+            }
+
+            @Override
+            public void handleGET(final CoapExchange exchange) {
+                ctx.assertEquals(secondContext, Vertx.currentContext());
+                requestHandled.complete();
+            }
+        };
+        final Resource root = new CoapResource("");
+        final VertxCoapResource shardedResource = new VertxCoapResource(firstResource, firstContext);
+        root.add(shardedResource);
+        shardedResource.addShard(secondResource, secondContext);
+
+        // WHEN the first shard is removed
+        shardedResource.removeShards(firstContext);
+
+        // THEN the resource delegates to the second shard's resource
+        ctx.assertEquals(secondResource, shardedResource.getWrappedResource());
+        ctx.assertEquals(root, shardedResource.getParent());
+        ctx.assertEquals(shardedResource, shardedResource.getChild("child"));
+        // and requests are dispatched to the second shard
+        final Request request = new Request(Code.GET);
+        request.setSourceContext(new AddressEndpointContext(new InetSocketAddress("127.0.0.1", 10000)));
+        shardedResource.handleRequest(new Exchange(request, Origin.REMOTE, mock(Executor.class)));
+        requestHandled.await();
+    }
+
     /**
      * Verifies that the <em>onStartupSuccess</em> method is not invoked if no credentials authentication provider is
      * set.
@@ -318,7 +431,7 @@ public class AbstractVertxBasedCoapAdapterTest {
         myTenantConfig.addAdapterConfiguration(new JsonObject()
                 .put(TenantConstants.FIELD_ADAPTERS_TYPE, ADAPTER_TYPE)
                 .put(TenantConstants.FIELD_ENABLED, false));
-        when(tenantClient.get("my-tenant", null)).thenReturn(Future.succeededFuture(myTenantConfig));
+        when(tenantClient.get(eq("my-tenant"), (SpanContext) any())).thenReturn(Future.succeededFuture(myTenantConfig));
         final CoapServer server = getCoapServer(false);
         final AbstractVertxBasedCoapAdapter<CoapAdapterProperties> adapter = getAdapter(server, true, null);
 
@@ -337,7 +450,7 @@ public class AbstractVertxBasedCoapAdapterTest {
         assertThat("response with forbidden", captor.getValue().getCode(), is(ResponseCode.FORBIDDEN));
 
         // and the message has not been forwarded downstream
-        verify(sender, never()).send(any(Message.class));
+        verify(sender, never()).send(any(Message.class), (SpanContext) any());
     }
 
     /**
@@ -430,6 +543,48 @@ public class AbstractVertxBasedCoapAdapterTest {
         verify(coapExchange).respond(ResponseCode.CHANGED);
     }
 
+    /**
+     * Verifies that the upload of a telemetry message is traced according to the sampling
+     * rate configured for the device's tenant.
+     */
+    @Test
+    public void testUploadTelemetryIsTracedAccordingToTenantSamplingRate() {
+
+        // GIVEN an adapter using a tracer that samples the traces of tenant "sampled" only
+        final Span sampledSpan = mock(Span.class);
+        when(sampledSpan.context()).thenReturn(mock(SpanContext.class));
+        final SpanBuilder delegateBuilder = mock(SpanBuilder.class);
+        when(delegateBuilder.start()).thenReturn(sampledSpan);
+        final Tracer delegate = mock(Tracer.class);
+        when(delegate.buildSpan(anyString())).thenReturn(delegateBuilder);
+        final TracingSamplingProperties samplingProperties = new TracingSamplingProperties();
+        samplingProperties.setRate(0.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("sampled", 1.0));
+
+        givenATelemetrySender(Future.succeededFuture(mock(ProtonDelivery.class)));
+        final CoapServer server = getCoapServer(false);
+        final AbstractVertxBasedCoapAdapter<CoapAdapterProperties> adapter = getAdapter(server, true, null);
+        adapter.setTracer(new SamplingAwareTracer(delegate, samplingProperties));
+
+        // WHEN a device of an unsampled tenant publishes a telemetry message
+        final Device unsampledDevice = new Device("tenant", "device");
+        adapter.uploadTelemetryMessage(CoapContext.fromRequest(newCoapExchange(Buffer.buffer("some payload"))),
+                unsampledDevice, unsampledDevice, false);
+
+        // THEN no span is created
+        verify(delegate, never()).buildSpan(anyString());
+
+        // WHEN a device of the sampled tenant publishes a telemetry message
+        final Device sampledDevice = new Device("sampled", "device");
+        adapter.uploadTelemetryMessage(CoapContext.fromRequest(newCoapExchange(Buffer.buffer("some payload"))),
+                sampledDevice, sampledDevice, false);
+
+        // THEN the upload is traced including the tenant
+        verify(delegate).buildSpan("upload telemetry");
+        verify(delegateBuilder).withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "sampled");
+        verify(sampledSpan).finish();
+    }
+
     /**
      * Verifies that the adapter waits for an telemetry message being send with wait for outcome before responding with
      * a 2.04 status to the device.
@@ -460,6 +615,82 @@ public class AbstractVertxBasedCoapAdapterTest {
         verify(coapExchange).respond(ResponseCode.CHANGED);
     }
 
+    /**
+     * Verifies that a device observing commands gets a command in a non-confirmable
+     * notification and that the command is accepted once the notification has been sent.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testObserveCommandsDeliversCommandInNotification() {
+
+        // GIVEN an adapter with a command consumer
+        final ProtonReceiver receiver = mock(ProtonReceiver.class);
+        final ArgumentCaptor<Handler<CommandContext>> commandHandler = ArgumentCaptor.forClass(Handler.class);
+        when(commandConnection.createCommandConsumer(eq("tenant"), eq("device"), commandHandler.capture(), any(Handler.class)))
+            .thenReturn(Future.succeededFuture(mock(MessageConsumer.class)));
+        final CoapServer server = getCoapServer(false);
+        final AbstractVertxBasedCoapAdapter<CoapAdapterProperties> adapter = getAdapter(server, true, null);
+
+        // WHEN a device registers an observation of commands using a non-confirmable request
+        final ObserveRelation relation = mock(ObserveRelation.class);
+        final CoapExchange registration = newObserveExchange(relation);
+        final Device device = new Device("tenant", "device");
+        adapter.observeCommands(CoapContext.fromRequest(registration), device, device);
+
+        // THEN the observation has been registered
+        verify(registration).respond(ResponseCode.CONTENT);
+
+        // and WHEN a command is received for the device
+        final Message commandMessage = ProtonHelper.message("on");
+        commandMessage.setSubject("setLight");
+        commandMessage.setMessageId("the-message-id");
+        commandMessage.setContentType("text/plain");
+        final ProtonDelivery delivery = mock(ProtonDelivery.class);
+        final CommandContext commandContext = CommandContext.from(
+                Command.from(commandMessage, "tenant", "device"), delivery, receiver, mock(Span.class));
+        commandHandler.getValue().handle(commandContext);
+
+        // THEN the observer is notified
+        verify(relation).notifyObservers();
+
+        // and WHEN the notification is sent
+        when(relation.isEstablished()).thenReturn(Boolean.TRUE);
+        final CoapExchange notification = newObserveExchange(relation);
+        adapter.observeCommands(CoapContext.fromRequest(notification), device, device);
+
+        // THEN the notification contains the command
+        final ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(notification).respond(response.capture());
+        assertThat(response.getValue().getCode(), is(ResponseCode.CONTENT));
+        assertThat(response.getValue().getType(), is(Type.NON));
+        assertThat(response.getValue().getPayloadString(), is("on"));
+        assertThat(response.getValue().getOptions().getLocationQuery(), hasItem(Constants.HEADER_COMMAND + "=setLight"));
+        // and the command has been accepted
+        verify(delivery).disposition(any(Accepted.class), eq(true));
+        verify(receiver).flow(1);
+    }
+
+    /**
+     * Verifies that the adapter rejects a request for commands that does not
+     * contain the Observe option.
+     */
+    @Test
+    public void testObserveCommandsFailsWithoutObserveOption() {
+
+        // GIVEN an adapter
+        final CoapServer server = getCoapServer(false);
+        final AbstractVertxBasedCoapAdapter<CoapAdapterProperties> adapter = getAdapter(server, true, null);
+
+        // WHEN a device requests commands without the Observe option
+        final CoapExchange request = newObserveExchange(null);
+        final Device device = new Device("tenant", "device");
+        adapter.observeCommands(CoapContext.fromRequest(request), device, device);
+
+        // THEN the request fails with a 4.02
+        verify(request).respond(ResponseCode.BAD_OPTION);
+        verify(commandConnection, never()).createCommandConsumer(anyString(), anyString(), any(), any());
+    }
+
     private static CoapExchange newCoapExchange(final Buffer payload) {
 
         final OptionSet options = new OptionSet().setContentFormat(MediaTypeRegistry.TEXT_PLAIN);
@@ -469,6 +700,18 @@ public class AbstractVertxBasedCoapAdapterTest {
         return coapExchange;
     }
 
+    private static CoapExchange newObserveExchange(final ObserveRelation relation) {
+
+        final Request request = new Request(Code.GET, Type.NON);
+        final Exchange exchange = mock(Exchange.class);
+        when(exchange.getRequest()).thenReturn(request);
+        when(exchange.getRelation()).thenReturn(relation);
+        final CoapExchange coapExchange = mock(CoapExchange.class);
+        when(coapExchange.advanced()).thenReturn(exchange);
+        when(coapExchange.getRequestOptions()).thenReturn(request.getOptions());
+        return coapExchange;
+    }
+
     private CoapServer getCoapServer(final boolean startupShouldFail) {
 
         final CoapServer server = mock(CoapServer.class);
@@ -528,7 +771,7 @@ public class AbstractVertxBasedCoapAdapterTest {
     private void givenAnEventSenderForOutcome(final Future<ProtonDelivery> outcome) {
 
         final MessageSender sender = mock(MessageSender.class);
-        when(sender.sendAndWaitForOutcome(any(Message.class))).thenReturn(outcome);
+        when(sender.sendAndWaitForOutcome(any(Message.class), (SpanContext) any())).thenReturn(outcome);
 
         when(messagingClient.getOrCreateEventSender(anyString())).thenReturn(Future.succeededFuture(sender));
     }
@@ -536,7 +779,7 @@ public class AbstractVertxBasedCoapAdapterTest {
     private void givenATelemetrySenderForOutcome(final Future<ProtonDelivery> outcome) {
 
         final MessageSender sender = mock(MessageSender.class);
-        when(sender.sendAndWaitForOutcome(any(Message.class))).thenReturn(outcome);
+        when(sender.sendAndWaitForOutcome(any(Message.class), (SpanContext) any())).thenReturn(outcome);
 
         when(messagingClient.getOrCreateTelemetrySender(anyString())).thenReturn(Future.succeededFuture(sender));
     }
@@ -544,7 +787,7 @@ public class AbstractVertxBasedCoapAdapterTest {
     private void givenATelemetrySender(final Future<ProtonDelivery> outcome) {
 
         final MessageSender sender = mock(MessageSender.class);
-        when(sender.send(any(Message.class))).thenReturn(outcome);
+        when(sender.send(any(Message.class), (SpanContext) any())).thenReturn(outcome);
 
         when(messagingClient.getOrCreateTelemetrySender(anyString())).thenReturn(Future.succeededFuture(sender));
     }
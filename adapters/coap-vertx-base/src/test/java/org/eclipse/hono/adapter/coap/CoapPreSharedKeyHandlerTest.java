@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.coap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.californium.core.CoapServer;
+import org.eclipse.hono.client.ClientErrorException;
+import org.eclipse.hono.client.CredentialsClient;
+import org.eclipse.hono.client.HonoClient;
+import org.eclipse.hono.util.CacheDirective;
+import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.CredentialsResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Verifies behavior of {@link CoapPreSharedKeyHandler}.
+ *
+ */
+public class CoapPreSharedKeyHandlerTest {
+
+    private static final byte[] KEY = "secret".getBytes(StandardCharsets.UTF_8);
+
+    private CoapAdapterProperties config;
+    private Context context;
+    private HonoClient credentialsServiceClient;
+    private CredentialsClient credentialsClient;
+    private ExecutorService handshakeThreads;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+
+        config = new CoapAdapterProperties();
+        config.setPskLookupTimeout(200);
+        context = mock(Context.class);
+        // run lookups directly on the invoking thread
+        doAnswer(invocation -> {
+            final Handler<Void> handler = invocation.getArgument(0);
+            handler.handle(null);
+            return null;
+        }).when(context).runOnContext(any(Handler.class));
+        credentialsClient = mock(CredentialsClient.class);
+        givenCredentials(newCredentials(), null);
+        credentialsServiceClient = mock(HonoClient.class);
+        when(credentialsServiceClient.getOrCreateCredentialsClient(anyString()))
+            .thenReturn(Future.succeededFuture(credentialsClient));
+        handshakeThreads = Executors.newFixedThreadPool(2);
+    }
+
+    /**
+     * Shuts down the handshake threads.
+     */
+    @After
+    public void shutDown() {
+        handshakeThreads.shutdownNow();
+    }
+
+    /**
+     * Verifies that the key and device retrieved for an identity are cached
+     * so that subsequent handshakes do not need to invoke the Credentials service.
+     */
+    @Test
+    public void testGetKeyUsesCachedKey() {
+
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(context, config, credentialsServiceClient);
+
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+        assertThat(handler.getCachedDevice("auth@tenant").getDeviceId(), is("device"));
+        verify(credentialsClient, times(1)).getCredentialsResult(anyString(), anyString(), any(JsonObject.class), any());
+    }
+
+    /**
+     * Verifies that concurrent handshakes for the same identity share a single
+     * lookup of the key.
+     *
+     * @throws Exception if the test fails.
+     */
+    @SuppressWarnings("unchecked")
+    @Test(timeout = 2000)
+    public void testGetKeyCoalescesConcurrentLookups() throws Exception {
+
+        // GIVEN a vert.x context that processes lookups only when triggered
+        final Context deferringContext = mock(Context.class);
+        final CompletableFuture<Handler<Void>> lookup = new CompletableFuture<>();
+        doAnswer(invocation -> {
+            lookup.complete(invocation.getArgument(0));
+            return null;
+        }).when(deferringContext).runOnContext(any(Handler.class));
+        config.setPskLookupTimeout(1000);
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(deferringContext, config, credentialsServiceClient);
+
+        // WHEN two handshakes for the same identity are started
+        final CompletableFuture<byte[]> firstHandshake = CompletableFuture.supplyAsync(() -> handler.getKey("auth@tenant"), handshakeThreads);
+        final Handler<Void> pendingLookup = lookup.get(1, TimeUnit.SECONDS);
+        final CompletableFuture<byte[]> secondHandshake = CompletableFuture.supplyAsync(() -> handler.getKey("auth@tenant"), handshakeThreads);
+        Thread.sleep(50);
+        // and the lookup completes
+        pendingLookup.handle(null);
+
+        // THEN both handshakes get the key
+        assertThat(firstHandshake.get(), is(KEY));
+        assertThat(secondHandshake.get(), is(KEY));
+        // from a single invocation of the Credentials service
+        verify(deferringContext, times(1)).runOnContext(any(Handler.class));
+        verify(credentialsClient, times(1)).getCredentialsResult(anyString(), anyString(), any(JsonObject.class), any());
+    }
+
+    /**
+     * Verifies that a handshake does not get a key if the lookup does not
+     * complete within the configured timeout.
+     */
+    @SuppressWarnings("unchecked")
+    @Test(timeout = 2000)
+    public void testGetKeyReturnsNullOnLookupTimeout() {
+
+        // GIVEN a vert.x context that never processes the lookup
+        final Context stalledContext = mock(Context.class);
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(stalledContext, config, credentialsServiceClient);
+
+        // THEN the handshake does not get a key after the timeout
+        assertNull(handler.getKey("auth@tenant"));
+        verify(stalledContext).runOnContext(any(Handler.class));
+    }
+
+    /**
+     * Verifies that a key is not cached if the Credentials service does not
+     * allow the credentials to be cached.
+     */
+    @Test
+    public void testGetKeyDoesNotCacheKeyIfCachingIsNotAllowed() {
+
+        givenCredentials(newCredentials(), CacheDirective.noCacheDirective());
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(context, config, credentialsServiceClient);
+
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+        assertNull(handler.getCachedDevice("auth@tenant"));
+        verify(credentialsClient, times(2)).getCredentialsResult(anyString(), anyString(), any(JsonObject.class), any());
+    }
+
+    /**
+     * Verifies that a cached key is evicted if a refresh finds that the
+     * credentials have been disabled.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testRefreshEvictsDisabledCredentials() throws InterruptedException {
+
+        // GIVEN a cached key that may be used for one second only
+        givenCredentials(newCredentials(), CacheDirective.maxAgeDirective(1));
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(context, config, credentialsServiceClient);
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+
+        // WHEN the credentials get disabled
+        givenCredentials(newCredentials().setEnabled(false), CacheDirective.maxAgeDirective(1));
+        // and the key is used after it has become stale
+        Thread.sleep(600);
+        handler.getKey("auth@tenant");
+
+        // THEN the refresh has evicted the key
+        assertNull(handler.getCachedDevice("auth@tenant"));
+        assertNull(handler.getKey("auth@tenant"));
+    }
+
+    /**
+     * Verifies that a cached key is evicted if a refresh finds that the
+     * credentials no longer exist.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void testRefreshEvictsRemovedCredentials() throws InterruptedException {
+
+        // GIVEN a cached key that may be used for one second only
+        givenCredentials(newCredentials(), CacheDirective.maxAgeDirective(1));
+        final CoapPreSharedKeyHandler handler = new CoapPreSharedKeyHandler(context, config, credentialsServiceClient);
+        assertThat(handler.getKey("auth@tenant"), is(KEY));
+
+        // WHEN the credentials get removed
+        when(credentialsClient.getCredentialsResult(anyString(), anyString(), any(JsonObject.class), any()))
+            .thenReturn(Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_NOT_FOUND)));
+        // and the key is used after it has become stale
+        Thread.sleep(600);
+        handler.getKey("auth@tenant");
+
+        // THEN the refresh has evicted the key
+        assertNull(handler.getCachedDevice("auth@tenant"));
+    }
+
+    /**
+     * Verifies that a handler shared by multiple adapter instances uses the Credentials
+     * service client of another instance after the instance that has created it
+     * has been undeployed.
+     */
+    @Test
+    public void testSharedHandlerIsReboundWhenOwnerUnregisters() {
+
+        // GIVEN a handler shared by two adapter instances
+        final SharedCoapServer server = SharedCoapServer.unshared();
+        final Context otherContext = mock(Context.class);
+        final HonoClient otherCredentialsServiceClient = mock(HonoClient.class);
+        when(otherCredentialsServiceClient.getOrCreateCredentialsClient(anyString()))
+            .thenReturn(Future.succeededFuture(credentialsClient));
+        final CoapPreSharedKeyHandler handler = server.getPskHandler(context, credentialsServiceClient,
+                () -> new CoapPreSharedKeyHandler(context, config, credentialsServiceClient));
+        server.register(context, Collections.emptySet(), () -> mock(CoapServer.class));
+        server.getPskHandler(otherContext, otherCredentialsServiceClient, () -> {
+            throw new IllegalStateException("handler should be shared");
+        });
+        server.register(otherContext, Collections.emptySet(), () -> mock(CoapServer.class));
+
+        // WHEN the instance that has created the handler unregisters
+        server.unregister(context);
+
+        // THEN keys are looked up on the remaining instance's context using its client
+        final ArgumentCaptor<Handler<Void>> lookup = ArgumentCaptor.forClass(Handler.class);
+        handler.getKey("auth@tenant");
+        verify(otherContext).runOnContext(lookup.capture());
+        lookup.getValue().handle(null);
+        verify(otherCredentialsServiceClient).getOrCreateCredentialsClient("tenant");
+    }
+
+    private static CredentialsObject newCredentials() {
+        return CredentialsObject.fromPresharedKey("device", "auth", KEY, Instant.now(), null);
+    }
+
+    private void givenCredentials(final CredentialsObject credentials, final CacheDirective cacheDirective) {
+        when(credentialsClient.getCredentialsResult(anyString(), anyString(), any(JsonObject.class), any()))
+            .thenReturn(Future.succeededFuture(CredentialsResult.from(HttpURLConnection.HTTP_OK, credentials, cacheDirective)));
+    }
+}
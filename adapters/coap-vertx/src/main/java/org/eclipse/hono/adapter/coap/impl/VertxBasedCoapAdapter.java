@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.eclipse.californium.core.CoapResource;
+import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.eclipse.hono.adapter.coap.AbstractVertxBasedCoapAdapter;
@@ -30,6 +31,7 @@ import org.eclipse.hono.adapter.coap.CoapErrorResponse;
 import org.eclipse.hono.auth.Device;
 import org.eclipse.hono.client.ClientErrorException;
 import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.util.CommandConstants;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.EventConstants;
 import org.eclipse.hono.util.ResourceIdentifier;
@@ -41,6 +43,8 @@ import io.vertx.core.Future;
 /**
  * A vert.x based Hono protocol adapter providing access to Hono's southbound
  * Telemetry &amp; Event API by means of CoAP resources.
+ * <p>
+ * Devices may receive commands by observing the <em>control</em> resource.
  */
 public final class VertxBasedCoapAdapter extends AbstractVertxBasedCoapAdapter<CoapAdapterProperties> {
 
@@ -192,6 +196,40 @@ public final class VertxBasedCoapAdapter extends AbstractVertxBasedCoapAdapter<C
                 }
             }
         });
+
+        final CoapResource commandResource = new CoapResource(CommandConstants.COMMAND_ENDPOINT) {
+
+            @Override
+            public Resource getChild(final String name) {
+                return this;
+            }
+
+            @Override
+            public void handleGET(final CoapExchange exchange) {
+                final Future<ExtendedDevice> authAttempt;
+                if (exchange.getRequestOptions().getUriPath().size() > 1) {
+                    authAttempt = getExtendedDevice(exchange);
+                } else {
+                    authAttempt = getAuthenticatedExtendedDevice(null, exchange);
+                }
+                authAttempt.setHandler(attempt -> {
+                    if (attempt.succeeded()) {
+                        final ExtendedDevice device = attempt.result();
+                        observeCommands(CoapContext.fromRequest(exchange), device.authenticatedDevice, device.originDevice);
+                    } else {
+                        CoapErrorResponse.respond(exchange, attempt.cause());
+                    }
+                });
+            }
+
+            @Override
+            public void removeObserveRelation(final ObserveRelation relation) {
+                super.removeObserveRelation(relation);
+                cancelCommandObservation(relation);
+            }
+        };
+        commandResource.setObservable(true);
+        result.add(commandResource);
         setResources(result);
         return Future.succeededFuture();
     }
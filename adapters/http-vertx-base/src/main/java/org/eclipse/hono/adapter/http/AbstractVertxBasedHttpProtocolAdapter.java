@@ -14,7 +14,9 @@
 package org.eclipse.hono.adapter.http;
 
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +33,7 @@ import org.eclipse.hono.client.CommandResponse;
 import org.eclipse.hono.client.MessageConsumer;
 import org.eclipse.hono.client.MessageSender;
 import org.eclipse.hono.client.ResourceConflictException;
+import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.service.AbstractProtocolAdapterBase;
 import org.eclipse.hono.service.auth.DeviceUser;
 import org.eclipse.hono.service.http.DefaultFailureHandler;
@@ -38,6 +41,7 @@ import org.eclipse.hono.service.http.HttpUtils;
 import org.eclipse.hono.service.metric.MetricsTags;
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
 import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
 import org.eclipse.hono.service.metric.MetricsTags.QoS;
 import org.eclipse.hono.service.metric.MetricsTags.TtdStatus;
@@ -56,13 +60,17 @@ import io.opentracing.tag.Tags;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.Http2Settings;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.handler.BodyHandler;
 
 /**
  * Base class for a Vert.x based Hono protocol adapter that uses the HTTP protocol.
@@ -73,15 +81,37 @@ import io.vertx.ext.web.handler.BodyHandler;
 public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtocolAdapterProperties> extends AbstractProtocolAdapterBase<T> {
 
     /**
-     * Default file uploads directory used by Vert.x Web.
+     * The content type indicating a batch of messages contained in a request body
+     * as <em>newline delimited JSON</em>.
      */
-    protected static final String DEFAULT_UPLOADS_DIRECTORY = "/tmp";
+    public static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+    /**
+     * The name of the field of a batch item that contains the device identifier.
+     */
+    public static final String FIELD_BATCH_DEVICE_ID = "device-id";
+    /**
+     * The name of the field of a batch item that contains the content type of the payload.
+     */
+    public static final String FIELD_BATCH_CONTENT_TYPE = "content-type";
+    /**
+     * The name of the field of a batch item that contains the payload.
+     */
+    public static final String FIELD_BATCH_PAYLOAD = "payload";
+    /**
+     * The name of the field of a batch item outcome that contains the HTTP status code.
+     */
+    public static final String FIELD_BATCH_STATUS = "status";
+    /**
+     * The name of the field of a batch item outcome that contains an error description.
+     */
+    public static final String FIELD_BATCH_ERROR = "error";
 
-    private static final String KEY_TIMER_ID = "timerId";
+    private static final String KEY_TTD_WAITER = "ttdWaiter";
 
     private HttpServer server;
     private HttpServer insecureServer;
     private HttpAdapterMetrics metrics = HttpAdapterMetrics.NOOP;
+    private TtdWaiterRegistry ttdWaiterRegistry;
 
     /**
      * Sets the metrics for this service.
@@ -283,7 +313,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <p>
      * This method creates a router instance with the following routes:
      * <ol>
-     * <li>A default route limiting the body size of requests to the maximum payload size set in the <em>config</em> properties.</li>
+     * <li>A default route streaming the body of requests into a single buffer, limiting the body size
+     * to the maximum payload size set in the <em>config</em> properties (see {@link StreamingBodyHandler}).</li>
      * </ol>
      *
      * @return The newly created router (never {@code null}).
@@ -292,7 +323,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
         final Router router = Router.router(vertx);
         LOG.info("limiting size of inbound request body to {} bytes", getConfig().getMaxPayloadSize());
-        router.route().handler(BodyHandler.create(DEFAULT_UPLOADS_DIRECTORY).setBodyLimit(getConfig().getMaxPayloadSize()));
+        router.route().handler(new StreamingBodyHandler(getConfig().getMaxPayloadSize()));
         addTracingHandler(router, -5);
         // add default handler for failed routes
         router.route().order(-1).failureHandler(new DefaultFailureHandler());
@@ -317,6 +348,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <p>
      * This method returns default options with the host and port being set to the corresponding values
      * from the <em>config</em> properties and using a maximum chunk size of 4096 bytes.
+     * If HTTP/2 is enabled in the <em>config</em> properties, the options also enable
+     * the negotiation of HTTP/2 by means of TLS ALPN.
      *
      * @return The http server options.
      */
@@ -327,6 +360,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             .setMaxChunkSize(4096);
         addTlsKeyCertOptions(options);
         addTlsTrustOptions(options);
+        addHttp2Options(options);
         return options;
     }
 
@@ -337,6 +371,8 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
      * <p>
      * This method returns default options with the host and port being set to the corresponding values
      * from the <em>config</em> properties and using a maximum chunk size of 4096 bytes.
+     * If HTTP/2 is enabled in the <em>config</em> properties, the options also contain
+     * the settings to use for HTTP/2 over clear text (h2c) connections.
      *
      * @return The http server options.
      */
@@ -344,9 +380,35 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
         final HttpServerOptions options = new HttpServerOptions();
         options.setHost(getConfig().getInsecurePortBindAddress()).setPort(getConfig().getInsecurePort(getInsecurePortDefaultValue())).setMaxChunkSize(4096);
+        addHttp2Options(options);
         return options;
     }
 
+    /**
+     * Adds the HTTP/2 settings from the <em>config</em> properties to server options.
+     * <p>
+     * The settings are only added if HTTP/2 is enabled. ALPN is only enabled
+     * if the options are configured for TLS.
+     *
+     * @param options The options to add the settings to.
+     */
+    private void addHttp2Options(final HttpServerOptions options) {
+
+        if (getConfig().isHttp2Enabled()) {
+            final Http2Settings settings = new Http2Settings()
+                    .setMaxConcurrentStreams(getConfig().getHttp2MaxConcurrentStreams())
+                    .setInitialWindowSize(getConfig().getHttp2InitialWindowSize());
+            options.setInitialSettings(settings)
+                .setHttp2ConnectionWindowSize(getConfig().getHttp2ConnectionWindowSize());
+            if (options.isSsl()) {
+                LOG.info("enabling HTTP/2 via ALPN [max concurrent streams: {}]", settings.getMaxConcurrentStreams());
+                options.setUseAlpn(true).setAlpnVersions(Arrays.asList(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1));
+            } else {
+                LOG.info("applying HTTP/2 settings to clear text (h2c) connections [max concurrent streams: {}]", settings.getMaxConcurrentStreams());
+            }
+        }
+    }
+
     /**
      * Invoked before the message is sent to the downstream peer.
      * <p>
@@ -447,7 +509,12 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         }
 
         CompositeFuture.all(serverStopTracker, insecureServerStopTracker)
-            .compose(v -> postShutdown())
+            .compose(v -> {
+                if (ttdWaiterRegistry != null) {
+                    ttdWaiterRegistry.close();
+                }
+                return postShutdown();
+            })
             .compose(s -> stopFuture.complete(), stopFuture);
     }
 
@@ -518,6 +585,229 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
                 MetricsTags.EndpointType.TELEMETRY);
     }
 
+    /**
+     * Uploads a batch of telemetry messages contained in the body of an HTTP request to Hono.
+     * <p>
+     * The request body is expected to contain either a JSON array or (if the request's
+     * content type is {@link #CONTENT_TYPE_NDJSON}) newline delimited JSON objects. Each object
+     * represents a single message and contains the following fields:
+     * <ul>
+     * <li>{@link #FIELD_BATCH_DEVICE_ID} - the identifier of the device that has produced the data</li>
+     * <li>{@link #FIELD_BATCH_CONTENT_TYPE} - the content type of the payload (optional)</li>
+     * <li>{@link #FIELD_BATCH_PAYLOAD} - the payload, string values are forwarded as UTF-8 encoded
+     * bytes, any other JSON value is forwarded using its JSON encoding (optional)</li>
+     * </ul>
+     * <p>
+     * The tenant configuration and the sender are resolved once for the whole batch whereas
+     * the registration assertions of the contained devices are retrieved in parallel. If the
+     * authenticated device differs from a contained device, it is considered to be a gateway
+     * acting on behalf of that device. The messages are then sent downstream without waiting
+     * for each other using the QoS level indicated by the request's header.
+     * <p>
+     * This method always sends a response to the device. If the batch has been processed,
+     * the response has status code 200 and contains a JSON array with an outcome object
+     * for each message, in the order of the request, consisting of the
+     * {@link #FIELD_BATCH_DEVICE_ID}, the {@link #FIELD_BATCH_STATUS} code that would
+     * have been returned for an individual upload of the message and an optional
+     * {@link #FIELD_BATCH_ERROR} description. Commands are not delivered in the response
+     * to a batch upload.
+     *
+     * @param ctx The context to retrieve the messages, cookies and the HTTP response from.
+     * @param tenant The tenant of the devices that have produced the data.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    public final void uploadTelemetryBatch(final RoutingContext ctx, final String tenant) {
+
+        Objects.requireNonNull(ctx);
+        Objects.requireNonNull(tenant);
+
+        final List<JsonObject> items;
+        try {
+            items = getBatchItems(ctx.getBody(), HttpUtils.getContentType(ctx));
+        } catch (final DecodeException | ClassCastException e) {
+            HttpUtils.badRequest(ctx, "malformed batch");
+            return;
+        }
+
+        final MetricsTags.QoS qos = getQoSLevel(EndpointType.TELEMETRY, ctx.request().getHeader(Constants.HEADER_QOS_LEVEL));
+        if (items.isEmpty()) {
+            HttpUtils.badRequest(ctx, "batch must contain at least one message");
+        } else if (items.size() > getConfig().getMaxBatchSize()) {
+            HttpUtils.fail(ctx, new ClientErrorException(HttpURLConnection.HTTP_ENTITY_TOO_LARGE,
+                    String.format("batch must not contain more than %d messages", getConfig().getMaxBatchSize())));
+        } else if (qos == MetricsTags.QoS.UNKNOWN) {
+            HttpUtils.badRequest(ctx, "unsupported QoS-Level header value");
+        } else {
+
+            final Device authenticatedDevice = getAuthenticatedDevice(ctx);
+            // each message gets its own sample so that its processing time is not
+            // skewed by the messages reported before it
+            final List<Sample> samples = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                samples.add(metrics.startTimer());
+            }
+            final Span currentSpan = tracer.buildSpan("upload telemetry batch")
+                    .asChildOf(TracingHandler.serverSpanContext(ctx))
+                    .ignoreActiveSpan()
+                    .withTag(Tags.COMPONENT.getKey(), getTypeName())
+                    .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+                    .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, tenant)
+                    .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null)
+                    .withTag(Constants.HEADER_QOS_LEVEL, qos.asTag().getValue())
+                    .withTag("batch_size", items.size())
+                    .start();
+
+            final Future<TenantObject> tenantTracker = getTenantConfiguration(tenant, currentSpan.context())
+                    .compose(tenantObject -> isAdapterEnabled(tenantObject));
+            final Future<MessageSender> senderTracker = getTelemetrySender(tenant);
+
+            CompositeFuture.all(tenantTracker, senderTracker)
+            .compose(ok -> {
+                @SuppressWarnings("rawtypes")
+                final List<Future> outcomes = new ArrayList<>(items.size());
+                for (int i = 0; i < items.size(); i++) {
+                    outcomes.add(uploadBatchItem(ctx, tenant, authenticatedDevice, items.get(i),
+                            senderTracker.result(), qos, currentSpan, samples.get(i)));
+                }
+                return CompositeFuture.all(outcomes);
+            }).map(outcomes -> {
+                final JsonArray responseBody = new JsonArray();
+                for (int i = 0; i < outcomes.size(); i++) {
+                    responseBody.add(outcomes.<JsonObject> resultAt(i));
+                }
+                LOG.trace("processed batch of {} telemetry messages [tenantId: {}]", items.size(), tenant);
+                ctx.response().setStatusCode(HttpURLConnection.HTTP_OK);
+                HttpUtils.setResponseBody(ctx.response(), responseBody.toBuffer(), HttpUtils.CONTENT_TYPE_JSON_UTF8);
+                ctx.response().end();
+                currentSpan.finish();
+                return null;
+            }).otherwise(t -> {
+                LOG.debug("cannot process batch of telemetry messages [tenantId: {}]", tenant, t);
+                final ProcessingOutcome outcome;
+                if (ClientErrorException.class.isInstance(t)) {
+                    outcome = ProcessingOutcome.UNPROCESSABLE;
+                    ctx.fail(t);
+                } else {
+                    outcome = ProcessingOutcome.UNDELIVERABLE;
+                    HttpUtils.serviceUnavailable(ctx, 2, "temporarily unavailable");
+                }
+                for (int i = 0; i < items.size(); i++) {
+                    metrics.reportTelemetry(
+                            EndpointType.TELEMETRY,
+                            tenant,
+                            outcome,
+                            qos,
+                            getBatchItemPayload(items.get(i)).length(),
+                            samples.get(i));
+                }
+                TracingHelper.logError(currentSpan, t);
+                currentSpan.finish();
+                return null;
+            });
+        }
+    }
+
+    private Future<JsonObject> uploadBatchItem(
+            final RoutingContext ctx,
+            final String tenant,
+            final Device authenticatedDevice,
+            final JsonObject item,
+            final MessageSender sender,
+            final MetricsTags.QoS qos,
+            final Span currentSpan,
+            final Sample sample) {
+
+        final String deviceId = item.getString(FIELD_BATCH_DEVICE_ID);
+        final String contentType = item.getString(FIELD_BATCH_CONTENT_TYPE);
+        final Buffer payload = getBatchItemPayload(item);
+        final JsonObject outcome = new JsonObject().put(FIELD_BATCH_DEVICE_ID, deviceId);
+
+        final Future<JsonObject> result;
+        if (deviceId == null) {
+            result = Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST,
+                    "message does not contain device identifier"));
+        } else if (!isPayloadOfIndicatedType(payload, contentType)) {
+            result = Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_BAD_REQUEST,
+                    String.format("content type [%s] does not match payload", contentType)));
+        } else {
+            result = getRegistrationAssertion(tenant, deviceId, authenticatedDevice, currentSpan.context())
+                    .compose(assertion -> {
+                        final Message downstreamMessage = newMessage(
+                                ResourceIdentifier.from(EndpointType.TELEMETRY.getCanonicalName(), tenant, deviceId),
+                                sender.isRegistrationAssertionRequired(),
+                                ctx.request().uri(),
+                                contentType,
+                                payload,
+                                assertion,
+                                null);
+                        customizeDownstreamMessage(downstreamMessage, ctx);
+                        if (MetricsTags.QoS.AT_MOST_ONCE.equals(qos)) {
+                            return timeStage(PipelineStage.DISPOSITION, () -> sender.send(downstreamMessage, currentSpan.context()));
+                        } else {
+                            return timeStage(PipelineStage.DISPOSITION,
+                                    () -> sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()));
+                        }
+                    }).map(delivery -> outcome.put(FIELD_BATCH_STATUS, HttpURLConnection.HTTP_ACCEPTED));
+        }
+
+        return result.map(ok -> {
+            metrics.reportTelemetry(
+                    EndpointType.TELEMETRY,
+                    tenant,
+                    ProcessingOutcome.FORWARDED,
+                    qos,
+                    payload.length(),
+                    sample);
+            return outcome;
+        }).otherwise(t -> {
+            LOG.debug("cannot process batched telemetry message from device [tenantId: {}, deviceId: {}]",
+                    tenant, deviceId, t);
+            currentSpan.log(String.format("cannot process message from device [%s]: %s", deviceId, t.getMessage()));
+            metrics.reportTelemetry(
+                    EndpointType.TELEMETRY,
+                    tenant,
+                    ClientErrorException.class.isInstance(t) ? ProcessingOutcome.UNPROCESSABLE : ProcessingOutcome.UNDELIVERABLE,
+                    qos,
+                    payload.length(),
+                    sample);
+            return outcome
+                    .put(FIELD_BATCH_STATUS, ServiceInvocationException.extractStatusCode(t))
+                    .put(FIELD_BATCH_ERROR, t.getMessage());
+        });
+    }
+
+    private static List<JsonObject> getBatchItems(final Buffer body, final String contentType) {
+
+        final List<JsonObject> items = new ArrayList<>();
+        if (body == null || body.length() == 0) {
+            return items;
+        } else if (contentType != null && contentType.startsWith(CONTENT_TYPE_NDJSON)) {
+            for (final String line : body.toString(StandardCharsets.UTF_8).split("\\r?\\n")) {
+                if (!line.trim().isEmpty()) {
+                    items.add(new JsonObject(line));
+                }
+            }
+        } else {
+            final JsonArray array = body.toJsonArray();
+            for (int i = 0; i < array.size(); i++) {
+                items.add(array.getJsonObject(i));
+            }
+        }
+        return items;
+    }
+
+    private static Buffer getBatchItemPayload(final JsonObject item) {
+
+        final Object payload = item.getValue(FIELD_BATCH_PAYLOAD);
+        if (payload == null) {
+            return Buffer.buffer();
+        } else if (payload instanceof String) {
+            return Buffer.buffer((String) payload);
+        } else {
+            return Json.encodeToBuffer(payload);
+        }
+    }
+
     /**
      * Uploads the body of an HTTP request as an event message to Hono.
      * <p>
@@ -642,13 +932,14 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
 
                         if (MetricsTags.QoS.AT_MOST_ONCE.equals(qos)) {
                             return CompositeFuture.all(
-                                    sender.send(downstreamMessage, currentSpan.context()),
+                                    timeStage(PipelineStage.DISPOSITION, () -> sender.send(downstreamMessage, currentSpan.context())),
                                     responseReady)
                                     .map(s -> (Void) null);
                         } else {
                             // unsettled
                             return CompositeFuture.all(
-                                    sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()),
+                                    timeStage(PipelineStage.DISPOSITION,
+                                            () -> sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context())),
                                     responseReady)
                                     .map(s -> (Void) null);
                         }
@@ -859,7 +1150,7 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             return Future.succeededFuture();
         } else {
             currentSpan.setTag(MessageHelper.APP_PROPERTY_DEVICE_TTD, ttdSecs);
-            return getCommandConnection().createCommandConsumer(
+            return getTtdWaiterRegistry().waitForCommand(
                     tenantId,
                     deviceId,
                     commandContext -> {
@@ -901,12 +1192,12 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
                     remoteDetach -> {
                         LOG.debug("peer closed command receiver link [tenant-id: {}, device-id: {}]", tenantId, deviceId);
                         // command consumer is closed by closeHandler, no explicit close necessary here
-                    }).map(consumer -> {
+                    }).map(waiter -> {
                         if (!responseReady.isComplete()) {
                             // if the request was not responded already, add a timer for triggering an empty response
-                            addCommandReceptionTimer(ctx, responseReady, ttdSecs);
+                            addCommandReceptionTimer(ctx, waiter, responseReady, ttdSecs);
                         }
-                        return consumer;
+                        return (MessageConsumer) waiter;
                     }).recover(t -> {
                         if (t instanceof ResourceConflictException) {
                             // another request from the same device that contains
@@ -926,25 +1217,40 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
         }
     }
 
+    private TtdWaiterRegistry getTtdWaiterRegistry() {
+
+        if (ttdWaiterRegistry == null) {
+            ttdWaiterRegistry = new TtdWaiterRegistry(
+                    vertx,
+                    getCommandConnection(),
+                    getConfig().getCommandConsumerLingerTime());
+        }
+        return ttdWaiterRegistry;
+    }
+
     /**
      * Sets a timer to trigger the sending of a (empty) response to a device
      * if no command has been received from an application within a
      * given amount of time.
      * <p>
-     * The created timer's ID is put to the routing context using key {@link #KEY_TIMER_ID}.
+     * The timer is tracked by the adapter's {@link TtdWaiterRegistry} which
+     * uses a single timing wheel for all waiting requests. The waiter is put to
+     * the routing context using key {@link #KEY_TTD_WAITER}.
      *
      * @param ctx The device's currently executing HTTP request.
+     * @param waiter The request's registration for commands.
      * @param responseReady The future to complete when the time has expired.
      * @param delaySecs The number of seconds to wait for a command.
      */
     private void addCommandReceptionTimer(
             final RoutingContext ctx,
+            final TtdWaiterRegistry.TtdWaiter waiter,
             final Future<Void> responseReady,
             final long delaySecs) {
 
-        final Long timerId = ctx.vertx().setTimer(delaySecs * 1000L, id -> {
+        waiter.expireAfter(delaySecs * 1000L, v -> {
 
-            LOG.trace("time to wait [{}s] for command expired [timer id: {}]", delaySecs, id);
+            LOG.trace("time to wait [{}s] for command expired", delaySecs);
 
             if (responseReady.isComplete()) {
                 // a command has been sent to the device already
@@ -957,19 +1263,19 @@ public abstract class AbstractVertxBasedHttpProtocolAdapter<T extends HttpProtoc
             }
         });
 
-        LOG.trace("adding command reception timer [id: {}]", timerId);
+        LOG.trace("adding command reception timer [{}s]", delaySecs);
 
-        ctx.put(KEY_TIMER_ID, timerId);
+        ctx.put(KEY_TTD_WAITER, waiter);
     }
 
     private void cancelCommandReceptionTimer(final RoutingContext ctx) {
 
-        final Long timerId = ctx.get(KEY_TIMER_ID);
-        if (timerId != null && timerId >= 0) {
-            if (ctx.vertx().cancelTimer(timerId)) {
-                LOG.trace("Cancelled timer id {}", timerId);
+        final TtdWaiterRegistry.TtdWaiter waiter = ctx.get(KEY_TTD_WAITER);
+        if (waiter != null) {
+            if (waiter.cancelExpiration()) {
+                LOG.trace("cancelled command reception timer");
             } else {
-                LOG.debug("Could not cancel timer id {}", timerId);
+                LOG.debug("could not cancel command reception timer");
             }
         }
     }
@@ -28,8 +28,28 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
      * The default name of the realm that devices need to authenticate to.
      */
     public static final String DEFAULT_REALM = "Hono";
+    /**
+     * The default maximum number of messages that may be contained in a single batch upload request.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    /**
+     * The default maximum number of concurrent streams that a device may open on
+     * a single HTTP/2 connection.
+     */
+    public static final long DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS = 100L;
+    /**
+     * The default size of the HTTP/2 flow-control window of a stream in bytes.
+     */
+    public static final int DEFAULT_HTTP2_INITIAL_WINDOW_SIZE = 65535;
+
     private String realm = DEFAULT_REALM;
     private String corsAllowedOrigin = "*";
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private boolean http2Enabled = false;
+    private long http2MaxConcurrentStreams = DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS;
+    private int http2InitialWindowSize = DEFAULT_HTTP2_INITIAL_WINDOW_SIZE;
+    private int http2ConnectionWindowSize = -1;
+    private long commandConsumerLingerTime = 0;
 
     /**
      * Gets the name of the realm that unauthenticated devices are prompted to provide credentials for.
@@ -90,4 +110,190 @@ public class HttpProtocolAdapterProperties extends ProtocolAdapterProperties {
         this.corsAllowedOrigin = Objects.requireNonNull(corsAllowedOrigin);
     }
 
+    /**
+     * Gets the maximum number of messages that a device may include in a single
+     * batch upload request.
+     * <p>
+     * The default value is {@link #DEFAULT_MAX_BATCH_SIZE}.
+     *
+     * @return The maximum number of messages.
+     */
+    public final int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of messages that a device may include in a single
+     * batch upload request.
+     * <p>
+     * The default value is {@link #DEFAULT_MAX_BATCH_SIZE}.
+     *
+     * @param maxBatchSize The maximum number of messages.
+     * @throws IllegalArgumentException if the size is &lt; 1.
+     */
+    public final void setMaxBatchSize(final int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("max batch size must be > 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Checks if the adapter supports HTTP/2.
+     * <p>
+     * If enabled, the secure port negotiates HTTP/2 with devices by means of TLS ALPN
+     * and the HTTP/2 settings are applied to both ports.
+     * Devices can then multiplex uploads and long polling requests for commands
+     * over a single connection.
+     * <p>
+     * Note that the insecure port accepts HTTP/2 over clear text (h2c) connections
+     * regardless of this property. Vert.x only supports disabling h2c for all servers
+     * of a JVM by means of the <em>vertx.disableH2c</em> system property.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @return {@code true} if HTTP/2 is supported.
+     */
+    public final boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    /**
+     * Sets whether the adapter supports HTTP/2.
+     * <p>
+     * If enabled, the secure port negotiates HTTP/2 with devices by means of TLS ALPN
+     * and the HTTP/2 settings are applied to both ports.
+     * Devices can then multiplex uploads and long polling requests for commands
+     * over a single connection.
+     * <p>
+     * Note that the insecure port accepts HTTP/2 over clear text (h2c) connections
+     * regardless of this property. Vert.x only supports disabling h2c for all servers
+     * of a JVM by means of the <em>vertx.disableH2c</em> system property.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @param enabled {@code true} if HTTP/2 should be supported.
+     */
+    public final void setHttp2Enabled(final boolean enabled) {
+        this.http2Enabled = enabled;
+    }
+
+    /**
+     * Gets the maximum number of concurrent streams that a device may open
+     * on a single HTTP/2 connection.
+     * <p>
+     * The default value is {@link #DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+     *
+     * @return The maximum number of streams.
+     */
+    public final long getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams that a device may open
+     * on a single HTTP/2 connection.
+     * <p>
+     * The default value is {@link #DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+     *
+     * @param maxStreams The maximum number of streams.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public final void setHttp2MaxConcurrentStreams(final long maxStreams) {
+        if (maxStreams < 1) {
+            throw new IllegalArgumentException("max concurrent streams must be > 0");
+        }
+        this.http2MaxConcurrentStreams = maxStreams;
+    }
+
+    /**
+     * Gets the initial size of the HTTP/2 flow-control window of a stream.
+     * <p>
+     * The default value is {@link #DEFAULT_HTTP2_INITIAL_WINDOW_SIZE}.
+     *
+     * @return The window size in bytes.
+     */
+    public final int getHttp2InitialWindowSize() {
+        return http2InitialWindowSize;
+    }
+
+    /**
+     * Sets the initial size of the HTTP/2 flow-control window of a stream.
+     * <p>
+     * The default value is {@link #DEFAULT_HTTP2_INITIAL_WINDOW_SIZE}.
+     *
+     * @param windowSize The window size in bytes.
+     * @throws IllegalArgumentException if the size is &lt; 1.
+     */
+    public final void setHttp2InitialWindowSize(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("initial window size must be > 0");
+        }
+        this.http2InitialWindowSize = windowSize;
+    }
+
+    /**
+     * Gets the size of the HTTP/2 flow-control window of a connection.
+     * <p>
+     * The default value is -1, which means that the window size defined
+     * by the HTTP/2 specification (65535 bytes) is used.
+     *
+     * @return The window size in bytes or -1 if the default is used.
+     */
+    public final int getHttp2ConnectionWindowSize() {
+        return http2ConnectionWindowSize;
+    }
+
+    /**
+     * Sets the size of the HTTP/2 flow-control window of a connection.
+     * <p>
+     * The connection window is shared by all streams of a connection and should
+     * therefore be considerably larger than the initial window size of a stream.
+     * <p>
+     * The default value is -1, which means that the window size defined
+     * by the HTTP/2 specification (65535 bytes) is used.
+     *
+     * @param windowSize The window size in bytes or -1 to use the default.
+     */
+    public final void setHttp2ConnectionWindowSize(final int windowSize) {
+        this.http2ConnectionWindowSize = windowSize;
+    }
+
+    /**
+     * Gets the time that a device's command consumer is kept open after
+     * the request that waited for a command has been processed.
+     * <p>
+     * A consumer that is kept open is reused by the device's next request
+     * that waits for a command. This saves the creation of a new link for
+     * each request of devices that continuously poll for commands.
+     * <p>
+     * The default value is 0, which means that the consumer is closed
+     * immediately.
+     *
+     * @return The number of milliseconds.
+     */
+    public final long getCommandConsumerLingerTime() {
+        return commandConsumerLingerTime;
+    }
+
+    /**
+     * Sets the time that a device's command consumer is kept open after
+     * the request that waited for a command has been processed.
+     * <p>
+     * A consumer that is kept open is reused by the device's next request
+     * that waits for a command. This saves the creation of a new link for
+     * each request of devices that continuously poll for commands.
+     * <p>
+     * The default value is 0, which means that the consumer is closed
+     * immediately.
+     *
+     * @param millis The number of milliseconds.
+     * @throws IllegalArgumentException if the time is negative.
+     */
+    public final void setCommandConsumerLingerTime(final long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("linger time must not be negative");
+        }
+        this.commandConsumerLingerTime = millis;
+    }
 }
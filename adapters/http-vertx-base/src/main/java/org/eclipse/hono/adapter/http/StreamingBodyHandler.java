@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler that reads the body of an HTTP request into a single buffer.
+ * <p>
+ * In contrast to Vert.x Web's {@code BodyHandler}, this handler
+ * <ul>
+ * <li>rejects a request with status 413 before reading its body if the
+ * <em>content-length</em> header exceeds the body limit,</li>
+ * <li>checks the limit for each chunk while the body is being streamed and stops
+ * buffering as soon as it has been exceeded,</li>
+ * <li>allocates the buffer according to the <em>content-length</em> header (up to
+ * {@link #MAX_INITIAL_BUFFER_SIZE} bytes) so that the body is written to the buffer
+ * exactly once without re-allocating and copying it while the buffer grows and</li>
+ * <li>does not support form attributes nor file uploads.</li>
+ * </ul>
+ * <p>
+ * The buffer set as the routing context's body is exclusively owned by the request.
+ * Its content may therefore be used as the payload of a downstream message without
+ * copying it, e.g. by means of {@link org.eclipse.hono.util.MessageHelper#wrapPayload(
+ * org.apache.qpid.proton.message.Message, String, Buffer)}.
+ */
+public class StreamingBodyHandler implements Handler<RoutingContext> {
+
+    /**
+     * The initial size of the buffer used for requests without a <em>content-length</em> header.
+     */
+    public static final int DEFAULT_INITIAL_BUFFER_SIZE = 256;
+    /**
+     * The maximum number of bytes allocated up front for a request's body.
+     * <p>
+     * The <em>content-length</em> header is provided by the client, so a larger body is
+     * only buffered while it is actually being received.
+     */
+    public static final int MAX_INITIAL_BUFFER_SIZE = DEFAULT_INITIAL_BUFFER_SIZE * 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingBodyHandler.class);
+    private static final String KEY_BODY_HANDLED = StreamingBodyHandler.class.getName() + ".handled";
+
+    private final long bodyLimit;
+
+    /**
+     * Creates a new handler for a body limit.
+     *
+     * @param bodyLimit The maximum number of bytes that a request's body may contain.
+     *                  A negative value indicates that the size of the body is not limited.
+     */
+    public StreamingBodyHandler(final long bodyLimit) {
+        this.bodyLimit = bodyLimit;
+    }
+
+    /**
+     * Reads the request's body and sets it on the routing context.
+     * <p>
+     * The next handler is invoked once the body has been read completely.
+     *
+     * @param ctx The routing context of the request.
+     */
+    @Override
+    public void handle(final RoutingContext ctx) {
+
+        final HttpServerRequest request = ctx.request();
+        if (ctx.get(KEY_BODY_HANDLED) != null || isWebSocketUpgrade(request)) {
+            ctx.next();
+            return;
+        }
+        ctx.put(KEY_BODY_HANDLED, Boolean.TRUE);
+
+        final long contentLength = getContentLength(request);
+        if (exceedsLimit(contentLength) || contentLength > Integer.MAX_VALUE) {
+            LOG.debug("rejecting request with content-length [{}] exceeding limit [{}]", contentLength, bodyLimit);
+            ctx.fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        final Buffer body = Buffer.buffer(contentLength >= 0
+                ? (int) Math.min(contentLength, MAX_INITIAL_BUFFER_SIZE)
+                : DEFAULT_INITIAL_BUFFER_SIZE);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+
+        request.handler(chunk -> {
+            if (failed.get()) {
+                // discard remaining chunks
+                return;
+            }
+            if (exceedsLimit((long) body.length() + chunk.length())) {
+                LOG.debug("request body exceeds limit [{}]", bodyLimit);
+                failed.set(true);
+                ctx.fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+            } else {
+                body.appendBuffer(chunk);
+            }
+        });
+        request.exceptionHandler(t -> {
+            if (failed.compareAndSet(false, true)) {
+                ctx.fail(t);
+            }
+        });
+        request.endHandler(v -> {
+            if (!failed.get()) {
+                ctx.setBody(body);
+                ctx.next();
+            }
+        });
+    }
+
+    private boolean exceedsLimit(final long length) {
+        return bodyLimit >= 0 && length > bodyLimit;
+    }
+
+    private static boolean isWebSocketUpgrade(final HttpServerRequest request) {
+        return "websocket".equalsIgnoreCase(request.getHeader(HttpHeaders.UPGRADE));
+    }
+
+    private static long getContentLength(final HttpServerRequest request) {
+
+        final String value = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.hono.auth.Device;
+import org.eclipse.hono.client.CommandConnection;
+import org.eclipse.hono.client.CommandContext;
+import org.eclipse.hono.client.MessageConsumer;
+import org.eclipse.hono.client.ResourceConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * A registry of HTTP requests that wait for a command to be sent to a device.
+ * <p>
+ * The registry keeps (at most) one command consumer per device and hands it out to the
+ * request that currently waits for a command (the device's <em>waiter</em>). Once the
+ * request has been processed, the consumer is either closed or, if a linger time has been
+ * configured, kept open for being reused by the device's next request. This avoids the
+ * creation of a new link for each request of a device that polls for commands continuously.
+ * <p>
+ * The time until a waiting request expires is tracked using a single timing wheel instead
+ * of a separate timer per request. The wheel only runs while there are waiters that may
+ * expire.
+ * <p>
+ * Instances are not thread safe and must be used from the adapter's context only.
+ */
+final class TtdWaiterRegistry {
+
+    /**
+     * The default resolution of the timing wheel in milliseconds.
+     */
+    static final long DEFAULT_TICK_MILLIS = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TtdWaiterRegistry.class);
+    private static final int WHEEL_SIZE = 512;
+
+    private final Map<String, DeviceEntry> entries = new HashMap<>();
+    private final List<Set<Timeout>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final Vertx vertx;
+    private final CommandConnection commandConnection;
+    private final long tickMillis;
+    private final long lingerTicks;
+
+    private long currentTick = 0;
+    private int scheduledTimeouts = 0;
+    private boolean timerArmed = false;
+
+    /**
+     * Creates a new registry using the default timing wheel resolution.
+     *
+     * @param vertx The vert.x instance to use for running the timing wheel.
+     * @param commandConnection The connection to create command consumers on.
+     * @param lingerMillis The number of milliseconds to keep a device's command consumer
+     *                     open after the request that used it has been processed.
+     *                     If 0, the consumer is closed immediately.
+     * @throws NullPointerException if vertx or connection are {@code null}.
+     */
+    TtdWaiterRegistry(final Vertx vertx, final CommandConnection commandConnection, final long lingerMillis) {
+        this(vertx, commandConnection, lingerMillis, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Creates a new registry.
+     *
+     * @param vertx The vert.x instance to use for running the timing wheel.
+     * @param commandConnection The connection to create command consumers on.
+     * @param lingerMillis The number of milliseconds to keep a device's command consumer
+     *                     open after the request that used it has been processed.
+     *                     If 0, the consumer is closed immediately.
+     * @param tickMillis The resolution of the timing wheel in milliseconds.
+     * @throws NullPointerException if vertx or connection are {@code null}.
+     * @throws IllegalArgumentException if linger time is negative or the resolution is &lt; 1.
+     */
+    TtdWaiterRegistry(
+            final Vertx vertx,
+            final CommandConnection commandConnection,
+            final long lingerMillis,
+            final long tickMillis) {
+
+        if (lingerMillis < 0) {
+            throw new IllegalArgumentException("linger time must not be negative");
+        }
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tick resolution must be > 0");
+        }
+        this.vertx = Objects.requireNonNull(vertx);
+        this.commandConnection = Objects.requireNonNull(commandConnection);
+        this.tickMillis = tickMillis;
+        this.lingerTicks = lingerMillis == 0 ? 0 : Math.max(1, lingerMillis / tickMillis);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Registers a request that waits for a command for a device.
+     * <p>
+     * The returned consumer represents the request's registration. Closing it
+     * ends the registration but does not necessarily close the underlying link.
+     *
+     * @param tenantId The tenant that the device belongs to.
+     * @param deviceId The device to wait for commands for.
+     * @param commandHandler The handler to invoke with commands received for the device
+     *                       while the registration is active.
+     * @param remoteCloseHandler The handler to invoke if the peer closes the link
+     *                       while the registration is active (may be {@code null}).
+     * @return A future indicating the outcome of the operation.
+     *         <p>
+     *         The future will be completed with the registration once the device's
+     *         command consumer is available.
+     *         <p>
+     *         The future will be failed with a {@link ResourceConflictException} if
+     *         another request of the device is already waiting for a command or
+     *         with a {@code ServiceInvocationException} if the command consumer could
+     *         not be created.
+     * @throws NullPointerException if any of tenant, device ID or command handler are {@code null}.
+     */
+    Future<TtdWaiter> waitForCommand(
+            final String tenantId,
+            final String deviceId,
+            final Handler<CommandContext> commandHandler,
+            final Handler<Void> remoteCloseHandler) {
+
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceId);
+        Objects.requireNonNull(commandHandler);
+
+        final String key = Device.asAddress(tenantId, deviceId);
+        final DeviceEntry existingEntry = entries.get(key);
+
+        if (existingEntry != null) {
+            if (existingEntry.waiter != null) {
+                LOG.debug("another request is already waiting for commands [tenant: {}, device-id: {}]",
+                        tenantId, deviceId);
+                return Future.failedFuture(new ResourceConflictException("command consumer already in use"));
+            }
+            unschedule(existingEntry);
+            final TtdWaiter waiter = new TtdWaiter(existingEntry, commandHandler, remoteCloseHandler);
+            existingEntry.waiter = waiter;
+            if (existingEntry.consumer == null) {
+                // the consumer is still being created for a previous request of the device
+                LOG.trace("waiting for command consumer being created [tenant: {}, device-id: {}]", tenantId, deviceId);
+                final Future<TtdWaiter> result = Future.future();
+                existingEntry.creationListeners.add(creationAttempt -> {
+                    if (creationAttempt.succeeded()) {
+                        grantCreditIfNeeded(existingEntry);
+                        result.complete(waiter);
+                    } else {
+                        result.fail(creationAttempt.cause());
+                    }
+                });
+                return result;
+            }
+            grantCreditIfNeeded(existingEntry);
+            LOG.trace("reusing command consumer [tenant: {}, device-id: {}]", tenantId, deviceId);
+            return Future.succeededFuture(waiter);
+        }
+
+        final DeviceEntry entry = new DeviceEntry(key);
+        final TtdWaiter waiter = new TtdWaiter(entry, commandHandler, remoteCloseHandler);
+        entry.waiter = waiter;
+        entries.put(key, entry);
+
+        return commandConnection.createCommandConsumer(
+                tenantId,
+                deviceId,
+                commandContext -> onCommand(entry, commandContext),
+                remoteClose -> onRemoteClose(entry))
+            .map(consumer -> {
+                entry.consumer = consumer;
+                notifyCreationListeners(entry, Future.succeededFuture(consumer));
+                if (entry.waiter == null) {
+                    // the request(s) have already been processed
+                    onWaiterReleased(entry, null);
+                }
+                return waiter;
+            }).recover(t -> {
+                entries.remove(key, entry);
+                notifyCreationListeners(entry, Future.failedFuture(t));
+                return Future.failedFuture(t);
+            });
+    }
+
+    private static void grantCreditIfNeeded(final DeviceEntry entry) {
+        if (entry.consumer.getRemainingCredit() <= 0) {
+            // allow the sender to send the next command
+            entry.consumer.flow(1);
+        }
+    }
+
+    private static void notifyCreationListeners(final DeviceEntry entry, final AsyncResult<MessageConsumer> creationAttempt) {
+        final List<Handler<AsyncResult<MessageConsumer>>> listeners = new ArrayList<>(entry.creationListeners);
+        entry.creationListeners.clear();
+        listeners.forEach(listener -> listener.handle(creationAttempt));
+    }
+
+    /**
+     * Gets the registration of the request that currently waits for a command for a device.
+     * <p>
+     * The registration is available immediately after {@link #waitForCommand(String, String, Handler, Handler)}
+     * has been invoked, i.e. also while the device's command consumer is still being created.
+     *
+     * @param tenantId The tenant that the device belongs to.
+     * @param deviceId The device.
+     * @return The registration or {@code null} if no request waits for a command for the device.
+     */
+    TtdWaiter getWaiter(final String tenantId, final String deviceId) {
+        final DeviceEntry entry = entries.get(Device.asAddress(tenantId, deviceId));
+        return entry == null ? null : entry.waiter;
+    }
+
+    /**
+     * Gets the number of devices that this registry currently holds a
+     * command consumer for.
+     *
+     * @return The number of devices.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Closes all command consumers held by this registry.
+     */
+    void close() {
+
+        for (final DeviceEntry entry : entries.values()) {
+            unschedule(entry);
+            if (entry.waiter != null) {
+                unschedule(entry.waiter);
+            }
+            if (entry.consumer != null) {
+                entry.consumer.close(null);
+            }
+        }
+        entries.clear();
+    }
+
+    private void onCommand(final DeviceEntry entry, final CommandContext commandContext) {
+
+        if (entry.waiter == null) {
+            LOG.debug("no request waiting for command, releasing command [{}]", entry.key);
+            commandContext.release();
+        } else {
+            entry.waiter.commandHandler.handle(commandContext);
+        }
+    }
+
+    private void onRemoteClose(final DeviceEntry entry) {
+
+        LOG.debug("peer closed command consumer [{}]", entry.key);
+        entry.remotelyClosed = true;
+        entries.remove(entry.key, entry);
+        unschedule(entry);
+        if (entry.waiter != null && entry.waiter.remoteCloseHandler != null) {
+            entry.waiter.remoteCloseHandler.handle(null);
+        }
+    }
+
+    private void onWaiterReleased(final DeviceEntry entry, final Handler<AsyncResult<Void>> closeHandler) {
+
+        if (entry.consumer == null) {
+            // consumer is still being created
+            succeed(closeHandler);
+        } else if (lingerTicks == 0 || entry.remotelyClosed) {
+            entries.remove(entry.key, entry);
+            if (entry.remotelyClosed) {
+                succeed(closeHandler);
+            } else {
+                entry.consumer.close(closeHandler);
+            }
+        } else {
+            schedule(entry, lingerTicks);
+            succeed(closeHandler);
+        }
+    }
+
+    private static void succeed(final Handler<AsyncResult<Void>> handler) {
+        if (handler != null) {
+            handler.handle(Future.succeededFuture());
+        }
+    }
+
+    private long getTicks(final long millis) {
+        return Math.max(1, millis / tickMillis);
+    }
+
+    private Set<Timeout> getBucket(final long tick) {
+        return wheel.get((int) (tick % WHEEL_SIZE));
+    }
+
+    private void schedule(final Timeout timeout, final long ticks) {
+
+        unschedule(timeout);
+        timeout.deadline = currentTick + ticks;
+        getBucket(timeout.deadline).add(timeout);
+        scheduledTimeouts++;
+        armTimer();
+    }
+
+    private boolean unschedule(final Timeout timeout) {
+
+        if (timeout.deadline < 0) {
+            return false;
+        } else {
+            getBucket(timeout.deadline).remove(timeout);
+            timeout.deadline = -1;
+            scheduledTimeouts--;
+            return true;
+        }
+    }
+
+    private void armTimer() {
+
+        if (!timerArmed) {
+            timerArmed = true;
+            vertx.setTimer(tickMillis, id -> onTick());
+        }
+    }
+
+    private void onTick() {
+
+        timerArmed = false;
+        currentTick++;
+        final List<Timeout> expired = new ArrayList<>();
+        for (final Timeout timeout : getBucket(currentTick)) {
+            if (timeout.deadline <= currentTick) {
+                expired.add(timeout);
+            }
+        }
+        for (final Timeout timeout : expired) {
+            // a previously expired timeout's handler may have unscheduled this one
+            if (unschedule(timeout)) {
+                timeout.expire();
+            }
+        }
+        if (scheduledTimeouts > 0) {
+            armTimer();
+        }
+    }
+
+    /**
+     * An entry of the timing wheel.
+     */
+    private abstract static class Timeout {
+
+        private long deadline = -1;
+
+        abstract void expire();
+    }
+
+    /**
+     * A device's command consumer.
+     */
+    private final class DeviceEntry extends Timeout {
+
+        private final String key;
+        private final List<Handler<AsyncResult<MessageConsumer>>> creationListeners = new ArrayList<>(1);
+        private MessageConsumer consumer;
+        private TtdWaiter waiter;
+        private boolean remotelyClosed;
+
+        DeviceEntry(final String key) {
+            this.key = key;
+        }
+
+        /**
+         * Closes the idle consumer.
+         */
+        @Override
+        void expire() {
+            LOG.trace("closing idle command consumer [{}]", key);
+            entries.remove(key, this);
+            consumer.close(null);
+        }
+    }
+
+    /**
+     * A request's registration for commands of a device.
+     * <p>
+     * Closing the waiter ends the registration.
+     */
+    final class TtdWaiter extends Timeout implements MessageConsumer {
+
+        private final DeviceEntry entry;
+        private final Handler<CommandContext> commandHandler;
+        private final Handler<Void> remoteCloseHandler;
+        private Handler<Void> expirationHandler;
+
+        private TtdWaiter(
+                final DeviceEntry entry,
+                final Handler<CommandContext> commandHandler,
+                final Handler<Void> remoteCloseHandler) {
+            this.entry = entry;
+            this.commandHandler = commandHandler;
+            this.remoteCloseHandler = remoteCloseHandler;
+        }
+
+        /**
+         * Sets the time after which the request stops waiting for a command.
+         *
+         * @param millis The number of milliseconds to wait.
+         * @param handler The handler to invoke once the time has expired.
+         * @throws NullPointerException if handler is {@code null}.
+         */
+        void expireAfter(final long millis, final Handler<Void> handler) {
+            this.expirationHandler = Objects.requireNonNull(handler);
+            if (entry.waiter == this) {
+                schedule(this, getTicks(millis));
+            }
+        }
+
+        /**
+         * Cancels the expiration of this waiter.
+         *
+         * @return {@code true} if the expiration has been cancelled,
+         *         {@code false} if no expiration had been scheduled.
+         */
+        boolean cancelExpiration() {
+            expirationHandler = null;
+            return unschedule(this);
+        }
+
+        @Override
+        void expire() {
+            final Handler<Void> handler = expirationHandler;
+            expirationHandler = null;
+            if (handler != null) {
+                handler.handle(null);
+            }
+        }
+
+        /**
+         * Ends this registration.
+         * <p>
+         * The device's command consumer is kept open for the configured linger time
+         * so that it can be reused by the device's next request.
+         */
+        @Override
+        public void close(final Handler<AsyncResult<Void>> closeHandler) {
+            if (entry.waiter == this) {
+                cancelExpiration();
+                entry.waiter = null;
+                onWaiterReleased(entry, closeHandler);
+            } else {
+                succeed(closeHandler);
+            }
+        }
+
+        @Override
+        public void flow(final int credits) throws IllegalStateException {
+            if (entry.consumer == null) {
+                throw new IllegalStateException("command consumer is not available yet");
+            }
+            entry.consumer.flow(credits);
+        }
+
+        @Override
+        public int getRemainingCredit() {
+            return entry.consumer == null ? 0 : entry.consumer.getRemainingCredit();
+        }
+    }
+}
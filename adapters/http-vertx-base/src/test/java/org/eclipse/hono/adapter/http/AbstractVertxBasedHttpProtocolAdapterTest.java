@@ -15,6 +15,9 @@ package org.eclipse.hono.adapter.http;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +32,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.HttpURLConnection;
+import java.util.Collections;
 
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.client.ClientErrorException;
@@ -42,13 +46,16 @@ import org.eclipse.hono.client.MessageSender;
 import org.eclipse.hono.client.RegistrationClient;
 import org.eclipse.hono.client.ResourceConflictException;
 import org.eclipse.hono.client.TenantClient;
+import org.eclipse.hono.config.TracingSamplingProperties;
 import org.eclipse.hono.service.auth.DeviceUser;
+import org.eclipse.hono.service.http.HttpUtils;
 import org.eclipse.hono.service.metric.MetricsTags;
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
 import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
 import org.eclipse.hono.service.metric.MetricsTags.QoS;
 import org.eclipse.hono.service.metric.MetricsTags.TtdStatus;
+import org.eclipse.hono.tracing.SamplingAwareTracer;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.EventConstants;
 import org.eclipse.hono.util.MessageHelper;
@@ -62,8 +69,13 @@ import org.junit.rules.Timeout;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Timer.Sample;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
 import io.opentracing.contrib.vertx.ext.web.TracingHandler;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
@@ -72,8 +84,10 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -249,6 +263,27 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
         // THEN the onStartupSuccess method has not been invoked
     }
 
+    /**
+     * Verifies that the insecure server options contain the HTTP/2 settings
+     * from the configuration if HTTP/2 is enabled.
+     */
+    @Test
+    public void testGetInsecureHttpServerOptionsContainsHttp2Settings() {
+
+        // GIVEN an adapter configured to support HTTP/2 with at most 10 concurrent streams
+        config.setHttp2Enabled(true);
+        config.setHttp2MaxConcurrentStreams(10);
+        config.setHttp2ConnectionWindowSize(1024 * 1024);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(getHttpServer(false), null);
+
+        // WHEN retrieving the options for the insecure server
+        final HttpServerOptions options = adapter.getInsecureHttpServerOptions();
+
+        // THEN the options contain the HTTP/2 settings to use for h2c connections
+        assertThat(options.getInitialSettings().getMaxConcurrentStreams(), is(10L));
+        assertThat(options.getHttp2ConnectionWindowSize(), is(1024 * 1024));
+    }
+
     /**
      * Verifies that the adapter fails the upload of a message with a 403
      * result if the device belongs to a tenant for which the adapter is
@@ -626,6 +661,51 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
                 any());
     }
 
+    /**
+     * Verifies that the sampling rate configured for a tenant applies to the server span
+     * of an HTTP request, which has been started before the tenant is known.
+     */
+    @Test
+    public void testUploadTelemetryIsTracedAccordingToTenantSamplingRate() {
+
+        // GIVEN an adapter using a tracer that samples the traces of tenant "sampled" only
+        final Span sampledSpan = mock(Span.class);
+        when(sampledSpan.context()).thenReturn(mock(SpanContext.class));
+        final SpanBuilder delegateBuilder = mock(SpanBuilder.class);
+        when(delegateBuilder.start()).thenReturn(sampledSpan);
+        final Tracer delegate = mock(Tracer.class);
+        when(delegate.buildSpan(anyString())).thenReturn(delegateBuilder);
+        final TracingSamplingProperties samplingProperties = new TracingSamplingProperties();
+        samplingProperties.setRate(0.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("sampled", 1.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+
+        givenATelemetrySenderForOutcome(Future.succeededFuture(mock(ProtonDelivery.class)));
+        final HttpServer server = getHttpServer(false);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(server, null);
+        adapter.setTracer(tracer);
+
+        // WHEN devices of both an unsampled and the sampled tenant publish telemetry messages
+        // with the server spans having been started without tenant by the tracing handler
+        final Buffer payload = Buffer.buffer("some payload");
+        final RoutingContext unsampledCtx = newRoutingContext(payload, "application/text",
+                mock(HttpServerRequest.class), mock(HttpServerResponse.class));
+        final Span unsampledServerSpan = tracer.buildSpan("POST unsampled").start();
+        when(unsampledCtx.get(TracingHandler.CURRENT_SPAN)).thenReturn(unsampledServerSpan);
+        adapter.uploadTelemetryMessage(unsampledCtx, "tenant", "device");
+
+        final RoutingContext sampledCtx = newRoutingContext(payload, "application/text",
+                mock(HttpServerRequest.class), mock(HttpServerResponse.class));
+        final Span sampledServerSpan = tracer.buildSpan("POST sampled").start();
+        when(sampledCtx.get(TracingHandler.CURRENT_SPAN)).thenReturn(sampledServerSpan);
+        adapter.uploadTelemetryMessage(sampledCtx, "sampled", "device");
+
+        // THEN only the spans of the sampled tenant's request are created by the tracer
+        verify(delegate, never()).buildSpan("POST unsampled");
+        verify(delegate).buildSpan("POST sampled");
+        verify(delegate).buildSpan("upload telemetry");
+    }
+
     /**
      * Verifies that the adapter does not include a TTD value provided by a device
      * in the downstream message if the Command consumer for the device is already
@@ -747,6 +827,104 @@ public class AbstractVertxBasedHttpProtocolAdapterTest {
         assertThat(MessageHelper.getTimeUntilDisconnect(messageCaptor.getValue()), is(20));
     }
 
+    /**
+     * Verifies that the adapter forwards each message contained in a batch
+     * and reports the outcome of each message individually in the response.
+     */
+    @Test
+    public void testUploadTelemetryBatchReportsOutcomePerMessage() {
+
+        // GIVEN an adapter with a downstream telemetry consumer attached
+        final HttpServer server = getHttpServer(false);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(server, null);
+        final MessageSender sender = givenATelemetrySenderForOutcome(Future.succeededFuture());
+        // and an unknown device
+        when(regClient.assertRegistration(eq("unknown-device"), any(), any(SpanContext.class))).thenReturn(
+                Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_NOT_FOUND)));
+        when(metrics.startTimer()).thenAnswer(invocation -> Timer.start(Clock.SYSTEM));
+
+        // WHEN a gateway publishes a batch containing messages of a known and an unknown device
+        final Buffer batch = new JsonArray()
+                .add(new JsonObject()
+                        .put(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_DEVICE_ID, "device")
+                        .put(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_CONTENT_TYPE, "text/plain")
+                        .put(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_PAYLOAD, "some payload"))
+                .add(new JsonObject()
+                        .put(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_DEVICE_ID, "unknown-device")
+                        .put(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_PAYLOAD, new JsonObject().put("temp", 5)))
+                .toBuffer();
+        final HttpServerResponse response = mock(HttpServerResponse.class);
+        final RoutingContext ctx = newRoutingContext(batch, HttpUtils.CONTENT_TYPE_JSON, mock(HttpServerRequest.class), response);
+
+        adapter.uploadTelemetryBatch(ctx, "tenant");
+
+        // THEN the tenant configuration has been retrieved only once
+        verify(tenantClient).get(eq("tenant"), any(SpanContext.class));
+        // and only the message of the known device has been forwarded
+        final ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(sender).send(messageCaptor.capture(), any(SpanContext.class));
+        assertThat(MessageHelper.getDeviceId(messageCaptor.getValue()), is("device"));
+        // and the gateway receives the outcome of each message
+        verify(response).setStatusCode(HttpURLConnection.HTTP_OK);
+        final ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+        verify(response).write(bodyCaptor.capture());
+        verify(response).end();
+        final JsonArray outcomes = bodyCaptor.getValue().toJsonArray();
+        assertThat(outcomes.getJsonObject(0).getInteger(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_STATUS),
+                is(HttpURLConnection.HTTP_ACCEPTED));
+        assertThat(outcomes.getJsonObject(1).getString(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_DEVICE_ID),
+                is("unknown-device"));
+        assertThat(outcomes.getJsonObject(1).getInteger(AbstractVertxBasedHttpProtocolAdapter.FIELD_BATCH_STATUS),
+                is(HttpURLConnection.HTTP_NOT_FOUND));
+        // and the messages have been reported individually
+        final ArgumentCaptor<Sample> forwardedSample = ArgumentCaptor.forClass(Sample.class);
+        verify(metrics).reportTelemetry(
+                eq(EndpointType.TELEMETRY),
+                eq("tenant"),
+                eq(ProcessingOutcome.FORWARDED),
+                eq(QoS.AT_MOST_ONCE),
+                eq("some payload".length()),
+                forwardedSample.capture());
+        final ArgumentCaptor<Sample> unprocessableSample = ArgumentCaptor.forClass(Sample.class);
+        verify(metrics).reportTelemetry(
+                eq(EndpointType.TELEMETRY),
+                eq("tenant"),
+                eq(ProcessingOutcome.UNPROCESSABLE),
+                eq(QoS.AT_MOST_ONCE),
+                anyInt(),
+                unprocessableSample.capture());
+        // using a sample of their own
+        assertNotNull(forwardedSample.getValue());
+        assertThat(unprocessableSample.getValue(), not(sameInstance(forwardedSample.getValue())));
+    }
+
+    /**
+     * Verifies that the adapter rejects a batch that contains more messages than
+     * configured with a 413 status.
+     */
+    @Test
+    public void testUploadTelemetryBatchFailsForExceededBatchSize() {
+
+        // GIVEN an adapter that accepts batches of at most one message
+        config.setMaxBatchSize(1);
+        final HttpServer server = getHttpServer(false);
+        final AbstractVertxBasedHttpProtocolAdapter<HttpProtocolAdapterProperties> adapter = getAdapter(server, null);
+        final MessageSender sender = givenATelemetrySenderForOutcome(Future.succeededFuture());
+
+        // WHEN a gateway publishes a batch containing two messages
+        final Buffer batch = Buffer.buffer("{\"device-id\": \"one\"}\n{\"device-id\": \"two\"}\n");
+        final RoutingContext ctx = newRoutingContext(batch,
+                AbstractVertxBasedHttpProtocolAdapter.CONTENT_TYPE_NDJSON, mock(HttpServerRequest.class),
+                mock(HttpServerResponse.class));
+
+        adapter.uploadTelemetryBatch(ctx, "tenant");
+
+        // THEN the gateway gets a 413
+        assertContextFailedWithClientError(ctx, HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        // and no message has been forwarded
+        verify(sender, never()).send(any(Message.class), any(SpanContext.class));
+    }
+
     private RoutingContext newRoutingContext(final Buffer payload) {
         return newRoutingContext(payload, mock(HttpServerResponse.class));
     }
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Verifies behavior of {@link StreamingBodyHandler}.
+ *
+ */
+public class StreamingBodyHandlerTest {
+
+    private HttpServerRequest request;
+    private RoutingContext ctx;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+
+        request = mock(HttpServerRequest.class);
+        ctx = mock(RoutingContext.class);
+        when(ctx.request()).thenReturn(request);
+    }
+
+    /**
+     * Verifies that the handler rejects a request with a content-length
+     * exceeding the limit without reading the body.
+     */
+    @Test
+    public void testHandleRejectsExceedingContentLength() {
+
+        // GIVEN a request announcing a body of 11 bytes
+        when(request.getHeader(HttpHeaders.CONTENT_LENGTH)).thenReturn("11");
+
+        // WHEN the body is handled with a limit of 10 bytes
+        new StreamingBodyHandler(10).handle(ctx);
+
+        // THEN the request fails with a 413
+        verify(ctx).fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        // and the body is not read
+        verify(request, never()).handler(any());
+        verify(ctx, never()).next();
+    }
+
+    /**
+     * Verifies that the handler sets the streamed body on the routing context
+     * once the request has ended.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testHandleSetsStreamedBody() {
+
+        // GIVEN a request announcing a body of 10 bytes
+        when(request.getHeader(HttpHeaders.CONTENT_LENGTH)).thenReturn("10");
+        new StreamingBodyHandler(10).handle(ctx);
+        final ArgumentCaptor<Handler<Buffer>> chunkHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).handler(chunkHandler.capture());
+        final ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).endHandler(endHandler.capture());
+
+        // WHEN the body is streamed in two chunks
+        chunkHandler.getValue().handle(Buffer.buffer("hello"));
+        chunkHandler.getValue().handle(Buffer.buffer("world"));
+        endHandler.getValue().handle(null);
+
+        // THEN the body is set on the routing context
+        final ArgumentCaptor<Buffer> body = ArgumentCaptor.forClass(Buffer.class);
+        verify(ctx).setBody(body.capture());
+        assertThat(body.getValue().toString(), is("helloworld"));
+        // using a buffer that has not been re-allocated
+        assertThat(body.getValue().getByteBuf().array().length, is(10));
+        verify(ctx).next();
+    }
+
+    /**
+     * Verifies that the handler does not allocate a buffer of the size announced
+     * by the content-length header if it exceeds the maximum initial buffer size.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testHandleLimitsInitialBufferSize() {
+
+        // GIVEN a request announcing a huge body
+        when(request.getHeader(HttpHeaders.CONTENT_LENGTH)).thenReturn(String.valueOf(Integer.MAX_VALUE));
+
+        // WHEN the body is handled without a limit
+        new StreamingBodyHandler(-1).handle(ctx);
+        final ArgumentCaptor<Handler<Buffer>> chunkHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).handler(chunkHandler.capture());
+        final ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).endHandler(endHandler.capture());
+        chunkHandler.getValue().handle(Buffer.buffer("hello"));
+        endHandler.getValue().handle(null);
+
+        // THEN the body has been read into a buffer of the maximum initial size only
+        final ArgumentCaptor<Buffer> body = ArgumentCaptor.forClass(Buffer.class);
+        verify(ctx).setBody(body.capture());
+        assertThat(body.getValue().toString(), is("hello"));
+        assertThat(body.getValue().getByteBuf().capacity(), is(StreamingBodyHandler.MAX_INITIAL_BUFFER_SIZE));
+    }
+
+    /**
+     * Verifies that the handler fails a request without content-length
+     * as soon as the streamed body exceeds the limit.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testHandleFailsForExceededLimitWhileStreaming() {
+
+        // GIVEN a request with a chunked body
+        new StreamingBodyHandler(8).handle(ctx);
+        final ArgumentCaptor<Handler<Buffer>> chunkHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).handler(chunkHandler.capture());
+        final ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+        verify(request).endHandler(endHandler.capture());
+
+        // WHEN the streamed chunks exceed the limit
+        chunkHandler.getValue().handle(Buffer.buffer("hello"));
+        chunkHandler.getValue().handle(Buffer.buffer("world"));
+        endHandler.getValue().handle(null);
+
+        // THEN the request fails with a 413
+        verify(ctx).fail(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        verify(ctx, never()).setBody(any());
+        verify(ctx, never()).next();
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.adapter.http;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.hono.client.CommandConnection;
+import org.eclipse.hono.client.MessageConsumer;
+import org.eclipse.hono.client.ResourceConflictException;
+import org.eclipse.hono.client.ServerErrorException;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Verifies behavior of {@link TtdWaiterRegistry}.
+ *
+ */
+public class TtdWaiterRegistryTest {
+
+    private Vertx vertx;
+    private CommandConnection commandConnection;
+    private MessageConsumer commandConsumer;
+    private AtomicReference<Handler<Long>> timerHandler;
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+
+        timerHandler = new AtomicReference<>();
+        vertx = mock(Vertx.class);
+        when(vertx.setTimer(anyLong(), any(Handler.class))).thenAnswer(invocation -> {
+            timerHandler.set(invocation.getArgument(1));
+            return 1L;
+        });
+        commandConsumer = mock(MessageConsumer.class);
+        commandConnection = mock(CommandConnection.class);
+        when(commandConnection.createCommandConsumer(anyString(), anyString(), any(Handler.class), any(Handler.class)))
+            .thenReturn(Future.succeededFuture(commandConsumer));
+    }
+
+    /**
+     * Verifies that a device's command consumer is reused by the device's
+     * next request if the consumer is still lingering.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWaitForCommandReusesLingeringConsumer() {
+
+        // GIVEN a registry that keeps idle consumers open for one second
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 1000, 100);
+
+        // WHEN a device's request has been processed
+        final Future<TtdWaiterRegistry.TtdWaiter> firstRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+        assertTrue(firstRequest.succeeded());
+        firstRequest.result().close(null);
+
+        // and the device sends another request that waits for a command
+        final Future<TtdWaiterRegistry.TtdWaiter> secondRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+
+        // THEN the command consumer has been reused
+        assertTrue(secondRequest.succeeded());
+        verify(commandConnection, times(1)).createCommandConsumer(eq("tenant"), eq("device"), any(Handler.class), any(Handler.class));
+        verify(commandConsumer, never()).close(any());
+        // and the sender has been granted credit for sending another command
+        verify(commandConsumer).flow(1);
+        assertThat(registry.size(), is(1));
+    }
+
+    /**
+     * Verifies that a request fails to wait for a command if another request
+     * of the same device is already waiting.
+     */
+    @Test
+    public void testWaitForCommandFailsForConcurrentRequest() {
+
+        // GIVEN a registry with a request waiting for a command
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 1000, 100);
+        registry.waitForCommand("tenant", "device", ctx -> {}, null);
+
+        // WHEN another request of the same device wants to wait for a command
+        final Future<TtdWaiterRegistry.TtdWaiter> secondRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+
+        // THEN the request fails
+        assertTrue(secondRequest.failed());
+        assertThat(secondRequest.cause(), instanceOf(ResourceConflictException.class));
+    }
+
+    /**
+     * Verifies that a waiting request expires after the given time and that
+     * the command consumer is closed once it has been idle for the linger time.
+     */
+    @Test
+    public void testWaiterExpiresAndIdleConsumerIsClosed() {
+
+        // GIVEN a registry that keeps idle consumers open for 200ms
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 200, 100);
+
+        // WHEN a request waits for a command for 300ms
+        final AtomicBoolean expired = new AtomicBoolean(false);
+        final TtdWaiterRegistry.TtdWaiter waiter = registry.waitForCommand("tenant", "device", ctx -> {}, null).result();
+        waiter.expireAfter(300, v -> expired.set(true));
+
+        // THEN the request has not expired after two ticks
+        tick();
+        tick();
+        assertFalse(expired.get());
+        // but has expired after the third tick
+        tick();
+        assertTrue(expired.get());
+
+        // and WHEN the request has been processed
+        waiter.close(null);
+
+        // THEN the consumer is closed after the linger time has passed
+        tick();
+        verify(commandConsumer, never()).close(any());
+        tick();
+        verify(commandConsumer).close(any());
+        assertThat(registry.size(), is(0));
+    }
+
+    /**
+     * Verifies that the command consumer is closed immediately once the request
+     * has been processed if no linger time is configured.
+     */
+    @Test
+    public void testWaiterCloseClosesConsumerWithoutLingerTime() {
+
+        // GIVEN a registry that does not keep idle consumers open
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 0, 100);
+        final TtdWaiterRegistry.TtdWaiter waiter = registry.waitForCommand("tenant", "device", ctx -> {}, null).result();
+
+        // WHEN the request has been processed
+        waiter.close(null);
+
+        // THEN the consumer has been closed
+        verify(commandConsumer).close(any());
+        assertThat(registry.size(), is(0));
+    }
+
+    /**
+     * Verifies that a device's request succeeds in waiting for a command while the command
+     * consumer is still being created for the device's previous, already processed request.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWaitForCommandSucceedsWhileConsumerIsBeingCreated() {
+
+        // GIVEN a registry for which the creation of a command consumer takes some time
+        final Future<MessageConsumer> consumerCreation = Future.future();
+        when(commandConnection.createCommandConsumer(anyString(), anyString(), any(Handler.class), any(Handler.class)))
+            .thenReturn(consumerCreation);
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 1000, 100);
+
+        // WHEN a device's request has been processed before the consumer has been created
+        final Future<TtdWaiterRegistry.TtdWaiter> firstRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+        registry.getWaiter("tenant", "device").close(null);
+
+        // and the device sends another request that waits for a command
+        final Future<TtdWaiterRegistry.TtdWaiter> secondRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+
+        // THEN the second request waits for the consumer to be created
+        assertFalse(secondRequest.isComplete());
+
+        // and WHEN the consumer has been created
+        consumerCreation.complete(commandConsumer);
+
+        // THEN both requests have succeeded using the same consumer
+        assertTrue(firstRequest.succeeded());
+        assertTrue(secondRequest.succeeded());
+        verify(commandConnection, times(1)).createCommandConsumer(eq("tenant"), eq("device"), any(Handler.class), any(Handler.class));
+        verify(commandConsumer, never()).close(any());
+        // and the sender has been granted credit for sending a command to the second request
+        verify(commandConsumer).flow(1);
+        assertThat(registry.getWaiter("tenant", "device"), is(secondRequest.result()));
+    }
+
+    /**
+     * Verifies that a device's request which waits for the command consumer being created
+     * for the device's previous request fails if the consumer cannot be created.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWaitForCommandFailsIfPendingConsumerCreationFails() {
+
+        // GIVEN a registry for which the creation of a command consumer takes some time
+        final Future<MessageConsumer> consumerCreation = Future.future();
+        when(commandConnection.createCommandConsumer(anyString(), anyString(), any(Handler.class), any(Handler.class)))
+            .thenReturn(consumerCreation);
+        final TtdWaiterRegistry registry = new TtdWaiterRegistry(vertx, commandConnection, 1000, 100);
+
+        // WHEN a device's request has been processed before the consumer has been created
+        final Future<TtdWaiterRegistry.TtdWaiter> firstRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+        registry.getWaiter("tenant", "device").close(null);
+
+        // and the device sends another request that waits for a command
+        final Future<TtdWaiterRegistry.TtdWaiter> secondRequest = registry.waitForCommand("tenant", "device", ctx -> {}, null);
+
+        // and the consumer cannot be created
+        consumerCreation.fail(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE));
+
+        // THEN both requests fail
+        assertTrue(firstRequest.failed());
+        assertTrue(secondRequest.failed());
+        assertThat(secondRequest.cause(), instanceOf(ServerErrorException.class));
+        assertThat(registry.size(), is(0));
+    }
+
+    private void tick() {
+        final Handler<Long> handler = timerHandler.getAndSet(null);
+        if (handler != null) {
+            handler.handle(1L);
+        }
+    }
+}
@@ -51,6 +51,7 @@ public final class VertxBasedHttpProtocolAdapter extends AbstractVertxBasedHttpP
     private static final String PARAM_COMMAND_REQUEST_ID = "cmd_req_id";
 
     private static final String ROUTE_TELEMETRY_ENDPOINT = "/telemetry";
+    private static final String ROUTE_TELEMETRY_BATCH_ENDPOINT = "/telemetry-batch";
     private static final String ROUTE_EVENT_ENDPOINT = "/event";
 
     private HonoClientBasedAuthProvider<UsernamePasswordCredentials> usernamePasswordAuthProvider;
@@ -103,11 +104,12 @@ public final class VertxBasedHttpProtocolAdapter extends AbstractVertxBasedHttpP
             authHandler.append(new X509AuthHandler(
                     new TenantServiceBasedX509Authentication(getTenantServiceClient(), tracer),
                     Optional.ofNullable(clientCertAuthProvider).orElse(
-                            new X509AuthProvider(getCredentialsServiceClient(), getConfig(), tracer))));
+                            timeAuthentication(new X509AuthProvider(getCredentialsServiceClient(), getConfig(), tracer)))));
             authHandler.append(new HonoBasicAuthHandler(
                     Optional.ofNullable(usernamePasswordAuthProvider).orElse(
-                            new UsernamePasswordAuthProvider(getCredentialsServiceClient(), getConfig(), tracer)),
+                            timeAuthentication(new UsernamePasswordAuthProvider(getCredentialsServiceClient(), getConfig(), tracer))),
                     getConfig().getRealm(), tracer));
+            addTelemetryBatchRoutes(router, authHandler);
             addTelemetryApiRoutes(router, authHandler);
             addEventApiRoutes(router, authHandler);
             addCommandResponseRoutes(router, authHandler);
@@ -115,12 +117,53 @@ public final class VertxBasedHttpProtocolAdapter extends AbstractVertxBasedHttpP
 
             LOG.warn("device authentication has been disabled");
             LOG.warn("any device may publish data on behalf of all other devices");
+            addTelemetryBatchRoutes(router, null);
             addTelemetryApiRoutes(router, null);
             addEventApiRoutes(router, null);
             addCommandResponseRoutes(router, null);
         }
     }
 
+    /**
+     * Adds the routes for uploading batches of telemetry messages.
+     * <p>
+     * The routes use an endpoint of their own so that they cannot clash with the
+     * telemetry API routes for any tenant identifier.
+     *
+     * @param router The router to add the routes to.
+     * @param authHandler The handler to use for authenticating devices or {@code null}
+     *                    if authentication is disabled.
+     */
+    private void addTelemetryBatchRoutes(final Router router, final Handler<RoutingContext> authHandler) {
+
+        final String putBatchPath = String.format("%s/:%s", ROUTE_TELEMETRY_BATCH_ENDPOINT, PARAM_TENANT);
+
+        if (getConfig().isAuthenticationRequired()) {
+
+            // support CORS headers for POSTing telemetry batches
+            router.route(ROUTE_TELEMETRY_BATCH_ENDPOINT).handler(CorsHandler.create(getConfig().getCorsAllowedOrigin())
+                    .allowedMethod(HttpMethod.POST)
+                    .allowedHeader(Constants.HEADER_QOS_LEVEL)
+                    .allowedHeader(HttpHeaders.AUTHORIZATION.toString())
+                    .allowedHeader(HttpHeaders.CONTENT_TYPE.toString()));
+
+            // require auth for POSTing telemetry batches
+            router.route(HttpMethod.POST, ROUTE_TELEMETRY_BATCH_ENDPOINT).handler(authHandler);
+
+            // route for posting telemetry batches using the tenant determined as part of
+            // device authentication
+            router.route(HttpMethod.POST, ROUTE_TELEMETRY_BATCH_ENDPOINT).handler(this::handlePostTelemetryBatch);
+
+            // require auth for PUTing telemetry batches
+            router.route(HttpMethod.PUT, putBatchPath).handler(authHandler);
+            // assert that authenticated device's tenant matches tenant from path variables
+            router.route(HttpMethod.PUT, putBatchPath).handler(this::assertTenant);
+        }
+
+        // route for uploading telemetry batches
+        router.route(HttpMethod.PUT, putBatchPath).handler(ctx -> uploadTelemetryBatch(ctx, getTenantParam(ctx)));
+    }
+
     private void addTelemetryApiRoutes(final Router router, final Handler<RoutingContext> authHandler) {
 
         // support CORS headers for PUTing telemetry
@@ -280,6 +323,16 @@ public final class VertxBasedHttpProtocolAdapter extends AbstractVertxBasedHttpP
         }
     }
 
+    void handlePostTelemetryBatch(final RoutingContext ctx) {
+
+        if (Device.class.isInstance(ctx.user())) {
+            final Device device = (Device) ctx.user();
+            uploadTelemetryBatch(ctx, device.getTenantId());
+        } else {
+            handle401(ctx);
+        }
+    }
+
     void handlePostEvent(final RoutingContext ctx) {
 
         if (Device.class.isInstance(ctx.user())) {
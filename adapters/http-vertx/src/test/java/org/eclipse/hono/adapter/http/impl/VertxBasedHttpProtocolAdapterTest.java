@@ -348,6 +348,29 @@ public class VertxBasedHttpProtocolAdapterTest {
                 }).exceptionHandler(ctx::fail).end(new JsonObject().encodePrettily());
     }
 
+    /**
+     * Verifies that a device of a tenant named <em>batch</em> can upload telemetry
+     * data using PUT without the request being mistaken for a batch upload.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testPutTelemetrySucceedsForTenantNamedBatch(final TestContext ctx) {
+
+        final Async async = ctx.async();
+        final String authHeader = getBasicAuth("testuser@batch", "password123");
+
+        mockSuccessfulAuthentication("batch", "device_1");
+
+        httpClient.put("/telemetry/batch/device_1")
+                .putHeader(HttpHeaders.CONTENT_TYPE, HttpUtils.CONTENT_TYPE_JSON)
+                .putHeader(HttpHeaders.AUTHORIZATION, authHeader)
+                .handler(response -> {
+                    ctx.assertEquals(HttpURLConnection.HTTP_ACCEPTED, response.statusCode());
+                    async.complete();
+                }).exceptionHandler(ctx::fail).end(new JsonObject().encodePrettily());
+    }
+
     /**
      * Verifies that a request (with valid credentials) to upload telemetry data with 'QoS-Level: 2' using POST fails
      * with a 400 (Bad Request) status code.
@@ -45,6 +45,7 @@ import org.eclipse.hono.service.auth.device.X509AuthProvider;
 import org.eclipse.hono.service.metric.MetricsTags;
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
 import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.CommandConstants;
@@ -58,6 +59,7 @@ import io.micrometer.core.instrument.Timer.Sample;
 import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
 import io.netty.handler.codec.mqtt.MqttQoS;
 import io.opentracing.Span;
+import io.opentracing.Tracer;
 import io.opentracing.log.Fields;
 import io.opentracing.tag.Tags;
 import io.vertx.core.AsyncResult;
@@ -169,12 +171,12 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
         return new ChainAuthHandler<MqttContext>()
                 .append(new X509AuthHandler(
                         new TenantServiceBasedX509Authentication(getTenantServiceClient(), tracer),
-                        new X509AuthProvider(getCredentialsServiceClient(), getConfig(), tracer)))
+                        timeAuthentication(new X509AuthProvider(getCredentialsServiceClient(), getConfig(), tracer))))
                 .append(new ConnectPacketAuthHandler(
-                        new UsernamePasswordAuthProvider(
+                        timeAuthentication(new UsernamePasswordAuthProvider(
                                 getCredentialsServiceClient(),
                                 getConfig(),
-                                tracer)));
+                                tracer))));
     }
 
     /**
@@ -625,19 +627,19 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
     }
 
     private Span newSpan(final String operationName, final MqttEndpoint endpoint, final Device authenticatedDevice) {
-        final Span span = tracer.buildSpan(operationName)
+        final Tracer.SpanBuilder spanBuilder = tracer.buildSpan(operationName)
                 .ignoreActiveSpan()
                 .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
                 .withTag(Tags.COMPONENT.getKey(), getTypeName())
                 .withTag(TracingHelper.TAG_CLIENT_ID.getKey(), endpoint.clientIdentifier())
-                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null)
-                .start();
+                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), authenticatedDevice != null);
 
         if (authenticatedDevice != null) {
-            span.setTag(MessageHelper.APP_PROPERTY_TENANT_ID, authenticatedDevice.getTenantId());
-            span.setTag(MessageHelper.APP_PROPERTY_DEVICE_ID, authenticatedDevice.getDeviceId());
+            // set on the builder so that the tenant's sampling rate applies
+            spanBuilder.withTag(MessageHelper.APP_PROPERTY_TENANT_ID, authenticatedDevice.getTenantId());
+            spanBuilder.withTag(MessageHelper.APP_PROPERTY_DEVICE_ID, authenticatedDevice.getDeviceId());
         }
-        return span;
+        return spanBuilder.start();
     }
 
     /**
@@ -728,14 +730,18 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
         // there is no way to extract a SpanContext from an MQTT 3.1 message
         // so we start a new one for every message
         final MqttQoS qos = context.message().qosLevel();
-        final Span span = tracer.buildSpan("PUBLISH")
+        final Tracer.SpanBuilder spanBuilder = tracer.buildSpan("PUBLISH")
             .ignoreActiveSpan()
             .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER)
             .withTag(Tags.MESSAGE_BUS_DESTINATION.getKey(), context.message().topicName())
             .withTag(TracingHelper.TAG_QOS.getKey(), qos.toString())
             .withTag(Tags.COMPONENT.getKey(), getTypeName())
-            .withTag(TracingHelper.TAG_CLIENT_ID.getKey(), context.deviceEndpoint().clientIdentifier())
-            .start();
+            .withTag(TracingHelper.TAG_CLIENT_ID.getKey(), context.deviceEndpoint().clientIdentifier());
+        if (context.authenticatedDevice() != null) {
+            // allows the tenant's sampling rate to be applied to the trace
+            spanBuilder.withTag(MessageHelper.APP_PROPERTY_TENANT_ID, context.authenticatedDevice().getTenantId());
+        }
+        final Span span = spanBuilder.start();
         context.setTracingContext(span.context());
         context.setTimer(getMetrics().startTimer());
 
@@ -1066,9 +1072,10 @@ public abstract class AbstractVertxBasedMqttProtocolAdapter<T extends MqttProtoc
                     customizeDownstreamMessage(downstreamMessage, ctx);
 
                     if (ctx.isAtLeastOnce()) {
-                        return sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context());
+                        return timeStage(PipelineStage.DISPOSITION,
+                                () -> sender.sendAndWaitForOutcome(downstreamMessage, currentSpan.context()));
                     } else {
-                        return sender.send(downstreamMessage, currentSpan.context());
+                        return timeStage(PipelineStage.DISPOSITION, () -> sender.send(downstreamMessage, currentSpan.context()));
                     }
             }).compose(delivery -> {
 
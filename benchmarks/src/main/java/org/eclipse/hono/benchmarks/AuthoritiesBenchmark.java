@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.auth.Activity;
+import org.eclipse.hono.auth.Authorities;
+import org.eclipse.hono.auth.AuthoritiesImpl;
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Benchmarks for authorizing requests based on the {@link Authorities} granted to a client.
+ * <p>
+ * The fixture resembles the authorities that the Auth Server grants to protocol
+ * adapters and business applications.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthoritiesBenchmark {
+
+    private static final int NUMBER_OF_TENANTS = 50;
+
+    private Claims claims;
+    private Authorities authorities;
+    private ResourceIdentifier telemetryResource;
+    private ResourceIdentifier registrationResource;
+
+    /**
+     * Creates the claims and the authorities.
+     */
+    @Setup
+    public void setUp() {
+
+        claims = Jwts.claims()
+                .setSubject("hono-client@HONO")
+                .setIssuer("Hono")
+                .setAudience("hono-components");
+        claims.put("name", "Hono Client");
+        claims.put(AuthoritiesImpl.PREFIX_RESOURCE + "telemetry/*", "W");
+        claims.put(AuthoritiesImpl.PREFIX_RESOURCE + "event/*", "W");
+        claims.put(AuthoritiesImpl.PREFIX_RESOURCE + "control/*", "RW");
+        claims.put(AuthoritiesImpl.PREFIX_OPERATION + "credentials/*:get", "E");
+        claims.put(AuthoritiesImpl.PREFIX_OPERATION + "tenant:*", "E");
+        for (int i = 0; i < NUMBER_OF_TENANTS; i++) {
+            claims.put(AuthoritiesImpl.PREFIX_RESOURCE + "registration/tenant-" + i, "RW");
+            claims.put(AuthoritiesImpl.PREFIX_OPERATION + "registration/tenant-" + i + ":assert", "E");
+        }
+        authorities = AuthoritiesImpl.from(claims);
+        telemetryResource = ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", "4711");
+        registrationResource = ResourceIdentifier.from("registration", "tenant-" + (NUMBER_OF_TENANTS - 1), "4711");
+    }
+
+    /**
+     * Creates authorities from the claims of a token.
+     *
+     * @return The authorities.
+     */
+    @Benchmark
+    public Authorities fromClaims() {
+        return AuthoritiesImpl.from(claims);
+    }
+
+    /**
+     * Checks if a client may send telemetry data, which is granted
+     * for all tenants.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isAuthorizedForActivity() {
+        return authorities.isAuthorized(telemetryResource, Activity.WRITE);
+    }
+
+    /**
+     * Checks if a client may invoke an operation, which is granted
+     * for a specific tenant.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isAuthorizedForOperation() {
+        return authorities.isAuthorized(registrationResource, "assert");
+    }
+
+    /**
+     * Checks if a client may invoke an operation, which is not granted.
+     *
+     * @return {@code true} if the client is authorized.
+     */
+    @Benchmark
+    public boolean isAuthorizedForUnknownOperation() {
+        return authorities.isAuthorized(registrationResource, "delete");
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares the results of a JMH run with the results of a baseline run.
+ * <p>
+ * Both results are expected in JMH's JSON format. A benchmark is considered to
+ * have regressed if its primary score or the number of bytes it allocates per
+ * operation (as reported by the GC profiler) is worse than the baseline by more
+ * than a given tolerance. Benchmarks that are not contained in the baseline are
+ * ignored.
+ */
+public final class BaselineComparison {
+
+    /**
+     * The name of the GC profiler's metric for the bytes allocated per operation.
+     */
+    static final String METRIC_ALLOC_RATE_NORM = "·gc.alloc.rate.norm";
+
+    private static final String MODE_THROUGHPUT = "thrpt";
+
+    private BaselineComparison() {
+        // prevent instantiation
+    }
+
+    /**
+     * Compares the results of a JMH run with a baseline.
+     * <p>
+     * Exits with status code 1 if any of the benchmarks has regressed.
+     *
+     * @param args The path to the results, the path to the baseline results
+     *             and (optionally) the tolerance, defaulting to 0.1.
+     * @throws IOException if any of the files cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <results> <baseline> [tolerance]");
+            System.exit(2);
+        }
+        final Path baselinePath = Paths.get(args[1]);
+        if (!Files.isReadable(baselinePath)) {
+            System.out.println("no baseline found at " + baselinePath + ", skipping comparison");
+            return;
+        }
+        final double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+        final int regressions = compare(read(Paths.get(args[0])), read(baselinePath), tolerance);
+        if (regressions > 0) {
+            System.err.println(regressions + " regression(s) detected");
+            System.exit(1);
+        }
+        System.out.println("no regressions detected");
+    }
+
+    private static JsonArray read(final Path path) throws IOException {
+        return new JsonArray(Buffer.buffer(Files.readAllBytes(path)));
+    }
+
+    /**
+     * Compares results with baseline results and prints the outcome to stdout.
+     *
+     * @param results The results.
+     * @param baseline The baseline results.
+     * @param tolerance The ratio by which a result may be worse than the baseline.
+     * @return The number of regressions.
+     * @throws NullPointerException if any of results or baseline is {@code null}.
+     */
+    static int compare(final JsonArray results, final JsonArray baseline, final double tolerance) {
+
+        Objects.requireNonNull(results);
+        Objects.requireNonNull(baseline);
+
+        final Map<String, JsonObject> baselineResults = new HashMap<>();
+        baseline.forEach(result -> baselineResults.put(getKey((JsonObject) result), (JsonObject) result));
+
+        int regressions = 0;
+        for (final Object obj : results) {
+            final JsonObject result = (JsonObject) obj;
+            final String key = getKey(result);
+            final JsonObject baselineResult = baselineResults.get(key);
+            if (baselineResult == null) {
+                System.out.println(String.format("%-100s (no baseline)", key));
+                continue;
+            }
+            final boolean higherIsBetter = MODE_THROUGHPUT.equals(result.getString("mode"));
+            if (isRegression(key, getScore(result, null), getScore(baselineResult, null), higherIsBetter, tolerance)) {
+                regressions++;
+            }
+            if (isRegression(key + " [alloc]", getScore(result, METRIC_ALLOC_RATE_NORM),
+                    getScore(baselineResult, METRIC_ALLOC_RATE_NORM), false, tolerance)) {
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    private static String getKey(final JsonObject result) {
+        final StringBuilder key = new StringBuilder(result.getString("benchmark"));
+        final JsonObject params = result.getJsonObject("params");
+        if (params != null) {
+            params.stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(param -> key.append(':').append(param.getKey()).append('=').append(param.getValue()));
+        }
+        return key.toString();
+    }
+
+    private static Double getScore(final JsonObject result, final String secondaryMetric) {
+        final JsonObject metric;
+        if (secondaryMetric == null) {
+            metric = result.getJsonObject("primaryMetric");
+        } else {
+            final JsonObject secondaryMetrics = result.getJsonObject("secondaryMetrics");
+            metric = secondaryMetrics == null ? null : secondaryMetrics.getJsonObject(secondaryMetric);
+        }
+        return metric == null ? null : metric.getDouble("score");
+    }
+
+    private static boolean isRegression(
+            final String name,
+            final Double score,
+            final Double baselineScore,
+            final boolean higherIsBetter,
+            final double tolerance) {
+
+        if (score == null || baselineScore == null) {
+            return false;
+        }
+        final double change = baselineScore == 0.0 ? (score == 0.0 ? 0.0 : 1.0) : (score - baselineScore) / baselineScore;
+        final boolean regression = higherIsBetter ? change < -tolerance : change > tolerance;
+        System.out.println(String.format(Locale.ROOT, "%-100s %14.3f -> %14.3f (%+7.1f%%)%s",
+                name, baselineScore, score, change * 100, regression ? " REGRESSION" : ""));
+        return regression;
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.eclipse.hono.util.EventBusMessage;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.RegistrationConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for converting request messages of Hono's service APIs to
+ * {@link EventBusMessage}s and passing them via the vert.x event bus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventBusMessageBenchmark {
+
+    private Message request;
+    private JsonObject requestJson;
+
+    /**
+     * Creates an AMQP request message.
+     */
+    @Setup
+    public void setUp() {
+
+        request = new MessageImpl();
+        request.setSubject(RegistrationConstants.ACTION_ASSERT);
+        request.setMessageId("msg-4711-0815");
+        request.setReplyTo("registration/DEFAULT_TENANT/reply-to-4711");
+        request.setAddress("registration/DEFAULT_TENANT");
+        MessageHelper.addTenantId(request, "DEFAULT_TENANT");
+        MessageHelper.addDeviceId(request, "4711");
+        MessageHelper.setJsonPayload(request, new JsonObject()
+                .put("enabled", true)
+                .put("via", "gw-1")
+                .put("defaults", new JsonObject().put("content-type", "application/json").put("ttl", 30)));
+        requestJson = toEventBusMessage(request).toJson();
+    }
+
+    private static EventBusMessage toEventBusMessage(final Message message) {
+        return EventBusMessage.forOperation(message)
+                .setReplyToAddress(message)
+                .setAppCorrelationId(message)
+                .setCorrelationId(message)
+                .setTenant(message)
+                .setDeviceId(message)
+                .setGatewayId(message)
+                .setJsonPayload(message);
+    }
+
+    /**
+     * Converts an AMQP request message to its JSON representation that is sent via the event bus.
+     *
+     * @return The JSON.
+     */
+    @Benchmark
+    public JsonObject fromAmqpMessageToJson() {
+        return toEventBusMessage(request).toJson();
+    }
+
+    /**
+     * Creates a message from the JSON representation received via the event bus.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public EventBusMessage fromJson() {
+        return EventBusMessage.fromJson(requestJson);
+    }
+
+    /**
+     * Creates a response message for a request received via the event bus.
+     *
+     * @return The JSON representation of the response.
+     */
+    @Benchmark
+    public JsonObject getResponseToJson() {
+        return EventBusMessage.fromJson(requestJson)
+                .getResponse(200)
+                .setJsonPayload(new JsonObject().put("device-id", "4711"))
+                .toJson();
+    }
+}
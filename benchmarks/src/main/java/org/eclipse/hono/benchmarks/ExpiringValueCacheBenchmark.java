@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.service.cache.SpringBasedExpiringValueCache;
+import org.eclipse.hono.util.CacheDirective;
+import org.eclipse.hono.util.TenantObject;
+import org.eclipse.hono.util.TenantResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.guava.GuavaCacheManager;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Benchmarks for caching responses of Hono's service APIs in a {@link SpringBasedExpiringValueCache}
+ * as done by the clients used by protocol adapters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpiringValueCacheBenchmark {
+
+    private static final int NUMBER_OF_ENTRIES = 1000;
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private SpringBasedExpiringValueCache<Object, TenantResult<TenantObject>> cache;
+    private String[] keys;
+    private TenantResult<TenantObject> value;
+    private int index;
+
+    /**
+     * Creates the cache and populates it.
+     */
+    @Setup
+    public void setUp() {
+
+        final GuavaCacheManager manager = new GuavaCacheManager();
+        manager.setAllowNullValues(false);
+        manager.setCacheBuilder(CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .initialCapacity(NUMBER_OF_ENTRIES)
+                .maximumSize(NUMBER_OF_ENTRIES));
+        cache = new SpringBasedExpiringValueCache<>(manager.getCache("tenant"));
+        keys = new String[NUMBER_OF_ENTRIES];
+        value = TenantResult.from(200, TenantObject.from("DEFAULT_TENANT", true), CacheDirective.maxAgeDirective(600));
+        for (int i = 0; i < NUMBER_OF_ENTRIES; i++) {
+            keys[i] = "tenant-" + i;
+            cache.put(keys[i], value, MAX_AGE);
+        }
+    }
+
+    private String nextKey() {
+        index = (index + 1) % NUMBER_OF_ENTRIES;
+        return keys[index];
+    }
+
+    /**
+     * Gets an unexpired value from the cache.
+     *
+     * @return The value.
+     */
+    @Benchmark
+    public TenantResult<TenantObject> get() {
+        return cache.get(nextKey());
+    }
+
+    /**
+     * Puts a value to the cache, replacing an existing entry.
+     */
+    @Benchmark
+    public void put() {
+        cache.put(nextKey(), value, MAX_AGE);
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.eclipse.hono.util.MessageHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Benchmarks for setting and getting the payload of AMQP messages using {@link MessageHelper}.
+ * <p>
+ * The <em>gc.alloc.rate.norm</em> reported by the GC profiler reveals the number of
+ * bytes being copied per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageHelperBenchmark {
+
+    private static final String CONTENT_TYPE = "application/json";
+
+    /**
+     * The number of bytes of the payload.
+     */
+    @Param({ "64", "1024", "16384" })
+    public int payloadSize;
+
+    private Buffer payload;
+    private Message messageWithPayload;
+    private byte[] encodingBuffer;
+
+    /**
+     * Creates the payload and a message containing it.
+     */
+    @Setup
+    public void setUp() {
+        final byte[] bytes = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(bytes);
+        payload = Buffer.buffer(bytes);
+        messageWithPayload = newMessage();
+        MessageHelper.setPayload(messageWithPayload, CONTENT_TYPE, payload);
+        encodingBuffer = new byte[payloadSize + 1024];
+    }
+
+    private static Message newMessage() {
+        final Message message = new MessageImpl();
+        message.setAddress("telemetry/DEFAULT_TENANT");
+        MessageHelper.addTenantId(message, "DEFAULT_TENANT");
+        MessageHelper.addDeviceId(message, "4711");
+        return message;
+    }
+
+    /**
+     * Sets the payload of a message by means of copying the buffer's bytes.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message setPayload() {
+        final Message message = newMessage();
+        MessageHelper.setPayload(message, CONTENT_TYPE, payload);
+        return message;
+    }
+
+    /**
+     * Sets the payload of a message by means of sharing the buffer's bytes.
+     *
+     * @return The message.
+     */
+    @Benchmark
+    public Message wrapPayload() {
+        final Message message = newMessage();
+        MessageHelper.wrapPayload(message, CONTENT_TYPE, payload);
+        return message;
+    }
+
+    /**
+     * Gets the payload of a message.
+     *
+     * @return The payload.
+     */
+    @Benchmark
+    public Buffer getPayload() {
+        return MessageHelper.getPayload(messageWithPayload);
+    }
+
+    /**
+     * Encodes a message containing the payload.
+     *
+     * @return The number of bytes written.
+     */
+    @Benchmark
+    public int encode() {
+        return messageWithPayload.encode(encodingBuffer, 0, encodingBuffer.length);
+    }
+}
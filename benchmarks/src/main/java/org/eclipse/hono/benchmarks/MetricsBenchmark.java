@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.service.metric.MetricsTags;
+import org.eclipse.hono.service.metric.MicrometerBasedMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks for reporting the metrics of a message or command that has been
+ * processed by a protocol adapter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsBenchmark {
+
+    private static final int NUMBER_OF_TENANTS = 100;
+    private static final MetricsTags.Direction[] DIRECTIONS = MetricsTags.Direction.values();
+
+    private MicrometerBasedMetrics metrics;
+    private String[] tenants;
+    private int index;
+    private int commandIndex;
+
+    /**
+     * Creates the metrics and registers the meters for all tenants.
+     */
+    @Setup
+    public void setUp() {
+        metrics = new MicrometerBasedMetrics(new SimpleMeterRegistry()) {
+        };
+        tenants = new String[NUMBER_OF_TENANTS];
+        for (int i = 0; i < NUMBER_OF_TENANTS; i++) {
+            tenants[i] = "tenant-" + i;
+            reportTelemetry(tenants[i]);
+            for (final MetricsTags.Direction direction : DIRECTIONS) {
+                reportCommand(tenants[i], direction);
+            }
+        }
+    }
+
+    private void reportTelemetry(final String tenant) {
+        metrics.reportTelemetry(
+                MetricsTags.EndpointType.TELEMETRY,
+                tenant,
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                MetricsTags.QoS.AT_MOST_ONCE,
+                128,
+                metrics.startTimer());
+    }
+
+    private void reportCommand(final String tenant, final MetricsTags.Direction direction) {
+        metrics.reportCommand(
+                direction,
+                tenant,
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                128,
+                metrics.startTimer());
+    }
+
+    /**
+     * Reports a telemetry message of one of the tenants.
+     */
+    @Benchmark
+    public void reportTelemetry() {
+        index = (index + 1) % NUMBER_OF_TENANTS;
+        reportTelemetry(tenants[index]);
+    }
+
+    /**
+     * Reports a command of one of the tenants, cycling through all directions.
+     */
+    @Benchmark
+    public void reportCommand() {
+        commandIndex = (commandIndex + 1) % (NUMBER_OF_TENANTS * DIRECTIONS.length);
+        reportCommand(tenants[commandIndex / DIRECTIONS.length], DIRECTIONS[commandIndex % DIRECTIONS.length]);
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.ResourceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating and rendering {@link ResourceIdentifier}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResourceIdentifierBenchmark {
+
+    private static final String ADDRESS = "telemetry/DEFAULT_TENANT/4711";
+
+    private ResourceIdentifier resource;
+
+    /**
+     * Creates the resource identifier to render.
+     */
+    @Setup
+    public void setUp() {
+        resource = ResourceIdentifier.fromString(ADDRESS);
+    }
+
+    /**
+     * Creates an identifier from its segments.
+     *
+     * @return The identifier.
+     */
+    @Benchmark
+    public ResourceIdentifier from() {
+        return ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", "4711");
+    }
+
+    /**
+     * Creates an identifier from an address, e.g. a link's target address.
+     *
+     * @return The identifier.
+     */
+    @Benchmark
+    public ResourceIdentifier fromString() {
+        return ResourceIdentifier.fromString(ADDRESS);
+    }
+
+    /**
+     * Parses an address into an identifier.
+     *
+     * @return The identifier.
+     */
+    @Benchmark
+    public ResourceIdentifier parse() {
+        return ResourceIdentifier.parse(ADDRESS);
+    }
+
+    /**
+     * Renders the full path of an identifier.
+     *
+     * @return The path.
+     */
+    @Benchmark
+    public String renderToString() {
+        return ResourceIdentifier.from("telemetry", "DEFAULT_TENANT", "4711").toString();
+    }
+
+    /**
+     * Gets the base path (endpoint and tenant) of an identifier.
+     *
+     * @return The base path.
+     */
+    @Benchmark
+    public String getBasePath() {
+        return ResourceIdentifier.from(resource.getEndpoint(), resource.getTenantId(), "4712").getBasePath();
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.cert.TrustAnchor;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.util.Constants;
+import org.eclipse.hono.util.TenantConstants;
+import org.eclipse.hono.util.TenantObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Benchmarks for decoding and querying {@link TenantObject}s as returned by the Tenant service.
+ * <p>
+ * The fixture is a tenant with a trusted CA, a number of adapter configurations
+ * and custom properties, resembling the tenants of a production deployment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TenantObjectBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * The number of adapter configurations of the tenant.
+     */
+    @Param({ "4", "32" })
+    public int adapters;
+
+    private byte[] encodedTenant;
+    private TenantObject tenant;
+    private String lastAdapterType;
+
+    /**
+     * Creates the JSON representation of the tenant.
+     *
+     * @throws GeneralSecurityException if the trusted CA's key cannot be created.
+     * @throws IOException if the tenant cannot be decoded.
+     */
+    @Setup
+    public void setUp() throws GeneralSecurityException, IOException {
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        final PublicKey caKey = generator.generateKeyPair().getPublic();
+
+        final JsonArray adapterConfigs = new JsonArray();
+        for (int i = 0; i < adapters; i++) {
+            lastAdapterType = "hono-adapter-" + i;
+            adapterConfigs.add(TenantObject.newAdapterConfig(lastAdapterType, i % 5 != 0)
+                    .put(TenantConstants.FIELD_ADAPTERS_DEVICE_AUTHENTICATION_REQUIRED, true)
+                    .put(TenantConstants.FIELD_MAX_TTD, 30 + i)
+                    .put("ext", new JsonObject().put("vendor", "ACME Inc.").put("rate-limit", 1000 * i)));
+        }
+        final JsonObject ext = new JsonObject();
+        for (int i = 0; i < 20; i++) {
+            ext.put("property-" + i, "some value of a custom property of the tenant #" + i);
+        }
+        final JsonObject json = new JsonObject()
+                .put(TenantConstants.FIELD_PAYLOAD_TENANT_ID, Constants.DEFAULT_TENANT)
+                .put(TenantConstants.FIELD_ENABLED, true)
+                .put(TenantConstants.FIELD_PAYLOAD_TRUSTED_CA, new JsonObject()
+                        .put(TenantConstants.FIELD_PAYLOAD_SUBJECT_DN, "CN=DEFAULT_TENANT_CA,OU=Hono,O=Eclipse IoT")
+                        .put(TenantConstants.FIELD_PAYLOAD_PUBLIC_KEY, Base64.getEncoder().encodeToString(caKey.getEncoded())))
+                .put(TenantConstants.FIELD_ADAPTERS, adapterConfigs)
+                .put("ext", ext);
+        encodedTenant = json.toBuffer().getBytes();
+        tenant = decode();
+    }
+
+    /**
+     * Decodes the tenant from the payload of a Tenant service response.
+     *
+     * @return The tenant.
+     * @throws IOException if the tenant cannot be decoded.
+     */
+    @Benchmark
+    public TenantObject decode() throws IOException {
+        return OBJECT_MAPPER.readValue(encodedTenant, TenantObject.class);
+    }
+
+    /**
+     * Checks if the protocol adapter that is configured last is enabled.
+     *
+     * @return {@code true} if the adapter is enabled.
+     */
+    @Benchmark
+    public boolean isAdapterEnabled() {
+        return tenant.isAdapterEnabled(lastAdapterType);
+    }
+
+    /**
+     * Gets the maximum TTD of the protocol adapter that is configured last.
+     *
+     * @return The TTD.
+     */
+    @Benchmark
+    public int getMaxTimeUntilDisconnect() {
+        return tenant.getMaxTimeUntilDisconnect(lastAdapterType);
+    }
+
+    /**
+     * Decodes the tenant and creates the trust anchor of its trusted CA,
+     * as done when authenticating a device based on a client certificate.
+     *
+     * @return The trust anchor.
+     * @throws IOException if the tenant cannot be decoded.
+     * @throws GeneralSecurityException if the trust anchor cannot be created.
+     */
+    @Benchmark
+    public TrustAnchor decodeAndGetTrustAnchor() throws IOException, GeneralSecurityException {
+        return decode().getTrustAnchor();
+    }
+}
@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+/**
+ * JMH micro benchmarks for Hono's hot code paths.
+ * <p>
+ * The benchmarks are packaged into an executable <em>target/benchmarks.jar</em>
+ * and can be run (and compared with a baseline) using the <em>benchmark</em>
+ * Maven profile.
+ */
+package org.eclipse.hono.benchmarks;
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.util.MessageHelper;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.proton.ProtonClient;
+import io.vertx.proton.ProtonClientOptions;
+import io.vertx.proton.ProtonConnection;
+import io.vertx.proton.ProtonHelper;
+import io.vertx.proton.ProtonQoS;
+import io.vertx.proton.ProtonSender;
+import io.vertx.proton.sasl.impl.ProtonSaslPlainImpl;
+
+/**
+ * A device that sends messages to the AMQP adapter.
+ * <p>
+ * Devices using QoS 0 send their messages pre-settled on an <em>AT MOST ONCE</em> link,
+ * devices using QoS 1 send unsettled messages and wait for the adapter's disposition.
+ */
+final class AmqpDevice extends SimulatedDevice {
+
+    private ProtonConnection connection;
+    private ProtonSender sender;
+
+    AmqpDevice(
+            final Vertx vertx,
+            final int index,
+            final String tenantId,
+            final HarnessOptions options,
+            final LoadStatistics statistics) {
+
+        super(vertx, index, tenantId, options, statistics);
+    }
+
+    @Override
+    protected void connect(final String host, final int port, final Future<Void> result) {
+
+        final ProtonClientOptions clientOptions = new ProtonClientOptions()
+                .addEnabledSaslMechanism(ProtonSaslPlainImpl.MECH_NAME);
+        ProtonClient.create(vertx).connect(clientOptions, host, port, getUsername(), RegistryStandIn.PASSWORD,
+                connectAttempt -> {
+                    if (connectAttempt.failed()) {
+                        result.fail(connectAttempt.cause());
+                    } else {
+                        final ProtonConnection con = connectAttempt.result();
+                        connection = con;
+                        // the adapter closes the connection instead of opening it if the device cannot be authenticated
+                        con.closeHandler(remoteClose -> {
+                            con.close();
+                            con.disconnect();
+                            result.tryFail("connection closed by adapter");
+                        });
+                        con.disconnectHandler(lost -> result.tryFail("connection lost"));
+                        con.openHandler(remoteOpen -> {
+                            if (remoteOpen.failed()) {
+                                result.tryFail(remoteOpen.cause());
+                            } else {
+                                openSender(result);
+                            }
+                        });
+                        con.open();
+                    }
+                });
+    }
+
+    private void openSender(final Future<Void> result) {
+        // the adapter supports anonymous relay mode only
+        sender = connection.createSender(null);
+        sender.setQoS(options.getQos() == 0 ? ProtonQoS.AT_MOST_ONCE : ProtonQoS.AT_LEAST_ONCE);
+        sender.openHandler(remoteAttach -> {
+            if (remoteAttach.failed()) {
+                result.tryFail(remoteAttach.cause());
+            } else {
+                result.tryComplete();
+            }
+        });
+        sender.open();
+    }
+
+    @Override
+    protected void send(final Buffer payload, final Handler<AsyncResult<Void>> resultHandler) {
+
+        if (sender.sendQueueFull()) {
+            sender.sendQueueDrainHandler(replenished -> {
+                sender.sendQueueDrainHandler(null);
+                send(payload, resultHandler);
+            });
+            return;
+        }
+        final Message message = ProtonHelper.message();
+        message.setAddress(options.getEndpoint());
+        MessageHelper.wrapPayload(message, "application/octet-stream", payload);
+        if (options.getQos() == 0) {
+            sender.send(message);
+            resultHandler.handle(Future.succeededFuture());
+        } else {
+            sender.send(message, delivery -> {
+                if (delivery.getRemoteState() instanceof Accepted) {
+                    resultHandler.handle(Future.succeededFuture());
+                } else {
+                    resultHandler.handle(Future.failedFuture(new ServiceInvocationException(
+                            503, "message not accepted: " + delivery.getRemoteState())));
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void disconnect(final Future<Void> result) {
+        if (connection != null && !connection.isDisconnected()) {
+            connection.closeHandler(remoteClose -> result.tryComplete());
+            connection.disconnectHandler(con -> result.tryComplete());
+            connection.close();
+        } else {
+            result.complete();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.qpid.proton.message.Message;
+import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.service.amqp.AbstractAmqpEndpoint;
+import org.eclipse.hono.util.MessageHelper;
+import org.eclipse.hono.util.ResourceIdentifier;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.proton.ProtonConnection;
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * An endpoint that accepts telemetry or event messages from a protocol adapter.
+ * <p>
+ * The payload of each message received is passed to a consumer. Unsettled
+ * messages are accepted once the consumer has returned.
+ */
+final class DownstreamEndpoint extends AbstractAmqpEndpoint<ServiceConfigProperties> {
+
+    private final String name;
+    private final Consumer<Buffer> payloadConsumer;
+
+    DownstreamEndpoint(final Vertx vertx, final String name, final Consumer<Buffer> payloadConsumer) {
+        super(vertx);
+        this.name = Objects.requireNonNull(name);
+        this.payloadConsumer = Objects.requireNonNull(payloadConsumer);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void onLinkAttach(final ProtonConnection con, final ProtonReceiver receiver, final ResourceIdentifier targetResource) {
+
+        receiver.setQoS(receiver.getRemoteQoS());
+        receiver.handler((delivery, message) -> payloadConsumer.accept(MessageHelper.getPayload(message)));
+        receiver.closeHandler(remoteDetach -> onLinkDetach(receiver));
+        receiver.open();
+    }
+
+    @Override
+    public void onConnectionClosed(final ProtonConnection connection) {
+        // nothing to clean up
+    }
+
+    @Override
+    protected boolean passesFormalVerification(final ResourceIdentifier targetAddress, final Message message) {
+        return true;
+    }
+}
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.Objects;
+
+/**
+ * Options for a run of the {@link ThroughputHarness}.
+ * <p>
+ * The {@link #fromSystemProperties()} method creates options from system properties
+ * having the <em>harness.</em> prefix, e.g. <em>-Dharness.adapter=http</em>.
+ */
+public final class HarnessOptions {
+
+    /**
+     * The prefix of the system properties to read options from.
+     */
+    public static final String PREFIX = "harness.";
+
+    private AdapterType adapter = AdapterType.MQTT;
+    private String endpoint = "telemetry";
+    private int qos = 0;
+    private int devices = 100;
+    private int tenants = 1;
+    private int payloadSize = 128;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 30;
+    private long messageTimeoutMillis = 2000;
+    private String resultFile;
+
+    /**
+     * The protocol adapters that the harness can run.
+     */
+    public enum AdapterType {
+        /**
+         * The AMQP adapter.
+         */
+        AMQP,
+        /**
+         * The HTTP adapter.
+         */
+        HTTP,
+        /**
+         * The MQTT adapter.
+         */
+        MQTT;
+    }
+
+    /**
+     * Creates options from system properties.
+     * <p>
+     * Properties that are not set result in the default value being used.
+     *
+     * @return The options.
+     * @throws IllegalArgumentException if any of the properties has an invalid value.
+     */
+    public static HarnessOptions fromSystemProperties() {
+
+        final HarnessOptions options = new HarnessOptions();
+        options.setAdapter(AdapterType.valueOf(
+                System.getProperty(PREFIX + "adapter", options.adapter.name()).toUpperCase()));
+        options.setEndpoint(System.getProperty(PREFIX + "endpoint", options.endpoint));
+        options.setQos(Integer.getInteger(PREFIX + "qos", options.qos));
+        options.setDevices(Integer.getInteger(PREFIX + "devices", options.devices));
+        options.setTenants(Integer.getInteger(PREFIX + "tenants", options.tenants));
+        options.setPayloadSize(Integer.getInteger(PREFIX + "payloadSize", options.payloadSize));
+        options.setWarmupSeconds(Integer.getInteger(PREFIX + "warmup", options.warmupSeconds));
+        options.setDurationSeconds(Integer.getInteger(PREFIX + "duration", options.durationSeconds));
+        options.setMessageTimeoutMillis(Long.getLong(PREFIX + "messageTimeout", options.messageTimeoutMillis));
+        options.setResultFile(System.getProperty(PREFIX + "resultFile"));
+        return options;
+    }
+
+    /**
+     * Gets the protocol adapter to run.
+     *
+     * @return The adapter.
+     */
+    public AdapterType getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Sets the protocol adapter to run.
+     * <p>
+     * The default value of this property is {@link AdapterType#MQTT}.
+     *
+     * @param adapter The adapter.
+     * @return This object for command chaining.
+     * @throws NullPointerException if adapter is {@code null}.
+     */
+    public HarnessOptions setAdapter(final AdapterType adapter) {
+        this.adapter = Objects.requireNonNull(adapter);
+        return this;
+    }
+
+    /**
+     * Gets the endpoint that devices send messages to.
+     *
+     * @return The endpoint.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Sets the endpoint that devices send messages to.
+     * <p>
+     * The default value of this property is <em>telemetry</em>.
+     *
+     * @param endpoint The endpoint, either <em>telemetry</em> or <em>event</em>.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the endpoint is not supported.
+     */
+    public HarnessOptions setEndpoint(final String endpoint) {
+        if (!"telemetry".equals(endpoint) && !"event".equals(endpoint)) {
+            throw new IllegalArgumentException("endpoint must be telemetry or event");
+        }
+        this.endpoint = endpoint;
+        return this;
+    }
+
+    /**
+     * Gets the quality of service that devices use for sending messages.
+     *
+     * @return The QoS level.
+     */
+    public int getQos() {
+        return qos;
+    }
+
+    /**
+     * Sets the quality of service that devices use for sending messages.
+     * <p>
+     * Level 0 corresponds to MQTT QoS 0, pre-settled AMQP transfers and HTTP requests
+     * without a <em>QoS-Level</em> header. Level 1 corresponds to MQTT QoS 1, unsettled
+     * AMQP transfers and HTTP requests with a <em>QoS-Level</em> header of 1.
+     * <p>
+     * The default value of this property is 0.
+     *
+     * @param qos The QoS level.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the level is neither 0 nor 1.
+     */
+    public HarnessOptions setQos(final int qos) {
+        if (qos < 0 || qos > 1) {
+            throw new IllegalArgumentException("QoS must be 0 or 1");
+        }
+        this.qos = qos;
+        return this;
+    }
+
+    /**
+     * Gets the number of devices to simulate.
+     *
+     * @return The number of devices.
+     */
+    public int getDevices() {
+        return devices;
+    }
+
+    /**
+     * Sets the number of devices to simulate.
+     * <p>
+     * Each device sends its next message once its previous message has arrived at the
+     * messaging network (or is considered lost). The number of devices therefore
+     * determines the number of messages in flight.
+     * <p>
+     * The default value of this property is 100.
+     *
+     * @param devices The number of devices.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public HarnessOptions setDevices(final int devices) {
+        this.devices = requirePositive(devices, "devices");
+        return this;
+    }
+
+    /**
+     * Gets the number of tenants that the devices are distributed over.
+     *
+     * @return The number of tenants.
+     */
+    public int getTenants() {
+        return tenants;
+    }
+
+    /**
+     * Sets the number of tenants that the devices are distributed over.
+     * <p>
+     * The default value of this property is 1.
+     *
+     * @param tenants The number of tenants.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public HarnessOptions setTenants(final int tenants) {
+        this.tenants = requirePositive(tenants, "tenants");
+        return this;
+    }
+
+    /**
+     * Gets the size of the messages' payload.
+     *
+     * @return The number of bytes.
+     */
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * Sets the size of the messages' payload.
+     * <p>
+     * The default value of this property is 128.
+     *
+     * @param payloadSize The number of bytes.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the size is less than {@link SimulatedDevice#MIN_PAYLOAD_SIZE}.
+     */
+    public HarnessOptions setPayloadSize(final int payloadSize) {
+        if (payloadSize < SimulatedDevice.MIN_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("payload size must be at least " + SimulatedDevice.MIN_PAYLOAD_SIZE);
+        }
+        this.payloadSize = payloadSize;
+        return this;
+    }
+
+    /**
+     * Gets the number of seconds that messages are sent for before measuring starts.
+     *
+     * @return The number of seconds.
+     */
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * Sets the number of seconds that messages are sent for before measuring starts.
+     * <p>
+     * The default value of this property is 10.
+     *
+     * @param warmupSeconds The number of seconds.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public HarnessOptions setWarmupSeconds(final int warmupSeconds) {
+        if (warmupSeconds < 0) {
+            throw new IllegalArgumentException("warmup must not be negative");
+        }
+        this.warmupSeconds = warmupSeconds;
+        return this;
+    }
+
+    /**
+     * Gets the number of seconds to measure for.
+     *
+     * @return The number of seconds.
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * Sets the number of seconds to measure for.
+     * <p>
+     * The default value of this property is 30.
+     *
+     * @param durationSeconds The number of seconds.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public HarnessOptions setDurationSeconds(final int durationSeconds) {
+        this.durationSeconds = requirePositive(durationSeconds, "duration");
+        return this;
+    }
+
+    /**
+     * Gets the time after which a message that has not arrived is considered lost.
+     *
+     * @return The number of milliseconds.
+     */
+    public long getMessageTimeoutMillis() {
+        return messageTimeoutMillis;
+    }
+
+    /**
+     * Sets the time after which a message that has not arrived is considered lost.
+     * <p>
+     * The default value of this property is 2000.
+     *
+     * @param messageTimeoutMillis The number of milliseconds.
+     * @return This object for command chaining.
+     * @throws IllegalArgumentException if the number is &lt; 1.
+     */
+    public HarnessOptions setMessageTimeoutMillis(final long messageTimeoutMillis) {
+        if (messageTimeoutMillis < 1) {
+            throw new IllegalArgumentException("message timeout must be positive");
+        }
+        this.messageTimeoutMillis = messageTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Gets the path of the file to write the report to.
+     *
+     * @return The path or {@code null} if the report should not be written to a file.
+     */
+    public String getResultFile() {
+        return resultFile;
+    }
+
+    /**
+     * Sets the path of the file to write the report to in JSON format.
+     *
+     * @param resultFile The path or {@code null} if the report should not be written to a file.
+     * @return This object for command chaining.
+     */
+    public HarnessOptions setResultFile(final String resultFile) {
+        this.resultFile = resultFile;
+        return this;
+    }
+
+    private static int requirePositive(final int value, final String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("adapter: %s, endpoint: %s, QoS: %d, devices: %d, tenants: %d, payload: %d bytes",
+                adapter, endpoint, qos, devices, tenants, payloadSize);
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.util.Constants;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpHeaders;
+
+/**
+ * A device that posts messages to the HTTP adapter.
+ * <p>
+ * Each device uses its own persistent connection to the adapter.
+ */
+final class HttpDevice extends SimulatedDevice {
+
+    private final String uri;
+    private HttpClient client;
+    private String authorization;
+
+    HttpDevice(
+            final Vertx vertx,
+            final int index,
+            final String tenantId,
+            final HarnessOptions options,
+            final LoadStatistics statistics) {
+
+        super(vertx, index, tenantId, options, statistics);
+        this.uri = "/" + options.getEndpoint();
+    }
+
+    @Override
+    protected void connect(final String host, final int port, final Future<Void> result) {
+
+        client = vertx.createHttpClient(new HttpClientOptions()
+                .setDefaultHost(host)
+                .setDefaultPort(port)
+                .setKeepAlive(true)
+                .setMaxPoolSize(1));
+        authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (getUsername() + ":" + RegistryStandIn.PASSWORD).getBytes(StandardCharsets.UTF_8));
+        // connection is established with the first request
+        result.complete();
+    }
+
+    // vert.x 3.6 provides no means of registering a response handler that is not deprecated
+    @SuppressWarnings("deprecation")
+    @Override
+    protected void send(final Buffer payload, final Handler<AsyncResult<Void>> resultHandler) {
+
+        final HttpClientRequest request = client.post(uri);
+        request.handler(response -> {
+            response.bodyHandler(body -> {
+                if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                    resultHandler.handle(Future.succeededFuture());
+                } else {
+                    resultHandler.handle(Future.failedFuture(
+                            new ServiceInvocationException(response.statusCode(), response.statusMessage())));
+                }
+            });
+        });
+        request.exceptionHandler(t -> resultHandler.handle(Future.failedFuture(t)))
+            .putHeader(HttpHeaders.AUTHORIZATION, authorization)
+            .putHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        if (options.getQos() > 0) {
+            request.putHeader(Constants.HEADER_QOS_LEVEL, "1");
+        }
+        request.end(payload);
+    }
+
+    @Override
+    protected void disconnect(final Future<Void> result) {
+        if (client != null) {
+            client.close();
+        }
+        result.complete();
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the outcome of the messages sent by simulated devices.
+ * <p>
+ * Outcomes are only recorded while the statistics are
+ * {@linkplain #startRecording() recording}, i.e. messages sent during warm-up are ignored.
+ */
+final class LoadStatistics {
+
+    private final AtomicLong lost = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private long[] latencies = new long[1 << 16];
+    private int count = 0;
+    private volatile boolean recording = false;
+
+    /**
+     * Discards all outcomes recorded so far and starts recording.
+     */
+    synchronized void startRecording() {
+        count = 0;
+        lost.set(0);
+        failed.set(0);
+        recording = true;
+    }
+
+    /**
+     * Stops recording.
+     */
+    void stopRecording() {
+        recording = false;
+    }
+
+    /**
+     * Records the arrival of a message at the messaging network.
+     *
+     * @param latencyNanos The number of nanoseconds that have passed since the device
+     *                     has sent the message.
+     */
+    void onArrival(final long latencyNanos) {
+        if (recording) {
+            addLatency(latencyNanos);
+        }
+    }
+
+    private synchronized void addLatency(final long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count << 1);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    /**
+     * Records a message that has not arrived at the messaging network in time.
+     */
+    void onLoss() {
+        if (recording) {
+            lost.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a message that could not be sent to or has been rejected by the adapter.
+     */
+    void onFailure() {
+        if (recording) {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Creates a report from the outcomes recorded so far.
+     *
+     * @param options The options of the run.
+     * @param elapsedNanos The number of nanoseconds that the outcomes have been recorded for.
+     * @param allocatedBytes The number of bytes that have been allocated while recording.
+     * @return The report.
+     */
+    synchronized ThroughputReport toReport(final HarnessOptions options, final long elapsedNanos, final long allocatedBytes) {
+        final long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new ThroughputReport(options, sorted, elapsedNanos, allocatedBytes, lost.get(), failed.get());
+    }
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.function.Consumer;
+
+import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.service.amqp.AmqpServiceBase;
+import org.eclipse.hono.util.EventConstants;
+import org.eclipse.hono.util.TelemetryConstants;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * An AMQP server standing in for the AMQP Messaging Network.
+ * <p>
+ * The server accepts telemetry and event messages from protocol adapters and
+ * passes their payload to a consumer instead of forwarding them to
+ * business applications.
+ */
+final class MessagingNetworkStandIn extends AmqpServiceBase<ServiceConfigProperties> {
+
+    /**
+     * Creates a new server listening on a port of the loopback device.
+     *
+     * @param vertx The vert.x instance that the endpoints run on.
+     * @param port The port to listen on.
+     * @param payloadConsumer The consumer to pass the messages' payload to.
+     */
+    MessagingNetworkStandIn(final Vertx vertx, final int port, final Consumer<Buffer> payloadConsumer) {
+
+        final ServiceConfigProperties config = new ServiceConfigProperties();
+        config.setInsecurePortEnabled(true);
+        config.setInsecurePortBindAddress(ThroughputHarness.LOOPBACK);
+        config.setInsecurePort(port);
+        setConfig(config);
+        setAuthorizationService(new PermitAllAuthorizationService());
+        addEndpoint(new DownstreamEndpoint(vertx, TelemetryConstants.TELEMETRY_ENDPOINT, payloadConsumer));
+        addEndpoint(new DownstreamEndpoint(vertx, EventConstants.EVENT_ENDPOINT, payloadConsumer));
+    }
+
+    @Override
+    protected String getServiceName() {
+        return "Messaging-Network";
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mqtt.MqttClient;
+import io.vertx.mqtt.MqttClientOptions;
+
+/**
+ * A device that publishes messages to the MQTT adapter.
+ */
+final class MqttDevice extends SimulatedDevice {
+
+    private final MqttQoS qos;
+    private MqttClient client;
+
+    MqttDevice(
+            final Vertx vertx,
+            final int index,
+            final String tenantId,
+            final HarnessOptions options,
+            final LoadStatistics statistics) {
+
+        super(vertx, index, tenantId, options, statistics);
+        this.qos = options.getQos() == 0 ? MqttQoS.AT_MOST_ONCE : MqttQoS.AT_LEAST_ONCE;
+    }
+
+    @Override
+    protected void connect(final String host, final int port, final Future<Void> result) {
+
+        final MqttClientOptions clientOptions = new MqttClientOptions()
+                .setClientId(deviceId)
+                .setUsername(getUsername())
+                .setPassword(RegistryStandIn.PASSWORD)
+                .setAutoKeepAlive(true);
+        client = MqttClient.create(vertx, clientOptions);
+        client.connect(port, host, connectAttempt -> {
+            if (connectAttempt.failed()) {
+                result.fail(connectAttempt.cause());
+            } else if (connectAttempt.result().code() != MqttConnectReturnCode.CONNECTION_ACCEPTED) {
+                result.fail("connection refused: " + connectAttempt.result().code());
+            } else {
+                result.complete();
+            }
+        });
+    }
+
+    @Override
+    protected void send(final Buffer payload, final Handler<AsyncResult<Void>> resultHandler) {
+        client.publish(options.getEndpoint(), payload, qos, false, false,
+                publishAttempt -> resultHandler.handle(publishAttempt.map((Void) null)));
+    }
+
+    @Override
+    protected void disconnect(final Future<Void> result) {
+        if (client != null && client.isConnected()) {
+            client.disconnect(result);
+        } else {
+            result.complete();
+        }
+    }
+}
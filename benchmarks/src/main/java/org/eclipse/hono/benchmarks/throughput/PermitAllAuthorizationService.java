@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import org.eclipse.hono.auth.Activity;
+import org.eclipse.hono.auth.HonoUser;
+import org.eclipse.hono.service.auth.AuthorizationService;
+import org.eclipse.hono.util.ResourceIdentifier;
+
+import io.vertx.core.Future;
+
+/**
+ * An authorization service that grants all requests.
+ * <p>
+ * The protocol adapters connect to the stand-in services anonymously.
+ */
+final class PermitAllAuthorizationService implements AuthorizationService {
+
+    @Override
+    public Future<Boolean> isAuthorized(final HonoUser user, final ResourceIdentifier resource, final Activity intent) {
+        return Future.succeededFuture(Boolean.TRUE);
+    }
+
+    @Override
+    public Future<Boolean> isAuthorized(final HonoUser user, final ResourceIdentifier resource, final String operation) {
+        return Future.succeededFuture(Boolean.TRUE);
+    }
+}
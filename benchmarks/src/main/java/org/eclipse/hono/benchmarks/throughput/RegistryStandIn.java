@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.net.HttpURLConnection;
+import java.util.Objects;
+
+import org.eclipse.hono.auth.EncodedPassword;
+import org.eclipse.hono.auth.MessageDigestPasswordEncoder;
+import org.eclipse.hono.auth.SpringBasedHonoPasswordEncoder;
+import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.deviceregistry.DeviceRegistryAmqpServer;
+import org.eclipse.hono.deviceregistry.FileBasedCredentialsConfigProperties;
+import org.eclipse.hono.deviceregistry.FileBasedCredentialsService;
+import org.eclipse.hono.deviceregistry.FileBasedRegistrationConfigProperties;
+import org.eclipse.hono.deviceregistry.FileBasedRegistrationService;
+import org.eclipse.hono.deviceregistry.FileBasedTenantService;
+import org.eclipse.hono.deviceregistry.FileBasedTenantsConfigProperties;
+import org.eclipse.hono.service.credentials.CredentialsAmqpEndpoint;
+import org.eclipse.hono.service.registration.RegistrationAmqpEndpoint;
+import org.eclipse.hono.service.registration.RegistrationAssertionHelperImpl;
+import org.eclipse.hono.service.tenant.TenantAmqpEndpoint;
+import org.eclipse.hono.util.CredentialsConstants;
+import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.RequestResponseApiConstants;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * An in-memory device registry standing in for Hono's Device Registry.
+ * <p>
+ * The registry exposes the Tenant, Device Registration and Credentials APIs
+ * using the file based service implementations without reading from or
+ * writing to the file system.
+ */
+final class RegistryStandIn {
+
+    /**
+     * The password that all devices authenticate with.
+     */
+    static final String PASSWORD = "hono-secret";
+
+    private final Vertx vertx;
+    private final FileBasedTenantService tenantService = new FileBasedTenantService();
+    private final FileBasedRegistrationService registrationService = new FileBasedRegistrationService();
+    private final FileBasedCredentialsService credentialsService =
+            new FileBasedCredentialsService(new SpringBasedHonoPasswordEncoder());
+    private final DeviceRegistryAmqpServer server = new DeviceRegistryAmqpServer();
+    private final EncodedPassword hashedPassword = new EncodedPassword(
+            new MessageDigestPasswordEncoder(CredentialsConstants.HASH_FUNCTION_SHA256).encode(PASSWORD));
+
+    /**
+     * Creates a new registry listening on a port of the loopback device.
+     *
+     * @param vertx The vert.x instance to deploy the registry to.
+     * @param port The port to listen on.
+     */
+    RegistryStandIn(final Vertx vertx, final int port) {
+
+        this.vertx = Objects.requireNonNull(vertx);
+
+        final FileBasedTenantsConfigProperties tenantsConfig = new FileBasedTenantsConfigProperties();
+        tenantsConfig.setStartEmpty(true);
+        tenantsConfig.setSaveToFile(false);
+        tenantService.setConfig(tenantsConfig);
+
+        final FileBasedRegistrationConfigProperties registrationConfig = new FileBasedRegistrationConfigProperties();
+        registrationConfig.setStartEmpty(true);
+        registrationConfig.setSaveToFile(false);
+        registrationService.setConfig(registrationConfig);
+        registrationService.setRegistrationAssertionFactory(
+                RegistrationAssertionHelperImpl.forSharedSecret("benchmark-registration-assertion-secret", 3600));
+
+        final FileBasedCredentialsConfigProperties credentialsConfig = new FileBasedCredentialsConfigProperties();
+        credentialsConfig.setStartEmpty(true);
+        credentialsConfig.setSaveToFile(false);
+        credentialsService.setConfig(credentialsConfig);
+
+        final ServiceConfigProperties serverConfig = new ServiceConfigProperties();
+        serverConfig.setInsecurePortEnabled(true);
+        serverConfig.setInsecurePortBindAddress(ThroughputHarness.LOOPBACK);
+        serverConfig.setInsecurePort(port);
+        server.setConfig(serverConfig);
+        server.setAuthorizationService(new PermitAllAuthorizationService());
+
+        final TenantAmqpEndpoint tenantEndpoint = new TenantAmqpEndpoint(vertx);
+        tenantEndpoint.setConfiguration(serverConfig);
+        tenantEndpoint.setAuthorizationService(new PermitAllAuthorizationService());
+        server.addEndpoint(tenantEndpoint);
+        final RegistrationAmqpEndpoint registrationEndpoint = new RegistrationAmqpEndpoint(vertx);
+        registrationEndpoint.setConfiguration(serverConfig);
+        registrationEndpoint.setAuthorizationService(new PermitAllAuthorizationService());
+        server.addEndpoint(registrationEndpoint);
+        final CredentialsAmqpEndpoint credentialsEndpoint = new CredentialsAmqpEndpoint(vertx);
+        credentialsEndpoint.setConfiguration(serverConfig);
+        credentialsEndpoint.setAuthorizationService(new PermitAllAuthorizationService());
+        server.addEndpoint(credentialsEndpoint);
+    }
+
+    /**
+     * Deploys the registry's services and starts listening for connections.
+     *
+     * @return A future indicating the outcome.
+     */
+    Future<Void> start() {
+
+        return CompositeFuture.all(deploy(tenantService), deploy(registrationService), deploy(credentialsService))
+                .compose(ok -> deploy(server))
+                .map(ok -> (Void) null);
+    }
+
+    private Future<String> deploy(final Verticle verticle) {
+        final Future<String> result = Future.future();
+        vertx.deployVerticle(verticle, result);
+        return result;
+    }
+
+    /**
+     * Registers a tenant.
+     *
+     * @param tenantId The tenant's identifier.
+     * @throws IllegalStateException if the tenant could not be added.
+     */
+    void addTenant(final String tenantId) {
+
+        final int status = tenantService.add(
+                tenantId,
+                new JsonObject().put(RequestResponseApiConstants.FIELD_ENABLED, Boolean.TRUE))
+                .getStatus();
+        checkCreated(status, "tenant " + tenantId);
+    }
+
+    /**
+     * Registers a device along with a hashed password credential.
+     * <p>
+     * The device's identifier is used as the credential's authentication identifier
+     * and the password is {@link #PASSWORD}.
+     *
+     * @param tenantId The tenant that the device belongs to.
+     * @param deviceId The device's identifier.
+     * @throws IllegalStateException if the device could not be added.
+     */
+    void addDevice(final String tenantId, final String deviceId) {
+
+        final int status = registrationService.addDevice(
+                tenantId,
+                deviceId,
+                new JsonObject().put(RequestResponseApiConstants.FIELD_ENABLED, Boolean.TRUE))
+                .getStatus();
+        checkCreated(status, "device " + deviceId);
+
+        final CredentialsObject credentials = CredentialsObject.fromHashedPassword(
+                deviceId,
+                deviceId,
+                hashedPassword.password,
+                CredentialsConstants.HASH_FUNCTION_SHA256,
+                null,
+                null,
+                hashedPassword.salt);
+        credentialsService.add(tenantId, JsonObject.mapFrom(credentials), result -> {
+            checkCreated(result.result().getStatus(), "credentials of device " + deviceId);
+        });
+    }
+
+    private static void checkCreated(final int status, final String entity) {
+        if (status != HttpURLConnection.HTTP_CREATED) {
+            throw new IllegalStateException(String.format("cannot add %s [status: %d]", entity, status));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A device that sends messages to a protocol adapter.
+ * <p>
+ * A device sends its next message once its previous message has arrived at the
+ * messaging network, has been considered lost or could not be sent. The payload of
+ * each message starts with the time at which the message has been sent, followed
+ * by the index of the device and the message's sequence number, so that the
+ * harness can determine the message's latency and the device that sent it.
+ */
+abstract class SimulatedDevice {
+
+    /**
+     * The minimum number of bytes of a message's payload.
+     */
+    static final int MIN_PAYLOAD_SIZE = 16;
+
+    private static final int NOT_AWAITING = -1;
+    private static final long RETRY_DELAY_MILLIS = 100;
+    private static final int MAX_CONNECT_ATTEMPTS = 10;
+
+    /**
+     * The vert.x instance that the device runs on.
+     */
+    protected final Vertx vertx;
+    /**
+     * The tenant that the device belongs to.
+     */
+    protected final String tenantId;
+    /**
+     * The device's identifier.
+     */
+    protected final String deviceId;
+    /**
+     * The options of the harness run.
+     */
+    protected final HarnessOptions options;
+
+    private final int index;
+    private final LoadStatistics statistics;
+    private final byte[] padding;
+    private final AtomicInteger awaitedSequence = new AtomicInteger(NOT_AWAITING);
+    private Context context;
+    private int sequence = 0;
+    private volatile long sentAt;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a new device.
+     *
+     * @param vertx The vert.x instance to run on.
+     * @param index The device's index.
+     * @param tenantId The tenant that the device belongs to.
+     * @param options The options of the harness run.
+     * @param statistics The statistics to report failures to.
+     * @throws NullPointerException if any of the parameters is {@code null}.
+     */
+    protected SimulatedDevice(
+            final Vertx vertx,
+            final int index,
+            final String tenantId,
+            final HarnessOptions options,
+            final LoadStatistics statistics) {
+
+        this.vertx = Objects.requireNonNull(vertx);
+        this.index = index;
+        this.tenantId = Objects.requireNonNull(tenantId);
+        this.deviceId = getDeviceId(index);
+        this.options = Objects.requireNonNull(options);
+        this.statistics = Objects.requireNonNull(statistics);
+        this.padding = new byte[options.getPayloadSize() - MIN_PAYLOAD_SIZE];
+    }
+
+    /**
+     * Gets the identifier of the device with a given index.
+     *
+     * @param index The index.
+     * @return The identifier.
+     */
+    static String getDeviceId(final int index) {
+        return "device-" + index;
+    }
+
+    /**
+     * Gets the username that the device authenticates with.
+     *
+     * @return The username.
+     */
+    protected final String getUsername() {
+        return deviceId + "@" + tenantId;
+    }
+
+    /**
+     * Connects the device to the protocol adapter.
+     * <p>
+     * A failed connection attempt is retried a couple of times because the adapter
+     * may reject connections while it is still busy with opening its links to the
+     * Credentials and Device Registration services.
+     *
+     * @param host The host that the adapter is listening on.
+     * @param port The port that the adapter is listening on.
+     * @return A future indicating the outcome.
+     */
+    final Future<Void> start(final String host, final int port) {
+        final Future<Void> result = Future.future();
+        context = vertx.getOrCreateContext();
+        context.runOnContext(go -> tryConnect(host, port, 1, result));
+        return result;
+    }
+
+    private void tryConnect(final String host, final int port, final int attempt, final Future<Void> result) {
+
+        final Future<Void> connectAttempt = Future.future();
+        connect(host, port, connectAttempt);
+        connectAttempt.setHandler(outcome -> {
+            if (outcome.succeeded()) {
+                result.complete();
+            } else if (attempt < MAX_CONNECT_ATTEMPTS) {
+                vertx.setTimer(RETRY_DELAY_MILLIS * attempt, retry -> tryConnect(host, port, attempt + 1, result));
+            } else {
+                result.fail(outcome.cause());
+            }
+        });
+    }
+
+    /**
+     * Starts sending messages.
+     */
+    final void startSending() {
+        running = true;
+        sendNext();
+    }
+
+    /**
+     * Stops sending messages and disconnects from the adapter.
+     *
+     * @return A future indicating the outcome.
+     */
+    final Future<Void> stop() {
+        running = false;
+        final Future<Void> result = Future.future();
+        context.runOnContext(go -> disconnect(result));
+        return result;
+    }
+
+    private void sendNext() {
+        if (running) {
+            context.runOnContext(go -> send());
+        }
+    }
+
+    private void send() {
+
+        final int currentSequence = ++sequence;
+        final long now = System.nanoTime();
+        final Buffer payload = Buffer.buffer(options.getPayloadSize())
+                .appendLong(now)
+                .appendInt(index)
+                .appendInt(currentSequence)
+                .appendBytes(padding);
+        sentAt = now;
+        awaitedSequence.set(currentSequence);
+        send(payload, sendAttempt -> {
+            if (sendAttempt.failed() && awaitedSequence.compareAndSet(currentSequence, NOT_AWAITING)) {
+                statistics.onFailure();
+                vertx.setTimer(RETRY_DELAY_MILLIS, retry -> sendNext());
+            }
+        });
+    }
+
+    /**
+     * Invoked when a message sent by this device has arrived at the messaging network.
+     *
+     * @param messageSequence The message's sequence number.
+     */
+    final void onArrival(final int messageSequence) {
+        if (awaitedSequence.compareAndSet(messageSequence, NOT_AWAITING)) {
+            sendNext();
+        }
+    }
+
+    /**
+     * Checks if the message that this device waits for is overdue.
+     * <p>
+     * If so, the message is considered lost and the next message is sent.
+     *
+     * @param now The current time in nanoseconds.
+     * @param timeoutNanos The number of nanoseconds after which a message is overdue.
+     */
+    final void checkTimeout(final long now, final long timeoutNanos) {
+        final int awaited = awaitedSequence.get();
+        if (awaited != NOT_AWAITING && now - sentAt > timeoutNanos
+                && awaitedSequence.compareAndSet(awaited, NOT_AWAITING)) {
+            statistics.onLoss();
+            sendNext();
+        }
+    }
+
+    /**
+     * Connects to the protocol adapter.
+     * <p>
+     * This method is invoked on the device's vert.x context.
+     *
+     * @param host The host that the adapter is listening on.
+     * @param port The port that the adapter is listening on.
+     * @param result The future to complete once the device is ready to send messages.
+     */
+    protected abstract void connect(String host, int port, Future<Void> result);
+
+    /**
+     * Sends a message to the protocol adapter.
+     * <p>
+     * This method is invoked on the device's vert.x context.
+     *
+     * @param payload The message's payload.
+     * @param resultHandler The handler to invoke with the outcome. The handler is
+     *                      invoked with a failed result if the adapter has rejected
+     *                      the message.
+     */
+    protected abstract void send(Buffer payload, Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * Disconnects from the protocol adapter.
+     * <p>
+     * This method is invoked on the device's vert.x context.
+     *
+     * @param result The future to complete once the device has been disconnected.
+     */
+    protected abstract void disconnect(Future<Void> result);
+}
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.adapter.amqp.AmqpAdapterProperties;
+import org.eclipse.hono.adapter.amqp.MicrometerBasedAmqpAdapterMetrics;
+import org.eclipse.hono.adapter.amqp.impl.VertxBasedAmqpProtocolAdapter;
+import org.eclipse.hono.adapter.http.HttpProtocolAdapterProperties;
+import org.eclipse.hono.adapter.http.MicrometerBasedHttpAdapterMetrics;
+import org.eclipse.hono.adapter.http.impl.VertxBasedHttpProtocolAdapter;
+import org.eclipse.hono.adapter.mqtt.MicrometerBasedMqttAdapterMetrics;
+import org.eclipse.hono.adapter.mqtt.MqttProtocolAdapterProperties;
+import org.eclipse.hono.adapter.mqtt.impl.VertxBasedMqttProtocolAdapter;
+import org.eclipse.hono.client.HonoClient;
+import org.eclipse.hono.client.impl.CommandConnectionImpl;
+import org.eclipse.hono.client.impl.HonoClientImpl;
+import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.config.ProtocolAdapterProperties;
+import org.eclipse.hono.service.AbstractProtocolAdapterBase;
+import org.eclipse.hono.service.cache.SpringCacheProvider;
+import org.springframework.cache.guava.GuavaCacheManager;
+
+import com.google.common.cache.CacheBuilder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A harness for measuring the end-to-end throughput of a protocol adapter.
+ * <p>
+ * The harness runs a protocol adapter along with stand-ins for the AMQP Messaging
+ * Network and the Device Registry in a single JVM, connected via the loopback device.
+ * A configurable number of simulated devices then sends messages to the adapter.
+ * Each device sends its next message once the previous one has arrived at the
+ * messaging network stand-in, so that the number of devices determines the number of
+ * messages in flight.
+ * <p>
+ * After a warm-up period, the harness measures the number of messages that arrive
+ * per second, the messages' latency and the number of bytes allocated per message.
+ * The allocation figure is taken from all threads of the JVM, i.e. it includes the
+ * allocations of the simulated devices and the stand-in services, and is therefore
+ * only meaningful for comparing runs of the same configuration.
+ * <p>
+ * The harness is configured by means of system properties, see
+ * {@link HarnessOptions#fromSystemProperties()}.
+ */
+public final class ThroughputHarness {
+
+    /**
+     * The address that all components bind to.
+     */
+    static final String LOOPBACK = "127.0.0.1";
+
+    private static final long STARTUP_TIMEOUT_SECONDS = 30;
+
+    private final HarnessOptions options;
+    private final LoadStatistics statistics = new LoadStatistics();
+    // read on the messaging network stand-in's event loop
+    private volatile List<SimulatedDevice> devices = Collections.emptyList();
+
+    /**
+     * Creates a new harness.
+     *
+     * @param options The options to run with.
+     * @throws NullPointerException if options is {@code null}.
+     */
+    public ThroughputHarness(final HarnessOptions options) {
+        this.options = Objects.requireNonNull(options);
+    }
+
+    /**
+     * Runs the harness using options read from system properties.
+     * <p>
+     * The report is printed to standard out and written to the result
+     * file, if configured.
+     *
+     * @param args Not used.
+     * @throws Exception if the run fails.
+     */
+    public static void main(final String[] args) throws Exception {
+
+        // route vert.x' own log output (e.g. of the MQTT client) to the same logging framework
+        System.setProperty("vertx.logger-delegate-factory-class-name", "io.vertx.core.logging.SLF4JLogDelegateFactory");
+        final HarnessOptions options = HarnessOptions.fromSystemProperties();
+        System.out.println("running throughput harness " + options);
+        final ThroughputReport report = new ThroughputHarness(options).run();
+        System.out.println(report);
+        if (options.getResultFile() != null) {
+            Files.write(
+                    Paths.get(options.getResultFile()),
+                    report.toJson().encodePrettily().getBytes(StandardCharsets.UTF_8));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Runs the harness.
+     * <p>
+     * This method blocks until the run has completed.
+     *
+     * @return The results of the run.
+     * @throws Exception if any of the components could not be started.
+     */
+    @SuppressWarnings("rawtypes")
+    public ThroughputReport run() throws Exception {
+
+        final Vertx serverVertx = Vertx.vertx();
+        final Vertx deviceVertx = Vertx.vertx();
+        String adapterDeploymentId = null;
+
+        try {
+            final int messagingPort = getFreePort();
+            final int registryPort = getFreePort();
+            final int adapterPort = getFreePort();
+
+            final MessagingNetworkStandIn messagingNetwork = new MessagingNetworkStandIn(
+                    serverVertx, messagingPort, this::onMessage);
+            await(deploy(serverVertx, messagingNetwork));
+
+            final RegistryStandIn registry = new RegistryStandIn(serverVertx, registryPort);
+            await(registry.start());
+            for (int i = 0; i < options.getTenants(); i++) {
+                registry.addTenant(getTenantId(i));
+            }
+            for (int i = 0; i < options.getDevices(); i++) {
+                registry.addDevice(getTenantId(i % options.getTenants()), SimulatedDevice.getDeviceId(i));
+            }
+
+            final List<HonoClient> clients = new ArrayList<>();
+            final AbstractProtocolAdapterBase<?> adapter = createAdapter(
+                    serverVertx, adapterPort, messagingPort, registryPort, clients);
+            adapterDeploymentId = await(deploy(serverVertx, adapter));
+            await(waitForConnections(serverVertx, clients));
+            await(openLinks(clients));
+
+            final List<SimulatedDevice> createdDevices = new ArrayList<>(options.getDevices());
+            final List<Future> connectAttempts = new ArrayList<>();
+            for (int i = 0; i < options.getDevices(); i++) {
+                final SimulatedDevice device = createDevice(deviceVertx, i, getTenantId(i % options.getTenants()));
+                createdDevices.add(device);
+                connectAttempts.add(device.start(LOOPBACK, adapterPort));
+            }
+            await(CompositeFuture.all(connectAttempts));
+            devices = Collections.unmodifiableList(createdDevices);
+
+            final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(options.getMessageTimeoutMillis());
+            deviceVertx.setPeriodic(Math.max(10, options.getMessageTimeoutMillis() / 4), tid -> {
+                final long now = System.nanoTime();
+                devices.forEach(device -> device.checkTimeout(now, timeoutNanos));
+            });
+            devices.forEach(SimulatedDevice::startSending);
+
+            TimeUnit.SECONDS.sleep(options.getWarmupSeconds());
+            statistics.startRecording();
+            final long allocatedAtStart = getAllocatedBytes();
+            final long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(options.getDurationSeconds());
+            final long elapsed = System.nanoTime() - start;
+            final long allocated = getAllocatedBytes() - allocatedAtStart;
+            statistics.stopRecording();
+
+            final List<Future> disconnectAttempts = new ArrayList<>();
+            devices.forEach(device -> disconnectAttempts.add(device.stop()));
+            await(CompositeFuture.join(disconnectAttempts).otherwiseEmpty());
+
+            return statistics.toReport(options, elapsed, allocated);
+
+        } finally {
+            await(close(deviceVertx));
+            if (adapterDeploymentId != null) {
+                // stop the adapter first so that it can close its connections gracefully
+                await(undeploy(serverVertx, adapterDeploymentId));
+            }
+            await(close(serverVertx));
+        }
+    }
+
+    private void onMessage(final Buffer payload) {
+
+        final long now = System.nanoTime();
+        statistics.onArrival(now - payload.getLong(0));
+        final int deviceIndex = payload.getInt(8);
+        final List<SimulatedDevice> currentDevices = devices;
+        if (deviceIndex >= 0 && deviceIndex < currentDevices.size()) {
+            currentDevices.get(deviceIndex).onArrival(payload.getInt(12));
+        }
+    }
+
+    private static String getTenantId(final int index) {
+        return "tenant-" + index;
+    }
+
+    private SimulatedDevice createDevice(final Vertx vertx, final int index, final String tenantId) {
+
+        switch (options.getAdapter()) {
+        case AMQP:
+            return new AmqpDevice(vertx, index, tenantId, options, statistics);
+        case HTTP:
+            return new HttpDevice(vertx, index, tenantId, options, statistics);
+        default:
+            return new MqttDevice(vertx, index, tenantId, options, statistics);
+        }
+    }
+
+    private AbstractProtocolAdapterBase<?> createAdapter(
+            final Vertx vertx,
+            final int adapterPort,
+            final int messagingPort,
+            final int registryPort,
+            final List<HonoClient> clients) {
+
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final AbstractProtocolAdapterBase<?> adapter;
+        final ProtocolAdapterProperties config;
+
+        switch (options.getAdapter()) {
+        case AMQP:
+            final VertxBasedAmqpProtocolAdapter amqpAdapter = new VertxBasedAmqpProtocolAdapter();
+            final AmqpAdapterProperties amqpConfig = new AmqpAdapterProperties();
+            amqpAdapter.setConfig(amqpConfig);
+            amqpAdapter.setMetrics(new MicrometerBasedAmqpAdapterMetrics(meterRegistry));
+            adapter = amqpAdapter;
+            config = amqpConfig;
+            break;
+        case HTTP:
+            final VertxBasedHttpProtocolAdapter httpAdapter = new VertxBasedHttpProtocolAdapter();
+            final HttpProtocolAdapterProperties httpConfig = new HttpProtocolAdapterProperties();
+            httpAdapter.setConfig(httpConfig);
+            httpAdapter.setMetrics(new MicrometerBasedHttpAdapterMetrics(meterRegistry));
+            adapter = httpAdapter;
+            config = httpConfig;
+            break;
+        default:
+            final VertxBasedMqttProtocolAdapter mqttAdapter = new VertxBasedMqttProtocolAdapter();
+            final MqttProtocolAdapterProperties mqttConfig = new MqttProtocolAdapterProperties();
+            mqttAdapter.setConfig(mqttConfig);
+            mqttAdapter.setMetrics(new MicrometerBasedMqttAdapterMetrics(meterRegistry));
+            adapter = mqttAdapter;
+            config = mqttConfig;
+        }
+
+        config.setInsecurePortEnabled(true);
+        config.setInsecurePortBindAddress(LOOPBACK);
+        config.setInsecurePort(adapterPort);
+        config.setMaxPayloadSize(Math.max(config.getMaxPayloadSize(), options.getPayloadSize()));
+
+        final HonoClientImpl messagingClient = new HonoClientImpl(vertx, newClientConfig("messaging", messagingPort));
+        final HonoClientImpl tenantClient = new HonoClientImpl(vertx, newClientConfig("tenant", registryPort));
+        tenantClient.setCacheProvider(newCacheProvider());
+        final HonoClientImpl registrationClient = new HonoClientImpl(vertx, newClientConfig("registration", registryPort));
+        registrationClient.setCacheProvider(newCacheProvider());
+        final HonoClientImpl credentialsClient = new HonoClientImpl(vertx, newClientConfig("credentials", registryPort));
+        final CommandConnectionImpl commandConnection = new CommandConnectionImpl(
+                vertx, newClientConfig("command", messagingPort));
+
+        adapter.setHonoMessagingClient(messagingClient);
+        adapter.setTenantServiceClient(tenantClient);
+        adapter.setRegistrationServiceClient(registrationClient);
+        adapter.setCredentialsServiceClient(credentialsClient);
+        adapter.setCommandConnection(commandConnection);
+        clients.add(messagingClient);
+        clients.add(tenantClient);
+        clients.add(registrationClient);
+        clients.add(credentialsClient);
+        clients.add(commandConnection);
+        return adapter;
+    }
+
+    private static ClientConfigProperties newClientConfig(final String name, final int port) {
+        final ClientConfigProperties config = new ClientConfigProperties();
+        config.setName(name);
+        config.setHost(LOOPBACK);
+        config.setPort(port);
+        return config;
+    }
+
+    private static SpringCacheProvider newCacheProvider() {
+        final GuavaCacheManager manager = new GuavaCacheManager();
+        manager.setAllowNullValues(false);
+        manager.setCacheBuilder(CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(10_000));
+        return new SpringCacheProvider(manager);
+    }
+
+    private static Future<Void> waitForConnections(final Vertx vertx, final List<HonoClient> clients) {
+
+        final Future<Void> result = Future.future();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+        checkConnections(vertx, clients, deadline, result);
+        return result;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void checkConnections(
+            final Vertx vertx,
+            final List<HonoClient> clients,
+            final long deadline,
+            final Future<Void> result) {
+
+        final List<Future> checks = new ArrayList<>();
+        clients.forEach(client -> checks.add(client.isConnected()));
+        CompositeFuture.all(checks).setHandler(check -> {
+            if (check.succeeded()) {
+                result.complete();
+            } else if (System.nanoTime() > deadline) {
+                result.fail(new IllegalStateException("adapter could not connect to stand-in services"));
+            } else {
+                vertx.setTimer(100, retry -> checkConnections(vertx, clients, deadline, result));
+            }
+        });
+    }
+
+    /**
+     * Opens the adapter's links to the stand-in services for all tenants.
+     * <p>
+     * The adapter rejects requests that need a link which is still being opened
+     * on behalf of another request, so the links are opened before devices connect
+     * concurrently.
+     */
+    @SuppressWarnings("rawtypes")
+    private Future<CompositeFuture> openLinks(final List<HonoClient> clients) {
+
+        final HonoClient messagingClient = clients.get(0);
+        final List<Future> links = new ArrayList<>();
+        links.add(clients.get(1).getOrCreateTenantClient());
+        for (int i = 0; i < options.getTenants(); i++) {
+            final String tenantId = getTenantId(i);
+            links.add(messagingClient.getOrCreateTelemetrySender(tenantId));
+            links.add(messagingClient.getOrCreateEventSender(tenantId));
+            links.add(clients.get(2).getOrCreateRegistrationClient(tenantId));
+            links.add(clients.get(3).getOrCreateCredentialsClient(tenantId));
+        }
+        return CompositeFuture.all(links);
+    }
+
+    /**
+     * Gets the total number of bytes allocated by all live threads of the JVM.
+     * <p>
+     * Allocations of threads that have terminated since the last invocation
+     * are not included.
+     *
+     * @return The number of bytes or 0 if the JVM does not support measuring allocations.
+     */
+    private static long getAllocatedBytes() {
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+        long total = 0;
+        for (final long allocated : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static int getFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getByName(LOOPBACK))) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Future<String> deploy(final Vertx vertx, final Verticle verticle) {
+        final Future<String> result = Future.future();
+        vertx.deployVerticle(verticle, result);
+        return result;
+    }
+
+    private static Future<Void> undeploy(final Vertx vertx, final String deploymentId) {
+        final Future<Void> result = Future.future();
+        vertx.undeploy(deploymentId, result);
+        return result;
+    }
+
+    private static Future<Void> close(final Vertx vertx) {
+        final Future<Void> result = Future.future();
+        vertx.close(result);
+        return result;
+    }
+
+    private static <T> T await(final Future<T> future) throws Exception {
+
+        final CompletableFuture<T> outcome = new CompletableFuture<>();
+        future.setHandler(attempt -> {
+            if (attempt.succeeded()) {
+                outcome.complete(attempt.result());
+            } else {
+                outcome.completeExceptionally(attempt.cause());
+            }
+        });
+        return outcome.get(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The results of a throughput harness run.
+ * <p>
+ * Latencies are measured from the moment a device has started to send a message
+ * until the message has arrived at the messaging network and are reported in
+ * microseconds.
+ */
+public final class ThroughputReport {
+
+    private final HarnessOptions options;
+    private final long messages;
+    private final double messagesPerSecond;
+    private final long latencyP50;
+    private final long latencyP90;
+    private final long latencyP99;
+    private final long latencyP999;
+    private final long latencyMax;
+    private final long allocatedBytesPerMessage;
+    private final long lost;
+    private final long failed;
+
+    /**
+     * Creates a new report.
+     *
+     * @param options The options of the run.
+     * @param sortedLatencies The latencies of all messages that have arrived in nanoseconds,
+     *                        in ascending order.
+     * @param elapsedNanos The duration of the measurement in nanoseconds.
+     * @param allocatedBytes The number of bytes that have been allocated during the measurement.
+     * @param lost The number of messages that have not arrived in time.
+     * @param failed The number of messages that could not be sent.
+     */
+    ThroughputReport(
+            final HarnessOptions options,
+            final long[] sortedLatencies,
+            final long elapsedNanos,
+            final long allocatedBytes,
+            final long lost,
+            final long failed) {
+
+        this.options = Objects.requireNonNull(options);
+        this.messages = sortedLatencies.length;
+        this.messagesPerSecond = messages * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        this.latencyP50 = percentile(sortedLatencies, 0.5);
+        this.latencyP90 = percentile(sortedLatencies, 0.9);
+        this.latencyP99 = percentile(sortedLatencies, 0.99);
+        this.latencyP999 = percentile(sortedLatencies, 0.999);
+        this.latencyMax = messages == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(sortedLatencies[sortedLatencies.length - 1]);
+        this.allocatedBytesPerMessage = messages == 0 ? 0 : allocatedBytes / messages;
+        this.lost = lost;
+        this.failed = failed;
+    }
+
+    private static long percentile(final long[] sortedValues, final double percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sortedValues[Math.max(0, index)]);
+    }
+
+    /**
+     * Gets the number of messages that have arrived at the messaging network.
+     *
+     * @return The number of messages.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * Gets the number of messages per second that have arrived at the messaging network.
+     *
+     * @return The throughput.
+     */
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    /**
+     * Gets the median latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    /**
+     * Gets the 99th percentile of the latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+
+    /**
+     * Gets the number of bytes allocated per message that has arrived.
+     * <p>
+     * The figure covers all threads of the JVM, i.e. it includes the allocations
+     * of the simulated devices and the stand-in services.
+     *
+     * @return The number of bytes.
+     */
+    public long getAllocatedBytesPerMessage() {
+        return allocatedBytesPerMessage;
+    }
+
+    /**
+     * Gets the number of messages that have not arrived in time.
+     *
+     * @return The number of messages.
+     */
+    public long getLost() {
+        return lost;
+    }
+
+    /**
+     * Gets the number of messages that could not be sent or that have
+     * been rejected by the adapter.
+     *
+     * @return The number of messages.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets a JSON representation of this report.
+     *
+     * @return The JSON object.
+     */
+    public JsonObject toJson() {
+        return new JsonObject()
+                .put("adapter", options.getAdapter().name())
+                .put("endpoint", options.getEndpoint())
+                .put("qos", options.getQos())
+                .put("devices", options.getDevices())
+                .put("tenants", options.getTenants())
+                .put("payloadSize", options.getPayloadSize())
+                .put("messages", messages)
+                .put("messagesPerSecond", messagesPerSecond)
+                .put("latencyMicros", new JsonObject()
+                        .put("p50", latencyP50)
+                        .put("p90", latencyP90)
+                        .put("p99", latencyP99)
+                        .put("p99.9", latencyP999)
+                        .put("max", latencyMax))
+                .put("allocatedBytesPerMessage", allocatedBytesPerMessage)
+                .put("lost", lost)
+                .put("failed", failed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s %s [qos: %d, devices: %d, tenants: %d, payload: %d bytes]%n"
+                + "  messages:        %d (lost: %d, failed: %d)%n"
+                + "  throughput:      %.1f msgs/s%n"
+                + "  latency (us):    p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n"
+                + "  allocation:      %d bytes/msg (all threads)",
+                options.getAdapter(), options.getEndpoint(), options.getQos(), options.getDevices(),
+                options.getTenants(), options.getPayloadSize(),
+                messages, lost, failed,
+                messagesPerSecond,
+                latencyP50, latencyP90, latencyP99, latencyP999, latencyMax,
+                allocatedBytesPerMessage);
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Verifies behavior of {@link BaselineComparison}.
+ *
+ */
+public class BaselineComparisonTest {
+
+    private static final String BENCHMARK = "org.eclipse.hono.benchmarks.SomeBenchmark.run";
+
+    /**
+     * Verifies that a throughput benchmark has regressed if its score is lower
+     * than the baseline by more than the tolerance.
+     */
+    @Test
+    public void testCompareDetectsThroughputRegression() {
+
+        final JsonArray baseline = new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, null));
+
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 950.0, null)), baseline, 0.1), is(0));
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 1200.0, null)), baseline, 0.1), is(0));
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 850.0, null)), baseline, 0.1), is(1));
+    }
+
+    /**
+     * Verifies that an average time benchmark has regressed if its score is higher
+     * than the baseline by more than the tolerance.
+     */
+    @Test
+    public void testCompareDetectsAverageTimeRegression() {
+
+        final JsonArray baseline = new JsonArray().add(newResult(BENCHMARK, "avgt", 100.0, null));
+
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "avgt", 80.0, null)), baseline, 0.1), is(0));
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "avgt", 120.0, null)), baseline, 0.1), is(1));
+    }
+
+    /**
+     * Verifies that a benchmark has regressed if it allocates more bytes per operation
+     * than the baseline by more than the tolerance, regardless of its score.
+     */
+    @Test
+    public void testCompareDetectsAllocationRegression() {
+
+        final JsonArray baseline = new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, 64.0));
+
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, 64.0)), baseline, 0.1), is(0));
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, 128.0)), baseline, 0.1), is(1));
+        // an allocation free benchmark that starts allocating has regressed
+        assertThat(BaselineComparison.compare(
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, 16.0)),
+                new JsonArray().add(newResult(BENCHMARK, "thrpt", 1000.0, 0.0)),
+                0.1), is(1));
+    }
+
+    /**
+     * Verifies that results are matched with the baseline by benchmark name and
+     * parameters and that results without baseline are ignored.
+     */
+    @Test
+    public void testCompareMatchesResultsByBenchmarkAndParams() {
+
+        final JsonArray baseline = new JsonArray()
+                .add(newResult(BENCHMARK, "thrpt", 1000.0, null).put("params", new JsonObject().put("size", "10")))
+                .add(newResult(BENCHMARK, "thrpt", 10.0, null).put("params", new JsonObject().put("size", "1000")));
+        final JsonArray results = new JsonArray()
+                .add(newResult(BENCHMARK, "thrpt", 900.0, null).put("params", new JsonObject().put("size", "10")))
+                .add(newResult(BENCHMARK, "thrpt", 10.0, null).put("params", new JsonObject().put("size", "1000")))
+                .add(newResult(BENCHMARK + "Other", "thrpt", 1.0, null));
+
+        assertThat(BaselineComparison.compare(results, baseline, 0.1), is(0));
+        assertThat(BaselineComparison.compare(results, baseline, 0.05), is(1));
+    }
+
+    private static JsonObject newResult(
+            final String benchmark,
+            final String mode,
+            final double score,
+            final Double allocatedBytesPerOperation) {
+
+        final JsonObject result = new JsonObject()
+                .put("benchmark", benchmark)
+                .put("mode", mode)
+                .put("primaryMetric", new JsonObject().put("score", score));
+        if (allocatedBytesPerOperation != null) {
+            result.put("secondaryMetrics", new JsonObject().put(
+                    BaselineComparison.METRIC_ALLOC_RATE_NORM,
+                    new JsonObject().put("score", allocatedBytesPerOperation)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.benchmarks.throughput;
+
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.hono.benchmarks.throughput.HarnessOptions.AdapterType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Verifies that the {@link ThroughputHarness} can drive messages through each of the adapters.
+ * <p>
+ * The tests start all components of a run and take several seconds. They are therefore
+ * only executed as part of the <em>benchmark</em> profile.
+ */
+public class ThroughputHarnessTest {
+
+    /**
+     * Time out each test after one minute.
+     */
+    @Rule
+    public Timeout timeout = Timeout.seconds(60);
+
+    private static ThroughputReport run(final AdapterType adapter, final String endpoint, final int qos) throws Exception {
+        return new ThroughputHarness(new HarnessOptions()
+                .setAdapter(adapter)
+                .setEndpoint(endpoint)
+                .setQos(qos)
+                .setDevices(2)
+                .setWarmupSeconds(1)
+                .setDurationSeconds(1))
+                .run();
+    }
+
+    /**
+     * Verifies that telemetry messages published via MQTT arrive at the messaging network.
+     *
+     * @throws Exception if the run fails.
+     */
+    @Test
+    public void testMqttTelemetry() throws Exception {
+        assertTrue(run(AdapterType.MQTT, "telemetry", 0).getMessages() > 0);
+    }
+
+    /**
+     * Verifies that events posted via HTTP arrive at the messaging network.
+     *
+     * @throws Exception if the run fails.
+     */
+    @Test
+    public void testHttpEvent() throws Exception {
+        assertTrue(run(AdapterType.HTTP, "event", 1).getMessages() > 0);
+    }
+
+    /**
+     * Verifies that both pre-settled and unsettled telemetry messages sent via AMQP
+     * arrive at the messaging network.
+     *
+     * @throws Exception if the run fails.
+     */
+    @Test
+    public void testAmqpTelemetry() throws Exception {
+        assertTrue(run(AdapterType.AMQP, "telemetry", 0).getMessages() > 0);
+        assertTrue(run(AdapterType.AMQP, "telemetry", 1).getMessages() > 0);
+    }
+}
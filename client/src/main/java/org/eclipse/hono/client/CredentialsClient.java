@@ -13,7 +13,10 @@
 
 package org.eclipse.hono.client;
 
+import java.net.HttpURLConnection;
+
 import org.eclipse.hono.util.CredentialsObject;
+import org.eclipse.hono.util.CredentialsResult;
 
 import io.opentracing.SpanContext;
 import io.vertx.core.Future;
@@ -97,4 +100,37 @@ public interface CredentialsClient extends RequestResponseClient {
             final SpanContext spanContext) {
         return get(type, authId, clientContext);
     }
+
+    /**
+     * Gets credentials for a device by type and authentication identifier along with
+     * the cache directive contained in the service's response.
+     * <p>
+     * This default implementation returns the result of
+     * {@link #get(String, String, JsonObject, SpanContext)} without a cache directive.
+     *
+     * @param type The type of credentials to retrieve.
+     * @param authId The authentication identifier used in the credentials to retrieve.
+     * @param clientContext Optional bag of properties that can be used to identify the device
+     * @param spanContext The currently active OpenTracing span (may be {@code null}). An implementation
+     *                    should use this as the parent for any span it creates for tracing
+     *                    the execution of this operation.
+     * @return A future indicating the result of the operation.
+     *         <p>
+     *         The future will succeed with the result if a response with status 200 has been
+     *         received from the credentials service. The result's cache directive indicates for
+     *         how long the credentials may be cached by the client.
+     *         <p>
+     *         Otherwise, the future will fail with a {@link ServiceInvocationException} containing
+     *         the (error) status code returned by the service.
+     * @throws NullPointerException if any of the parameters (except spanContext) is {@code null}.
+     * @see RequestResponseClient#setRequestTimeout(long)
+     */
+    default Future<CredentialsResult<CredentialsObject>> getCredentialsResult(
+            final String type,
+            final String authId,
+            final JsonObject clientContext,
+            final SpanContext spanContext) {
+        return get(type, authId, clientContext, spanContext)
+                .map(credentials -> CredentialsResult.from(HttpURLConnection.HTTP_OK, credentials, null));
+    }
 }
@@ -798,14 +798,16 @@ public abstract class AbstractRequestResponseClient<R extends RequestResponseRes
                 resultHandler.handle(Future.failedFuture(new ServerErrorException(
                         HttpURLConnection.HTTP_UNAVAILABLE, "no credit available for sending request")));
             } else {
-                final Map<String, Object> details = new HashMap<>(3);
                 final Object correlationId = Optional.ofNullable(request.getCorrelationId()).orElse(request.getMessageId());
-                if (correlationId instanceof String) {
-                    details.put(TracingHelper.TAG_CORRELATION_ID.getKey(), correlationId);
+                if (TracingHelper.isSampled(currentSpan)) {
+                    final Map<String, Object> details = new HashMap<>(3);
+                    if (correlationId instanceof String) {
+                        details.put(TracingHelper.TAG_CORRELATION_ID.getKey(), correlationId);
+                    }
+                    details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
+                    details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
+                    currentSpan.log(details);
                 }
-                details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
-                details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
-                currentSpan.log(details);
                 final TriTuple<Handler<AsyncResult<R>>, Object, Span> handler = TriTuple.of(resultHandler, cacheKey, currentSpan);
                 TracingHelper.injectSpanContext(tracer, currentSpan.context(), request);
                 replyMap.put(correlationId, handler);
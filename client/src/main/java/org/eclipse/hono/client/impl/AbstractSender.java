@@ -326,11 +326,13 @@ public abstract class AbstractSender extends AbstractHonoClient implements Messa
         final Future<ProtonDelivery> result = Future.future();
         final String messageId = String.format("%s-%d", getClass().getSimpleName(), MESSAGE_COUNTER.getAndIncrement());
         message.setMessageId(messageId);
-        final Map<String, Object> details = new HashMap<>(2);
-        details.put(TracingHelper.TAG_MESSAGE_ID.getKey(), messageId);
-        details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
-        details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
-        currentSpan.log(details);
+        if (TracingHelper.isSampled(currentSpan)) {
+            final Map<String, Object> details = new HashMap<>(3);
+            details.put(TracingHelper.TAG_MESSAGE_ID.getKey(), messageId);
+            details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
+            details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
+            currentSpan.log(details);
+        }
 
         final Long timerId = config.getSendMessageTimeout() > 0
                 ? context.owner().setTimer(config.getSendMessageTimeout(), id -> {
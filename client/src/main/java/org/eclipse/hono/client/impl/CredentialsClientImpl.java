@@ -188,6 +188,21 @@ public class CredentialsClientImpl extends AbstractRequestResponseClient<Credent
     public final Future<CredentialsObject> get(final String type, final String authId, final JsonObject clientContext,
             final SpanContext spanContext) {
 
+        return getCredentialsResult(type, authId, clientContext, spanContext).map(CredentialsResult::getPayload);
+    }
+
+    /**
+     * Invokes the <em>Get Credentials</em> operation of Hono's
+     * <a href="https://www.eclipse.org/hono/api/Credentials-API">Credentials API</a>
+     * on the service represented by the <em>sender</em> and <em>receiver</em> links.
+     */
+    @Override
+    public final Future<CredentialsResult<CredentialsObject>> getCredentialsResult(
+            final String type,
+            final String authId,
+            final JsonObject clientContext,
+            final SpanContext spanContext) {
+
         Objects.requireNonNull(type);
         Objects.requireNonNull(authId);
 
@@ -215,7 +230,7 @@ public class CredentialsClientImpl extends AbstractRequestResponseClient<Credent
             span.finish();
             switch(response.getStatus()) {
             case HttpURLConnection.HTTP_OK:
-                return response.getPayload();
+                return response;
             case HttpURLConnection.HTTP_NOT_FOUND:
                 throw new ClientErrorException(response.getStatus(), "no such credentials");
             default:
@@ -195,11 +195,13 @@ public final class TelemetrySenderImpl extends AbstractSender {
 
         final String messageId = String.format("%s-%d", getClass().getSimpleName(), MESSAGE_COUNTER.getAndIncrement());
         message.setMessageId(messageId);
-        final Map<String, Object> details = new HashMap<>(3);
-        details.put(TracingHelper.TAG_MESSAGE_ID.getKey(), messageId);
-        details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
-        details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
-        currentSpan.log(details);
+        if (TracingHelper.isSampled(currentSpan)) {
+            final Map<String, Object> details = new HashMap<>(3);
+            details.put(TracingHelper.TAG_MESSAGE_ID.getKey(), messageId);
+            details.put(TracingHelper.TAG_CREDIT.getKey(), sender.getCredit());
+            details.put(TracingHelper.TAG_QOS.getKey(), sender.getQoS().toString());
+            currentSpan.log(details);
+        }
 
         final AtomicBoolean timeoutReached = new AtomicBoolean(false);
         final Long timerId = config.getSendMessageTimeout() > 0
@@ -28,6 +28,7 @@ import java.security.PublicKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
+import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.ArrayList;
@@ -181,6 +182,17 @@ public final class KeyLoader {
                 .generatePrivate(keySpec);
     }
 
+    private static PrivateKey generatePkcs8Key(final PKCS8EncodedKeySpec keySpec) throws GeneralSecurityException {
+        try {
+            return generateRsaKey(keySpec);
+        } catch (final InvalidKeySpecException e) {
+            // not an RSA key, try EC instead
+            return KeyFactory
+                    .getInstance("EC")
+                    .generatePrivate(keySpec);
+        }
+    }
+
     private static <R> R processFile(final Vertx vertx, final String pathName, final PemProcessor<R> processor) {
 
         final Path path = Paths.get(pathName);
@@ -216,7 +228,7 @@ public final class KeyLoader {
             switch (pem.getType()) {
 
             case "PRIVATE KEY":
-                return generateRsaKey(new PKCS8EncodedKeySpec(pem.getPayload()));
+                return generatePkcs8Key(new PKCS8EncodedKeySpec(pem.getPayload()));
 
             case "RSA PRIVATE KEY":
                 return generateRsaKey(PrivateKeyParser.getRSAKeySpec(pem.getPayload()));
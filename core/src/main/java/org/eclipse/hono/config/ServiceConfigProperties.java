@@ -25,9 +25,12 @@ import org.eclipse.hono.util.Constants;
  */
 public class ServiceConfigProperties extends AbstractConfig {
 
+    /**
+     * The default number of credits to flow to a client.
+     */
+    public static final int DEFAULT_RECEIVER_LINK_CREDITS = 100;
 
     private static final int MIN_PAYLOAD_SIZE  = 128; // bytes
-    private static final int DEFAULT_RECEIVER_LINK_CREDITS = 100;
 
     private boolean singleTenant = false;
     private boolean networkDebugLogging = false;
@@ -40,6 +43,7 @@ public class ServiceConfigProperties extends AbstractConfig {
     private int insecurePort = Constants.PORT_UNCONFIGURED;
     private int maxPayloadSize = 2048;
     private int receiverLinkCredit = DEFAULT_RECEIVER_LINK_CREDITS;
+    private boolean directServiceInvocation = false;
 
     /**
      * Gets the host name or literal IP address of the network interface that this server's secure port is
@@ -341,7 +345,9 @@ public class ServiceConfigProperties extends AbstractConfig {
      * when the client opens a sender link to this service.
      * <p>
      * The credits are replenished automatically with each message being processed
-     * successfully by this service.
+     * by this service. Request-response endpoints flow back the credits in batches
+     * once half of the credits have been used up. The number of credits thus limits
+     * the number of requests being processed concurrently on a link.
 
      * @param receiverLinkCredit The number of credits.
      * @throws IllegalArgumentException if the credit is &lt;= 0.
@@ -352,4 +358,35 @@ public class ServiceConfigProperties extends AbstractConfig {
         }
         this.receiverLinkCredit = receiverLinkCredit;
     }
+
+    /**
+     * Checks whether this server's endpoints invoke services running in the same
+     * vert.x instance directly instead of sending requests over the vert.x event bus.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @return {@code true} if co-located services are invoked directly.
+     */
+    public final boolean isDirectServiceInvocationEnabled() {
+        return directServiceInvocation;
+    }
+
+    /**
+     * Sets whether this server's endpoints should invoke services running in the same
+     * vert.x instance directly instead of sending requests over the vert.x event bus.
+     * <p>
+     * Invoking a co-located service directly saves the event bus hops for the request and
+     * the response as well as the lookup of the event bus consumers and the reply-to address.
+     * Both messages are still deep-copied. Requests to services that are not running in the same vert.x
+     * instance are still sent over the event bus.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @param directInvocation {@code true} if co-located services should be invoked directly.
+     * @return This instance for setter chaining.
+     */
+    public final ServiceConfigProperties setDirectServiceInvocationEnabled(final boolean directInvocation) {
+        this.directServiceInvocation = directInvocation;
+        return this;
+    }
 }
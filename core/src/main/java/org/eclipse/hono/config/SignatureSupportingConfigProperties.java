@@ -25,6 +25,7 @@ public class SignatureSupportingConfigProperties {
     private String keyPath;
     private long tokenExpirationSeconds = 600L;
     private String certificatePath;
+    private double tokenReuseRatio = 0.0;
 
     /**
      * Gets the secret used for creating and validating HmacSHA256 based signatures.
@@ -51,7 +52,7 @@ public class SignatureSupportingConfigProperties {
 
     /**
      * Sets the path to the file containing the private key to be used
-     * for creating SHA256withRSA based signatures.
+     * for creating SHA256withRSA or ECDSA based signatures.
      * <p>
      * The file must be in PKCS8 PEM format.
      * 
@@ -96,6 +97,37 @@ public class SignatureSupportingConfigProperties {
         this.tokenExpirationSeconds = seconds;
     }
 
+    /**
+     * Gets the fraction of a token's lifetime during which a token that has been created
+     * for a subject is reused for the same subject instead of creating a new one.
+     * 
+     * @return The fraction of the lifetime.
+     */
+    public final double getTokenReuseRatio() {
+        return tokenReuseRatio;
+    }
+
+    /**
+     * Sets the fraction of a token's lifetime during which a token that has been created
+     * for a subject is reused for the same subject instead of creating a new one.
+     * <p>
+     * Reusing tokens saves the (potentially expensive) creation of signatures at the
+     * expense of tokens expiring earlier than the configured expiration period when
+     * being handed out. A value of {@code 0.5} means that a token is reused during the
+     * first half of its lifetime.
+     * <p>
+     * The default value is 0, i.e. a new token is created for each request.
+     * 
+     * @param ratio The fraction of the lifetime.
+     * @throws IllegalArgumentException if ratio is &lt; 0 or &gt;= 1.
+     */
+    public final void setTokenReuseRatio(final double ratio) {
+        if (ratio < 0 || ratio >= 1) {
+            throw new IllegalArgumentException("token reuse ratio must be >= 0 and < 1");
+        }
+        this.tokenReuseRatio = ratio;
+    }
+
     /**
      * Sets the path to the X.509 certificate containing the public key to be used
      * for validating SHA256withRSA based signatures.
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Properties for configuring the ratio of traces being sampled.
+ */
+public class TracingSamplingProperties {
+
+    /**
+     * The default sampling rate.
+     */
+    public static final double DEFAULT_RATE = 1.0;
+
+    private double rate = DEFAULT_RATE;
+    private final Map<String, Double> tenantRates = new HashMap<>();
+
+    /**
+     * Gets the ratio of traces to sample.
+     *
+     * @return The ratio.
+     */
+    public final double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the ratio of traces to sample.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_RATE}, i.e. all traces
+     * are sampled.
+     *
+     * @param rate The ratio, a value between 0 (no traces) and 1 (all traces).
+     * @throws IllegalArgumentException if the rate is not within [0, 1].
+     */
+    public final void setRate(final double rate) {
+        this.rate = checkRate(rate);
+    }
+
+    /**
+     * Gets the ratios of traces to sample for individual tenants.
+     *
+     * @return The ratios, keyed by tenant identifier. The map is modifiable so that
+     *         Spring Boot can bind the configured values to it.
+     */
+    public final Map<String, Double> getTenantRates() {
+        return tenantRates;
+    }
+
+    /**
+     * Sets the ratios of traces to sample for individual tenants.
+     * <p>
+     * The rates override the {@linkplain #getRate() default rate} for traces that
+     * are started on behalf of one of the tenants.
+     *
+     * @param tenantRates The ratios, keyed by tenant identifier.
+     * @throws NullPointerException if rates is {@code null}.
+     * @throws IllegalArgumentException if any of the rates is not within [0, 1].
+     */
+    public final void setTenantRates(final Map<String, Double> tenantRates) {
+        Objects.requireNonNull(tenantRates);
+        tenantRates.values().forEach(TracingSamplingProperties::checkRate);
+        this.tenantRates.clear();
+        this.tenantRates.putAll(tenantRates);
+    }
+
+    /**
+     * Checks if any traces are excluded from sampling by this configuration.
+     *
+     * @return {@code true} if the default rate is less than 1 or if any
+     *         tenant specific rate has been set.
+     */
+    public final boolean isRestricted() {
+        return rate < 1.0 || !tenantRates.isEmpty();
+    }
+
+    private static double checkRate(final Double rate) {
+        if (rate == null || rate < 0.0 || rate > 1.0) {
+            throw new IllegalArgumentException("sampling rate must be within [0, 1]");
+        }
+        return rate;
+    }
+}
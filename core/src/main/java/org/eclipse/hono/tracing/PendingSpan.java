@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.hono.util.MessageHelper;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+
+/**
+ * A span of a trace for which the sampling decision has not been made yet.
+ * <p>
+ * A root span that is started without knowing the tenant it is being created for, e.g.
+ * the server span of an HTTP request, is represented by a pending span until a child span
+ * is started with a tenant tag, the tenant tag is set on the root span or any of its pending
+ * children, the context of one of these spans is injected or the root span is finished.
+ * The tenant that is known at that point determines the sampling rate. Child spans that
+ * are started without a tenant tag before the decision has been made are pending spans
+ * as well.
+ * <p>
+ * All operations invoked on a pending span are recorded and are replayed on the span
+ * created by the wrapped tracer once the trace turns out to be sampled.
+ * <p>
+ * Instances are thread safe.
+ */
+final class PendingSpan implements Span, SpanContext {
+
+    private final Object lock;
+    private final PendingSpan parent;
+    private final BiFunction<String, Span, Span> factory;
+    private List<Consumer<Span>> operations = new ArrayList<>(4);
+    private List<PendingSpan> children = new ArrayList<>(2);
+    private Span target;
+
+    private PendingSpan(final Object lock, final PendingSpan parent, final BiFunction<String, Span, Span> factory) {
+        this.lock = lock;
+        this.parent = parent;
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new root span.
+     *
+     * @param sampler The function to invoke for making the sampling decision. The function
+     *                is invoked with the tenant identifier (which may be {@code null})
+     *                and returns either the span created by the wrapped tracer or
+     *                {@link UnsampledSpan#INSTANCE}.
+     * @return The span.
+     * @throws NullPointerException if sampler is {@code null}.
+     */
+    static PendingSpan newRootSpan(final Function<String, Span> sampler) {
+        Objects.requireNonNull(sampler);
+        return new PendingSpan(new Object(), null, (tenantId, resolvedParent) -> sampler.apply(tenantId));
+    }
+
+    /**
+     * Creates a child of this span.
+     * <p>
+     * If the sampling decision has already been made, the child is created right away.
+     *
+     * @param childFactory The function to invoke for creating the child. The function is
+     *                     invoked with the span that this span has been resolved to and
+     *                     returns the child created by the wrapped tracer or
+     *                     {@link UnsampledSpan#INSTANCE}.
+     * @return The child.
+     * @throws NullPointerException if child factory is {@code null}.
+     */
+    Span newChildSpan(final Function<Span, Span> childFactory) {
+        Objects.requireNonNull(childFactory);
+        synchronized (lock) {
+            if (target != null) {
+                return childFactory.apply(target);
+            }
+            final PendingSpan child = new PendingSpan(lock, this,
+                    (tenantId, resolvedParent) -> childFactory.apply(resolvedParent));
+            children.add(child);
+            return child;
+        }
+    }
+
+    /**
+     * Makes the sampling decision for this span's trace.
+     * <p>
+     * All other pending spans of the trace are resolved as well.
+     * This method has no effect if the decision has already been made.
+     *
+     * @param tenantId The tenant that the trace belongs to or {@code null} if unknown.
+     * @return The span that this span has been resolved to.
+     */
+    Span resolve(final String tenantId) {
+        synchronized (lock) {
+            if (target == null) {
+                if (parent != null && parent.target == null) {
+                    // resolves this span as well
+                    parent.resolve(tenantId);
+                } else {
+                    target = factory.apply(tenantId, parent == null ? null : parent.target);
+                    operations.forEach(operation -> operation.accept(target));
+                    operations = null;
+                    children.forEach(child -> child.resolve(tenantId));
+                    children = null;
+                }
+            }
+            return target;
+        }
+    }
+
+    private Span record(final Consumer<Span> operation) {
+        synchronized (lock) {
+            if (target == null) {
+                operations.add(operation);
+            } else {
+                operation.accept(target);
+            }
+        }
+        return this;
+    }
+
+    private static long nowMicros() {
+        return System.currentTimeMillis() * 1000;
+    }
+
+    @Override
+    public SpanContext context() {
+        return this;
+    }
+
+    @Override
+    public Iterable<Entry<String, String>> baggageItems() {
+        synchronized (lock) {
+            return target == null ? Collections.emptyList() : target.context().baggageItems();
+        }
+    }
+
+    @Override
+    public Span setTag(final String key, final String value) {
+        record(span -> span.setTag(key, value));
+        if (MessageHelper.APP_PROPERTY_TENANT_ID.equals(key)) {
+            resolve(value);
+        }
+        return this;
+    }
+
+    @Override
+    public Span setTag(final String key, final boolean value) {
+        return record(span -> span.setTag(key, value));
+    }
+
+    @Override
+    public Span setTag(final String key, final Number value) {
+        return record(span -> span.setTag(key, value));
+    }
+
+    @Override
+    public Span log(final Map<String, ?> fields) {
+        return log(nowMicros(), fields);
+    }
+
+    @Override
+    public Span log(final long timestampMicroseconds, final Map<String, ?> fields) {
+        return record(span -> span.log(timestampMicroseconds, fields));
+    }
+
+    @Override
+    public Span log(final String event) {
+        return log(nowMicros(), event);
+    }
+
+    @Override
+    public Span log(final long timestampMicroseconds, final String event) {
+        return record(span -> span.log(timestampMicroseconds, event));
+    }
+
+    @Override
+    public Span setBaggageItem(final String key, final String value) {
+        return record(span -> span.setBaggageItem(key, value));
+    }
+
+    @Override
+    public String getBaggageItem(final String key) {
+        synchronized (lock) {
+            return target == null ? null : target.getBaggageItem(key);
+        }
+    }
+
+    @Override
+    public Span setOperationName(final String operationName) {
+        return record(span -> span.setOperationName(operationName));
+    }
+
+    @Override
+    public void finish() {
+        finish(nowMicros());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Finishing a root span makes the sampling decision based on the default rate
+     * if no tenant has become known until then. A child span is finished once the
+     * decision has been made.
+     */
+    @Override
+    public void finish(final long finishMicros) {
+        if (parent == null) {
+            resolve(null).finish(finishMicros);
+        } else {
+            record(span -> span.finish(finishMicros));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PendingSpan";
+    }
+}
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.hono.config.TracingSamplingProperties;
+import org.eclipse.hono.util.MessageHelper;
+
+import io.opentracing.References;
+import io.opentracing.Scope;
+import io.opentracing.ScopeManager;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+
+/**
+ * A tracer that decides about sampling a trace before any of its spans is created.
+ * <p>
+ * The decision is made when the root span of a trace is started, based on the sampling
+ * rate configured for the tenant that the span's {@link MessageHelper#APP_PROPERTY_TENANT_ID}
+ * tag refers to. If the root span has no such tag and tenant specific rates have been
+ * configured, the decision is deferred until the tenant becomes known, i.e. until the
+ * first child span is started, the root span's tenant tag is set or its context is
+ * injected. This way the server span of an HTTP request, which is started before the
+ * request has been authenticated, is subject to the rate of the tenant that the
+ * request's child spans are tagged with. The default rate applies if no tenant is
+ * known when the root span is finished. Only spans of sampled
+ * traces are created by the wrapped tracer. All spans of a trace that has not been sampled
+ * are represented by a shared no-op span which does not allocate any memory when being
+ * tagged, logged to or finished. Such spans are also not injected into messages, which
+ * means that a downstream component will make its own sampling decision for the
+ * operations it performs.
+ * <p>
+ * Tags set on a span builder are recorded until the span gets started, so the tenant
+ * tag needs to be set on the builder instead of the started span in order to be
+ * considered for the sampling decision.
+ * <p>
+ * Instances are thread safe.
+ */
+public final class SamplingAwareTracer implements Tracer {
+
+    private final Tracer delegate;
+    private final double defaultRate;
+    private final Map<String, Double> tenantRates;
+
+    /**
+     * Creates a new tracer.
+     *
+     * @param delegate The tracer to create the spans of sampled traces with.
+     * @param samplingProperties The sampling rates.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public SamplingAwareTracer(final Tracer delegate, final TracingSamplingProperties samplingProperties) {
+        this.delegate = Objects.requireNonNull(delegate);
+        Objects.requireNonNull(samplingProperties);
+        this.defaultRate = samplingProperties.getRate();
+        this.tenantRates = new HashMap<>(samplingProperties.getTenantRates());
+    }
+
+    @Override
+    public ScopeManager scopeManager() {
+        return delegate.scopeManager();
+    }
+
+    @Override
+    public Span activeSpan() {
+        return delegate.activeSpan();
+    }
+
+    @Override
+    public SpanBuilder buildSpan(final String operationName) {
+        return new DeferredSpanBuilder(operationName);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The context of a span belonging to an unsampled trace is not injected.
+     */
+    @Override
+    public <C> void inject(final SpanContext spanContext, final Format<C> format, final C carrier) {
+        final SpanContext context = spanContext instanceof PendingSpan
+                ? ((PendingSpan) spanContext).resolve(null).context()
+                : spanContext;
+        if (!(context instanceof UnsampledSpan)) {
+            delegate.inject(context, format, carrier);
+        }
+    }
+
+    @Override
+    public <C> SpanContext extract(final Format<C> format, final C carrier) {
+        return delegate.extract(format, carrier);
+    }
+
+    /**
+     * Gets the sampling rate that applies to a tenant.
+     *
+     * @param tenantId The tenant or {@code null} if unknown.
+     * @return The tenant specific rate or the default rate if no rate has been
+     *         configured for the tenant.
+     */
+    double getRate(final String tenantId) {
+        if (tenantId != null) {
+            final Double tenantRate = tenantRates.get(tenantId);
+            if (tenantRate != null) {
+                return tenantRate;
+            }
+        }
+        return defaultRate;
+    }
+
+    private boolean sample(final String tenantId) {
+        final double rate = getRate(tenantId);
+        if (rate >= 1.0) {
+            return true;
+        } else if (rate <= 0.0) {
+            return false;
+        } else {
+            return ThreadLocalRandom.current().nextDouble() < rate;
+        }
+    }
+
+    /**
+     * A span builder that defers creating the wrapped tracer's builder until
+     * the span is started and its trace is known to be sampled.
+     */
+    private final class DeferredSpanBuilder implements SpanBuilder {
+
+        private final String operationName;
+        private List<Entry<String, SpanContext>> references;
+        private List<Entry<String, PendingSpan>> pendingReferences;
+        private List<Entry<String, Object>> tags;
+        private String tenantId;
+        private boolean unsampledReference = false;
+        private boolean ignoreActiveSpan = false;
+        private long startTimestamp = 0;
+
+        DeferredSpanBuilder(final String operationName) {
+            this.operationName = operationName;
+        }
+
+        @Override
+        public SpanBuilder asChildOf(final SpanContext parent) {
+            return addReference(References.CHILD_OF, parent);
+        }
+
+        @Override
+        public SpanBuilder asChildOf(final Span parent) {
+            return parent == null ? this : addReference(References.CHILD_OF, parent.context());
+        }
+
+        @Override
+        public SpanBuilder addReference(final String referenceType, final SpanContext referencedContext) {
+            if (referencedContext instanceof UnsampledSpan) {
+                unsampledReference = true;
+            } else if (referencedContext instanceof PendingSpan) {
+                // resolved when this span is started and its tenant is known
+                if (pendingReferences == null) {
+                    pendingReferences = new ArrayList<>(1);
+                }
+                pendingReferences.add(new SimpleImmutableEntry<>(referenceType, (PendingSpan) referencedContext));
+            } else if (referencedContext != null) {
+                if (references == null) {
+                    references = new ArrayList<>(1);
+                }
+                references.add(new SimpleImmutableEntry<>(referenceType, referencedContext));
+            }
+            return this;
+        }
+
+        @Override
+        public SpanBuilder ignoreActiveSpan() {
+            ignoreActiveSpan = true;
+            return this;
+        }
+
+        @Override
+        public SpanBuilder withTag(final String key, final String value) {
+            if (MessageHelper.APP_PROPERTY_TENANT_ID.equals(key)) {
+                tenantId = value;
+            }
+            return addTag(key, value);
+        }
+
+        @Override
+        public SpanBuilder withTag(final String key, final boolean value) {
+            return addTag(key, value);
+        }
+
+        @Override
+        public SpanBuilder withTag(final String key, final Number value) {
+            return addTag(key, value);
+        }
+
+        private SpanBuilder addTag(final String key, final Object value) {
+            // tags of a span that is known to belong to an unsampled trace are not needed
+            if (!unsampledReference || references != null) {
+                if (tags == null) {
+                    tags = new ArrayList<>(8);
+                }
+                tags.add(new SimpleImmutableEntry<>(key, value));
+            }
+            return this;
+        }
+
+        @Override
+        public SpanBuilder withStartTimestamp(final long microseconds) {
+            startTimestamp = microseconds;
+            return this;
+        }
+
+        @Override
+        public Scope startActive(final boolean finishSpanOnClose) {
+            return delegate.scopeManager().activate(start(), finishSpanOnClose);
+        }
+
+        @Override
+        @Deprecated
+        public Span startManual() {
+            return start();
+        }
+
+        @Override
+        public Span start() {
+
+            if (pendingReferences != null) {
+                if (references == null && !unsampledReference && pendingReferences.size() == 1) {
+                    final Entry<String, PendingSpan> reference = pendingReferences.get(0);
+                    return newChildOfPendingSpan(reference.getKey(), reference.getValue());
+                }
+                pendingReferences.forEach(reference -> addReference(
+                        reference.getKey(),
+                        reference.getValue().resolve(tenantId).context()));
+            }
+
+            if (references != null) {
+                // child of a sampled span
+                return newDelegateBuilder().start();
+            } else if (unsampledReference) {
+                return UnsampledSpan.INSTANCE;
+            } else if (!ignoreActiveSpan) {
+                final Span activeSpan = delegate.activeSpan();
+                if (activeSpan instanceof PendingSpan) {
+                    // the wrapped tracer cannot use the pending span as parent
+                    ignoreActiveSpan = true;
+                    return newChildOfPendingSpan(References.CHILD_OF, (PendingSpan) activeSpan);
+                } else if (activeSpan != null) {
+                    return activeSpan instanceof UnsampledSpan ? activeSpan : newDelegateBuilder().start();
+                }
+            }
+            // root span
+            if (tenantId == null && !tenantRates.isEmpty()) {
+                // defer the decision until the tenant is known
+                fixStartTimestamp();
+                return PendingSpan.newRootSpan(tenant -> {
+                    if (sample(tenant)) {
+                        final SpanBuilder builder = newDelegateBuilder();
+                        if (tenant != null) {
+                            builder.withTag(MessageHelper.APP_PROPERTY_TENANT_ID, tenant);
+                        }
+                        return builder.start();
+                    } else {
+                        return UnsampledSpan.INSTANCE;
+                    }
+                });
+            }
+            return sample(tenantId) ? newDelegateBuilder().start() : UnsampledSpan.INSTANCE;
+        }
+
+        private Span newChildOfPendingSpan(final String referenceType, final PendingSpan parent) {
+
+            if (tenantId == null) {
+                fixStartTimestamp();
+                return parent.newChildSpan(resolvedParent -> newChildSpan(referenceType, resolvedParent));
+            } else {
+                return newChildSpan(referenceType, parent.resolve(tenantId));
+            }
+        }
+
+        private Span newChildSpan(final String referenceType, final Span resolvedParent) {
+
+            if (resolvedParent instanceof UnsampledSpan) {
+                return UnsampledSpan.INSTANCE;
+            } else {
+                addReference(referenceType, resolvedParent.context());
+                return newDelegateBuilder().start();
+            }
+        }
+
+        private void fixStartTimestamp() {
+            // the span might be created by the wrapped tracer later on
+            if (startTimestamp == 0) {
+                startTimestamp = System.currentTimeMillis() * 1000;
+            }
+        }
+
+        private SpanBuilder newDelegateBuilder() {
+
+            final SpanBuilder builder = delegate.buildSpan(operationName);
+            if (references != null) {
+                references.forEach(reference -> builder.addReference(reference.getKey(), reference.getValue()));
+            }
+            if (ignoreActiveSpan) {
+                builder.ignoreActiveSpan();
+            }
+            if (tags != null) {
+                for (final Entry<String, Object> tag : tags) {
+                    if (tag.getValue() instanceof Boolean) {
+                        builder.withTag(tag.getKey(), (Boolean) tag.getValue());
+                    } else if (tag.getValue() instanceof Number) {
+                        builder.withTag(tag.getKey(), (Number) tag.getValue());
+                    } else {
+                        builder.withTag(tag.getKey(), (String) tag.getValue());
+                    }
+                }
+            }
+            if (startTimestamp > 0) {
+                builder.withStartTimestamp(startTimestamp);
+            }
+            return builder;
+        }
+    }
+}
@@ -89,6 +89,31 @@ public final class TracingHelper {
         // prevent instantiation
     }
 
+    /**
+     * Checks if a span belongs to a trace that is being sampled.
+     * <p>
+     * Code on the hot path can use this method for skipping the creation of
+     * log items and tags which would be discarded anyway.
+     *
+     * @param span The span to check (may be {@code null}).
+     * @return {@code false} if the span is {@code null} or has been created by a
+     *         {@link SamplingAwareTracer} for an unsampled trace.
+     */
+    public static boolean isSampled(final Span span) {
+        return span != null && isSampled(span.context());
+    }
+
+    /**
+     * Checks if a span context belongs to a trace that is being sampled.
+     *
+     * @param spanContext The context to check (may be {@code null}).
+     * @return {@code false} if the context is {@code null} or belongs to a span that
+     *         has been created by a {@link SamplingAwareTracer} for an unsampled trace.
+     */
+    public static boolean isSampled(final SpanContext spanContext) {
+        return spanContext != null && !(spanContext instanceof UnsampledSpan);
+    }
+
     /**
      * Marks an <em>OpenTracing</em> span as erroneous and logs an exception.
      * <p>
@@ -169,6 +194,7 @@ public final class TracingHelper {
      * Injects a {@code SpanContext} into a JSON object.
      * <p>
      * The span context will be injected into a new JSON object under key <em>span-context</em>.
+     * The context of an unsampled trace is not injected.
      *
      * @param tracer The Tracer to use for injecting the context.
      * @param spanContext The context to inject.
@@ -181,6 +207,9 @@ public final class TracingHelper {
         Objects.requireNonNull(spanContext);
         Objects.requireNonNull(jsonObject);
 
+        if (!isSampled(spanContext)) {
+            return;
+        }
         final JsonObject spanContextJson = new JsonObject();
         jsonObject.put(JSON_KEY_SPAN_CONTEXT, spanContextJson);
         tracer.inject(spanContext, Format.Builtin.TEXT_MAP, new JsonObjectInjectAdapter(spanContextJson));
@@ -211,6 +240,7 @@ public final class TracingHelper {
      * Injects a {@code SpanContext} into an AMQP {@code Message}.
      * <p>
      * The span context will be written to the message annotations of the given message.
+     * The context of an unsampled trace is not injected.
      *
      * @param tracer The Tracer to use for injecting the context.
      * @param spanContext The context to inject.
@@ -223,6 +253,9 @@ public final class TracingHelper {
         Objects.requireNonNull(spanContext);
         Objects.requireNonNull(message);
 
+        if (!isSampled(spanContext)) {
+            return;
+        }
         tracer.inject(spanContext, Format.Builtin.TEXT_MAP,
                 new MessageAnnotationsInjectAdapter(message, AMQP_ANNOTATION_NAME_TRACE_CONTEXT));
     }
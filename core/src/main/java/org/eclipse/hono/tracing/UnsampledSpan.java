@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+
+/**
+ * A span that is part of a trace which has not been sampled.
+ * <p>
+ * All operations on the span are no-ops. The span also serves as its own context
+ * so that spans referring to it can be identified as being unsampled as well.
+ */
+final class UnsampledSpan implements Span, SpanContext {
+
+    /**
+     * The shared instance.
+     */
+    static final UnsampledSpan INSTANCE = new UnsampledSpan();
+
+    private UnsampledSpan() {
+        // prevent instantiation
+    }
+
+    @Override
+    public SpanContext context() {
+        return this;
+    }
+
+    @Override
+    public Iterable<Entry<String, String>> baggageItems() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Span setTag(final String key, final String value) {
+        return this;
+    }
+
+    @Override
+    public Span setTag(final String key, final boolean value) {
+        return this;
+    }
+
+    @Override
+    public Span setTag(final String key, final Number value) {
+        return this;
+    }
+
+    @Override
+    public Span log(final Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(final long timestampMicroseconds, final Map<String, ?> fields) {
+        return this;
+    }
+
+    @Override
+    public Span log(final String event) {
+        return this;
+    }
+
+    @Override
+    public Span log(final long timestampMicroseconds, final String event) {
+        return this;
+    }
+
+    @Override
+    public Span setBaggageItem(final String key, final String value) {
+        return this;
+    }
+
+    @Override
+    public String getBaggageItem(final String key) {
+        return null;
+    }
+
+    @Override
+    public Span setOperationName(final String operationName) {
+        return this;
+    }
+
+    @Override
+    public void finish() {
+        // nothing to do
+    }
+
+    @Override
+    public void finish(final long finishMicros) {
+        // nothing to do
+    }
+
+    @Override
+    public String toString() {
+        return "UnsampledSpan";
+    }
+}
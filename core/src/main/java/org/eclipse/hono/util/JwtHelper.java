@@ -14,6 +14,7 @@ package org.eclipse.hono.util;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.interfaces.ECKey;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
@@ -97,8 +98,11 @@ public abstract class JwtHelper {
     }
 
     /**
-     * Sets the path to a PKCS8 PEM file containing the RSA private key to use for signing tokens asserting the
+     * Sets the path to a PKCS8 PEM file containing the RSA or EC private key to use for signing tokens asserting the
      * registration status of devices.
+     * <p>
+     * Tokens are signed using SHA256withRSA for RSA keys and using ECDSA with the hash function matching
+     * the key's curve for EC keys.
      * 
      * @param keyPath The absolute path to the file.
      * @throws NullPointerException if the path is {@code null}.
@@ -106,11 +110,11 @@ public abstract class JwtHelper {
      */
     protected final void setPrivateKey(final String keyPath) {
         Objects.requireNonNull(keyPath);
-        this.algorithm = SignatureAlgorithm.RS256;
         this.key = KeyLoader.fromFiles(vertx, keyPath, null).getPrivateKey();
         if (key == null) {
             throw new IllegalArgumentException("cannot load private key: " + keyPath);
         }
+        this.algorithm = getSignatureAlgorithm(key);
     }
 
     /**
@@ -123,11 +127,32 @@ public abstract class JwtHelper {
      */
     protected final void setPublicKey(final String keyPath) {
         Objects.requireNonNull(keyPath);
-        this.algorithm = SignatureAlgorithm.RS256;
         this.key = KeyLoader.fromFiles(vertx, null, keyPath).getPublicKey();
         if (key == null) {
             throw new IllegalArgumentException("cannot load public key: " + keyPath);
         }
+        this.algorithm = getSignatureAlgorithm(key);
+    }
+
+    /**
+     * Gets the signature algorithm to use with an asymmetric key.
+     * 
+     * @param key The key.
+     * @return The ECDSA variant matching the key's curve for EC keys, RS256 otherwise.
+     */
+    static SignatureAlgorithm getSignatureAlgorithm(final Key key) {
+
+        if (key instanceof ECKey) {
+            final int fieldSize = ((ECKey) key).getParams().getCurve().getField().getFieldSize();
+            if (fieldSize <= 256) {
+                return SignatureAlgorithm.ES256;
+            } else if (fieldSize <= 384) {
+                return SignatureAlgorithm.ES384;
+            } else {
+                return SignatureAlgorithm.ES512;
+            }
+        }
+        return SignatureAlgorithm.RS256;
     }
 
     /**
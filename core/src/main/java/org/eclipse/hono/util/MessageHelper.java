@@ -31,6 +31,8 @@ import org.apache.qpid.proton.message.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
@@ -323,6 +325,11 @@ public final class MessageHelper {
 
     /**
      * Gets a message's body as Buffer object.
+     * <p>
+     * The returned buffer shares the content of the message's <em>Data</em> section or
+     * binary <em>AmqpValue</em> section instead of copying it. The buffer's capacity is
+     * therefore fixed to the length of the payload. Callers that need to modify the
+     * payload should work on a {@linkplain Buffer#copy() copy} of the returned buffer.
      *
      * @param msg The AMQP 1.0 message to parse the body of.
      * @return The message body as a Buffer or {@code null} if the message does not have a <em>Data</em> nor an
@@ -338,12 +345,12 @@ public final class MessageHelper {
         }
 
         if (msg.getBody() instanceof Data) {
-            final Data body = (Data) msg.getBody();
-            return Buffer.buffer(body.getValue().getArray());
+            final Binary value = ((Data) msg.getBody()).getValue();
+            return Buffer.buffer(Unpooled.wrappedBuffer(value.getArray(), value.getArrayOffset(), value.getLength()));
         } else if (msg.getBody() instanceof AmqpValue) {
             final AmqpValue body = (AmqpValue) msg.getBody();
             if (body.getValue() instanceof byte[]) {
-                return Buffer.buffer((byte[]) body.getValue());
+                return Buffer.buffer(Unpooled.wrappedBuffer((byte[]) body.getValue()));
             } else if (body.getValue() instanceof String) {
                 return Buffer.buffer((String) body.getValue());
             }
@@ -686,6 +693,42 @@ public final class MessageHelper {
         setPayload(message, contentType, payload != null ? payload.getBytes() : null);
     }
 
+    /**
+     * Set the payload of the message using a {@link Data} section that shares
+     * the given buffer's content.
+     * <p>
+     * In contrast to {@link #setPayload(Message, String, Buffer)}, this method does not
+     * copy the payload if the buffer is backed by a byte array. Instead, the message body
+     * refers to the readable bytes of the buffer's backing array. The buffer must therefore
+     * not be modified after this method has been invoked. Buffers that are not backed by
+     * an array are copied.
+     * <p>
+     * If the payload is {@code null}, then neither the payload, nor content type will be set.
+     *
+     * @param message The message to update.
+     * @param contentType An optional content type.
+     * @param payload The optional message payload.
+     *
+     * @throws NullPointerException If the parameter {@code message} was {@code null}.
+     */
+    public static void wrapPayload(final Message message, final String contentType, final Buffer payload) {
+        Objects.requireNonNull(message);
+
+        if (payload == null) {
+            setPayload(message, contentType, (byte[]) null);
+            return;
+        }
+        final ByteBuf buf = payload.getByteBuf();
+        if (buf.hasArray()) {
+            if (contentType != null) {
+                message.setContentType(contentType);
+            }
+            message.setBody(new Data(new Binary(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes())));
+        } else {
+            setPayload(message, contentType, payload.getBytes());
+        }
+    }
+
     /**
      * Set the JSON payload of the message using a {@link Data} section.
      * <p>
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -12,10 +12,10 @@
  *******************************************************************************/
 package org.eclipse.hono.util;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A unique identifier for a resource within Hono.
@@ -43,65 +43,147 @@ import java.util.Objects;
  * <li>telemetry/DEFAULT_TENANT</li>
  * <li>telemetry/DEFAULT_TENANT/</li>
  * </ol>
- *
+ * <p>
+ * Resource identifiers are created for every message being processed. Creating an
+ * identifier therefore only allocates the array of path segments. The string
+ * representations are computed lazily. The names of Hono's standard endpoints are
+ * interned when an identifier is parsed and the base paths of these endpoints are
+ * cached per tenant.
  */
 public final class ResourceIdentifier {
 
+    /**
+     * The maximum number of tenants per endpoint for which the base path is cached.
+     */
+    static final int MAX_CACHED_BASE_PATHS = 1000;
+
     private static final int IDX_ENDPOINT = 0;
     private static final int IDX_TENANT_ID = 1;
     private static final int IDX_RESOURCE_ID = 2;
-    private String[] resourcePath;
-    private String resource;
-    private String basePath;
+    private static final char SEPARATOR = '/';
+    private static final String[] KNOWN_ENDPOINTS = {
+            TelemetryConstants.TELEMETRY_ENDPOINT,
+            TelemetryConstants.TELEMETRY_ENDPOINT_SHORT,
+            EventConstants.EVENT_ENDPOINT,
+            EventConstants.EVENT_ENDPOINT_SHORT,
+            CommandConstants.COMMAND_ENDPOINT,
+            CommandConstants.COMMAND_ENDPOINT_SHORT,
+            RegistrationConstants.REGISTRATION_ENDPOINT,
+            CredentialsConstants.CREDENTIALS_ENDPOINT,
+            TenantConstants.TENANT_ENDPOINT,
+            AuthenticationConstants.ENDPOINT_NAME_AUTHENTICATION
+    };
+    private static final Map<String, Map<String, String>> BASE_PATHS = new ConcurrentHashMap<>();
 
-    private ResourceIdentifier(final String resource, final boolean assumeDefaultTenant) {
-        final String[] path = resource.split("\\/");
-        final List<String> pathSegments = new ArrayList<>(Arrays.asList(path));
-        if (assumeDefaultTenant) {
-            pathSegments.add(1, Constants.DEFAULT_TENANT);
+    static {
+        for (final String endpoint : KNOWN_ENDPOINTS) {
+            BASE_PATHS.put(endpoint, new ConcurrentHashMap<>());
         }
-        setResourcePath(pathSegments.toArray(String[]::new));
     }
 
-    private ResourceIdentifier(final String endpoint, final String tenantId, final String resourceId) {
-        setResourcePath(new String[]{endpoint, tenantId, resourceId});
+    private final String[] resourcePath;
+    private String resource;
+    private String basePath;
+
+    private ResourceIdentifier(final String[] path) {
+        this.resourcePath = normalize(path);
     }
 
-    private ResourceIdentifier(final ResourceIdentifier resourceIdentifier, final String tenantId, final String resourceId) {
-        String[] path = resourceIdentifier.getResourcePath();
-        if (path.length < 3) {
-            path = new String[3];
-            path[IDX_ENDPOINT] = resourceIdentifier.getEndpoint();
+    private static String[] normalize(final String[] path) {
+
+        int length = path.length;
+        while (length > 0 && path[length - 1] == null) {
+            length--;
         }
-        path[IDX_TENANT_ID] = tenantId;
-        path[IDX_RESOURCE_ID] = resourceId;
-        setResourcePath(path);
+        if (length == 0) {
+            throw new IllegalArgumentException("path must have at least one non-null segment");
+        }
+        final String[] segments = length == path.length ? path : Arrays.copyOf(path, length);
+        for (int i = 0; i < length; i++) {
+            if (segments[i] == null) {
+                throw new IllegalArgumentException("path may contain trailing null segments only");
+            }
+        }
+        if (length > IDX_TENANT_ID && segments[IDX_TENANT_ID].isEmpty()) {
+            segments[IDX_TENANT_ID] = null;
+        }
+        if (length > IDX_RESOURCE_ID && segments[IDX_RESOURCE_ID].isEmpty()) {
+            segments[IDX_RESOURCE_ID] = null;
+        }
+        return segments;
     }
 
-    private ResourceIdentifier(final String[] path) {
-        setResourcePath(path);
+    /**
+     * Gets the interned instance of an endpoint name.
+     *
+     * @param name The sequence containing the name.
+     * @param start The index of the name's first character.
+     * @param end The index after the name's last character.
+     * @return The name of one of Hono's standard endpoints if it matches the given name
+     *         or a new string otherwise.
+     */
+    private static String internEndpoint(final CharSequence name, final int start, final int end) {
+        for (final String endpoint : KNOWN_ENDPOINTS) {
+            if (regionEquals(endpoint, name, start, end)) {
+                return endpoint;
+            }
+        }
+        return name.subSequence(start, end).toString();
     }
 
-    private void setResourcePath(final String[] path) {
-        final List<String> pathSegments = new ArrayList<>();
-        boolean pathContainsNullSegment = false;
-        for (final String segment : path) {
-            if (segment == null) {
-                pathContainsNullSegment = true;
-            } else if (pathContainsNullSegment) {
-                throw new IllegalArgumentException("path may contain trailing null segments only");
-            } else {
-                pathSegments.add(segment);
+    private static boolean regionEquals(final String string, final CharSequence sequence, final int start, final int end) {
+        if (string.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) != sequence.charAt(start + i)) {
+                return false;
             }
         }
-        this.resourcePath = pathSegments.toArray(String[]::new);
-        if (resourcePath.length > IDX_TENANT_ID && resourcePath[IDX_TENANT_ID].length() == 0) {
-            resourcePath[IDX_TENANT_ID] = null;
+        return true;
+    }
+
+    /**
+     * Splits a resource into its path segments.
+     * <p>
+     * Trailing empty segments are removed, i.e. the result is the same as that of
+     * {@code resource.toString().split("/")}.
+     */
+    private static String[] parse(final CharSequence resource, final boolean assumeDefaultTenant) {
+
+        final int length = resource.length();
+        // determine the number of segments, ignoring trailing empty segments
+        int end = length;
+        while (end > 0 && resource.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        if (end == 0 && length > 0) {
+            throw new IllegalArgumentException("resource must contain at least one non-empty segment");
         }
-        if (resourcePath.length > IDX_RESOURCE_ID && resourcePath[IDX_RESOURCE_ID].length() == 0) {
-            resourcePath[IDX_RESOURCE_ID] = null;
+        int segmentCount = 1;
+        for (int i = 0; i < end; i++) {
+            if (resource.charAt(i) == SEPARATOR) {
+                segmentCount++;
+            }
         }
-        createStringRepresentation();
+
+        final String[] path = new String[assumeDefaultTenant ? segmentCount + 1 : segmentCount];
+        int index = 0;
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || resource.charAt(i) == SEPARATOR) {
+                if (index == IDX_ENDPOINT) {
+                    path[index++] = internEndpoint(resource, segmentStart, i);
+                    if (assumeDefaultTenant) {
+                        path[index++] = Constants.DEFAULT_TENANT;
+                    }
+                } else {
+                    path[index++] = resource.subSequence(segmentStart, i).toString();
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return path;
     }
 
     /**
@@ -119,20 +201,30 @@ public final class ResourceIdentifier {
         for (int i = startIdx; i < resourcePath.length; i++) {
             b.append(resourcePath[i]);
             if (i < resourcePath.length - 1) {
-                b.append("/");
+                b.append(SEPARATOR);
             }
         }
         return b.toString();
     }
 
-    private void createStringRepresentation() {
-        resource = createStringRepresentation(0);
+    private static String getBasePath(final String endpoint, final String tenantId) {
 
-        final StringBuilder b = new StringBuilder(getEndpoint());
-        if (getTenantId() != null) {
-            b.append("/").append(getTenantId());
+        if (tenantId == null) {
+            return endpoint;
+        }
+        final Map<String, String> tenantBasePaths = BASE_PATHS.get(endpoint);
+        if (tenantBasePaths == null) {
+            return endpoint + SEPARATOR + tenantId;
+        }
+        final String cachedBasePath = tenantBasePaths.get(tenantId);
+        if (cachedBasePath != null) {
+            return cachedBasePath;
         }
-        basePath = b.toString();
+        final String newBasePath = endpoint + SEPARATOR + tenantId;
+        if (tenantBasePaths.size() < MAX_CACHED_BASE_PATHS) {
+            tenantBasePaths.putIfAbsent(tenantId, newBasePath);
+        }
+        return newBasePath;
     }
 
     /**
@@ -149,8 +241,25 @@ public final class ResourceIdentifier {
      * @throws IllegalArgumentException if the given string does not represent a valid resource identifier.
      */
     public static ResourceIdentifier fromString(final String resource) {
+        return parse(resource);
+    }
+
+    /**
+     * Creates a resource identifier from a character sequence.
+     * <p>
+     * The sequence is processed like the string passed into {@link #fromString(String)},
+     * however, the sequence is scanned for the separators only once and the segments are
+     * copied directly from the sequence. This allows e.g. an AMQP address or MQTT topic
+     * to be parsed without creating intermediary strings.
+     *
+     * @param resource the resource to parse.
+     * @return the resource identifier.
+     * @throws NullPointerException if the given sequence is {@code null}.
+     * @throws IllegalArgumentException if the given sequence does not represent a valid resource identifier.
+     */
+    public static ResourceIdentifier parse(final CharSequence resource) {
         Objects.requireNonNull(resource);
-        return new ResourceIdentifier(resource, false);
+        return new ResourceIdentifier(parse(resource, false));
     }
 
     /**
@@ -168,7 +277,7 @@ public final class ResourceIdentifier {
      */
     public static ResourceIdentifier fromStringAssumingDefaultTenant(final String resource) {
         Objects.requireNonNull(resource);
-        return new ResourceIdentifier(resource, true);
+        return new ResourceIdentifier(parse(resource, true));
     }
 
     /**
@@ -182,7 +291,7 @@ public final class ResourceIdentifier {
      */
     public static ResourceIdentifier from(final String endpoint, final String tenantId, final String resourceId) {
         Objects.requireNonNull(endpoint);
-        return new ResourceIdentifier(endpoint, tenantId, resourceId);
+        return new ResourceIdentifier(new String[] { endpoint, tenantId, resourceId });
     }
 
     /**
@@ -197,7 +306,10 @@ public final class ResourceIdentifier {
      */
     public static ResourceIdentifier from(final ResourceIdentifier resourceIdentifier, final String tenantId, final String resourceId) {
         Objects.requireNonNull(resourceIdentifier);
-        return new ResourceIdentifier(resourceIdentifier, tenantId, resourceId);
+        final String[] path = Arrays.copyOf(resourceIdentifier.resourcePath, Math.max(3, resourceIdentifier.resourcePath.length));
+        path[IDX_TENANT_ID] = tenantId;
+        path[IDX_RESOURCE_ID] = resourceId;
+        return new ResourceIdentifier(path);
     }
 
     /**
@@ -218,7 +330,7 @@ public final class ResourceIdentifier {
         if (path.length == 0) {
             throw new IllegalArgumentException("path must have at least one segment");
         } else {
-            return new ResourceIdentifier(path);
+            return new ResourceIdentifier(Arrays.copyOf(path, path.length));
         }
     }
 
@@ -271,7 +383,18 @@ public final class ResourceIdentifier {
      */
     @Override
     public String toString() {
-        return resource;
+        String result = resource;
+        if (result == null) {
+            if (resourcePath.length == 1) {
+                result = getEndpoint();
+            } else if (resourcePath.length == 2 && getTenantId() != null) {
+                result = getBasePath();
+            } else {
+                result = createStringRepresentation(0);
+            }
+            resource = result;
+        }
+        return result;
     }
 
     /**
@@ -281,7 +404,12 @@ public final class ResourceIdentifier {
      * @return A string consisting of the properties separated by a forward slash.
      */
     public String getBasePath() {
-        return basePath;
+        String result = basePath;
+        if (result == null) {
+            result = getBasePath(getEndpoint(), getTenantId());
+            basePath = result;
+        }
+        return result;
     }
 
     /**
@@ -304,7 +432,7 @@ public final class ResourceIdentifier {
         }
 
         final ResourceIdentifier that = (ResourceIdentifier) o;
-        return resourcePath != null ? Arrays.equals(resourcePath, that.resourcePath) : that.resourcePath == null;
+        return Arrays.equals(resourcePath, that.resourcePath);
     }
 
     @Override
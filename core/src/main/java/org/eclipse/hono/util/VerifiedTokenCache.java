@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of tokens whose signature has been verified successfully.
+ * <p>
+ * Verifying the signature of a JWT, in particular an RSA based one, is expensive.
+ * Components that need to validate the same token over and over again can use this
+ * cache for keeping the claims contained in the token after the signature has been
+ * verified once. Subsequent validations of the token then only require a look up
+ * of the token until it expires.
+ * <p>
+ * Tokens are not stored in the cache verbatim but are keyed by their SHA-256 digest.
+ * The least recently used token is evicted once the maximum number of entries has
+ * been reached.
+ * <p>
+ * Instances are thread safe.
+ *
+ * @param <T> The type of the validated claims.
+ */
+public final class VerifiedTokenCache<T> {
+
+    /**
+     * The default maximum number of tokens to cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final Map<ByteBuffer, Entry<T>> entries;
+
+    /**
+     * Creates a new cache for a maximum of {@link #DEFAULT_MAX_ENTRIES} tokens.
+     */
+    public VerifiedTokenCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries The maximum number of tokens to cache.
+     * @throws IllegalArgumentException if max entries is less than 1.
+     */
+    public VerifiedTokenCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("cache must support at least one entry");
+        }
+        this.entries = new LinkedHashMap<ByteBuffer, Entry<T>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, Entry<T>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the claims of a verified token.
+     *
+     * @param token The token.
+     * @return The claims or {@code null} if the token is not contained in the
+     *         cache or has expired.
+     * @throws NullPointerException if token is {@code null}.
+     */
+    public T get(final String token) {
+
+        final ByteBuffer key = digest(token);
+        synchronized (entries) {
+            final Entry<T> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            } else if (entry.validUntil.isBefore(Instant.now())) {
+                entries.remove(key);
+                return null;
+            } else {
+                return entry.claims;
+            }
+        }
+    }
+
+    /**
+     * Puts a token to the cache whose signature has been verified.
+     *
+     * @param token The token.
+     * @param claims The claims contained in the token.
+     * @param validUntil The instant until which the token is to be considered valid.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public void put(final String token, final T claims, final Instant validUntil) {
+
+        final Entry<T> entry = new Entry<>(Objects.requireNonNull(claims), Objects.requireNonNull(validUntil));
+        final ByteBuffer key = digest(token);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Gets the number of cached tokens.
+     *
+     * @return The number of tokens, including expired ones that have not been removed yet.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static ByteBuffer digest(final String token) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            // every JRE is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The claims of a cached token.
+     *
+     * @param <T> The type of the claims.
+     */
+    private static final class Entry<T> {
+
+        private final T claims;
+        private final Instant validUntil;
+
+        Entry(final T claims, final Instant validUntil) {
+            this.claims = claims;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.tracing;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.eclipse.hono.config.TracingSamplingProperties;
+import org.eclipse.hono.util.MessageHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.Tracer.SpanBuilder;
+import io.opentracing.tag.Tags;
+
+/**
+ * Verifies behavior of {@link SamplingAwareTracer}.
+ *
+ */
+public class SamplingAwareTracerTest {
+
+    private Tracer delegate;
+    private SpanBuilder delegateBuilder;
+    private Span sampledSpan;
+    private TracingSamplingProperties samplingProperties;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+
+        sampledSpan = mock(Span.class);
+        when(sampledSpan.context()).thenReturn(mock(SpanContext.class));
+        delegateBuilder = mock(SpanBuilder.class);
+        when(delegateBuilder.start()).thenReturn(sampledSpan);
+        delegate = mock(Tracer.class);
+        when(delegate.buildSpan(anyString())).thenReturn(delegateBuilder);
+        samplingProperties = new TracingSamplingProperties();
+    }
+
+    /**
+     * Verifies that no span builder of the wrapped tracer is created for
+     * a root span whose tenant has sampling disabled.
+     */
+    @Test
+    public void testRootSpanIsNotCreatedForUnsampledTenant() {
+
+        samplingProperties.setTenantRates(Collections.singletonMap("unsampled", 0.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+
+        final Span span = tracer.buildSpan("upload")
+                .ignoreActiveSpan()
+                .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "unsampled")
+                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), true)
+                .start();
+
+        assertFalse(TracingHelper.isSampled(span));
+        verify(delegate, never()).buildSpan(anyString());
+    }
+
+    /**
+     * Verifies that a root span of a tenant that is sampled is created by the wrapped
+     * tracer including all tags set on the builder, even if the default rate is 0.
+     */
+    @Test
+    public void testRootSpanIsCreatedForSampledTenant() {
+
+        samplingProperties.setRate(0.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("sampled", 1.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+
+        final Span span = tracer.buildSpan("upload")
+                .ignoreActiveSpan()
+                .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "sampled")
+                .withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), true)
+                .withTag("count", 5)
+                .start();
+
+        assertThat(span, is(sampledSpan));
+        assertTrue(TracingHelper.isSampled(span));
+        verify(delegateBuilder).ignoreActiveSpan();
+        verify(delegateBuilder).withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "sampled");
+        verify(delegateBuilder).withTag(TracingHelper.TAG_AUTHENTICATED.getKey(), true);
+        verify(delegateBuilder).withTag("count", (Number) 5);
+
+        // and a root span without tenant is subject to the default rate
+        tracer.buildSpan("connect").ignoreActiveSpan().start().finish();
+        verify(delegate, never()).buildSpan("connect");
+    }
+
+    /**
+     * Verifies that the sampling decision for a root span that has been started without
+     * tenant is made based on the rate of the tenant that a child span is started for
+     * and that the operations invoked on the root span and on its children that have been
+     * started before are replayed on the spans created by the wrapped tracer.
+     */
+    @Test
+    public void testDeferredRootSpanIsSampledForTenantOfChildSpan() {
+
+        // GIVEN a tracer that samples the traces of a single tenant only
+        samplingProperties.setRate(0.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("sampled", 1.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+
+        // WHEN a server span is started without tenant
+        final Span root = tracer.buildSpan("POST").ignoreActiveSpan().start();
+        root.setTag(Tags.HTTP_METHOD.getKey(), "POST");
+        // and a child span without tenant has been finished
+        tracer.buildSpan("get Credentials").asChildOf(root.context()).ignoreActiveSpan().start().finish();
+        verify(delegate, never()).buildSpan(anyString());
+
+        // and another child span is started for the sampled tenant
+        final Span upload = tracer.buildSpan("upload")
+                .asChildOf(root.context())
+                .ignoreActiveSpan()
+                .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "sampled")
+                .start();
+
+        // THEN all spans of the trace are created by the wrapped tracer
+        assertThat(upload, is(sampledSpan));
+        verify(delegate).buildSpan("POST");
+        verify(delegate).buildSpan("get Credentials");
+        verify(delegate).buildSpan("upload");
+        verify(delegateBuilder, times(2)).withStartTimestamp(anyLong());
+        // with the root span being tagged with the tenant as well
+        verify(delegateBuilder, times(2)).withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "sampled");
+        verify(sampledSpan).setTag(Tags.HTTP_METHOD.getKey(), "POST");
+        verify(sampledSpan).finish(anyLong());
+    }
+
+    /**
+     * Verifies that a root span that has been started without tenant is not sampled
+     * if the tenant of its child span has sampling disabled and that the default rate
+     * applies if the root span is finished before a tenant becomes known.
+     */
+    @Test
+    public void testDeferredRootSpanIsNotSampledForUnsampledTenant() {
+
+        samplingProperties.setRate(1.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("unsampled", 0.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+
+        final Span root = tracer.buildSpan("POST").ignoreActiveSpan().start();
+        final Span upload = tracer.buildSpan("upload")
+                .asChildOf(root)
+                .ignoreActiveSpan()
+                .withTag(MessageHelper.APP_PROPERTY_TENANT_ID, "unsampled")
+                .start();
+        root.finish();
+
+        assertFalse(TracingHelper.isSampled(upload));
+        verify(delegate, never()).buildSpan(anyString());
+
+        // whereas a root span that is finished without tenant is subject to the default rate
+        tracer.buildSpan("GET").ignoreActiveSpan().start().finish();
+        verify(delegate).buildSpan("GET");
+        verify(sampledSpan).finish(anyLong());
+    }
+
+    /**
+     * Verifies that the children of a span of an unsampled trace are not sampled either
+     * and that the children of a sampled span are created by the wrapped tracer.
+     */
+    @Test
+    public void testChildSpansInheritSamplingDecision() {
+
+        samplingProperties.setRate(0.0);
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+        final Span root = tracer.buildSpan("root").ignoreActiveSpan().start();
+
+        final Span unsampledChild = tracer.buildSpan("child").asChildOf(root).ignoreActiveSpan().start();
+        assertFalse(TracingHelper.isSampled(unsampledChild));
+        verify(delegate, never()).buildSpan(anyString());
+
+        final SpanContext sampledParent = mock(SpanContext.class);
+        final Span sampledChild = tracer.buildSpan("child").asChildOf(sampledParent).ignoreActiveSpan().start();
+        assertThat(sampledChild, is(sampledSpan));
+        verify(delegateBuilder).addReference(anyString(), any(SpanContext.class));
+    }
+
+    /**
+     * Verifies that injecting the context of a root span that has been started without
+     * tenant makes the sampling decision based on the default rate.
+     */
+    @Test
+    public void testDeferredSpanContextIsResolvedWhenInjected() {
+
+        samplingProperties.setRate(1.0);
+        samplingProperties.setTenantRates(Collections.singletonMap("unsampled", 0.0));
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+        final Span span = tracer.buildSpan("root").ignoreActiveSpan().start();
+
+        TracingHelper.injectSpanContext(tracer, span.context(), new MessageImpl());
+
+        verify(delegate).inject(eq(sampledSpan.context()), any(), any());
+    }
+
+    /**
+     * Verifies that the context of an unsampled span is not injected into messages.
+     */
+    @Test
+    public void testUnsampledSpanContextIsNotInjected() {
+
+        samplingProperties.setRate(0.0);
+        final Tracer tracer = new SamplingAwareTracer(delegate, samplingProperties);
+        final Span span = tracer.buildSpan("root").start();
+        final Message message = new MessageImpl();
+
+        TracingHelper.injectSpanContext(tracer, span.context(), message);
+
+        assertThat(message.getMessageAnnotations() == null, is(true));
+        verify(delegate, never()).inject(any(), any(), any());
+    }
+}
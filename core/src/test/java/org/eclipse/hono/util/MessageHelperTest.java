@@ -15,11 +15,17 @@ package org.eclipse.hono.util;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
+import java.nio.charset.StandardCharsets;
+
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.Data;
 import org.apache.qpid.proton.message.Message;
 import org.junit.Test;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.proton.ProtonHelper;
 
 /**
@@ -79,4 +85,40 @@ public class MessageHelperTest {
         assertNull(msg.getApplicationProperties());
     }
 
+
+    /**
+     * Verifies that the helper wraps the readable bytes of a buffer
+     * without copying them and that the payload can be read back.
+     */
+    @Test
+    public void testWrapPayloadSharesReadableBytesOfBuffer() {
+
+        final Buffer buffer = Buffer.buffer(16).appendString("hello");
+        final Message msg = ProtonHelper.message();
+        MessageHelper.wrapPayload(msg, "text/plain", buffer);
+
+        final Binary body = ((Data) msg.getBody()).getValue();
+        assertSame(buffer.getByteBuf().array(), body.getArray());
+        assertThat(body.getLength(), is(5));
+        assertThat(msg.getContentType(), is("text/plain"));
+        assertThat(MessageHelper.getPayloadAsString(msg), is("hello"));
+        assertThat(MessageHelper.getPayload(msg).toString(), is("hello"));
+    }
+
+    /**
+     * Verifies that the buffer returned for a <em>Data</em> section that refers to a
+     * slice of an array shares the slice's bytes instead of copying them.
+     */
+    @Test
+    public void testGetPayloadSharesSliceOfDataSection() {
+
+        final byte[] array = "XXhelloXX".getBytes(StandardCharsets.UTF_8);
+        final Message msg = ProtonHelper.message();
+        msg.setBody(new Data(new Binary(array, 2, 5)));
+
+        final Buffer payload = MessageHelper.getPayload(msg);
+        assertThat(payload.length(), is(5));
+        assertThat(payload.toString(), is("hello"));
+        assertSame(array, payload.getByteBuf().array());
+    }
 }
@@ -201,4 +201,47 @@ public class ResourceIdentifierTest {
     public void testFromPathFailsForPathStartingWithNullSegment() {
         ResourceIdentifier.fromPath(new String[]{null, "second", "last"});
     }
+
+    /**
+     * Verifies that a resource identifier parsed from a character sequence
+     * is equal to the one parsed from the corresponding string and that the
+     * names of standard endpoints are interned.
+     */
+    @Test
+    public void testParseCharSequence() {
+
+        final StringBuilder address = new StringBuilder(TelemetryConstants.TELEMETRY_ENDPOINT)
+                .append("/myTenant/myDevice/");
+        final ResourceIdentifier resourceId = ResourceIdentifier.parse(address);
+
+        assertSame(TelemetryConstants.TELEMETRY_ENDPOINT, resourceId.getEndpoint());
+        assertThat(resourceId.getTenantId(), is("myTenant"));
+        assertThat(resourceId.getResourceId(), is("myDevice"));
+        assertThat(resourceId.toPath().length, is(3));
+        assertThat(resourceId, is(ResourceIdentifier.fromString(address.toString())));
+        assertThat(resourceId.toString(), is("telemetry/myTenant/myDevice"));
+    }
+
+    /**
+     * Verifies that the base path of a standard endpoint is shared
+     * among resource identifiers of the same tenant.
+     */
+    @Test
+    public void testBasePathIsSharedForSameTenant() {
+
+        final ResourceIdentifier one = ResourceIdentifier.from(EventConstants.EVENT_ENDPOINT, "myTenant", "one");
+        final ResourceIdentifier two = ResourceIdentifier.fromString("event/myTenant/two");
+
+        assertThat(one.getBasePath(), is("event/myTenant"));
+        assertSame(one.getBasePath(), two.getBasePath());
+        assertThat(ResourceIdentifier.from("custom", "myTenant", "one").getBasePath(), is("custom/myTenant"));
+    }
+
+    /**
+     * Verifies that parsing a string consisting of separators only fails.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromStringFailsForEmptySegmentsOnly() {
+        ResourceIdentifier.fromString("//");
+    }
 }
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+/**
+ * Verifies behavior of {@link VerifiedTokenCache}.
+ *
+ */
+public class VerifiedTokenCacheTest {
+
+    /**
+     * Verifies that the claims of a cached token are returned until the token expires.
+     */
+    @Test
+    public void testGetReturnsClaimsOfUnexpiredTokenOnly() {
+
+        final VerifiedTokenCache<String> cache = new VerifiedTokenCache<>();
+        cache.put("valid-token", "claims", Instant.now().plusSeconds(60));
+        cache.put("expired-token", "claims", Instant.now().minusSeconds(1));
+
+        assertEquals("claims", cache.get("valid-token"));
+        assertNull(cache.get("expired-token"));
+        assertNull(cache.get("unknown-token"));
+        // the expired token has been removed
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Verifies that the least recently used token is evicted once the
+     * maximum number of tokens has been reached.
+     */
+    @Test
+    public void testPutEvictsLeastRecentlyUsedToken() {
+
+        final VerifiedTokenCache<String> cache = new VerifiedTokenCache<>(2);
+        final Instant validUntil = Instant.now().plusSeconds(60);
+        cache.put("first", "1", validUntil);
+        cache.put("second", "2", validUntil);
+        cache.get("first");
+        cache.put("third", "3", validUntil);
+
+        assertEquals("1", cache.get("first"));
+        assertNull(cache.get("second"));
+        assertEquals("3", cache.get("third"));
+    }
+}
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter;
+
+import static org.eclipse.hono.jmeter.HonoSamplerUtils.expandTemplate;
+import static org.eclipse.hono.jmeter.HonoSamplerUtils.getIntValueOrDefault;
+
+import java.util.concurrent.CompletionException;
+
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.eclipse.hono.jmeter.client.AbstractDeviceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for samplers that play the role of devices connected to one of Hono's protocol adapters.
+ * <p>
+ * Each thread simulates a number of devices whose identifiers and credentials are derived from templates
+ * by replacing the {@value HonoSamplerUtils#DEVICE_INDEX_PLACEHOLDER} placeholder with the device's index.
+ * The indices of the devices simulated by a thread start at <em>thread number * devices per thread</em>,
+ * so that the threads of a thread group simulate disjoint sets of devices.
+ * <p>
+ * Every sample run publishes a single message on behalf of the next device of the thread's devices.
+ * <p>
+ * JMeter creates an instance of a sampler class for every occurrence of the element in every thread. [some additional
+ * copies may be created before the test run starts]
+ *
+ * Thus each sampler is guaranteed to be called by a single thread - there is no need to synchronize access to instance
+ * variables.
+ *
+ * However, access to class fields must be synchronized.
+ */
+public abstract class HonoDeviceSampler extends HonoSampler implements ThreadListener {
+
+    public static final int DEFAULT_SEND_TIMEOUT = 1000; // milliseconds
+    public static final String DEFAULT_SENDER_TIME_VARIABLE_NAME = "timeStamp";
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HonoDeviceSampler.class);
+
+    private static final String DEVICE_ID = "deviceId";
+    private static final String DEVICES_PER_THREAD = "devicesPerThread";
+    private static final String QOS = "qos";
+    private static final String CONTENT_TYPE = "contentType";
+    private static final String DATA = "data";
+    private static final String SET_SENDER_TIME = "setSenderTime";
+    private static final String SENDER_TIME_VARIABLE_NAME = "senderTimeVariableName";
+    private static final String SEND_TIMEOUT = "sendTimeout";
+    private static final String WAIT_FOR_RECEIVERS = "waitForReceivers";
+    private static final String WAIT_FOR_RECEIVERS_TIMEOUT = "waitForReceiversTimeout";
+
+    private AbstractDeviceClient deviceClient;
+
+    /**
+     * Creates the client that connects the devices simulated by the current thread
+     * to the protocol adapter.
+     * 
+     * @return The client.
+     */
+    protected abstract AbstractDeviceClient newDeviceClient();
+
+    public String getDeviceId() {
+        return getPropertyAsString(DEVICE_ID);
+    }
+
+    /**
+     * Sets the template for the identifiers of the simulated devices.
+     * 
+     * @param deviceId The template, may contain the device index placeholder.
+     */
+    public void setDeviceId(final String deviceId) {
+        setProperty(DEVICE_ID, deviceId);
+    }
+
+    /**
+     * Gets the identifier of a simulated device.
+     * 
+     * @param index The device's index.
+     * @return The identifier.
+     */
+    public String getDeviceId(final int index) {
+        return expandTemplate(getDeviceId(), index);
+    }
+
+    /**
+     * Gets the authentication identifier of a simulated device.
+     * <p>
+     * The identifier is derived from the <em>user</em> template or from the
+     * device identifier template, if no user has been set.
+     * 
+     * @param index The device's index.
+     * @return The authentication identifier.
+     */
+    public String getAuthId(final int index) {
+        final String user = getUser();
+        return user == null || user.isEmpty() ? getDeviceId(index) : expandTemplate(user, index);
+    }
+
+    /**
+     * Gets the password of a simulated device.
+     * 
+     * @param index The device's index.
+     * @return The password.
+     */
+    public String getPassword(final int index) {
+        return expandTemplate(getPwd(), index);
+    }
+
+    public String getDevicesPerThread() {
+        return getPropertyAsString(DEVICES_PER_THREAD, "1");
+    }
+
+    /**
+     * Gets the number of devices simulated by each thread as an integer.
+     * <p>
+     * If the property value is smaller than 1 or not a number, 1 is returned.
+     * 
+     * @return The number of devices.
+     */
+    public int getDevicesPerThreadAsInt() {
+        final int devices = getIntValueOrDefault(getPropertyAsString(DEVICES_PER_THREAD), 1);
+        return devices > 0 ? devices : 1;
+    }
+
+    /**
+     * Sets the number of devices simulated by each thread.
+     * 
+     * @param devicesPerThread The number of devices encoded as string.
+     */
+    public void setDevicesPerThread(final String devicesPerThread) {
+        setProperty(DEVICES_PER_THREAD, devicesPerThread);
+    }
+
+    /**
+     * Gets the index of the first device simulated by the current thread.
+     * 
+     * @return The index.
+     */
+    public int getFirstDeviceIndex() {
+        return getThreadContext().getThreadNum() * getDevicesPerThreadAsInt();
+    }
+
+    public String getQos() {
+        return getPropertyAsString(QOS, "0");
+    }
+
+    /**
+     * Gets the quality of service level to publish messages with.
+     * 
+     * @return {@code 1} if the QoS has been set to 1, {@code 0} otherwise.
+     */
+    public int getQosAsInt() {
+        return getIntValueOrDefault(getPropertyAsString(QOS), 0) == 1 ? 1 : 0;
+    }
+
+    /**
+     * Sets the quality of service level to publish messages with.
+     * 
+     * @param qos The level (0 or 1) encoded as string.
+     */
+    public void setQos(final String qos) {
+        setProperty(QOS, qos);
+    }
+
+    public String getContentType() {
+        return getPropertyAsString(CONTENT_TYPE);
+    }
+
+    /**
+     * Sets the content type.
+     * 
+     * @param contentType The MIME type of the payload.
+     */
+    public void setContentType(final String contentType) {
+        setProperty(CONTENT_TYPE, contentType);
+    }
+
+    public String getData() {
+        return getPropertyAsString(DATA);
+    }
+
+    /**
+     * Sets the payload data to send.
+     * 
+     * @param data The payload data.
+     */
+    public void setData(final String data) {
+        setProperty(DATA, data);
+    }
+
+    public boolean isSetSenderTime() {
+        return getPropertyAsBoolean(SET_SENDER_TIME);
+    }
+
+    /**
+     * Sets whether or not to add the current timestamp to the payload.
+     * <p>
+     * If set, the payload data needs to be empty or a JSON object which the timestamp
+     * is added to. The <em>Hono Receiver Sampler</em> can then be configured to
+     * read the sender time from the JSON payload in order to determine the
+     * end-to-end latency.
+     * 
+     * @param isSetSenderTime {@code true} to add the current timestamp at the point of sending.
+     */
+    public void setSetSenderTime(final boolean isSetSenderTime) {
+        setProperty(SET_SENDER_TIME, isSetSenderTime);
+    }
+
+    public String getSenderTimeVariableName() {
+        return getPropertyAsString(SENDER_TIME_VARIABLE_NAME, DEFAULT_SENDER_TIME_VARIABLE_NAME);
+    }
+
+    /**
+     * Sets the name of the JSON payload property to put the sender time into.
+     * 
+     * @param variableName The property name.
+     */
+    public void setSenderTimeVariableName(final String variableName) {
+        setProperty(SENDER_TIME_VARIABLE_NAME, variableName);
+    }
+
+    /**
+     * Gets the timeout for sending a message in milliseconds as integer.
+     *
+     * @return The timeout for sending a message in milliseconds or the default timeout
+     * if the value is empty or cannot be parsed as integer.
+     */
+    public int getSendTimeoutOrDefaultAsInt() {
+        return getIntValueOrDefault(getPropertyAsString(SEND_TIMEOUT), DEFAULT_SEND_TIMEOUT);
+    }
+
+    /**
+     * Gets the timeout for sending a message in milliseconds.
+     * 
+     * @return The timeout for sending a message in milliseconds or the default timeout
+     * if the value is empty.
+     */
+    public String getSendTimeoutOrDefault() {
+        final String value = getPropertyAsString(SEND_TIMEOUT);
+        return value == null || value.isEmpty() ? Integer.toString(DEFAULT_SEND_TIMEOUT) : value;
+    }
+
+    /**
+     * Sets the timeout for sending a message.
+     * 
+     * @param sendTimeout The timeout in milliseconds encoded as string.
+     */
+    public void setSendTimeout(final String sendTimeout) {
+        setProperty(SEND_TIMEOUT, sendTimeout);
+    }
+
+    /**
+     * Gets the number of receivers as integer.
+     * 
+     * @return The number of receivers to wait for as integer or {@code 0}
+     * if the value cannot be parsed as integer.
+     */
+    public int getWaitForReceiversAsInt() {
+        return getIntValueOrDefault(getPropertyAsString(WAIT_FOR_RECEIVERS), 0);
+    }
+
+    public String getWaitForReceivers() {
+        return getPropertyAsString(WAIT_FOR_RECEIVERS);
+    }
+
+    /**
+     * Sets the number of receivers to wait for.
+     * 
+     * @param waitForReceivers Number of receivers to wait for (e.g. from other threads).
+     */
+    public void setWaitForReceivers(final String waitForReceivers) {
+        setProperty(WAIT_FOR_RECEIVERS, waitForReceivers);
+    }
+
+    /**
+     * Gets the timeout to wait for receivers as integer.
+     * 
+     * @return The timeout to wait for receivers in milliseconds or {@code 0}
+     * if the value cannot be parsed as integer.
+     */
+    public int getWaitForReceiversTimeoutAsInt() {
+        return getIntValueOrDefault(getPropertyAsString(WAIT_FOR_RECEIVERS_TIMEOUT), 0);
+    }
+
+    public String getWaitForReceiversTimeout() {
+        return getPropertyAsString(WAIT_FOR_RECEIVERS_TIMEOUT);
+    }
+
+    /**
+     * Sets the timeout to wait for receivers in milliseconds.
+     * 
+     * @param waitForReceiversTimeout The timeout in milliseconds encoded as string.
+     */
+    public void setWaitForReceiversTimeout(final String waitForReceiversTimeout) {
+        setProperty(WAIT_FOR_RECEIVERS_TIMEOUT, waitForReceiversTimeout);
+    }
+
+    @Override
+    public SampleResult sample(final Entry entry) {
+
+        final SampleResult res = new SampleResult();
+        res.setDataType(SampleResult.TEXT);
+        res.setSampleLabel(getName());
+        if (deviceClient == null) {
+            res.setSuccessful(false);
+            res.setResponseMessage("devices have not been started");
+        } else {
+            deviceClient.send(res);
+        }
+        return res;
+    }
+
+    @Override
+    public void threadStarted() {
+
+        deviceClient = newDeviceClient();
+        waitForReceivers(getWaitForReceiversAsInt(), getWaitForReceiversTimeoutAsInt());
+
+        try {
+            deviceClient.start().join();
+        } catch (final CompletionException e) {
+            LOGGER.error("error connecting devices to protocol adapter [{}:{}] ({})", getHost(), getPort(),
+                    Thread.currentThread().getName(), e);
+        }
+    }
+
+    @Override
+    public void threadFinished() {
+
+        if (deviceClient != null) {
+            try {
+                deviceClient.close().join();
+            } catch (final CompletionException e) {
+                LOGGER.error("error during shut down of devices", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter;
+
+import static org.eclipse.hono.jmeter.HonoSamplerUtils.getIntValueOrDefault;
+
+import org.eclipse.hono.jmeter.client.AbstractDeviceClient;
+import org.eclipse.hono.jmeter.client.HttpDeviceClient;
+
+/**
+ * A sampler which posts messages on behalf of devices to Hono's HTTP adapter.
+ * <p>
+ * The devices of a thread share a pool of persistent connections, or a single HTTP/2
+ * connection, and may wait for commands by means of the <em>hono-ttd</em> header.
+ */
+public class HonoHttpDeviceSampler extends HonoDeviceSampler {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String TTD = "ttd";
+    private static final String HTTP2 = "http2";
+
+    @Override
+    protected AbstractDeviceClient newDeviceClient() {
+        return new HttpDeviceClient(this);
+    }
+
+    public String getTtd() {
+        return getPropertyAsString(TTD, "0");
+    }
+
+    /**
+     * Gets the number of seconds the devices wait for a command as an integer.
+     * 
+     * @return The number of seconds or {@code 0} if the devices do not wait for commands
+     *         or the value cannot be parsed as integer.
+     */
+    public int getTtdAsInt() {
+        final int ttd = getIntValueOrDefault(getPropertyAsString(TTD), 0);
+        return ttd > 0 ? ttd : 0;
+    }
+
+    /**
+     * Sets the number of seconds the devices wait for a command after having sent a message.
+     * <p>
+     * Commands received in response to a message are answered with a response having status 200.
+     * 
+     * @param ttd The number of seconds encoded as string, 0 if the devices do not wait for commands.
+     */
+    public void setTtd(final String ttd) {
+        setProperty(TTD, ttd);
+    }
+
+    public boolean isHttp2() {
+        return getPropertyAsBoolean(HTTP2);
+    }
+
+    /**
+     * Sets whether the devices should use HTTP/2 for connecting to the adapter.
+     * <p>
+     * HTTP/2 is negotiated by means of TLS ALPN if a trust store is configured,
+     * otherwise HTTP/2 over clear text (h2c) is used with prior knowledge.
+     * All devices of a thread then multiplex their requests over a single connection.
+     * 
+     * @param http2 {@code true} in order to use HTTP/2.
+     */
+    public void setHttp2(final boolean http2) {
+        setProperty(HTTP2, http2);
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter;
+
+import org.eclipse.hono.jmeter.client.AbstractDeviceClient;
+import org.eclipse.hono.jmeter.client.MqttDeviceClient;
+
+/**
+ * A sampler which publishes messages on behalf of devices connected to Hono's MQTT adapter.
+ * <p>
+ * Each device keeps its connection open for the whole test run and may subscribe
+ * for commands.
+ */
+public class HonoMqttDeviceSampler extends HonoDeviceSampler {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SUBSCRIBE_FOR_COMMANDS = "subscribeForCommands";
+
+    @Override
+    protected AbstractDeviceClient newDeviceClient() {
+        return new MqttDeviceClient(this);
+    }
+
+    public boolean isSubscribeForCommands() {
+        return getPropertyAsBoolean(SUBSCRIBE_FOR_COMMANDS);
+    }
+
+    /**
+     * Sets whether the devices should subscribe for commands after having connected to the adapter.
+     * <p>
+     * Received commands are answered with a response having status 200.
+     * 
+     * @param subscribeForCommands {@code true} in order to subscribe for commands.
+     */
+    public void setSubscribeForCommands(final boolean subscribeForCommands) {
+        setProperty(SUBSCRIBE_FOR_COMMANDS, subscribeForCommands);
+    }
+}
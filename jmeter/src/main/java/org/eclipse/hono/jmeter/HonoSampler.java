@@ -222,6 +222,31 @@ public abstract class HonoSampler extends AbstractSampler {
         }
     }
 
+    /**
+     * Waits for receivers (e.g. from other threads) to consume from this sampler's address.
+     * 
+     * @param waitOn The number of receivers to wait for.
+     * @param waitOnTimeout The maximum time to wait in milliseconds.
+     */
+    void waitForReceivers(final int waitOn, final int waitOnTimeout) {
+
+        int activeReceivers = getSemaphores();
+        if (activeReceivers < waitOn) {
+            final int endCounter = waitOnTimeout / 100;
+            for (int i = 0; i < endCounter && activeReceivers < waitOn; i++) {
+                try {
+                    Thread.sleep(100);
+                } catch (final InterruptedException e) {
+                    LOGGER.error("wait on receiver", e);
+                    Thread.currentThread().interrupt();
+                }
+                activeReceivers = getSemaphores();
+                LOGGER.info("wait on receivers ({}/{}) for address: {} ({})", activeReceivers, waitOn, getAddress(),
+                        Thread.currentThread().getName());
+            }
+        }
+    }
+
     void removeSemaphores() {
         synchronized (semaphoreLock) {
             JMeterUtils.setProperty(HONO_PREFIX + getAddress(), "0");
@@ -19,6 +19,11 @@ package org.eclipse.hono.jmeter;
  */
 public final class HonoSamplerUtils {
 
+    /**
+     * The placeholder for the index of a simulated device in templates.
+     */
+    public static final String DEVICE_INDEX_PLACEHOLDER = "{n}";
+
     private HonoSamplerUtils() {
         // prevent instantiation
     }
@@ -41,4 +46,19 @@ public final class HonoSamplerUtils {
             return defaultValue;
         }
     }
+
+    /**
+     * Expands a template by replacing all occurrences of the <em>{n}</em> placeholder
+     * with an index.
+     * 
+     * @param template The template to expand or {@code null}.
+     * @param index The index to replace the placeholder with.
+     * @return The expanded template or {@code null} if the template is {@code null}.
+     */
+    static String expandTemplate(final String template, final int index) {
+        if (template == null) {
+            return null;
+        }
+        return template.replace(DEVICE_INDEX_PLACEHOLDER, Integer.toString(index));
+    }
 }
@@ -373,26 +373,8 @@ public class HonoSenderSampler extends HonoSampler implements ThreadListener {
     @Override
     public void threadStarted() {
 
-        int activeReceivers = getSemaphores();
-        final int waitOn = getWaitForReceiversAsInt();
-        final int waitOnTimeout = getWaitForReceiversTimeoutAsInt();
-
         honoSender = new HonoSender(this);
-
-        if (activeReceivers < waitOn) {
-            final int endCounter = waitOnTimeout / 100;
-            for (int i = 0; i < endCounter && activeReceivers < waitOn; i++) {
-                try {
-                    Thread.sleep(100);
-                } catch (final InterruptedException e) {
-                    LOGGER.error("wait on receiver", e);
-                    Thread.currentThread().interrupt();
-                }
-                activeReceivers = getSemaphores();
-                LOGGER.info("wait on receivers ({}/{}) for address: {} ({})", activeReceivers, waitOn, getAddress(),
-                        Thread.currentThread().getName());
-            }
-        }
+        waitForReceivers(getWaitForReceiversAsInt(), getWaitForReceiversTimeoutAsInt());
 
         try {
             honoSender.start().join();
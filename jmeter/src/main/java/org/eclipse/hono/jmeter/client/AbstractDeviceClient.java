@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.client;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.jmeter.HonoDeviceSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.TCPSSLOptions;
+
+/**
+ * Base class for clients which connect a number of simulated devices to one of Hono's protocol adapters;
+ * asynchronous API needs to be used synchronous for JMeters threading model.
+ * <p>
+ * All interaction with the adapter is run on a single vert.x context so that the underlying
+ * connections do not need to be thread safe.
+ */
+public abstract class AbstractDeviceClient extends AbstractClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDeviceClient.class);
+
+    /**
+     * The sampler configuration.
+     */
+    protected final HonoDeviceSampler sampler;
+    /**
+     * The context to run all interaction with the protocol adapter on.
+     */
+    protected final Context context;
+    /**
+     * The index of the first device simulated by this client.
+     */
+    protected final int firstDeviceIndex;
+    /**
+     * The number of devices simulated by this client.
+     */
+    protected final int deviceCount;
+
+    private final AtomicInteger commandsReceived = new AtomicInteger();
+    private final AtomicInteger commandResponsesSent = new AtomicInteger();
+    private final Buffer staticPayload;
+    private final JsonObject payloadTemplate;
+    private final String senderTimeVariableName;
+    private int nextDevice;
+
+    /**
+     * Creates a new client.
+     * 
+     * @param sampler The sampler configuration.
+     * @throws IllegalArgumentException if the sampler is configured to put the sender time into the
+     *                                  payload but the payload data is not a JSON object.
+     */
+    protected AbstractDeviceClient(final HonoDeviceSampler sampler) {
+        super();
+        this.sampler = sampler;
+        this.context = vertx.getOrCreateContext();
+        this.firstDeviceIndex = sampler.getFirstDeviceIndex();
+        this.deviceCount = sampler.getDevicesPerThreadAsInt();
+        this.senderTimeVariableName = sampler.getSenderTimeVariableName();
+        final String data = sampler.getData() == null ? "" : sampler.getData();
+        if (sampler.isSetSenderTime()) {
+            try {
+                payloadTemplate = data.trim().isEmpty() ? new JsonObject() : new JsonObject(data);
+            } catch (final DecodeException e) {
+                throw new IllegalArgumentException("payload data must be a JSON object when setting the sender time");
+            }
+            staticPayload = null;
+        } else {
+            payloadTemplate = null;
+            staticPayload = Buffer.buffer(data);
+        }
+    }
+
+    /**
+     * Connects the simulated devices to the protocol adapter.
+     * 
+     * @return A future indicating the outcome of the startup process.
+     */
+    public abstract CompletableFuture<Void> start();
+
+    /**
+     * Closes all connections to the protocol adapter.
+     * 
+     * @return A future that successfully completes once the connections are closed.
+     */
+    public abstract CompletableFuture<Void> close();
+
+    /**
+     * Publishes a message on behalf of one of the simulated devices.
+     * 
+     * @param deviceIndex The index of the device.
+     * @param payload The message payload.
+     * @return A future indicating the outcome of the operation. The future will be failed
+     *         with a {@link ServiceInvocationException} if the adapter rejects the message.
+     */
+    protected abstract Future<Void> publish(int deviceIndex, Buffer payload);
+
+    /**
+     * Gets the content type of the messages being published.
+     * 
+     * @return The content type or {@code null} if not set.
+     */
+    protected final String getContentType() {
+        final String contentType = sampler.getContentType();
+        if (contentType == null || contentType.isEmpty()) {
+            return sampler.isSetSenderTime() ? "application/json" : null;
+        }
+        return contentType;
+    }
+
+    /**
+     * Gets the maximum time to wait for the outcome of publishing a message.
+     * 
+     * @return The time in milliseconds.
+     */
+    protected long getSendTimeout() {
+        return sampler.getSendTimeoutOrDefaultAsInt();
+    }
+
+    /**
+     * Applies the trust store configured for the sampler to connection options.
+     * <p>
+     * TLS is enabled only if a trust store has been configured.
+     * 
+     * @param options The options to apply the trust store to.
+     */
+    protected final void applyTrustOptions(final TCPSSLOptions options) {
+        final String trustStorePath = sampler.getTrustStorePath();
+        if (trustStorePath != null && !trustStorePath.isEmpty()) {
+            final ClientConfigProperties config = new ClientConfigProperties();
+            config.setTrustStorePath(trustStorePath);
+            options.setSsl(true);
+            options.setTrustOptions(config.getTrustOptions());
+        }
+    }
+
+    /**
+     * Records the reception of a command by one of the simulated devices.
+     */
+    protected final void commandReceived() {
+        commandsReceived.incrementAndGet();
+    }
+
+    /**
+     * Records a command response having been sent by one of the simulated devices.
+     */
+    protected final void commandResponseSent() {
+        commandResponsesSent.incrementAndGet();
+    }
+
+    /**
+     * Runs an operation on this client's vert.x context.
+     * 
+     * @param operation The operation to run.
+     * @return A future indicating the outcome of the operation.
+     */
+    protected final CompletableFuture<Void> runOnContext(final Supplier<Future<Void>> operation) {
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        context.runOnContext(go -> {
+            try {
+                operation.get().setHandler(attempt -> {
+                    if (attempt.succeeded()) {
+                        result.complete(null);
+                    } else {
+                        result.completeExceptionally(attempt.cause());
+                    }
+                });
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Publishes a message on behalf of the next one of the simulated devices.
+     * <p>
+     * The result's elapsed time is the time it took for the adapter to accept the
+     * message, i.e. until the message has been written to the connection for QoS 0
+     * and until the adapter has acknowledged the message for QoS 1.
+     * 
+     * @param result The result to set the sampler's statistics on.
+     */
+    public final void send(final SampleResult result) {
+
+        final int deviceIndex = firstDeviceIndex + nextDevice;
+        nextDevice = (nextDevice + 1) % deviceCount;
+        final Buffer payload = newPayload();
+
+        result.sampleStart();
+        final CompletableFuture<Void> outcome = runOnContext(() -> publish(deviceIndex, payload));
+        try {
+            outcome.get(getSendTimeout(), TimeUnit.MILLISECONDS);
+            result.sampleEnd();
+            result.setSuccessful(true);
+            result.setResponseCodeOK();
+        } catch (final InterruptedException e) {
+            result.sampleEnd();
+            Thread.currentThread().interrupt();
+            setFailure(result, HttpURLConnection.HTTP_UNAVAILABLE, "interrupted");
+        } catch (final TimeoutException e) {
+            result.sampleEnd();
+            setFailure(result, HttpURLConnection.HTTP_UNAVAILABLE, "timed out waiting for message to be accepted");
+        } catch (final ExecutionException e) {
+            result.sampleEnd();
+            if (e.getCause() instanceof ServiceInvocationException) {
+                final ServiceInvocationException error = (ServiceInvocationException) e.getCause();
+                setFailure(result, error.getErrorCode(), error.getMessage());
+            } else {
+                setFailure(result, HttpURLConnection.HTTP_UNAVAILABLE, e.getCause().getMessage());
+            }
+        }
+        result.setSentBytes(payload.length());
+        result.setSampleCount(1);
+        final String deviceId = sampler.getDeviceId(deviceIndex);
+        final String status = String.format("%s: %s; commands received: %d, responses sent: %d",
+                deviceId, result.isSuccessful() ? "message accepted" : result.getResponseMessage(),
+                commandsReceived.getAndSet(0), commandResponsesSent.getAndSet(0));
+        result.setResponseMessage(status);
+        LOGGER.debug("{} ({})", status, Thread.currentThread().getName());
+    }
+
+    private void setFailure(final SampleResult result, final int code, final String message) {
+        result.setSuccessful(false);
+        result.setResponseCode(Integer.toString(code));
+        result.setResponseMessage(message);
+        LOGGER.debug("failed to publish message: {} [{}]", message, code);
+    }
+
+    private Buffer newPayload() {
+        if (payloadTemplate == null) {
+            return staticPayload;
+        }
+        final JsonObject payload = payloadTemplate.copy();
+        payload.put(senderTimeVariableName, System.currentTimeMillis());
+        return payload.toBuffer();
+    }
+
+    /**
+     * Closes the vert.x instance after a set of connections has been closed.
+     * 
+     * @param connectionsClosed The outcome of closing the connections.
+     * @return A future that successfully completes once the vert.x instance is closed.
+     */
+    protected final CompletableFuture<Void> closeVertxAfter(final CompletableFuture<Void> connectionsClosed) {
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        connectionsClosed.whenComplete((ok, error) -> {
+            if (error != null) {
+                LOGGER.debug("error closing connections to protocol adapter", error);
+            }
+            closeVertx().setHandler(attempt -> result.complete(null));
+        });
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.jmeter.HonoHttpDeviceSampler;
+import org.eclipse.hono.jmeter.HonoSampler;
+import org.eclipse.hono.util.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpVersion;
+
+/**
+ * A client which connects a number of simulated devices to Hono's HTTP protocol adapter.
+ * <p>
+ * All devices share a pool of persistent connections to the adapter or a single connection
+ * if HTTP/2 is used. Devices can indicate
+ * that they are waiting for a command by means of the <em>hono-ttd</em> header. Commands
+ * contained in a response are answered with a response having status 200.
+ */
+public class HttpDeviceClient extends AbstractDeviceClient {
+
+    /**
+     * The maximum number of connections to the adapter.
+     * <p>
+     * Messages are sent one at a time by a thread, so a second connection is only needed
+     * for sending command responses while the next message is being sent.
+     */
+    static final int MAX_CONNECTIONS = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpDeviceClient.class);
+
+    private static final String COMMAND_RESPONSE_URI = "/control/res/";
+
+    private final String uri;
+    private final int ttd;
+    private final boolean http2;
+    private final String[] authorizations;
+    private HttpClient client;
+
+    /**
+     * Creates a new client.
+     * 
+     * @param sampler The sampler configuration.
+     */
+    public HttpDeviceClient(final HonoHttpDeviceSampler sampler) {
+        super(sampler);
+        this.uri = "/" + sampler.getEndpoint();
+        this.ttd = sampler.getTtdAsInt();
+        this.http2 = sampler.isHttp2();
+        this.authorizations = new String[deviceCount];
+        for (int i = 0; i < deviceCount; i++) {
+            final String credentials = sampler.getAuthId(firstDeviceIndex + i) + "@" + sampler.getTenant() + ":"
+                    + sampler.getPassword(firstDeviceIndex + i);
+            authorizations[i] = "Basic " + Base64.getEncoder().encodeToString(
+                    credentials.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> start() {
+
+        return runOnContext(() -> {
+            final HttpClientOptions options = new HttpClientOptions()
+                    .setDefaultHost(sampler.getHost())
+                    .setDefaultPort(sampler.getPortAsInt())
+                    .setKeepAlive(true)
+                    .setMaxPoolSize(MAX_CONNECTIONS);
+            applyTrustOptions(options);
+            if (http2) {
+                // multiplex all requests over a single connection
+                options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(options.isSsl())
+                    .setHttp2ClearTextUpgrade(false)
+                    .setHttp2MaxPoolSize(1);
+            }
+            // connections are established with the first requests
+            client = vertx.createHttpClient(options);
+            return Future.succeededFuture();
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Includes the time the adapter waits for a command to be sent to the device.
+     */
+    @Override
+    protected long getSendTimeout() {
+        return super.getSendTimeout() + ttd * 1000L;
+    }
+
+    @Override
+    protected Future<Void> publish(final int deviceIndex, final Buffer payload) {
+
+        final String authorization = authorizations[deviceIndex - firstDeviceIndex];
+        final Future<Void> result = Future.future();
+        final HttpClientRequest request = client.post(uri, response -> {
+            response.exceptionHandler(result::tryFail);
+            response.bodyHandler(body -> {
+                if (isSuccess(response)) {
+                    handleCommand(response, authorization, deviceIndex);
+                    result.tryComplete();
+                } else {
+                    result.tryFail(new ServiceInvocationException(response.statusCode(), response.statusMessage()));
+                }
+            });
+        });
+        request.exceptionHandler(result::tryFail)
+            .putHeader(HttpHeaders.AUTHORIZATION, authorization);
+        final String contentType = getContentType();
+        if (contentType != null) {
+            request.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        if (sampler.getQosAsInt() == 1 && HonoSampler.Endpoint.telemetry.name().equals(sampler.getEndpoint())) {
+            request.putHeader(Constants.HEADER_QOS_LEVEL, "1");
+        }
+        if (ttd > 0) {
+            request.putHeader(Constants.HEADER_TIME_TIL_DISCONNECT, Integer.toString(ttd));
+        }
+        request.end(payload);
+        return result;
+    }
+
+    private void handleCommand(final HttpClientResponse response, final String authorization, final int deviceIndex) {
+
+        if (response.getHeader(Constants.HEADER_COMMAND) == null) {
+            return;
+        }
+        commandReceived();
+        final String requestId = response.getHeader(Constants.HEADER_COMMAND_REQUEST_ID);
+        if (requestId == null) {
+            // one-way command
+            return;
+        }
+        final HttpClientRequest commandResponse = client.post(COMMAND_RESPONSE_URI + requestId, outcome -> {
+            if (isSuccess(outcome)) {
+                commandResponseSent();
+            } else {
+                LOGGER.debug("device [{}] failed to send response to command [{}]: {}",
+                        sampler.getDeviceId(deviceIndex), requestId, outcome.statusCode());
+            }
+        });
+        commandResponse.exceptionHandler(t -> LOGGER.debug("device [{}] failed to send response to command [{}]",
+                    sampler.getDeviceId(deviceIndex), requestId, t))
+            .putHeader(HttpHeaders.AUTHORIZATION, authorization)
+            .putHeader(Constants.HEADER_COMMAND_RESPONSE_STATUS, "200")
+            .end();
+    }
+
+    private static boolean isSuccess(final HttpClientResponse response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+
+        return closeVertxAfter(runOnContext(() -> {
+            if (client != null) {
+                client.close();
+            }
+            return Future.succeededFuture();
+        }));
+    }
+}
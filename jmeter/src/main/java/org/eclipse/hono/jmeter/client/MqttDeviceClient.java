@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.client;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.hono.client.ServerErrorException;
+import org.eclipse.hono.jmeter.HonoMqttDeviceSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.mqtt.MqttClient;
+import io.vertx.mqtt.MqttClientOptions;
+import io.vertx.mqtt.messages.MqttPublishMessage;
+
+/**
+ * A client which connects a number of simulated devices to Hono's MQTT protocol adapter.
+ * <p>
+ * Each device uses its own connection, which is kept open for the whole test run and is
+ * re-established on demand if it gets lost. Devices can subscribe for commands, which are
+ * answered with a response having status 200.
+ */
+public class MqttDeviceClient extends AbstractDeviceClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MqttDeviceClient.class);
+
+    private static final String COMMAND_TOPIC_FILTER = "control/+/+/req/#";
+    private static final String COMMAND_RESPONSE_TOPIC = "control///res/%s/%d";
+
+    private final HonoMqttDeviceSampler mqttSampler;
+    private final MqttQoS qos;
+    private final List<Device> devices;
+
+    /**
+     * Creates a new client.
+     * 
+     * @param sampler The sampler configuration.
+     */
+    public MqttDeviceClient(final HonoMqttDeviceSampler sampler) {
+        super(sampler);
+        this.mqttSampler = sampler;
+        this.qos = MqttQoS.valueOf(sampler.getQosAsInt());
+        this.devices = new ArrayList<>(deviceCount);
+        for (int i = 0; i < deviceCount; i++) {
+            devices.add(new Device(firstDeviceIndex + i));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> start() {
+
+        return runOnContext(() -> {
+            @SuppressWarnings("rawtypes")
+            final List<Future> connections = new ArrayList<>(devices.size());
+            devices.forEach(device -> connections.add(device.connect()));
+            return CompositeFuture.all(connections).map(ok -> {
+                LOGGER.info("connected {} devices to MQTT adapter [{}:{}] ({})", devices.size(),
+                        sampler.getHost(), sampler.getPort(), Thread.currentThread().getName());
+                return (Void) null;
+            });
+        });
+    }
+
+    @Override
+    protected Future<Void> publish(final int deviceIndex, final Buffer payload) {
+        final Device device = devices.get(deviceIndex - firstDeviceIndex);
+        return device.connect().compose(ok -> device.publish(payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> close() {
+
+        return closeVertxAfter(runOnContext(() -> {
+            @SuppressWarnings("rawtypes")
+            final List<Future> disconnects = new ArrayList<>(devices.size());
+            devices.forEach(device -> disconnects.add(device.disconnect()));
+            return CompositeFuture.join(disconnects).map(ok -> (Void) null);
+        }));
+    }
+
+    /**
+     * A simulated device with its connection to the adapter.
+     * <p>
+     * All methods must be invoked on the client's vert.x context.
+     */
+    private final class Device {
+
+        private final String deviceId;
+        private final MqttClientOptions options;
+        private final Map<Integer, Future<Void>> outstandingAcks = new HashMap<>();
+        private MqttClient client;
+        private Future<Void> connection;
+
+        Device(final int index) {
+            this.deviceId = sampler.getDeviceId(index);
+            this.options = new MqttClientOptions()
+                    .setClientId(deviceId)
+                    .setUsername(sampler.getAuthId(index) + "@" + sampler.getTenant())
+                    .setPassword(sampler.getPassword(index))
+                    .setAutoKeepAlive(true);
+            applyTrustOptions(options);
+        }
+
+        Future<Void> connect() {
+
+            if (connection != null && (!connection.isComplete() || connection.succeeded())) {
+                return connection;
+            }
+            final Future<Void> result = Future.future();
+            connection = result;
+            client = MqttClient.create(vertx, options);
+            client.publishCompletionHandler(this::handleAck);
+            client.closeHandler(closed -> handleConnectionLoss(result));
+            client.connect(sampler.getPortAsInt(), sampler.getHost(), connectAttempt -> {
+                if (connectAttempt.failed()) {
+                    result.tryFail(connectAttempt.cause());
+                } else if (connectAttempt.result().code() != MqttConnectReturnCode.CONNECTION_ACCEPTED) {
+                    result.tryFail(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE,
+                            "connection refused: " + connectAttempt.result().code()));
+                } else if (mqttSampler.isSubscribeForCommands()) {
+                    subscribeForCommands().setHandler(result);
+                } else {
+                    result.tryComplete();
+                }
+            });
+            return result;
+        }
+
+        private Future<Void> subscribeForCommands() {
+
+            final Future<Void> result = Future.future();
+            client.publishHandler(this::handleCommand);
+            client.subscribeCompletionHandler(subAck -> {
+                if (subAck.grantedQoSLevels().stream().allMatch(level -> level < 0x80)) {
+                    result.tryComplete();
+                } else {
+                    result.tryFail(new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE,
+                            "subscription for commands rejected"));
+                }
+            });
+            client.subscribe(COMMAND_TOPIC_FILTER, qos.value(), sent -> {
+                if (sent.failed()) {
+                    result.tryFail(sent.cause());
+                }
+            });
+            return result;
+        }
+
+        private void handleCommand(final MqttPublishMessage command) {
+
+            // control///req/${req-id}/${command}
+            final String[] topic = command.topicName().split("/", -1);
+            commandReceived();
+            if (topic.length < 6 || topic[4].isEmpty()) {
+                // one-way command
+                return;
+            }
+            final String responseTopic = String.format(COMMAND_RESPONSE_TOPIC, topic[4], HttpURLConnection.HTTP_OK);
+            client.publish(responseTopic, Buffer.buffer(), qos, false, false, sent -> {
+                if (sent.succeeded()) {
+                    commandResponseSent();
+                } else {
+                    LOGGER.debug("device [{}] failed to send response to command [{}]", deviceId,
+                            command.topicName(), sent.cause());
+                }
+            });
+        }
+
+        Future<Void> publish(final Buffer payload) {
+
+            final Future<Void> result = Future.future();
+            client.publish(sampler.getEndpoint(), payload, qos, false, false, sent -> {
+                if (sent.failed()) {
+                    result.tryFail(sent.cause());
+                } else if (qos == MqttQoS.AT_MOST_ONCE) {
+                    result.tryComplete();
+                } else {
+                    outstandingAcks.put(sent.result(), result);
+                }
+            });
+            return result;
+        }
+
+        private void handleAck(final Integer packetId) {
+            final Future<Void> ack = outstandingAcks.remove(packetId);
+            if (ack != null) {
+                ack.tryComplete();
+            }
+        }
+
+        private void handleConnectionLoss(final Future<Void> connectionAttempt) {
+
+            LOGGER.debug("connection of device [{}] to MQTT adapter has been closed", deviceId);
+            final ServerErrorException error = new ServerErrorException(HttpURLConnection.HTTP_UNAVAILABLE,
+                    "connection to MQTT adapter lost");
+            connectionAttempt.tryFail(error);
+            outstandingAcks.values().forEach(ack -> ack.tryFail(error));
+            outstandingAcks.clear();
+            if (connection == connectionAttempt) {
+                // re-connect on next usage
+                connection = null;
+            }
+        }
+
+        Future<Void> disconnect() {
+
+            if (client == null || !client.isConnected()) {
+                return Future.succeededFuture();
+            }
+            final Future<Void> result = Future.future();
+            client.disconnect(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.ui;
+
+import java.util.stream.Stream;
+
+import javax.swing.JCheckBox;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.gui.JLabeledChoice;
+import org.apache.jorphan.gui.JLabeledTextArea;
+import org.apache.jorphan.gui.JLabeledTextField;
+import org.eclipse.hono.jmeter.HonoDeviceSampler;
+import org.eclipse.hono.jmeter.HonoSampler;
+import org.eclipse.hono.jmeter.HonoSamplerUtils;
+
+/**
+ * Base class for implementing the Swing UI of device samplers.
+ */
+public abstract class HonoDeviceSamplerUI extends HonoSamplerUI {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ServerOptionsPanel adapterOptions;
+    private final JLabeledTextField  tenant;
+    private final JLabeledChoice     endpoint;
+    private final JLabeledTextField  deviceId;
+    private final JLabeledTextField  devicesPerThread;
+    private final JLabeledChoice     qos;
+    private final JLabeledTextField  contentType;
+    private final JLabeledTextArea   data;
+    private final JCheckBox          setSenderTime;
+    private final JLabeledTextField  senderTimeVariableName;
+    private final JLabeledTextField  waitForReceivers;
+    private final JLabeledTextField  waitForReceiversTimeout;
+    private final JLabeledTextField  sampleSendTimeout;
+
+    /**
+     * Creates a new UI that provides means to configure the protocol adapter to connect to
+     * and the devices to simulate.
+     * 
+     * @param adapterName The name of the protocol adapter.
+     */
+    protected HonoDeviceSamplerUI(final String adapterName) {
+
+        adapterOptions = new ServerOptionsPanel(adapterName + " Adapter (user and password may contain {n})");
+        tenant = new JLabeledTextField("Tenant");
+        endpoint = new JLabeledChoice("Endpoint",
+                Stream.of(HonoSampler.Endpoint.values()).map(HonoSampler.Endpoint::name).toArray(String[]::new));
+        endpoint.setToolTipText("<html>The name of the endpoint to publish the messages to.</html>");
+        deviceId = new JLabeledTextField("Device ID");
+        deviceId.setToolTipText(new StringBuilder()
+                .append("<html>")
+                .append("The template for the identifiers of the simulated devices. ")
+                .append("The <em>{n}</em> placeholder is replaced with the index of the device, ")
+                .append("which starts at <em>thread number * devices per thread</em>.")
+                .append("</html>")
+                .toString());
+        devicesPerThread = new JLabeledTextField("Number of devices per thread");
+        qos = new JLabeledChoice("QoS", new String[] { "0", "1" });
+        qos.setToolTipText("<html>The quality of service level to publish messages with.</html>");
+        contentType = new JLabeledTextField("Content type");
+        data = new JLabeledTextArea("Message data");
+        setSenderTime = new JCheckBox("Set sender time in JSON payload");
+        setSenderTime.setToolTipText(new StringBuilder()
+                .append("<html>")
+                .append("When checked, the message data needs to be empty or a JSON object, to which ")
+                .append("a timestamp (millis since epoch start) is added using the given JSON value key.")
+                .append("</html>")
+                .toString());
+        senderTimeVariableName = new JLabeledTextField("JSON value key");
+        waitForReceivers = new JLabeledTextField(
+                "Number of receivers to wait for (e.g. from other threads)");
+        waitForReceiversTimeout = new JLabeledTextField(
+                "Max time (millis) to wait for receivers");
+        sampleSendTimeout = new JLabeledTextField("Max time (millis) for sending a message");
+
+        addOption(adapterOptions);
+        addOption(tenant);
+        addOption(getWrapperPanelToFixAlignment(endpoint));
+        addOption(deviceId);
+        addOption(devicesPerThread);
+        addOption(getWrapperPanelToFixAlignment(qos));
+        addOption(contentType);
+        addOption(data);
+        addOption(setSenderTime);
+        addOption(senderTimeVariableName);
+        addOption(waitForReceivers);
+        addOption(waitForReceiversTimeout);
+        addOption(sampleSendTimeout);
+    }
+
+    @Override
+    public void modifyTestElement(final TestElement testElement) {
+
+        super.configureTestElement(testElement);
+        final HonoDeviceSampler sampler = (HonoDeviceSampler) testElement;
+        sampler.modifyServerOptions(adapterOptions);
+        sampler.setTenant(tenant.getText());
+        sampler.setEndpoint(HonoSampler.Endpoint.valueOf(endpoint.getText()));
+        sampler.setDeviceId(deviceId.getText());
+        sampler.setDevicesPerThread(devicesPerThread.getText());
+        sampler.setQos(qos.getText());
+        sampler.setContentType(contentType.getText());
+        sampler.setData(data.getText());
+        sampler.setSetSenderTime(setSenderTime.isSelected());
+        sampler.setSenderTimeVariableName(senderTimeVariableName.getText());
+        sampler.setWaitForReceivers(waitForReceivers.getText());
+        sampler.setWaitForReceiversTimeout(waitForReceiversTimeout.getText());
+        sampler.setSendTimeout(sampleSendTimeout.getText());
+    }
+
+    @Override
+    public void configure(final TestElement element) {
+
+        super.configure(element);
+        final HonoDeviceSampler sampler = (HonoDeviceSampler) element;
+        sampler.configureServerOptions(adapterOptions);
+        tenant.setText(sampler.getTenant());
+        endpoint.setText(sampler.getEndpoint());
+        deviceId.setText(sampler.getDeviceId());
+        devicesPerThread.setText(sampler.getDevicesPerThread());
+        qos.setText(sampler.getQos());
+        contentType.setText(sampler.getContentType());
+        data.setText(sampler.getData());
+        setSenderTime.setSelected(sampler.isSetSenderTime());
+        senderTimeVariableName.setText(sampler.getSenderTimeVariableName());
+        waitForReceivers.setText(sampler.getWaitForReceivers());
+        waitForReceiversTimeout.setText(sampler.getWaitForReceiversTimeout());
+        sampleSendTimeout.setText(sampler.getSendTimeoutOrDefault());
+    }
+
+    @Override
+    public void clearGui() {
+
+        super.clearGui();
+        adapterOptions.clearGui();
+        tenant.setText("");
+        endpoint.setSelectedIndex(0);
+        deviceId.setText("device-" + HonoSamplerUtils.DEVICE_INDEX_PLACEHOLDER);
+        devicesPerThread.setText("1");
+        qos.setSelectedIndex(0);
+        contentType.setText("application/json");
+        data.setText("");
+        setSenderTime.setSelected(true);
+        senderTimeVariableName.setText(HonoDeviceSampler.DEFAULT_SENDER_TIME_VARIABLE_NAME);
+        waitForReceivers.setText("0");
+        waitForReceiversTimeout.setText("5000");
+        sampleSendTimeout.setText(Integer.toString(HonoDeviceSampler.DEFAULT_SEND_TIMEOUT));
+    }
+}
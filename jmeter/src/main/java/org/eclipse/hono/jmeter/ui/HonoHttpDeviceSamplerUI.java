@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.ui;
+
+import javax.swing.JCheckBox;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.gui.JLabeledTextField;
+import org.eclipse.hono.jmeter.HonoHttpDeviceSampler;
+
+/**
+ * Swing UI for HTTP device sampler.
+ */
+public class HonoHttpDeviceSamplerUI extends HonoDeviceSamplerUI {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JLabeledTextField ttd;
+    private final JCheckBox http2;
+
+    /**
+     * Creates a new UI that provides means to configure the HTTP adapter to connect to
+     * and the devices to simulate.
+     */
+    public HonoHttpDeviceSamplerUI() {
+
+        super("HTTP");
+        ttd = new JLabeledTextField("Time (seconds) to wait for a command (hono-ttd)");
+        http2 = new JCheckBox("Use HTTP/2");
+        http2.setToolTipText("<html>If set, HTTP/2 is negotiated via ALPN if a trust store is configured"
+                + " or used over clear text (h2c) otherwise.</html>");
+        addOption(ttd);
+        addOption(http2);
+    }
+
+    @Override
+    public String getStaticLabel() {
+        return "Hono HTTP Device Sampler";
+    }
+
+    @Override
+    public TestElement createTestElement() {
+        final HonoHttpDeviceSampler sampler = new HonoHttpDeviceSampler();
+        modifyTestElement(sampler);
+        return sampler;
+    }
+
+    @Override
+    public void modifyTestElement(final TestElement testElement) {
+        super.modifyTestElement(testElement);
+        ((HonoHttpDeviceSampler) testElement).setTtd(ttd.getText());
+        ((HonoHttpDeviceSampler) testElement).setHttp2(http2.isSelected());
+    }
+
+    @Override
+    public void configure(final TestElement element) {
+        super.configure(element);
+        ttd.setText(((HonoHttpDeviceSampler) element).getTtd());
+        http2.setSelected(((HonoHttpDeviceSampler) element).isHttp2());
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        ttd.setText("0");
+        http2.setSelected(false);
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.jmeter.ui;
+
+import javax.swing.JCheckBox;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.eclipse.hono.jmeter.HonoMqttDeviceSampler;
+
+/**
+ * Swing UI for MQTT device sampler.
+ */
+public class HonoMqttDeviceSamplerUI extends HonoDeviceSamplerUI {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JCheckBox subscribeForCommands;
+
+    /**
+     * Creates a new UI that provides means to configure the MQTT adapter to connect to
+     * and the devices to simulate.
+     */
+    public HonoMqttDeviceSamplerUI() {
+
+        super("MQTT");
+        subscribeForCommands = new JCheckBox("Subscribe for commands");
+        subscribeForCommands.setToolTipText(new StringBuilder()
+                .append("<html>")
+                .append("When checked, the devices subscribe to <em>control/+/+/req/#</em> after having connected ")
+                .append("and answer each command with a response having status 200.")
+                .append("</html>")
+                .toString());
+        addOption(subscribeForCommands);
+    }
+
+    @Override
+    public String getStaticLabel() {
+        return "Hono MQTT Device Sampler";
+    }
+
+    @Override
+    public TestElement createTestElement() {
+        final HonoMqttDeviceSampler sampler = new HonoMqttDeviceSampler();
+        modifyTestElement(sampler);
+        return sampler;
+    }
+
+    @Override
+    public void modifyTestElement(final TestElement testElement) {
+        super.modifyTestElement(testElement);
+        ((HonoMqttDeviceSampler) testElement).setSubscribeForCommands(subscribeForCommands.isSelected());
+    }
+
+    @Override
+    public void configure(final TestElement element) {
+        super.configure(element);
+        subscribeForCommands.setSelected(((HonoMqttDeviceSampler) element).isSubscribeForCommands());
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        subscribeForCommands.setSelected(false);
+    }
+}
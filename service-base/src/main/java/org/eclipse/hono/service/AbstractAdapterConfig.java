@@ -13,7 +13,7 @@
 
 package org.eclipse.hono.service;
 
-import java.util.Optional;
+import java.util.EnumSet;
 
 import org.eclipse.hono.cache.CacheProvider;
 import org.eclipse.hono.client.CommandConnection;
@@ -23,13 +23,16 @@ import org.eclipse.hono.client.impl.CommandConnectionImpl;
 import org.eclipse.hono.client.impl.HonoClientImpl;
 import org.eclipse.hono.config.ApplicationConfigProperties;
 import org.eclipse.hono.config.ClientConfigProperties;
+import org.eclipse.hono.config.TracingSamplingProperties;
 import org.eclipse.hono.config.VertxProperties;
 import org.eclipse.hono.service.cache.SpringCacheProvider;
+import org.eclipse.hono.tracing.SamplingAwareTracer;
 import org.eclipse.hono.util.CommandConstants;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.CredentialsConstants;
 import org.eclipse.hono.util.RegistrationConstants;
 import org.eclipse.hono.util.TenantConstants;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.guava.GuavaCacheManager;
@@ -38,31 +41,66 @@ import org.springframework.context.annotation.Scope;
 
 import com.google.common.cache.CacheBuilder;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.Tracer;
 import io.opentracing.contrib.tracerresolver.TracerResolver;
 import io.opentracing.noop.NoopTracerFactory;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
+import io.vertx.micrometer.MetricsDomain;
+import io.vertx.micrometer.MicrometerMetricsOptions;
 
 /**
  * Minimum Spring Boot configuration class defining beans required by protocol adapters.
  */
 public abstract class AbstractAdapterConfig {
 
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Sets the registry to report vert.x metrics to.
+     *
+     * @param registry The registry.
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Exposes properties for configuring the ratio of traces being sampled.
+     *
+     * @return The properties.
+     */
+    @ConfigurationProperties(prefix = "hono.tracing.sampling")
+    @Bean
+    public TracingSamplingProperties tracingSamplingProperties() {
+        return new TracingSamplingProperties();
+    }
+
     /**
      * Exposes an OpenTracing {@code Tracer} as a Spring Bean.
      * <p>
      * The Tracer will be resolved by means of a Java service lookup.
-     * If no tracer can be resolved this way, the {@code NoopTracer} is
-     * returned.
+     * If the sampling properties exclude any traces from being sampled,
+     * the resolved tracer is wrapped in a {@link SamplingAwareTracer}.
+     * If no tracer can be resolved this way, a {@code SamplingAwareTracer}
+     * that does not sample any traces is returned, so that no effort
+     * is spent on creating spans that are discarded anyway.
      * 
      * @return The tracer.
      */
     @Bean
     public Tracer getTracer() {
 
-        return Optional.ofNullable(TracerResolver.resolveTracer())
-                .orElse(NoopTracerFactory.create());
+        final Tracer tracer = TracerResolver.resolveTracer();
+        if (tracer == null) {
+            final TracingSamplingProperties noSampling = new TracingSamplingProperties();
+            noSampling.setRate(0.0);
+            return new SamplingAwareTracer(NoopTracerFactory.create(), noSampling);
+        }
+        final TracingSamplingProperties samplingProperties = tracingSamplingProperties();
+        return samplingProperties.isRestricted() ? new SamplingAwareTracer(tracer, samplingProperties) : tracer;
     }
 
     /**
@@ -71,12 +109,23 @@ public abstract class AbstractAdapterConfig {
      * This method creates new Vert.x default options and invokes
      * {@link VertxProperties#configureVertx(VertxOptions)} on the object returned
      * by {@link #vertxProperties()}.
+     * <p>
+     * If vert.x metrics are enabled and a meter registry is available, the metrics
+     * of vert.x's thread pools, e.g. the time spent executing blocking code, are
+     * reported to the registry.
      * 
      * @return The Vert.x instance.
      */
     @Bean
     public Vertx vertx() {
-        return Vertx.vertx(vertxProperties().configureVertx(new VertxOptions()));
+        final VertxOptions options = vertxProperties().configureVertx(new VertxOptions());
+        if (meterRegistry != null && options.getMetricsOptions() != null && options.getMetricsOptions().isEnabled()) {
+            options.setMetricsOptions(new MicrometerMetricsOptions()
+                    .setEnabled(true)
+                    .setMicrometerRegistry(meterRegistry)
+                    .setDisabledMetricsCategories(EnumSet.complementOf(EnumSet.of(MetricsDomain.NAMED_POOLS))));
+        }
+        return Vertx.vertx(options);
     }
 
     /**
@@ -16,6 +16,7 @@ import java.net.HttpURLConnection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.auth.Device;
@@ -35,6 +36,9 @@ import org.eclipse.hono.client.TenantClient;
 import org.eclipse.hono.config.AbstractConfig;
 import org.eclipse.hono.config.ProtocolAdapterProperties;
 import org.eclipse.hono.service.auth.ValidityBasedTrustOptions;
+import org.eclipse.hono.service.auth.device.CredentialsApiAuthProvider;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
+import org.eclipse.hono.service.metric.PipelineStageMetrics;
 import org.eclipse.hono.service.monitoring.ConnectionEventProducer;
 import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.CredentialsConstants;
@@ -91,6 +95,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
     private CommandConnection commandConnection;
 
     private ConnectionEventProducer connectionEventProducer;
+    private PipelineStageMetrics pipelineStageMetrics;
 
     private final ConnectionEventProducer.Context connectionEventProducerContext = new ConnectionEventProducer.Context() {
 
@@ -144,6 +149,53 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         setSpecificConfig(configuration);
     }
 
+    /**
+     * Sets the metrics to use for recording the duration of the stages of processing
+     * messages published by devices.
+     * <p>
+     * If not set, the duration of the stages is not recorded.
+     *
+     * @param metrics The metrics.
+     * @throws NullPointerException if metrics is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setPipelineStageMetrics(final PipelineStageMetrics metrics) {
+        this.pipelineStageMetrics = Objects.requireNonNull(metrics);
+    }
+
+    /**
+     * Times the execution of a stage of processing a message published by a device.
+     *
+     * @param <R> The type of the stage's result.
+     * @param stage The stage.
+     * @param operation The operation executing the stage.
+     * @return The outcome of the operation.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @see PipelineStageMetrics#time(PipelineStage, Supplier)
+     */
+    protected final <R> Future<R> timeStage(final PipelineStage stage, final Supplier<Future<R>> operation) {
+        if (pipelineStageMetrics == null) {
+            return operation.get();
+        }
+        return pipelineStageMetrics.time(stage, operation);
+    }
+
+    /**
+     * Configures an authentication provider to record the duration of authenticating devices.
+     *
+     * @param <P> The type of provider.
+     * @param provider The provider.
+     * @return The provider.
+     * @throws NullPointerException if provider is {@code null}.
+     */
+    protected final <P extends CredentialsApiAuthProvider<?>> P timeAuthentication(final P provider) {
+        Objects.requireNonNull(provider);
+        if (pipelineStageMetrics != null) {
+            provider.setPipelineStageMetrics(pipelineStageMetrics);
+        }
+        return provider;
+    }
+
     /**
      * Sets the client to use for connecting to the Tenant service.
      *
@@ -763,7 +815,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
      * @return The client.
      */
     protected final Future<MessageSender> getTelemetrySender(final String tenantId) {
-        return getHonoMessagingClient().getOrCreateTelemetrySender(tenantId);
+        return timeStage(PipelineStage.SENDER, () -> getHonoMessagingClient().getOrCreateTelemetrySender(tenantId));
     }
 
     /**
@@ -773,7 +825,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
      * @return The client.
      */
     protected final Future<MessageSender> getEventSender(final String tenantId) {
-        return getHonoMessagingClient().getOrCreateEventSender(tenantId);
+        return timeStage(PipelineStage.SENDER, () -> getHonoMessagingClient().getOrCreateEventSender(tenantId));
     }
 
     /**
@@ -820,9 +872,9 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
 
         final Future<String> gatewayId = getGatewayId(tenantId, deviceId, authenticatedDevice);
 
-        return gatewayId
+        return timeStage(PipelineStage.ASSERTION, () -> gatewayId
                 .compose(gwId -> getRegistrationClient(tenantId))
-                .compose(client -> client.assertRegistration(deviceId, gatewayId.result()));
+                .compose(client -> client.assertRegistration(deviceId, gatewayId.result())));
     }
 
     /**
@@ -858,9 +910,9 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
 
         final Future<String> gatewayId = getGatewayId(tenantId, deviceId, authenticatedDevice);
 
-        return gatewayId
+        return timeStage(PipelineStage.ASSERTION, () -> gatewayId
                 .compose(gwId -> getRegistrationClient(tenantId))
-                .compose(client -> client.assertRegistration(deviceId, gatewayId.result(), context));
+                .compose(client -> client.assertRegistration(deviceId, gatewayId.result(), context)));
     }
 
     private Future<String> getGatewayId(final String tenantId, final String deviceId,
@@ -901,7 +953,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
     @Deprecated
     protected final Future<TenantObject> getTenantConfiguration(final String tenantId) {
         Objects.requireNonNull(tenantId);
-        return getTenantClient().compose(client -> client.get(tenantId));
+        return timeStage(PipelineStage.TENANT, () -> getTenantClient().compose(client -> client.get(tenantId)));
     }
 
     /**
@@ -924,7 +976,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
     protected final Future<TenantObject> getTenantConfiguration(final String tenantId, final SpanContext context) {
 
         Objects.requireNonNull(tenantId);
-        return getTenantClient().compose(client -> client.get(tenantId, context));
+        return timeStage(PipelineStage.TENANT, () -> getTenantClient().compose(client -> client.get(tenantId, context)));
     }
 
     /**
@@ -935,6 +987,10 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
      * <p>
      * This method creates a new {@code Message}, sets its content type and payload as an AMQP <em>Data</em> section
      * and then invokes {@link #addProperties(Message, ResourceIdentifier, boolean, String, JsonObject, Integer)}.
+     * <p>
+     * The payload is not copied if it is backed by a byte array but is shared with the message's <em>Data</em>
+     * section by means of {@link MessageHelper#wrapPayload(Message, String, Buffer)}. The payload buffer must
+     * therefore not be modified after this method has been invoked.
      * 
      * @param target The resource that the message is targeted at.
      * @param regAssertionRequired {@code true} if the downstream peer requires the registration assertion to
@@ -966,7 +1022,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
         Objects.requireNonNull(registrationInfo);
 
         final Message msg = ProtonHelper.message();
-        MessageHelper.setPayload(msg, contentType, payload);
+        MessageHelper.wrapPayload(msg, contentType, payload);
         msg.setContentType(contentType);
 
         return addProperties(msg, target, regAssertionRequired, publishAddress, registrationInfo, timeUntilDisconnect);
@@ -1369,7 +1425,7 @@ public abstract class AbstractProtocolAdapterBase<T extends ProtocolAdapterPrope
                         null,
                         tokenTracker.result(),
                         ttd);
-                return sender.sendAndWaitForOutcome(msg, context);
+                return timeStage(PipelineStage.DISPOSITION, () -> sender.sendAndWaitForOutcome(msg, context));
             } else {
                 // this adapter is not enabled for the tenant
                 return Future.failedFuture(new ClientErrorException(HttpURLConnection.HTTP_FORBIDDEN));
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.hono.util.EventBusMessage;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A binding of the services that are listening on an event bus address and that
+ * are running in the same vert.x instance as the client invoking them.
+ * <p>
+ * Endpoints can use this binding for invoking a co-located service directly instead of
+ * sending the request over the vert.x event bus. This saves the two event bus hops for the
+ * request and the response as well as the lookup of the event bus consumers and the
+ * reply-to address. The service's request handler is still executed on the service's vert.x
+ * context and the response handler is executed on the vert.x context of the invoking
+ * endpoint.
+ * <p>
+ * Neither the client nor the service needs to treat the messages as immutable. The request
+ * and the response (including their JSON payload) are copied before being handed over to
+ * the other context, so that the service never shares any state with the client.
+ * <p>
+ * Requests are distributed among the service instances registered for an address
+ * in a round robin fashion.
+ */
+public final class DirectServiceBinding implements Shareable {
+
+    private static final String SHARED_DATA_NAME = DirectServiceBinding.class.getName();
+
+    private final AtomicInteger nextInstance = new AtomicInteger();
+    private volatile ServiceInstance[] instances = new ServiceInstance[0];
+
+    private DirectServiceBinding() {
+    }
+
+    /**
+     * Registers a service instance for an address.
+     *
+     * @param vertx The vert.x instance that the service is running in.
+     * @param address The event bus address that the service is listening on.
+     * @param serviceContext The vert.x context to execute the request handler on.
+     * @param requestHandler The handler to invoke for processing a request. The function
+     *                       must return a future that succeeds with the response to be sent
+     *                       to the client.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public static void register(
+            final Vertx vertx,
+            final String address,
+            final Context serviceContext,
+            final Function<EventBusMessage, Future<EventBusMessage>> requestHandler) {
+
+        Objects.requireNonNull(serviceContext);
+        Objects.requireNonNull(requestHandler);
+        getOrCreate(vertx, address).add(new ServiceInstance(serviceContext, requestHandler));
+    }
+
+    /**
+     * Unregisters all service instances of an address running on a vert.x context.
+     *
+     * @param vertx The vert.x instance that the service is running in.
+     * @param address The event bus address that the service is listening on.
+     * @param serviceContext The vert.x context that the service is running on.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public static void unregister(final Vertx vertx, final String address, final Context serviceContext) {
+
+        Objects.requireNonNull(serviceContext);
+        final DirectServiceBinding binding = get(vertx, address);
+        if (binding != null) {
+            binding.remove(serviceContext);
+        }
+    }
+
+    /**
+     * Gets the binding for an address.
+     *
+     * @param vertx The vert.x instance that the client is running in.
+     * @param address The event bus address that the service is listening on.
+     * @return The binding or {@code null} if no service instance is registered
+     *         for the address in the given vert.x instance.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public static DirectServiceBinding get(final Vertx vertx, final String address) {
+
+        Objects.requireNonNull(address);
+        final DirectServiceBinding binding = getBindings(vertx).get(address);
+        if (binding == null || binding.instances.length == 0) {
+            return null;
+        }
+        return binding;
+    }
+
+    private static LocalMap<String, DirectServiceBinding> getBindings(final Vertx vertx) {
+        return Objects.requireNonNull(vertx).sharedData().getLocalMap(SHARED_DATA_NAME);
+    }
+
+    private static DirectServiceBinding getOrCreate(final Vertx vertx, final String address) {
+
+        Objects.requireNonNull(address);
+        final LocalMap<String, DirectServiceBinding> bindings = getBindings(vertx);
+        final DirectServiceBinding newBinding = new DirectServiceBinding();
+        final DirectServiceBinding existingBinding = bindings.putIfAbsent(address, newBinding);
+        return existingBinding == null ? newBinding : existingBinding;
+    }
+
+    private synchronized void add(final ServiceInstance instance) {
+        final ServiceInstance[] newInstances = Arrays.copyOf(instances, instances.length + 1);
+        newInstances[instances.length] = instance;
+        instances = newInstances;
+    }
+
+    private synchronized void remove(final Context serviceContext) {
+        instances = Arrays.stream(instances)
+                .filter(instance -> instance.context != serviceContext)
+                .toArray(ServiceInstance[]::new);
+    }
+
+    /**
+     * Invokes one of the registered service instances.
+     * <p>
+     * The request is processed on the service instance's vert.x context. The response
+     * handler is invoked on the vert.x context that this method is invoked on.
+     * <p>
+     * The service processes a copy of the request and the response handler is
+     * invoked with a copy of the service's response.
+     *
+     * @param request The request to process.
+     * @param responseHandler The handler to invoke with the outcome of processing the request.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalStateException if this method is not invoked on a vert.x context.
+     */
+    public void invoke(final EventBusMessage request, final Handler<AsyncResult<EventBusMessage>> responseHandler) {
+
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(responseHandler);
+        final Context clientContext = Vertx.currentContext();
+        if (clientContext == null) {
+            throw new IllegalStateException("service must be invoked on a vert.x context");
+        }
+
+        final ServiceInstance[] currentInstances = instances;
+        if (currentInstances.length == 0) {
+            responseHandler.handle(Future.failedFuture(new IllegalStateException("no service instance registered")));
+            return;
+        }
+        final ServiceInstance instance = currentInstances[
+                Math.floorMod(nextInstance.getAndIncrement(), currentInstances.length)];
+        final EventBusMessage requestCopy = copy(request);
+        instance.context.runOnContext(go -> {
+            Future<EventBusMessage> result;
+            try {
+                result = instance.requestHandler.apply(requestCopy).map(DirectServiceBinding::copy);
+            } catch (final RuntimeException e) {
+                result = Future.failedFuture(e);
+            }
+            result.setHandler(outcome -> clientContext.runOnContext(done -> responseHandler.handle(outcome)));
+        });
+    }
+
+    private static EventBusMessage copy(final EventBusMessage message) {
+        if (message == null) {
+            return null;
+        }
+        // the JSON representation is a deep copy of the message including its payload
+        final EventBusMessage copy = EventBusMessage.fromJson(message.toJson());
+        copy.setSpanContext(message.getSpanContext());
+        return copy;
+    }
+
+    /**
+     * A service instance along with the vert.x context to run it on.
+     */
+    private static final class ServiceInstance {
+
+        private final Context context;
+        private final Function<EventBusMessage, Future<EventBusMessage>> requestHandler;
+
+        ServiceInstance(final Context context, final Function<EventBusMessage, Future<EventBusMessage>> requestHandler) {
+            this.context = context;
+            this.requestHandler = requestHandler;
+        }
+    }
+}
@@ -17,14 +17,17 @@ import java.util.Objects;
 import java.util.Optional;
 
 import org.eclipse.hono.client.ServiceInvocationException;
+import org.eclipse.hono.config.ServiceConfigProperties;
 import org.eclipse.hono.tracing.MultiMapExtractAdapter;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.ConfigurationSupportingVerticle;
+import org.eclipse.hono.util.Constants;
 import org.eclipse.hono.util.EventBusMessage;
 import org.eclipse.hono.util.RequestResponseApiConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
@@ -58,6 +61,7 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
     protected Tracer tracer = NoopTracerFactory.create();
 
     private MessageConsumer<JsonObject> requestConsumer;
+    private boolean directInvocationEnabled = false;
 
     /**
      * Sets the OpenTracing {@code Tracer} to use for tracking the processing
@@ -74,11 +78,31 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
         this.tracer = Objects.requireNonNull(opentracingTracer);
     }
 
+    /**
+     * Sets the configuration properties of the AMQP endpoints invoking this service.
+     * <p>
+     * This service registers itself with the {@link DirectServiceBinding} for its
+     * request address only if {@linkplain ServiceConfigProperties#isDirectServiceInvocationEnabled()
+     * direct service invocation} is enabled in these properties. If not set, the service
+     * can only be invoked over the vert.x event bus.
+     *
+     * @param amqpConfig The properties.
+     * @throws NullPointerException if amqpConfig is {@code null}.
+     */
+    @Qualifier(Constants.QUALIFIER_AMQP)
+    @Autowired(required = false)
+    public final void setAmqpEndpointConfiguration(final ServiceConfigProperties amqpConfig) {
+        this.directInvocationEnabled = Objects.requireNonNull(amqpConfig).isDirectServiceInvocationEnabled();
+    }
+
     /**
      * Starts up this service.
      * <ol>
      * <li>Registers an event bus consumer for {@linkplain #getEventBusAddress()
      * the service's event bus request address}.</li>
+     * <li>Registers the service with the {@link DirectServiceBinding} for the
+     * request address so that co-located endpoints can invoke it directly, if
+     * {@linkplain #setAmqpEndpointConfiguration(ServiceConfigProperties) enabled}.</li>
      * <li>Invokes {@link #doStart(Future)}.</li>
      * </ol>
      *
@@ -120,6 +144,7 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
      */
     @Override
     public final void stop(final Future<Void> stopFuture) {
+        DirectServiceBinding.unregister(vertx, getEventBusAddress(), context);
         if (requestConsumer != null) {
             requestConsumer.unregister();
             log.info("unregistered Tenant API request consumer from event bus");
@@ -148,6 +173,31 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
         requestConsumer = vertx.eventBus().consumer(getEventBusAddress());
         requestConsumer.handler(this::processRequestMessage);
         log.info("listening on event bus [address: {}] for requests", getEventBusAddress());
+        if (directInvocationEnabled) {
+            DirectServiceBinding.register(vertx, getEventBusAddress(), context, this::processDirectRequest);
+            log.info("accepting direct invocations [address: {}]", getEventBusAddress());
+        }
+    }
+
+    private Future<EventBusMessage> processDirectRequest(final EventBusMessage request) {
+
+        return processRequestOrGetErrorResponse(request).map(response -> {
+            if (response.getReplyToAddress() != null && !response.hasResponseProperties()) {
+                log.warn("discarding response lacking correlation ID or operation");
+                return null;
+            }
+            // the binding hands over a copy of the response to the invoking endpoint
+            return response;
+        });
+    }
+
+    private Future<EventBusMessage> processRequestOrGetErrorResponse(final EventBusMessage request) {
+
+        return processRequest(request).recover(t -> {
+            log.debug("cannot process request [operation: {}]: {}", request.getOperation(), t.getMessage());
+            final int status = ServiceInvocationException.extractStatusCode(t);
+            return Future.succeededFuture(request.getResponse(status));
+        });
     }
 
     private void processRequestMessage(final Message<JsonObject> msg) {
@@ -159,11 +209,7 @@ public abstract class EventBusService<C> extends ConfigurationSupportingVerticle
         final EventBusMessage request = EventBusMessage.fromJson(msg.body());
         final SpanContext spanContext = tracer.extract(Format.Builtin.TEXT_MAP, new MultiMapExtractAdapter(msg.headers()));
         request.setSpanContext(spanContext);
-        processRequest(request).recover(t -> {
-            log.debug("cannot process request [operation: {}]: {}", request.getOperation(), t.getMessage());
-            final int status = ServiceInvocationException.extractStatusCode(t);
-            return Future.succeededFuture(request.getResponse(status));
-        }).map(response -> {
+        processRequestOrGetErrorResponse(request).map(response -> {
             if (response.getReplyToAddress() == null) {
                 log.debug("sending response as direct reply to request [operation: {}]", request.getOperation());
                 msg.reply(response.toJson());
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.amqp;
+
+import java.util.Objects;
+
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * Manages the credit that a client is granted on a link for sending requests.
+ * <p>
+ * The client is initially granted credit for the configured window, i.e. the maximum
+ * number of requests that may be processed concurrently on the link. A credit is consumed
+ * by each request received and is given back once the request has been completed.
+ * However, instead of flowing each credit back individually, credits are accumulated
+ * until the credit left to the client has dropped to half of the window. This way, the
+ * number of flow frames exchanged with the client is reduced considerably while the
+ * client can still send requests without waiting for credit.
+ * <p>
+ * Instances are not thread safe and must be used on the vert.x context of
+ * the link's connection only.
+ */
+final class ReceiverLinkCredit {
+
+    /**
+     * The key that the credit is stored under in a {@code ProtonReceiver}'s attachments.
+     */
+    static final String KEY_RECEIVER_LINK_CREDIT = "RECEIVER_LINK_CREDIT";
+
+    private final ProtonReceiver receiver;
+    private final int window;
+    private final int threshold;
+    private int outstandingRequests;
+    private int pendingCredit;
+
+    /**
+     * Creates credit management for a link.
+     *
+     * @param receiver The link to manage credit for.
+     * @param window The maximum number of requests to process concurrently.
+     * @throws NullPointerException if receiver is {@code null}.
+     * @throws IllegalArgumentException if window is less than 1.
+     */
+    ReceiverLinkCredit(final ProtonReceiver receiver, final int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        this.receiver = Objects.requireNonNull(receiver);
+        this.window = window;
+        this.threshold = window / 2;
+    }
+
+    /**
+     * Gets the credit managed for a link.
+     * <p>
+     * If no credit is managed for the link yet, a new instance is created and stored
+     * in the link's attachments.
+     *
+     * @param receiver The link.
+     * @param window The maximum number of requests to process concurrently if a new
+     *               instance needs to be created.
+     * @return The credit.
+     * @throws NullPointerException if receiver is {@code null}.
+     */
+    static ReceiverLinkCredit getInstance(final ProtonReceiver receiver, final int window) {
+
+        ReceiverLinkCredit credit = receiver.attachments().get(KEY_RECEIVER_LINK_CREDIT, ReceiverLinkCredit.class);
+        if (credit == null) {
+            credit = new ReceiverLinkCredit(receiver, window);
+            receiver.attachments().set(KEY_RECEIVER_LINK_CREDIT, ReceiverLinkCredit.class, credit);
+        }
+        return credit;
+    }
+
+    /**
+     * Grants the initial credit to the client.
+     */
+    void open() {
+        receiver.flow(window);
+    }
+
+    /**
+     * Records a request having been received over the link.
+     *
+     * @return The number of requests being processed on the link, including the received one.
+     */
+    int requestReceived() {
+        return ++outstandingRequests;
+    }
+
+    /**
+     * Records a request received over the link having been completed.
+     * <p>
+     * The accumulated credits are flowed to the client once the credit left
+     * to the client has dropped to half of the window.
+     */
+    void requestCompleted() {
+
+        outstandingRequests = Math.max(0, outstandingRequests - 1);
+        pendingCredit++;
+        if (receiver.getCredit() <= threshold) {
+            receiver.flow(pendingCredit);
+            pendingCredit = 0;
+        }
+    }
+
+    /**
+     * Gets the link that this credit is managed for.
+     *
+     * @return The link.
+     */
+    ProtonReceiver getReceiver() {
+        return receiver;
+    }
+
+    /**
+     * Gets the number of requests being processed on the link.
+     *
+     * @return The number of requests.
+     */
+    int getOutstandingRequests() {
+        return outstandingRequests;
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.auth.HonoUser;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.service.DirectServiceBinding;
 import org.eclipse.hono.service.auth.AuthorizationService;
 import org.eclipse.hono.service.auth.ClaimsBasedAuthorizationService;
 import org.eclipse.hono.tracing.MultiMapInjectAdapter;
@@ -38,12 +39,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import io.opentracing.noop.NoopSpanContext;
 import io.opentracing.noop.NoopTracerFactory;
 import io.opentracing.propagation.Format;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
@@ -72,12 +76,14 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
      */
     protected Tracer tracer = NoopTracerFactory.create();
 
-    private final Map<String, ProtonReceiver> replyToReceiverMap = new HashMap<>();
+    private final Map<String, ReceiverLinkCredit> replyToReceiverMap = new HashMap<>();
     private final Multimap<ProtonConnection, MessageConsumer<?>> replyConsumerMap = HashMultimap.create();
     private final Multimap<ProtonConnection, String> replyAddressMap = HashMultimap.create();
     private final Set<String> replyAddresses = new HashSet<>();
+    private final Map<String, Handler<EventBusMessage>> replyHandlers = new HashMap<>();
 
     private AuthorizationService authorizationService = new ClaimsBasedAuthorizationService();
+    private DistributionSummary outstandingRequests;
 
     /**
      * Creates an endpoint for a Vertx instance.
@@ -145,11 +151,30 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
         this.tracer = Objects.requireNonNull(opentracingTracer);
     }
 
+    /**
+     * Sets the registry to report the number of requests being processed
+     * concurrently on a link to.
+     * <p>
+     * If not set, no metrics are reported.
+     *
+     * @param registry The meter registry.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setMeterRegistry(final MeterRegistry registry) {
+        this.outstandingRequests = DistributionSummary.builder("hono.amqp.requests.outstanding")
+                .description("The number of requests being processed on a link when a request is received")
+                .tag("endpoint", getName())
+                .register(Objects.requireNonNull(registry));
+    }
+
     /**
      * Configure and check the receiver link of the endpoint.
      * The remote link of the receiver must not demand the AT_MOST_ONCE QoS (not supported).
      * The receiver link itself is configured with the AT_LEAST_ONCE QoS and grants the configured credits
      * ({@link ServiceConfigProperties#getReceiverLinkCredit()}) with autoAcknowledge.
+     * The configured credits thus limit the number of requests being processed concurrently on the link.
+     * Credits are flowed back to the client in batches once half of them have been used up.
      * <p>
      * Handling of received messages is delegated to {@link #handleMessage(ProtonConnection, ProtonReceiver, ResourceIdentifier, ProtonDelivery, Message)}.
      *
@@ -184,11 +209,12 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
             // acknowledge the remote open
 
+            final ReceiverLinkCredit linkCredit = ReceiverLinkCredit.getInstance(receiver, config.getReceiverLinkCredit());
             receiver.open();
 
             // send out initial credits, after opening
 
-            receiver.flow(config.getReceiverLinkCredit());
+            linkCredit.open();
 
             logger.debug("Flowing {} credits to the sender", config.getReceiverLinkCredit());
         }
@@ -226,6 +252,12 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
         final String replyTo = message.getReplyTo();
 
+        final ReceiverLinkCredit linkCredit = ReceiverLinkCredit.getInstance(receiver, getReceiverLinkCredit());
+        final int outstanding = linkCredit.requestReceived();
+        if (outstandingRequests != null) {
+            outstandingRequests.record(outstanding);
+        }
+
         formalCheck
 
                 .compose(ok -> {
@@ -236,7 +268,7 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
                                         "unsubscribed reply-to address"));
                     }
 
-                    allocateReceiverForReplyTo(replyTo, receiver);
+                    allocateReceiverForReplyTo(replyTo, linkCredit);
 
                     return Future.succeededFuture();
                 })
@@ -266,7 +298,8 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
                 .otherwise(t -> {
 
-                    flowCreditToRequestor(replyTo);
+                    // no response will be sent for a rejected request
+                    linkCredit.requestCompleted();
 
                     if (t instanceof AmqpErrorException) {
                         final AmqpErrorException cause = (AmqpErrorException) t;
@@ -363,6 +396,22 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
         logger.debug("establishing response sender link with client [{}]", sender.getName());
 
+        final Handler<EventBusMessage> replyHandler = response -> {
+            filterResponse(Constants.getClientPrincipal(con), response)
+                    .recover(t -> {
+                        final int status = ServiceInvocationException.extractStatusCode(t);
+                        return Future.succeededFuture(response.getResponse(status));
+                    })
+                    .map(filteredResponse -> {
+                        try {
+                            final Message amqpReply = getAmqpReply(filteredResponse);
+                            sender.send(amqpReply);
+                        } finally {
+                            flowCreditToRequestor(replyTo);
+                        }
+                        return null;
+                    });
+        };
         final MessageConsumer<JsonObject> replyConsumer = vertx.eventBus().consumer(replyTo,
                 message -> {
                     // TODO check for correct session here...?
@@ -370,26 +419,12 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
                         logger.trace("forwarding reply to client [{}]: {}", sender.getName(),
                                 message.body().encodePrettily());
                     }
-                    final EventBusMessage response = EventBusMessage.fromJson(message.body());
-                    filterResponse(Constants.getClientPrincipal(con), response)
-                            .recover(t -> {
-                                final int status = ServiceInvocationException.extractStatusCode(t);
-                                return Future.succeededFuture(response.getResponse(status));
-                            })
-                            .map(filteredResponse -> {
-                                try {
-                                    final Message amqpReply = getAmqpReply(filteredResponse);
-                                    sender.send(amqpReply);
-                                } finally {
-                                    flowCreditToRequestor(replyTo);
-                                }
-                                return null;
-                            });
+                    replyHandler.handle(EventBusMessage.fromJson(message.body()));
                 });
 
         // register this consumer and replyTo address with this connection
 
-        registerConsumerForConnection(con, replyTo, replyConsumer);
+        registerConsumerForConnection(con, replyTo, replyConsumer, replyHandler);
 
         sender.setQoS(ProtonQoS.AT_LEAST_ONCE);
 
@@ -416,43 +451,48 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
         deallocateAllReceiversForConnection(connection);
     }
 
-    private void allocateReceiverForReplyTo(final String replyTo, final ProtonReceiver receiver) {
+    private int getReceiverLinkCredit() {
+        return config == null ? ServiceConfigProperties.DEFAULT_RECEIVER_LINK_CREDITS : config.getReceiverLinkCredit();
+    }
 
-        final ProtonReceiver oldReceiver = replyToReceiverMap.put(replyTo, receiver);
+    private void allocateReceiverForReplyTo(final String replyTo, final ReceiverLinkCredit linkCredit) {
 
-        if (oldReceiver == null || oldReceiver == receiver) {
-            logger.debug("Allocated receiver [{}] for replies to [{}]", receiver, replyTo);
+        final ReceiverLinkCredit oldLinkCredit = replyToReceiverMap.put(replyTo, linkCredit);
+
+        if (oldLinkCredit == linkCredit) {
+            return;
+        } else if (oldLinkCredit == null) {
+            logger.debug("Allocated receiver [{}] for replies to [{}]", linkCredit.getReceiver(), replyTo);
         } else {
-            logger.info("Allocated receiver [{}] for replies to [{}] - Had existing receiver: [{}]", receiver, replyTo,
-                    oldReceiver);
+            logger.info("Allocated receiver [{}] for replies to [{}] - Had existing receiver: [{}]",
+                    linkCredit.getReceiver(), replyTo, oldLinkCredit.getReceiver());
         }
     }
 
     private void flowCreditToRequestor(final String replyTo) {
 
-        final ProtonReceiver receiver = replyToReceiverMap.get(replyTo);
-        if (receiver == null) {
+        final ReceiverLinkCredit linkCredit = replyToReceiverMap.get(replyTo);
+        if (linkCredit == null) {
             logger.warn("No receiver found for reply-to address [{}]", replyTo);
             return;
         }
 
-        // flow one credit back to the receiver
-        receiver.flow(1);
+        linkCredit.requestCompleted();
 
         if (logger.isTraceEnabled()) {
-            logger.trace("Flowing credit back to sender - replyTo: [{}], currentCredits: {}", replyTo,
-                    receiver.getCredit());
+            logger.trace("Completed request - replyTo: [{}], currentCredits: {}, outstanding requests: {}", replyTo,
+                    linkCredit.getReceiver().getCredit(), linkCredit.getOutstandingRequests());
         }
 
     }
 
     private void deallocateReceiverForReplyTo(final String replyTo) {
 
-        final ProtonReceiver receiver = replyToReceiverMap.remove(replyTo);
-        if (receiver == null) {
+        final ReceiverLinkCredit linkCredit = replyToReceiverMap.remove(replyTo);
+        if (linkCredit == null) {
             logger.warn("Receiver was not allocated to replyTo address [{}]", replyTo);
         } else {
-            logger.debug("Deallocated receiver [{}] for replies to [{}]", receiver, replyTo);
+            logger.debug("Deallocated receiver [{}] for replies to [{}]", linkCredit.getReceiver(), replyTo);
         }
 
     }
@@ -460,15 +500,17 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
     private void deallocateAllReceiversForConnection(final ProtonConnection connection) {
         replyToReceiverMap
                 .entrySet()
-                .removeIf(entry -> entry.getValue().getSession().getConnection() == connection);
+                .removeIf(entry -> entry.getValue().getReceiver().getSession().getConnection() == connection);
     }
 
     private void registerConsumerForConnection(final ProtonConnection connection,
-            final String replyTo, final MessageConsumer<?> replyConsumer) {
+            final String replyTo, final MessageConsumer<?> replyConsumer,
+            final Handler<EventBusMessage> replyHandler) {
 
         replyConsumerMap.put(connection, replyConsumer);
         replyAddressMap.put(connection, replyTo);
         replyAddresses.add(replyTo);
+        replyHandlers.put(replyTo, replyHandler);
 
     }
 
@@ -487,6 +529,7 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
         replyAddressMap.remove(connection, replyTo);
         replyAddresses.remove(replyTo);
+        replyHandlers.remove(replyTo);
     }
 
     private void unregisterAllConsumersForConnection(final ProtonConnection connection) {
@@ -499,7 +542,10 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
 
         // now remove all addresses this connection has and remove them from the reply address set
 
-        replyAddresses.removeAll(replyAddressMap.removeAll(connection));
+        replyAddressMap.removeAll(connection).forEach(replyTo -> {
+            replyAddresses.remove(replyTo);
+            replyHandlers.remove(replyTo);
+        });
     }
 
     /**
@@ -528,6 +574,66 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
         }
     }
 
+    /**
+     * Sends a request to the service implementing the operation.
+     * <p>
+     * If {@linkplain ServiceConfigProperties#isDirectServiceInvocationEnabled() enabled}
+     * and the service is running in the same vert.x instance, the service is invoked
+     * directly by means of its {@link DirectServiceBinding}. The response is then passed
+     * to the client's reply-to link without being sent over the event bus. This saves the
+     * event bus hops for the request and the response and the lookup of the consumers and
+     * the reply-to address. The binding still makes a deep copy of both the request and the
+     * response so that the endpoint and the service do not share any state.
+     * <p>
+     * Otherwise, the request is sent over the vert.x event bus.
+     *
+     * @param address The event bus address that the service is listening on.
+     * @param request The request to send.
+     * @param spanContext The context of the span covering the processing of the request
+     *                    (may be {@code null}).
+     * @throws NullPointerException if address or request are {@code null}.
+     */
+    protected final void sendServiceRequest(
+            final String address,
+            final EventBusMessage request,
+            final SpanContext spanContext) {
+
+        Objects.requireNonNull(address);
+        Objects.requireNonNull(request);
+
+        final DirectServiceBinding binding = config != null && config.isDirectServiceInvocationEnabled()
+                ? DirectServiceBinding.get(vertx, address)
+                : null;
+
+        if (binding == null) {
+            final DeliveryOptions options = createEventBusMessageDeliveryOptions(spanContext);
+            vertx.eventBus().send(address, request.toJson(), options);
+            return;
+        }
+
+        request.setSpanContext(spanContext);
+        binding.invoke(request, invocation -> {
+            final EventBusMessage response;
+            if (invocation.succeeded()) {
+                response = invocation.result();
+            } else {
+                logger.debug("error invoking service [address: {}, operation: {}]: {}",
+                        address, request.getOperation(), invocation.cause().getMessage());
+                response = request.getResponse(ServiceInvocationException.extractStatusCode(invocation.cause()));
+            }
+            if (response == null || response.getReplyToAddress() == null) {
+                return;
+            }
+            final Handler<EventBusMessage> replyHandler = replyHandlers.get(response.getReplyToAddress());
+            if (replyHandler == null) {
+                logger.debug("discarding response for unsubscribed reply-to address [{}]",
+                        response.getReplyToAddress());
+            } else {
+                replyHandler.handle(response);
+            }
+        });
+    }
+
     /**
      * Creates {@code DeliveryOptions} that contain the given {@code SpanContext}.
      * <p>
@@ -538,7 +644,7 @@ public abstract class RequestResponseEndpoint<T extends ServiceConfigProperties>
      */
     protected final DeliveryOptions createEventBusMessageDeliveryOptions(final SpanContext spanContext) {
         final DeliveryOptions deliveryOptions = new DeliveryOptions();
-        if (spanContext != null && !(spanContext instanceof NoopSpanContext)) {
+        if (TracingHelper.isSampled(spanContext) && !(spanContext instanceof NoopSpanContext)) {
             final MultiMap multiMap = new CaseInsensitiveHeaders();
             tracer.inject(spanContext, Format.Builtin.TEXT_MAP, new MultiMapInjectAdapter(multiMap));
             deliveryOptions.setHeaders(multiMap);
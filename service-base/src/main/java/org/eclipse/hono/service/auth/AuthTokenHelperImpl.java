@@ -20,6 +20,7 @@ import java.util.Objects;
 import org.eclipse.hono.auth.Authorities;
 import org.eclipse.hono.config.SignatureSupportingConfigProperties;
 import org.eclipse.hono.util.JwtHelper;
+import org.eclipse.hono.util.VerifiedTokenCache;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
@@ -33,6 +34,8 @@ import io.vertx.core.Vertx;
  */
 public class AuthTokenHelperImpl extends JwtHelper implements AuthTokenHelper {
 
+    private final VerifiedTokenCache<Jws<Claims>> verifiedTokens = new VerifiedTokenCache<>();
+
     private AuthTokenHelperImpl() {
         this(null);
     }
@@ -101,12 +104,26 @@ public class AuthTokenHelperImpl extends JwtHelper implements AuthTokenHelper {
         return builder.compact();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tokens that have been expanded successfully are cached until they expire
+     * so that the signature of a token only needs to be verified once.
+     */
     @Override
     public Jws<Claims> expand(final String token) {
 
         Objects.requireNonNull(token);
-        return Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token);
+        Jws<Claims> result = verifiedTokens.get(token);
+        if (result == null) {
+            result = Jwts.parser()
+                    .setSigningKey(key)
+                    .parseClaimsJws(token);
+            final Date expiration = result.getBody().getExpiration();
+            if (expiration != null) {
+                verifiedTokens.put(token, result, expiration.toInstant());
+            }
+        }
+        return result;
     }
 }
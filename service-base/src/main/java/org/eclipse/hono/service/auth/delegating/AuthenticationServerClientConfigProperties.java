@@ -23,7 +23,13 @@ import org.eclipse.hono.config.SignatureSupportingConfigProperties;
  */
 public class AuthenticationServerClientConfigProperties extends ClientConfigProperties {
 
+    /**
+     * The default maximum number of tokens to cache.
+     */
+    public static final int DEFAULT_TOKEN_CACHE_MAX_SIZE = 1000;
+
     private final SignatureSupportingConfigProperties validation = new SignatureSupportingConfigProperties();
+    private int tokenCacheMaxSize = DEFAULT_TOKEN_CACHE_MAX_SIZE;
 
     /**
      * Gets the properties for determining key material for validating user tokens.
@@ -33,4 +39,34 @@ public class AuthenticationServerClientConfigProperties extends ClientConfigProp
     public final SignatureSupportingConfigProperties getValidation() {
         return validation;
     }
+
+    /**
+     * Gets the maximum number of tokens issued by the Authentication service
+     * to keep in the cache.
+     *
+     * @return The number of tokens.
+     */
+    public final int getTokenCacheMaxSize() {
+        return tokenCacheMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of tokens issued by the Authentication service
+     * to keep in the cache.
+     * <p>
+     * Tokens are cached per set of credentials and are reused for authenticating
+     * clients presenting the same credentials until shortly before the tokens expire.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_TOKEN_CACHE_MAX_SIZE}.
+     * Setting this property to 0 disables caching of tokens.
+     *
+     * @param maxSize The number of tokens.
+     * @throws IllegalArgumentException if size is &lt; 0.
+     */
+    public final void setTokenCacheMaxSize(final int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("max size must be >= 0");
+        }
+        this.tokenCacheMaxSize = maxSize;
+    }
 }
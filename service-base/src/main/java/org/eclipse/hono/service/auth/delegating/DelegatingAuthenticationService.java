@@ -13,6 +13,16 @@
 
 package org.eclipse.hono.service.auth.delegating;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.eclipse.hono.auth.HonoUser;
@@ -21,11 +31,15 @@ import org.eclipse.hono.connection.ConnectionFactory;
 import org.eclipse.hono.service.HealthCheckProvider;
 import org.eclipse.hono.service.auth.AbstractHonoAuthenticationService;
 import org.eclipse.hono.util.AuthenticationConstants;
+import org.eclipse.hono.util.JwtHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -39,11 +53,23 @@ import io.vertx.ext.healthchecks.Status;
  * An authentication service that delegates authentication requests to a remote identity server.
  * <p>
  * This is the default authentication service for all Hono services.
+ * <p>
+ * The tokens issued by the remote server are cached by the digest of the credentials
+ * they have been issued for and are reused until shortly before they expire. Concurrent
+ * requests for authenticating the same credentials are forwarded to the remote server
+ * only once.
  */
 @Service
 @Profile("!authentication-impl")
 public class DelegatingAuthenticationService extends AbstractHonoAuthenticationService<AuthenticationServerClientConfigProperties> implements HealthCheckProvider {
 
+    /**
+     * The period of time before a token's expiration after which a cached token is no longer used.
+     */
+    private static final Duration TOKEN_EXPIRATION_MARGIN = Duration.ofSeconds(30);
+
+    private final Map<String, List<Handler<AsyncResult<HonoUser>>>> pendingRequests = new HashMap<>();
+    private Cache<String, CachedToken> tokenCache;
     private AuthenticationServerClient client;
     private ConnectionFactory factory;
     private DnsClient dnsClient;
@@ -133,10 +159,21 @@ public class DelegatingAuthenticationService extends AbstractHonoAuthenticationS
             startFuture.fail("no connection factory for Authentication service set");
         } else {
             client = new AuthenticationServerClient(vertx, factory);
+            if (getConfig().getTokenCacheMaxSize() > 0) {
+                tokenCache = CacheBuilder.newBuilder()
+                        .maximumSize(getConfig().getTokenCacheMaxSize())
+                        .build();
+            }
             startFuture.complete();
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The result is not cached because the client does not support SASL EXTERNAL
+     * yet and therefore always fails the request without contacting the server.
+     */
     @Override
     public void verifyExternal(final String authzid, final String subjectDn, final Handler<AsyncResult<HonoUser>> authenticationResultHandler) {
         client.verifyExternal(authzid, subjectDn, authenticationResultHandler);
@@ -146,7 +183,81 @@ public class DelegatingAuthenticationService extends AbstractHonoAuthenticationS
     public void verifyPlain(final String authzid, final String authcid, final String password,
             final Handler<AsyncResult<HonoUser>> authenticationResultHandler) {
 
-        client.verifyPlain(authzid, authcid, password, authenticationResultHandler);
+        if (tokenCache == null) {
+            client.verifyPlain(authzid, authcid, password, authenticationResultHandler);
+            return;
+        }
+
+        final String key = getCredentialsDigest(authzid, authcid, password);
+        final CachedToken cachedToken = tokenCache.getIfPresent(key);
+        if (cachedToken != null) {
+            if (Instant.now().isBefore(cachedToken.reuseUntil)) {
+                log.debug("using cached token [authcid: {}]", authcid);
+                authenticationResultHandler.handle(Future.succeededFuture(cachedToken.user));
+                return;
+            }
+            tokenCache.invalidate(key);
+        }
+
+        final List<Handler<AsyncResult<HonoUser>>> waitingHandlers = pendingRequests.get(key);
+        if (waitingHandlers != null) {
+            log.debug("waiting for outstanding authentication request [authcid: {}]", authcid);
+            waitingHandlers.add(authenticationResultHandler);
+            return;
+        }
+
+        final List<Handler<AsyncResult<HonoUser>>> handlers = new ArrayList<>();
+        handlers.add(authenticationResultHandler);
+        pendingRequests.put(key, handlers);
+        client.verifyPlain(authzid, authcid, password, attempt -> {
+            pendingRequests.remove(key);
+            if (attempt.succeeded()) {
+                putToCache(key, attempt.result());
+            }
+            handlers.forEach(handler -> handler.handle(attempt));
+        });
+    }
+
+    private void putToCache(final String key, final HonoUser user) {
+
+        try {
+            final Instant reuseUntil = JwtHelper.getExpiration(user.getToken()).toInstant()
+                    .minus(TOKEN_EXPIRATION_MARGIN);
+            if (Instant.now().isBefore(reuseUntil)) {
+                tokenCache.put(key, new CachedToken(user, reuseUntil));
+            }
+        } catch (final IllegalArgumentException | NullPointerException e) {
+            log.debug("cannot cache token without expiration time");
+        }
+    }
+
+    private static String getCredentialsDigest(final String authzid, final String authcid, final String password) {
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // use a NUL byte as separator like in the SASL PLAIN response
+            final String credentials = String.join("\u0000",
+                    authzid == null ? "" : authzid, authcid, password);
+            return Base64.getEncoder().encodeToString(digest.digest(credentials.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            // every JRE is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A token issued by the Authentication service along with the point in time
+     * until which it may be reused.
+     */
+    private static final class CachedToken {
+
+        private final HonoUser user;
+        private final Instant reuseUntil;
+
+        CachedToken(final HonoUser user, final Instant reuseUntil) {
+            this.user = user;
+            this.reuseUntil = reuseUntil;
+        }
     }
 
     @Override
@@ -23,10 +23,13 @@ import org.eclipse.hono.client.HonoClient;
 import org.eclipse.hono.client.ServerErrorException;
 import org.eclipse.hono.client.ServiceInvocationException;
 import org.eclipse.hono.service.auth.DeviceUser;
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
+import org.eclipse.hono.service.metric.PipelineStageMetrics;
 import org.eclipse.hono.tracing.TracingHelper;
 import org.eclipse.hono.util.CredentialsObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
@@ -51,6 +54,7 @@ public abstract class CredentialsApiAuthProvider<T extends AbstractDeviceCredent
     protected final Logger log = LoggerFactory.getLogger(getClass());
     private final HonoClient credentialsServiceClient;
     private final Tracer tracer;
+    private PipelineStageMetrics pipelineStageMetrics;
 
     /**
      * Creates a new authentication provider for a credentials service client.
@@ -64,6 +68,19 @@ public abstract class CredentialsApiAuthProvider<T extends AbstractDeviceCredent
         this.tracer = Objects.requireNonNull(tracer);
     }
 
+    /**
+     * Sets the metrics to use for recording the duration of authenticating devices.
+     * <p>
+     * If not set, the duration is not recorded.
+     *
+     * @param metrics The metrics.
+     * @throws NullPointerException if metrics is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setPipelineStageMetrics(final PipelineStageMetrics metrics) {
+        this.pipelineStageMetrics = Objects.requireNonNull(metrics);
+    }
+
     /**
      * Gets a client for the Credentials service.
      * 
@@ -108,6 +125,7 @@ public abstract class CredentialsApiAuthProvider<T extends AbstractDeviceCredent
         Objects.requireNonNull(deviceCredentials);
         Objects.requireNonNull(resultHandler);
 
+        final long startTime = pipelineStageMetrics == null ? PipelineStageMetrics.NOT_TIMED : pipelineStageMetrics.start();
         getCredentialsForDevice(deviceCredentials, spanContext)
         .recover(t -> {
 
@@ -124,7 +142,12 @@ public abstract class CredentialsApiAuthProvider<T extends AbstractDeviceCredent
             }
         }).compose(credentialsOnRecord -> validateCredentials(deviceCredentials, credentialsOnRecord))
         .compose(d -> Future.succeededFuture(new DeviceUser(d.getTenantId(), d.getDeviceId())))
-        .setHandler(resultHandler);
+        .setHandler(authentication -> {
+            if (pipelineStageMetrics != null) {
+                pipelineStageMetrics.record(PipelineStage.AUTHENTICATION, startTime);
+            }
+            resultHandler.handle(authentication);
+        });
     }
 
     /**
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxInternal;
+
+/**
+ * Metrics for the saturation of the vert.x event loops and worker pool.
+ * <p>
+ * The scheduling lag of each event loop is measured by periodically submitting a probe
+ * task to the event loop and recording the time it takes until the task gets executed.
+ * In addition, the number of tasks waiting to be executed on each event loop and the
+ * utilization of the worker pool are reported as gauges.
+ * <p>
+ * The time spent executing blocking code on the worker pool is reported by vert.x's own
+ * pool metrics if vert.x metrics are enabled.
+ */
+@Component
+public class EventLoopMetrics {
+
+    /**
+     * The name of the meter for the scheduling lag of event loops.
+     */
+    public static final String METER_EVENT_LOOP_LAG = "hono.vertx.eventloop.lag";
+    /**
+     * The name of the meter for the number of tasks waiting to be executed on event loops.
+     */
+    public static final String METER_EVENT_LOOP_PENDING_TASKS = "hono.vertx.eventloop.pending.tasks";
+    /**
+     * The name of the meter for the number of worker threads executing tasks.
+     */
+    public static final String METER_WORKER_ACTIVE = "hono.vertx.worker.active";
+    /**
+     * The name of the meter for the number of tasks waiting to be executed on the worker pool.
+     */
+    public static final String METER_WORKER_QUEUED = "hono.vertx.worker.queued";
+    /**
+     * The name of the meter for the ratio of busy worker threads.
+     */
+    public static final String METER_WORKER_UTILIZATION = "hono.vertx.worker.utilization";
+    /**
+     * The default interval (milliseconds) at which the event loops are probed.
+     */
+    public static final long DEFAULT_PROBE_INTERVAL = 1000L;
+
+    static final String TAG_EVENT_LOOP = "event-loop";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventLoopMetrics.class);
+
+    private final Vertx vertx;
+    private final MeterRegistry registry;
+    private final List<EventExecutor> eventLoops = new ArrayList<>();
+    private final List<Timer> lagTimers = new ArrayList<>();
+    private long probeInterval = DEFAULT_PROBE_INTERVAL;
+    private long probeTimerId = -1;
+
+    /**
+     * Creates new metrics for a vert.x instance.
+     *
+     * @param vertx The vert.x instance to monitor.
+     * @param registry The registry to report the metrics to.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public EventLoopMetrics(final Vertx vertx, final MeterRegistry registry) {
+        this.vertx = Objects.requireNonNull(vertx);
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    /**
+     * Sets the interval at which the event loops are probed.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_PROBE_INTERVAL} milliseconds.
+     * Setting the interval to 0 disables probing of the event loops.
+     *
+     * @param interval The interval in milliseconds.
+     * @throws IllegalArgumentException if the interval is negative.
+     */
+    @Value("${hono.metrics.eventLoop.probeInterval:" + DEFAULT_PROBE_INTERVAL + "}")
+    public void setProbeInterval(final long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("probe interval must not be negative");
+        }
+        this.probeInterval = interval;
+    }
+
+    /**
+     * Registers the gauges and starts probing the event loops.
+     */
+    @PostConstruct
+    public void start() {
+
+        if (!(vertx instanceof VertxInternal)) {
+            LOG.info("cannot report event loop metrics for vert.x instance of type {}", vertx.getClass().getName());
+            return;
+        }
+        final VertxInternal vertxInternal = (VertxInternal) vertx;
+
+        int index = 0;
+        for (final EventExecutor eventLoop : vertxInternal.getEventLoopGroup()) {
+            final Tags tags = Tags.of(TAG_EVENT_LOOP, Integer.toString(index++));
+            eventLoops.add(eventLoop);
+            lagTimers.add(Timer.builder(METER_EVENT_LOOP_LAG)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            if (eventLoop instanceof SingleThreadEventExecutor) {
+                registry.gauge(METER_EVENT_LOOP_PENDING_TASKS, tags, (SingleThreadEventExecutor) eventLoop,
+                        SingleThreadEventExecutor::pendingTasks);
+            }
+        }
+
+        final ExecutorService workerPool = vertxInternal.getWorkerPool();
+        if (workerPool instanceof ThreadPoolExecutor) {
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) workerPool;
+            registry.gauge(METER_WORKER_ACTIVE, executor, ThreadPoolExecutor::getActiveCount);
+            registry.gauge(METER_WORKER_QUEUED, executor, e -> e.getQueue().size());
+            registry.gauge(METER_WORKER_UTILIZATION, executor,
+                    e -> (double) e.getActiveCount() / Math.max(1, e.getMaximumPoolSize()));
+        }
+
+        if (probeInterval > 0) {
+            probeTimerId = vertx.setPeriodic(probeInterval, id -> probe());
+        }
+    }
+
+    /**
+     * Stops probing the event loops.
+     */
+    @PreDestroy
+    public void stop() {
+        if (probeTimerId >= 0) {
+            vertx.cancelTimer(probeTimerId);
+            probeTimerId = -1;
+        }
+    }
+
+    /**
+     * Submits a probe task to each event loop which records the time that has passed
+     * between submitting and executing the task.
+     */
+    void probe() {
+        for (int i = 0; i < eventLoops.size(); i++) {
+            final Timer lagTimer = lagTimers.get(i);
+            final long submitted = System.nanoTime();
+            eventLoops.get(i).execute(() -> lagTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS));
+        }
+    }
+}
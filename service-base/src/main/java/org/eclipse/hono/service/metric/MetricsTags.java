@@ -358,6 +358,51 @@ public final class MetricsTags {
         }
     }
 
+    /**
+     * The stage of the processing pipeline of a message published by a device.
+     *
+     */
+    public enum PipelineStage {
+
+        /**
+         * The authentication of the device.
+         */
+        AUTHENTICATION("authentication"),
+        /**
+         * The retrieval of the tenant's configuration.
+         */
+        TENANT("tenant"),
+        /**
+         * The retrieval of the device's registration assertion.
+         */
+        ASSERTION("assertion"),
+        /**
+         * The acquisition of the downstream sender.
+         */
+        SENDER("sender"),
+        /**
+         * The forwarding of the message downstream, including the wait for the disposition if required.
+         */
+        DISPOSITION("disposition");
+
+        static final String TAG_NAME = "stage";
+
+        private final Tag tag;
+
+        PipelineStage(final String tagValue) {
+            this.tag = Tag.of(TAG_NAME, tagValue);
+        }
+
+        /**
+         * Gets a <em>Micrometer</em> tag for the stage.
+         * 
+         * @return The tag.
+         */
+        public Tag asTag() {
+            return tag;
+        }
+    }
+
     /**
      * The name of the tag that holds the name of the component that reports a metric.
      */
@@ -15,21 +15,37 @@ package org.eclipse.hono.service.metric;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Supplier;
 
 import org.eclipse.hono.service.metric.MetricsTags.Direction;
+import org.eclipse.hono.service.metric.MetricsTags.EndpointType;
 import org.eclipse.hono.service.metric.MetricsTags.ProcessingOutcome;
+import org.eclipse.hono.service.metric.MetricsTags.QoS;
+import org.eclipse.hono.service.metric.MetricsTags.TtdStatus;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Timer.Sample;
 
 /**
  * Micrometer based metrics implementation.
+ * <p>
+ * The meters used for reporting messages and commands are looked up in the registry
+ * only once per combination of tags. The resolved meters are kept per tenant in arrays
+ * indexed by the ordinals of the remaining tags' values so that reporting a message
+ * does not require building tags nor looking up meters in the registry.
+ * <p>
+ * If a {@link TenantCardinalityLimiter} is set, only the most active tenants are
+ * reported using their own tenant tag value while all other tenants are reported in
+ * a common bucket.
  */
 public class MicrometerBasedMetrics implements Metrics {
 
@@ -58,16 +74,26 @@ public class MicrometerBasedMetrics implements Metrics {
      */
     public static final String METER_COMMANDS_RECEIVED = "hono.commands.received";
 
+    private static final int NUMBER_OF_ENDPOINT_TYPES = EndpointType.values().length;
+    private static final int NUMBER_OF_OUTCOMES = ProcessingOutcome.values().length;
+    private static final int NUMBER_OF_QOS = QoS.values().length;
+    private static final int NUMBER_OF_TTD_STATUS = TtdStatus.values().length;
+    private static final int NUMBER_OF_DIRECTIONS = Direction.values().length;
+
     /**
      * The meter registry.
      */
     protected final MeterRegistry registry;
 
+    private final Map<String, TenantMeters> tenantMeters = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> authenticatedConnections = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> authenticatedConnectionsPerTenant = new ConcurrentHashMap<>();
+    private final Set<String> authenticatedConnectionsTagValues = ConcurrentHashMap.newKeySet();
     private final AtomicLong unauthenticatedConnections;
     private final AtomicLong totalCurrentConnections = new AtomicLong();
 
     private LegacyMetrics legacyMetrics;
+    private TenantCardinalityLimiter tenantCardinalityLimiter;
 
     /**
      * Creates a new metrics instance.
@@ -92,12 +118,55 @@ public class MicrometerBasedMetrics implements Metrics {
         this.legacyMetrics = legacyMetrics;
     }
 
+    /**
+     * Sets the limiter to use for restricting the number of tenant tag values.
+     * <p>
+     * If not set, all tenants are reported using their own tenant tag value.
+     *
+     * @param limiter The limiter.
+     * @throws NullPointerException if limiter is {@code null}.
+     */
+    @Autowired(required = false)
+    public final void setTenantCardinalityLimiter(final TenantCardinalityLimiter limiter) {
+        this.tenantCardinalityLimiter = Objects.requireNonNull(limiter);
+        limiter.addPromotionListener(tenantId -> {
+            if (authenticatedConnectionsPerTenant.containsKey(tenantId)) {
+                registerAuthenticatedConnectionsGauge(tenantId);
+            }
+        });
+    }
+
+    /**
+     * Gets the value of the tenant tag to use for reporting a tenant's meters.
+     *
+     * @param tenantId The tenant.
+     * @return The tenant identifier or {@link TenantCardinalityLimiter#TENANT_OTHER}
+     *         if the tenant is not among the tenants being reported using their own
+     *         tag value.
+     */
+    protected final String getTenantTagValue(final String tenantId) {
+        if (tenantCardinalityLimiter == null) {
+            return tenantId;
+        }
+        return tenantCardinalityLimiter.getTenantTagValue(tenantId);
+    }
+
+    /**
+     * Gets the tenant tag to use for reporting a tenant's meters.
+     *
+     * @param tenantId The tenant.
+     * @return The tag.
+     * @see #getTenantTagValue(String)
+     */
+    protected final Tag getTenantTag(final String tenantId) {
+        return MetricsTags.getTenantTag(getTenantTagValue(tenantId));
+    }
+
     @Override
     public final void incrementConnections(final String tenantId) {
 
         Objects.requireNonNull(tenantId);
-        gaugeForTenant(METER_CONNECTIONS_AUTHENTICATED, this.authenticatedConnections, tenantId, AtomicLong::new)
-                .incrementAndGet();
+        getAuthenticatedConnections(tenantId).incrementAndGet();
         this.totalCurrentConnections.incrementAndGet();
 
     }
@@ -106,12 +175,55 @@ public class MicrometerBasedMetrics implements Metrics {
     public final void decrementConnections(final String tenantId) {
 
         Objects.requireNonNull(tenantId);
-        gaugeForTenant(METER_CONNECTIONS_AUTHENTICATED, this.authenticatedConnections, tenantId, AtomicLong::new)
-                .decrementAndGet();
+        getAuthenticatedConnections(tenantId).decrementAndGet();
         this.totalCurrentConnections.decrementAndGet();
 
     }
 
+    /**
+     * Gets the number of a tenant's connections.
+     * <p>
+     * If a limiter is set, the connections are counted per tenant and the gauges
+     * sum up the counts of the tenants currently reported under their tag value.
+     * This way, a tenant's connections follow the tenant when it gets promoted
+     * or demoted.
+     */
+    private AtomicLong getAuthenticatedConnections(final String tenantId) {
+
+        if (tenantCardinalityLimiter == null) {
+            return gaugeForTenant(METER_CONNECTIONS_AUTHENTICATED, this.authenticatedConnections, tenantId, AtomicLong::new);
+        }
+        final AtomicLong count = authenticatedConnectionsPerTenant.computeIfAbsent(tenantId, key -> new AtomicLong());
+        registerAuthenticatedConnectionsGauge(getTenantTagValue(tenantId));
+        return count;
+    }
+
+    private void registerAuthenticatedConnectionsGauge(final String tenantTagValue) {
+
+        if (authenticatedConnectionsTagValues.add(tenantTagValue)) {
+            registry.gauge(
+                    METER_CONNECTIONS_AUTHENTICATED,
+                    Tags.of(MetricsTags.getTenantTag(tenantTagValue)),
+                    this,
+                    metrics -> metrics.countAuthenticatedConnections(tenantTagValue));
+        }
+    }
+
+    private double countAuthenticatedConnections(final String tenantTagValue) {
+
+        if (TenantCardinalityLimiter.TENANT_OTHER.equals(tenantTagValue)) {
+            return authenticatedConnectionsPerTenant.entrySet().stream()
+                    .filter(entry -> TenantCardinalityLimiter.TENANT_OTHER.equals(getTenantTagValue(entry.getKey())))
+                    .mapToLong(entry -> entry.getValue().get())
+                    .sum();
+        }
+        final AtomicLong count = authenticatedConnectionsPerTenant.get(tenantTagValue);
+        if (count == null || !tenantTagValue.equals(getTenantTagValue(tenantTagValue))) {
+            return 0;
+        }
+        return count.get();
+    }
+
     @Override
     public final void incrementUnauthenticatedConnections() {
         this.unauthenticatedConnections.incrementAndGet();
@@ -169,19 +281,13 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags baseTags = Tags.of(type.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag());
-
-        timer.stop(this.registry.timer(METER_MESSAGES_RECEIVED, ttdStatus.add(qos.add(baseTags))));
-
-        // record payload size
-        DistributionSummary.builder(METER_MESSAGES_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(baseTags)
-            .register(this.registry)
-            .record(payloadSize);
+        if (tenantCardinalityLimiter != null) {
+            tenantCardinalityLimiter.recordTraffic(tenantId);
+        }
+        final String tenantTagValue = getTenantTagValue(tenantId);
+        final TenantMeters meters = getTenantMeters(tenantTagValue);
+        timer.stop(meters.getMessagesReceivedTimer(type, outcome, qos, ttdStatus));
+        meters.getMessagesPayloadSummary(type, outcome).record(payloadSize);
 
         if (legacyMetrics != null) {
 
@@ -191,10 +297,10 @@ public class MicrometerBasedMetrics implements Metrics {
              // are incompatible (e.g. duration vs. occurrences).
             switch(outcome) {
             case FORWARDED:
-                legacyMetrics.incrementProcessedMessages(type, tenantId);
+                legacyMetrics.incrementProcessedMessages(type, tenantTagValue);
                 break;
             case UNDELIVERABLE:
-                legacyMetrics.incrementUndeliverableMessages(type, tenantId);
+                legacyMetrics.incrementUndeliverableMessages(type, tenantTagValue);
                 break;
             case UNPROCESSABLE:
                 // no corresponding legacy metric
@@ -205,7 +311,7 @@ public class MicrometerBasedMetrics implements Metrics {
             // an expired TTD value.
             switch(ttdStatus) {
             case EXPIRED:
-                legacyMetrics.incrementNoCommandReceivedAndTTDExpired(tenantId);
+                legacyMetrics.incrementNoCommandReceivedAndTTDExpired(tenantTagValue);
                 break;
             default:
                 // nothing to do
@@ -230,34 +336,44 @@ public class MicrometerBasedMetrics implements Metrics {
             throw new IllegalArgumentException("payload size must not be negative");
         }
 
-        final Tags baseTags = Tags.of(direction.asTag())
-                .and(MetricsTags.getTenantTag(tenantId))
-                .and(outcome.asTag());
-
-        timer.stop(this.registry.timer(METER_COMMANDS_RECEIVED, baseTags));
-
-        // record payload size
-        DistributionSummary.builder(METER_COMMANDS_PAYLOAD)
-            .baseUnit("bytes")
-            .minimumExpectedValue(0L)
-            .tags(baseTags)
-            .register(this.registry)
-            .record(payloadSize);
+        if (tenantCardinalityLimiter != null) {
+            tenantCardinalityLimiter.recordTraffic(tenantId);
+        }
+        final String tenantTagValue = getTenantTagValue(tenantId);
+        final TenantMeters meters = getTenantMeters(tenantTagValue);
+        timer.stop(meters.getCommandsReceivedTimer(direction, outcome));
+        meters.getCommandsPayloadSummary(direction, outcome).record(payloadSize);
 
         if (legacyMetrics != null) {
 
             switch(direction) {
             case ONE_WAY:
             case REQUEST:
-                legacyMetrics.incrementCommandDeliveredToDevice(tenantId);
+                legacyMetrics.incrementCommandDeliveredToDevice(tenantTagValue);
                 break;
             case RESPONSE:
-                legacyMetrics.incrementCommandResponseDeliveredToApplication(tenantId);
+                legacyMetrics.incrementCommandResponseDeliveredToApplication(tenantTagValue);
                 break;
             }
         }
     }
 
+    private TenantMeters getTenantMeters(final String tenantTagValue) {
+        final TenantMeters meters = tenantMeters.get(tenantTagValue);
+        if (meters != null) {
+            return meters;
+        }
+        return tenantMeters.computeIfAbsent(tenantTagValue, TenantMeters::new);
+    }
+
+    private DistributionSummary payloadSummary(final String name, final Tags tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .minimumExpectedValue(0L)
+                .tags(tags)
+                .register(this.registry);
+    }
+
     /**
      * Gets a gauge value for a specific key.
      * <p>
@@ -303,4 +419,83 @@ public class MicrometerBasedMetrics implements Metrics {
         return gaugeForKey(name, map, tenant, Tags.of(MetricsTags.getTenantTag(tenant)), instanceSupplier);
 
     }
+
+    /**
+     * The meters used for reporting the messages and commands of a tenant.
+     * <p>
+     * Meters are registered lazily on first use. Concurrent registration of the same
+     * meter is harmless because the registry returns the already registered meter
+     * for an existing combination of name and tags.
+     */
+    private final class TenantMeters {
+
+        private final String tenantId;
+        private final AtomicReferenceArray<Timer> messagesReceived = new AtomicReferenceArray<>(
+                NUMBER_OF_ENDPOINT_TYPES * NUMBER_OF_OUTCOMES * NUMBER_OF_QOS * NUMBER_OF_TTD_STATUS);
+        private final AtomicReferenceArray<DistributionSummary> messagesPayload = new AtomicReferenceArray<>(
+                NUMBER_OF_ENDPOINT_TYPES * NUMBER_OF_OUTCOMES);
+        private final AtomicReferenceArray<Timer> commandsReceived = new AtomicReferenceArray<>(
+                NUMBER_OF_DIRECTIONS * NUMBER_OF_OUTCOMES);
+        private final AtomicReferenceArray<DistributionSummary> commandsPayload = new AtomicReferenceArray<>(
+                NUMBER_OF_DIRECTIONS * NUMBER_OF_OUTCOMES);
+
+        TenantMeters(final String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        private Tags baseTags(final Tag first, final ProcessingOutcome outcome) {
+            return Tags.of(first)
+                    .and(MetricsTags.getTenantTag(tenantId))
+                    .and(outcome.asTag());
+        }
+
+        Timer getMessagesReceivedTimer(
+                final EndpointType type,
+                final ProcessingOutcome outcome,
+                final QoS qos,
+                final TtdStatus ttdStatus) {
+
+            final int index = ((type.ordinal() * NUMBER_OF_OUTCOMES + outcome.ordinal())
+                    * NUMBER_OF_QOS + qos.ordinal()) * NUMBER_OF_TTD_STATUS + ttdStatus.ordinal();
+            Timer timer = messagesReceived.get(index);
+            if (timer == null) {
+                timer = registry.timer(METER_MESSAGES_RECEIVED, ttdStatus.add(qos.add(baseTags(type.asTag(), outcome))));
+                messagesReceived.set(index, timer);
+            }
+            return timer;
+        }
+
+        DistributionSummary getMessagesPayloadSummary(final EndpointType type, final ProcessingOutcome outcome) {
+
+            final int index = type.ordinal() * NUMBER_OF_OUTCOMES + outcome.ordinal();
+            DistributionSummary summary = messagesPayload.get(index);
+            if (summary == null) {
+                summary = payloadSummary(METER_MESSAGES_PAYLOAD, baseTags(type.asTag(), outcome));
+                messagesPayload.set(index, summary);
+            }
+            return summary;
+        }
+
+        Timer getCommandsReceivedTimer(final Direction direction, final ProcessingOutcome outcome) {
+
+            final int index = direction.ordinal() * NUMBER_OF_OUTCOMES + outcome.ordinal();
+            Timer timer = commandsReceived.get(index);
+            if (timer == null) {
+                timer = registry.timer(METER_COMMANDS_RECEIVED, baseTags(direction.asTag(), outcome));
+                commandsReceived.set(index, timer);
+            }
+            return timer;
+        }
+
+        DistributionSummary getCommandsPayloadSummary(final Direction direction, final ProcessingOutcome outcome) {
+
+            final int index = direction.ordinal() * NUMBER_OF_OUTCOMES + outcome.ordinal();
+            DistributionSummary summary = commandsPayload.get(index);
+            if (summary == null) {
+                summary = payloadSummary(METER_COMMANDS_PAYLOAD, baseTags(direction.asTag(), outcome));
+                commandsPayload.set(index, summary);
+            }
+            return summary;
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+
+/**
+ * Metrics for the duration of the individual stages of processing a message
+ * published by a device.
+ * <p>
+ * The metrics complement the end-to-end {@link MicrometerBasedMetrics#METER_MESSAGES_RECEIVED}
+ * timer and can be used for determining the stage that is responsible for increased latency.
+ * Each stage is recorded by a timer that publishes a percentile histogram. The timers'
+ * histograms are recorded lock free by the threads processing the messages and are
+ * aggregated only when the metrics are being scraped.
+ * <p>
+ * Recording is disabled by default and can be enabled at start up by means of the
+ * <em>hono.metrics.stages.enabled</em> property or at runtime by means of the
+ * <em>Enabled</em> attribute of the corresponding JMX bean. While disabled, timing
+ * a stage does not incur any overhead apart from checking the flag.
+ */
+@Component
+@ManagedResource(description = "Timing of the stages of processing messages published by devices")
+public class PipelineStageMetrics {
+
+    /**
+     * The name of the meter for the duration of processing stages.
+     */
+    public static final String METER_STAGE_DURATION = "hono.messages.stage.duration";
+    /**
+     * The start time indicating that a stage is not being timed.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final Timer[] timers;
+    private volatile boolean enabled = false;
+
+    /**
+     * Creates new metrics.
+     *
+     * @param registry The registry to register the timers with.
+     * @throws NullPointerException if registry is {@code null}.
+     */
+    public PipelineStageMetrics(final MeterRegistry registry) {
+
+        Objects.requireNonNull(registry);
+        final PipelineStage[] stages = PipelineStage.values();
+        timers = new Timer[stages.length];
+        for (final PipelineStage stage : stages) {
+            timers[stage.ordinal()] = Timer.builder(METER_STAGE_DURATION)
+                    .tags(stage.asTag().getKey(), stage.asTag().getValue())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Checks if the duration of stages is recorded.
+     *
+     * @return {@code true} if durations are recorded.
+     */
+    @ManagedAttribute(description = "Indicates whether the duration of processing stages is recorded")
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the duration of stages is recorded.
+     * <p>
+     * The default value of this property is {@code false}.
+     *
+     * @param enabled {@code true} if durations should be recorded.
+     */
+    @ManagedAttribute
+    @Value("${hono.metrics.stages.enabled:false}")
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Marks the start of a stage.
+     *
+     * @return The start time to pass into {@link #record(PipelineStage, long)} or
+     *         {@link #NOT_TIMED} if recording is disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the completion of a stage.
+     *
+     * @param stage The completed stage.
+     * @param startTime The value returned by {@link #start()} when the stage has been started.
+     *                  The duration is not recorded if the value is {@link #NOT_TIMED}.
+     * @throws NullPointerException if stage is {@code null}.
+     */
+    public void record(final PipelineStage stage, final long startTime) {
+        if (startTime != NOT_TIMED) {
+            timers[stage.ordinal()].record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Times the execution of an asynchronous stage.
+     *
+     * @param <R> The type of the stage's result.
+     * @param stage The stage.
+     * @param operation The operation executing the stage.
+     * @return The future returned by the operation if recording is disabled or otherwise
+     *         a future that is completed with the outcome of the operation once the duration
+     *         has been recorded.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     */
+    public <R> Future<R> time(final PipelineStage stage, final Supplier<Future<R>> operation) {
+
+        Objects.requireNonNull(stage);
+        Objects.requireNonNull(operation);
+        final long startTime = start();
+        if (startTime == NOT_TIMED) {
+            return operation.get();
+        }
+        final Future<R> result = Future.future();
+        operation.get().setHandler(outcome -> {
+            record(stage, startTime);
+            result.handle(outcome);
+        });
+        return result;
+    }
+}
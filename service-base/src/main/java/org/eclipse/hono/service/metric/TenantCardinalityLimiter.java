@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limits the number of distinct values of the tenant tag used by meters.
+ * <p>
+ * Only the most active tenants are reported using their own tenant tag value. All other
+ * tenants are folded into the {@link #TENANT_OTHER} bucket. The first tenants sending
+ * messages get their own tag value until the configured maximum has been reached.
+ * Thereafter, the message traffic of all tenants is evaluated periodically and a
+ * folded tenant is promoted to its own tag value if it has sent at least
+ * {@link #PROMOTION_FACTOR} times as many messages during the last interval as the least
+ * active tenant having its own tag value, which in turn gets demoted to the
+ * {@link #TENANT_OTHER} bucket. The factor prevents tenants with similar traffic from
+ * being swapped over and over again.
+ * <p>
+ * Note that the meters of a demoted tenant are not removed from the registry but are
+ * no longer updated.
+ * <p>
+ * Instances are thread safe.
+ */
+public final class TenantCardinalityLimiter {
+
+    /**
+     * The tenant tag value that the tenants are reported under which do not
+     * get their own tag value.
+     * <p>
+     * The value contains a slash so that it cannot clash with a tenant identifier,
+     * which is used as a segment of resource paths.
+     */
+    public static final String TENANT_OTHER = "/other";
+    /**
+     * The name of the meter for the number of tenants being reported using their own tag value.
+     */
+    public static final String METER_TENANTS_TAGGED = "hono.metrics.tenants.tagged";
+    /**
+     * The name of the meter for the number of tenants that have been reported
+     * in the {@link #TENANT_OTHER} bucket during the last interval.
+     */
+    public static final String METER_TENANTS_FOLDED = "hono.metrics.tenants.folded";
+    /**
+     * The name of the meter for the number of tenants having been promoted to their own tag value.
+     */
+    public static final String METER_TENANTS_PROMOTED = "hono.metrics.tenants.promoted";
+    /**
+     * The name of the meter for the number of tenants having been demoted to the
+     * {@link #TENANT_OTHER} bucket.
+     */
+    public static final String METER_TENANTS_DEMOTED = "hono.metrics.tenants.demoted";
+    /**
+     * The factor by which a folded tenant's traffic must exceed the traffic of the
+     * least active tagged tenant in order to get promoted.
+     */
+    public static final int PROMOTION_FACTOR = 2;
+
+    private final int maxTaggedTenants;
+    private final long evaluationIntervalMillis;
+    private final Clock clock;
+    private final Map<String, LongAdder> traffic = new ConcurrentHashMap<>();
+    private final AtomicLong nextEvaluation;
+    private final AtomicInteger foldedTenants = new AtomicInteger();
+    private final Counter promotions;
+    private final Counter demotions;
+    private final List<Consumer<String>> promotionListeners = new CopyOnWriteArrayList<>();
+    private volatile Set<String> taggedTenants = Collections.emptySet();
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param registry The registry to report the limiter's own meters to.
+     * @param maxTaggedTenants The maximum number of tenants to report using their own
+     *                         tag value.
+     * @param evaluationInterval The interval at which the tenants' traffic is evaluated.
+     * @throws NullPointerException if any of the parameters are {@code null}.
+     * @throws IllegalArgumentException if max tagged tenants is not positive or if the
+     *                                  interval is not positive.
+     */
+    public TenantCardinalityLimiter(
+            final MeterRegistry registry,
+            final int maxTaggedTenants,
+            final Duration evaluationInterval) {
+        this(registry, maxTaggedTenants, evaluationInterval, Clock.systemUTC());
+    }
+
+    TenantCardinalityLimiter(
+            final MeterRegistry registry,
+            final int maxTaggedTenants,
+            final Duration evaluationInterval,
+            final Clock clock) {
+
+        Objects.requireNonNull(registry);
+        Objects.requireNonNull(evaluationInterval);
+        if (maxTaggedTenants <= 0) {
+            throw new IllegalArgumentException("max tagged tenants must be positive");
+        }
+        if (evaluationInterval.isNegative() || evaluationInterval.isZero()) {
+            throw new IllegalArgumentException("evaluation interval must be positive");
+        }
+        this.maxTaggedTenants = maxTaggedTenants;
+        this.evaluationIntervalMillis = evaluationInterval.toMillis();
+        this.clock = Objects.requireNonNull(clock);
+        this.nextEvaluation = new AtomicLong(clock.millis() + evaluationIntervalMillis);
+
+        registry.gauge(METER_TENANTS_TAGGED, this, limiter -> limiter.taggedTenants.size());
+        registry.gauge(METER_TENANTS_FOLDED, foldedTenants);
+        this.promotions = registry.counter(METER_TENANTS_PROMOTED);
+        this.demotions = registry.counter(METER_TENANTS_DEMOTED);
+    }
+
+    /**
+     * Adds a listener to be notified about tenants that get their own tag value.
+     * <p>
+     * The listener is invoked with the identifier of each tenant that is reported
+     * using its own tag value from then on.
+     *
+     * @param listener The listener.
+     * @throws NullPointerException if listener is {@code null}.
+     */
+    public void addPromotionListener(final Consumer<String> listener) {
+        promotionListeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Gets the value of the tenant tag to use for reporting a tenant's meters.
+     *
+     * @param tenantId The tenant.
+     * @return The tenant identifier if the tenant is reported using its own tag value
+     *         or {@link #TENANT_OTHER} otherwise.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    public String getTenantTagValue(final String tenantId) {
+
+        Objects.requireNonNull(tenantId);
+        if (taggedTenants.contains(tenantId)) {
+            return tenantId;
+        }
+        return TENANT_OTHER;
+    }
+
+    /**
+     * Records a message having been sent by a tenant's device.
+     * <p>
+     * The recorded traffic is used for determining the most active tenants.
+     *
+     * @param tenantId The tenant.
+     * @throws NullPointerException if tenant is {@code null}.
+     */
+    public void recordTraffic(final String tenantId) {
+
+        Objects.requireNonNull(tenantId);
+        LongAdder counter = traffic.get(tenantId);
+        if (counter == null) {
+            counter = traffic.computeIfAbsent(tenantId, key -> new LongAdder());
+        }
+        counter.increment();
+
+        final Set<String> currentTaggedTenants = taggedTenants;
+        if (currentTaggedTenants.size() < maxTaggedTenants && !currentTaggedTenants.contains(tenantId)) {
+            tag(tenantId);
+        }
+
+        final long now = clock.millis();
+        final long next = nextEvaluation.get();
+        if (now >= next && nextEvaluation.compareAndSet(next, now + evaluationIntervalMillis)) {
+            evaluate();
+        }
+    }
+
+    private synchronized void tag(final String tenantId) {
+        if (taggedTenants.size() < maxTaggedTenants && !taggedTenants.contains(tenantId)) {
+            final Set<String> newTaggedTenants = new HashSet<>(taggedTenants);
+            newTaggedTenants.add(tenantId);
+            taggedTenants = Collections.unmodifiableSet(newTaggedTenants);
+            notifyPromotionListeners(tenantId);
+        }
+    }
+
+    private void notifyPromotionListeners(final String tenantId) {
+        promotionListeners.forEach(listener -> listener.accept(tenantId));
+    }
+
+    /**
+     * Evaluates the traffic recorded since the last evaluation and promotes
+     * and demotes tenants accordingly.
+     */
+    synchronized void evaluate() {
+
+        final Map<String, Long> counts = new HashMap<>();
+        traffic.forEach((tenantId, counter) -> {
+            final long count = counter.sumThenReset();
+            if (count > 0) {
+                counts.put(tenantId, count);
+            } else {
+                traffic.remove(tenantId, counter);
+            }
+        });
+
+        final Set<String> newTaggedTenants = new HashSet<>(taggedTenants);
+        final List<String> incumbents = new ArrayList<>(newTaggedTenants);
+        incumbents.sort(Comparator.comparingLong(tenantId -> counts.getOrDefault(tenantId, 0L)));
+        final List<String> candidates = new ArrayList<>();
+        counts.keySet().stream().filter(tenantId -> !newTaggedTenants.contains(tenantId)).forEach(candidates::add);
+        foldedTenants.set(candidates.size());
+        candidates.sort(Comparator.comparingLong((String tenantId) -> counts.get(tenantId)).reversed());
+
+        final List<String> promoted = new ArrayList<>();
+        int demoted = 0;
+        for (final String candidate : candidates) {
+            if (newTaggedTenants.size() < maxTaggedTenants) {
+                newTaggedTenants.add(candidate);
+                promoted.add(candidate);
+                promotions.increment();
+            } else if (demoted < incumbents.size()) {
+                final String incumbent = incumbents.get(demoted);
+                if (counts.get(candidate) >= PROMOTION_FACTOR * Math.max(1, counts.getOrDefault(incumbent, 0L))) {
+                    newTaggedTenants.remove(incumbent);
+                    newTaggedTenants.add(candidate);
+                    promoted.add(candidate);
+                    demoted++;
+                    promotions.increment();
+                    demotions.increment();
+                } else {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        taggedTenants = Collections.unmodifiableSet(newTaggedTenants);
+        promoted.forEach(this::notifyPromotionListeners);
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration for limiting the number of tenant tag values used by meters.
+ */
+@Configuration
+public class TenantCardinalityLimiterConfig {
+
+    /**
+     * Exposes the properties for limiting the number of tenant tag values.
+     *
+     * @return The properties.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "hono.metrics.tenants")
+    public TenantCardinalityLimiterConfigProperties tenantCardinalityLimiterProperties() {
+        return new TenantCardinalityLimiterConfigProperties();
+    }
+
+    /**
+     * Exposes the limiter for the number of tenant tag values.
+     * <p>
+     * The limiter is only created if the maximum number of tagged tenants is
+     * configured to be greater than zero.
+     *
+     * @param registry The meter registry to report the limiter's own meters to.
+     * @return The limiter.
+     */
+    @Bean
+    @ConditionalOnExpression("${hono.metrics.tenants.maxTagged:0} > 0")
+    public TenantCardinalityLimiter tenantCardinalityLimiter(final MeterRegistry registry) {
+        final TenantCardinalityLimiterConfigProperties config = tenantCardinalityLimiterProperties();
+        return new TenantCardinalityLimiter(
+                registry,
+                config.getMaxTagged(),
+                Duration.ofSeconds(config.getEvaluationInterval()));
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+/**
+ * Configuration properties for limiting the number of tenant tag values used by meters.
+ */
+public class TenantCardinalityLimiterConfigProperties {
+
+    /**
+     * The default interval (seconds) at which the tenants' traffic is evaluated.
+     */
+    public static final int DEFAULT_EVALUATION_INTERVAL = 60;
+
+    private int maxTagged = 0;
+    private int evaluationInterval = DEFAULT_EVALUATION_INTERVAL;
+
+    /**
+     * Gets the maximum number of tenants that are reported using their own tenant tag value.
+     *
+     * @return The number of tenants or 0 if the number is not limited.
+     */
+    public final int getMaxTagged() {
+        return maxTagged;
+    }
+
+    /**
+     * Sets the maximum number of tenants that are reported using their own tenant tag value.
+     * <p>
+     * All other tenants are reported using the {@value TenantCardinalityLimiter#TENANT_OTHER}
+     * tag value.
+     * <p>
+     * The default value of this property is 0 which means that the number is not limited.
+     *
+     * @param maxTagged The number of tenants.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public final void setMaxTagged(final int maxTagged) {
+        if (maxTagged < 0) {
+            throw new IllegalArgumentException("max tagged tenants must not be negative");
+        }
+        this.maxTagged = maxTagged;
+    }
+
+    /**
+     * Gets the interval at which the tenants' traffic is evaluated for
+     * determining the tenants to report using their own tenant tag value.
+     *
+     * @return The interval in seconds.
+     */
+    public final int getEvaluationInterval() {
+        return evaluationInterval;
+    }
+
+    /**
+     * Sets the interval at which the tenants' traffic is evaluated for
+     * determining the tenants to report using their own tenant tag value.
+     * <p>
+     * The default value of this property is {@link #DEFAULT_EVALUATION_INTERVAL} seconds.
+     *
+     * @param evaluationInterval The interval in seconds.
+     * @throws IllegalArgumentException if the interval is not positive.
+     */
+    public final void setEvaluationInterval(final int evaluationInterval) {
+        if (evaluationInterval <= 0) {
+            throw new IllegalArgumentException("evaluation interval must be positive");
+        }
+        this.evaluationInterval = evaluationInterval;
+    }
+}
@@ -24,7 +24,6 @@ import org.eclipse.hono.util.ResourceIdentifier;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import io.vertx.core.Vertx;
-import io.vertx.core.eventbus.DeliveryOptions;
 
 /**
  * An {@code AmqpEndpoint} for managing device registration information.
@@ -62,8 +61,7 @@ public class RegistrationAmqpEndpoint extends RequestResponseEndpoint<ServiceCon
                 .setGatewayId(msg)
                 .setJsonPayload(msg);
 
-        final DeliveryOptions options = createEventBusMessageDeliveryOptions(extractSpanContext(msg));
-        vertx.eventBus().send(RegistrationConstants.EVENT_BUS_ADDRESS_REGISTRATION_IN, registrationMsg.toJson(), options);
+        sendServiceRequest(RegistrationConstants.EVENT_BUS_ADDRESS_REGISTRATION_IN, registrationMsg, extractSpanContext(msg));
     }
 
     @Override
@@ -45,6 +45,9 @@ public interface RegistrationAssertionHelper {
     /**
      * Gets the lifetime of the assertions created by the <em>getAssertion</em>
      * method.
+     * <p>
+     * Implementations that hand out the same assertion multiple times must
+     * return the minimum remaining lifetime of the assertions handed out.
      * 
      * @return The lifetime in seconds.
      */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Contributors to the Eclipse Foundation
+ * Copyright (c) 2016, 2019 Contributors to the Eclipse Foundation
  *
  * See the NOTICE file(s) distributed with this work for additional
  * information regarding copyright ownership.
@@ -12,26 +12,49 @@
  *******************************************************************************/
 package org.eclipse.hono.service.registration;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.hono.config.SignatureSupportingConfigProperties;
 import org.eclipse.hono.util.JwtHelper;
+import org.eclipse.hono.util.VerifiedTokenCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.vertx.core.Vertx;
 
 /**
  * A utility class for creating and validating JWT tokens asserting the registration status of devices.
+ * <p>
+ * A helper created for signing may be configured to reuse the assertion created for a device
+ * during a fraction of the assertion's lifetime (see
+ * {@link SignatureSupportingConfigProperties#getTokenReuseRatio()}). This way, the registry does not
+ * need to create a new signature for each request asserting the registration status of the same device.
  *
  */
 public final class RegistrationAssertionHelperImpl extends JwtHelper implements RegistrationAssertionHelper {
 
+    /**
+     * The maximum number of assertions to keep for reuse.
+     */
+    public static final int MAX_CACHED_ASSERTIONS = 10_000;
+
     private static final Logger LOG = LoggerFactory.getLogger(RegistrationAssertionHelperImpl.class);
+    private static final String CLAIM_TENANT_ID = "ten";
+    private static final int ALLOWED_CLOCK_SKEW_SECONDS = 10;
+
+    private final VerifiedTokenCache<Claims> verifiedTokens = new VerifiedTokenCache<>();
+    private Duration reusePeriod = Duration.ZERO;
+    private Cache<String, String> assertionCache;
 
     private RegistrationAssertionHelperImpl() {
         this(null);
@@ -53,8 +76,10 @@ public final class RegistrationAssertionHelperImpl extends JwtHelper implements
     public static RegistrationAssertionHelper forSigning(final Vertx vertx,
             final SignatureSupportingConfigProperties config) {
 
-        return JwtHelper.forSigning(config, () -> new RegistrationAssertionHelperImpl(vertx));
-
+        final RegistrationAssertionHelperImpl helper = JwtHelper.forSigning(config,
+                () -> new RegistrationAssertionHelperImpl(vertx));
+        helper.setReusePeriod(config.getTokenReuseRatio());
+        return helper;
     }
 
     /**
@@ -87,6 +112,19 @@ public final class RegistrationAssertionHelperImpl extends JwtHelper implements
 
     }
 
+    private void setReusePeriod(final double tokenReuseRatio) {
+
+        final long reusePeriodMillis = (long) (tokenLifetime.toMillis() * tokenReuseRatio);
+        if (reusePeriodMillis > 0) {
+            reusePeriod = Duration.ofMillis(reusePeriodMillis);
+            assertionCache = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CACHED_ASSERTIONS)
+                    .expireAfterWrite(reusePeriodMillis, TimeUnit.MILLISECONDS)
+                    .build();
+            LOG.info("reusing assertions for {} ms", reusePeriodMillis);
+        }
+    }
+
     @Override
     public String getAssertion(final String tenantId, final String deviceId) {
 
@@ -94,33 +132,69 @@ public final class RegistrationAssertionHelperImpl extends JwtHelper implements
             throw new IllegalStateException("no algorithm set");
         }
 
+        if (assertionCache == null) {
+            return createAssertion(tenantId, deviceId);
+        }
+
+        final String cacheKey = tenantId + "/" + deviceId;
+        String assertion = assertionCache.getIfPresent(cacheKey);
+        if (assertion == null) {
+            assertion = createAssertion(tenantId, deviceId);
+            assertionCache.put(cacheKey, assertion);
+        }
+        return assertion;
+    }
+
+    private String createAssertion(final String tenantId, final String deviceId) {
+
         return Jwts.builder().signWith(algorithm, key)
                 .setSubject(deviceId)
-                .claim("ten", tenantId)
+                .claim(CLAIM_TENANT_ID, tenantId)
                 .setExpiration(Date.from(Instant.now().plus(tokenLifetime)))
                 .compact();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The claims of tokens that have been verified successfully are cached until the
+     * token expires so that the signature of a token only needs to be verified once.
+     */
     @Override
     public boolean isValid(final String token, final String tenantId, final String deviceId) {
 
-        try {
-            Jwts.parser()
-                    .setSigningKey(key)
-                    .requireSubject(Objects.requireNonNull(deviceId))
-                    .require("ten", Objects.requireNonNull(tenantId))
-                    .setAllowedClockSkewSeconds(10)
-                    .parse(token);
-            return true;
-        } catch (JwtException e) {
-            // token is invalid for some reason
-            LOG.debug("failed to validate token", e);
-            return false;
+        Objects.requireNonNull(tenantId);
+        Objects.requireNonNull(deviceId);
+
+        Claims claims = token == null ? null : verifiedTokens.get(token);
+        if (claims == null) {
+            try {
+                claims = Jwts.parser()
+                        .setSigningKey(key)
+                        .setAllowedClockSkewSeconds(ALLOWED_CLOCK_SKEW_SECONDS)
+                        .parseClaimsJws(token)
+                        .getBody();
+            } catch (JwtException e) {
+                // token is invalid for some reason
+                LOG.debug("failed to validate token", e);
+                return false;
+            }
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(token, claims,
+                        claims.getExpiration().toInstant().plusSeconds(ALLOWED_CLOCK_SKEW_SECONDS));
+            }
         }
+        return deviceId.equals(claims.getSubject()) && tenantId.equals(claims.get(CLAIM_TENANT_ID, String.class));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If assertions are reused, the lifetime is reduced by the period
+     * during which an assertion is reused.
+     */
     @Override
     public long getAssertionLifetime() {
-        return getTokenLifetime().getSeconds();
+        return getTokenLifetime().minus(reusePeriod).getSeconds();
     }
 }
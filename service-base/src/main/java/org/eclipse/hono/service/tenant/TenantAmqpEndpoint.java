@@ -29,7 +29,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
-import io.vertx.core.eventbus.DeliveryOptions;
 
 /**
  * An {@code AmqpEndpoint} for managing tenant information.
@@ -139,8 +138,7 @@ public class TenantAmqpEndpoint extends RequestResponseEndpoint<ServiceConfigPro
                 .setTenant(msg)
                 .setJsonPayload(msg);
 
-        final DeliveryOptions options = createEventBusMessageDeliveryOptions(extractSpanContext(msg));
-        vertx.eventBus().send(TenantConstants.EVENT_BUS_ADDRESS_TENANT_IN, request.toJson(), options);
+        sendServiceRequest(TenantConstants.EVENT_BUS_ADDRESS_TENANT_IN, request, extractSpanContext(msg));
     }
 
     @Override
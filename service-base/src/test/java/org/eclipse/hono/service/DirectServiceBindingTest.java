@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.net.HttpURLConnection;
+
+import org.eclipse.hono.util.EventBusMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests verifying behavior of {@link DirectServiceBinding}.
+ *
+ */
+@RunWith(VertxUnitRunner.class)
+public class DirectServiceBindingTest {
+
+    private static final String ADDRESS = "test.service.in";
+
+    /**
+     * Time out each test after 5 seconds.
+     */
+    @Rule
+    public Timeout timeout = Timeout.seconds(5);
+
+    private Vertx vertx;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    /**
+     * Cleans up the fixture.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @After
+    public void tearDown(final TestContext ctx) {
+        vertx.close(ctx.asyncAssertSuccess());
+    }
+
+    /**
+     * Verifies that a request is processed on the service's context and that
+     * the response is passed to the client on the client's context.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testInvokeProcessesRequestOnServiceContext(final TestContext ctx) {
+
+        // GIVEN a service registered for an address
+        final Context serviceContext = vertx.getOrCreateContext();
+        DirectServiceBinding.register(vertx, ADDRESS, serviceContext, request -> {
+            ctx.assertEquals(serviceContext, Vertx.currentContext());
+            return Future.succeededFuture(request.getResponse(HttpURLConnection.HTTP_OK));
+        });
+
+        // WHEN a client running on another context invokes the service
+        final Context clientContext = vertx.getOrCreateContext();
+        final Async responseReceived = ctx.async();
+        clientContext.runOnContext(go -> {
+            final DirectServiceBinding binding = DirectServiceBinding.get(vertx, ADDRESS);
+            assertNotNull(binding);
+            binding.invoke(EventBusMessage.forOperation("get").setCorrelationId("id"), ctx.asyncAssertSuccess(response -> {
+                // THEN the response is passed to the client on the client's context
+                ctx.assertEquals(clientContext, Vertx.currentContext());
+                assertThat(response.getStatus(), is(HttpURLConnection.HTTP_OK));
+                assertThat(response.getCorrelationId(), is("id"));
+                responseReceived.complete();
+            }));
+        });
+    }
+
+    /**
+     * Verifies that the service processes a copy of the request and that the
+     * client receives a copy of the service's response.
+     *
+     * @param ctx The vert.x test context.
+     */
+    @Test
+    public void testInvokeCopiesRequestAndResponse(final TestContext ctx) {
+
+        // GIVEN a service that modifies the request's payload and that
+        // responds with a payload it keeps a reference to
+        final JsonObject servicePayload = new JsonObject().put("key", "service");
+        final Context serviceContext = vertx.getOrCreateContext();
+        DirectServiceBinding.register(vertx, ADDRESS, serviceContext, request -> {
+            request.getJsonPayload().put("key", "modified");
+            return Future.succeededFuture(request.getResponse(HttpURLConnection.HTTP_OK).setJsonPayload(servicePayload));
+        });
+
+        // WHEN a client invokes the service
+        final JsonObject requestPayload = new JsonObject().put("key", "client");
+        final EventBusMessage request = EventBusMessage.forOperation("get")
+                .setCorrelationId("id")
+                .setJsonPayload(requestPayload);
+        final Async responseReceived = ctx.async();
+        vertx.getOrCreateContext().runOnContext(go -> {
+            DirectServiceBinding.get(vertx, ADDRESS).invoke(request, ctx.asyncAssertSuccess(response -> {
+                // THEN the client's request has not been modified
+                assertThat(request.getJsonPayload(), is(sameInstance(requestPayload)));
+                assertThat(requestPayload.getString("key"), is("client"));
+                // and the response payload is not shared with the service
+                assertThat(response.getJsonPayload(), is(servicePayload));
+                assertThat(response.getJsonPayload(), is(not(sameInstance(servicePayload))));
+                responseReceived.complete();
+            }));
+        });
+    }
+
+    /**
+     * Verifies that an address is no longer bound once the service
+     * has been unregistered.
+     */
+    @Test
+    public void testUnregisterRemovesService() {
+
+        // GIVEN a service registered for an address
+        final Context serviceContext = vertx.getOrCreateContext();
+        DirectServiceBinding.register(vertx, ADDRESS, serviceContext,
+                request -> Future.succeededFuture(request.getResponse(HttpURLConnection.HTTP_OK)));
+        assertNotNull(DirectServiceBinding.get(vertx, ADDRESS));
+
+        // WHEN the service is unregistered
+        DirectServiceBinding.unregister(vertx, ADDRESS, serviceContext);
+
+        // THEN the address is no longer bound
+        assertNull(DirectServiceBinding.get(vertx, ADDRESS));
+    }
+}
@@ -14,14 +14,22 @@
 package org.eclipse.hono.service;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
+import java.net.HttpURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.hono.config.ServiceConfigProperties;
 import org.eclipse.hono.util.EventBusMessage;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
 
@@ -124,4 +132,87 @@ public class EventBusServiceTest {
         Assert.assertNull(value);
     }
 
+    /**
+     * Verifies that a service does not register with the {@link DirectServiceBinding}
+     * unless direct service invocation is enabled.
+     *
+     * @throws Exception if the service cannot be deployed.
+     */
+    @Test
+    public void testStartDoesNotRegisterDirectBindingByDefault() throws Exception {
+
+        final Vertx vertx = Vertx.vertx();
+        try {
+            // GIVEN a service for which direct invocation has not been enabled
+            final EventBusService<Object> directService = newService("direct.disabled");
+
+            // WHEN the service is started
+            deploy(vertx, directService);
+
+            // THEN the service cannot be invoked directly
+            assertNull(DirectServiceBinding.get(vertx, "direct.disabled"));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    /**
+     * Verifies that a service registers with the {@link DirectServiceBinding}
+     * if direct service invocation is enabled.
+     *
+     * @throws Exception if the service cannot be deployed.
+     */
+    @Test
+    public void testStartRegistersDirectBindingIfEnabled() throws Exception {
+
+        final Vertx vertx = Vertx.vertx();
+        try {
+            // GIVEN a service for which direct invocation has been enabled
+            final EventBusService<Object> directService = newService("direct.enabled");
+            directService.setAmqpEndpointConfiguration(
+                    new ServiceConfigProperties().setDirectServiceInvocationEnabled(true));
+
+            // WHEN the service is started
+            deploy(vertx, directService);
+
+            // THEN the service can be invoked directly
+            assertNotNull(DirectServiceBinding.get(vertx, "direct.enabled"));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    private static EventBusService<Object> newService(final String address) {
+
+        return new EventBusService<Object>() {
+
+            @Override
+            public void setConfig(final Object configuration) {
+            }
+
+            @Override
+            protected String getEventBusAddress() {
+                return address;
+            }
+
+            @Override
+            protected Future<EventBusMessage> processRequest(final EventBusMessage request) {
+                return Future.succeededFuture(request.getResponse(HttpURLConnection.HTTP_OK));
+            }
+        };
+    }
+
+    private static void deploy(final Vertx vertx, final EventBusService<Object> serviceToDeploy) throws Exception {
+
+        final CompletableFuture<String> deployment = new CompletableFuture<>();
+        vertx.deployVerticle(serviceToDeploy, result -> {
+            if (result.succeeded()) {
+                deployment.complete(result.result());
+            } else {
+                deployment.completeExceptionally(result.cause());
+            }
+        });
+        deployment.get(5, TimeUnit.SECONDS);
+    }
+
 }
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.amqp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.qpid.proton.engine.impl.RecordImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * Verifies behavior of {@link ReceiverLinkCredit}.
+ *
+ */
+public class ReceiverLinkCreditTest {
+
+    private ProtonReceiver receiver;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        receiver = mock(ProtonReceiver.class);
+        when(receiver.attachments()).thenReturn(new RecordImpl());
+    }
+
+    /**
+     * Verifies that credits are flowed back to the client in a single batch
+     * once half of the window has been used up.
+     */
+    @Test
+    public void testCreditIsReplenishedInBatches() {
+
+        // GIVEN a link with a window of 10 credits
+        final ReceiverLinkCredit linkCredit = ReceiverLinkCredit.getInstance(receiver, 10);
+        linkCredit.open();
+        verify(receiver).flow(10);
+        reset(receiver);
+
+        // WHEN four requests have been completed while the client still has more
+        // than half of the window left
+        for (int i = 0; i < 4; i++) {
+            when(receiver.getCredit()).thenReturn(9 - i);
+            linkCredit.requestReceived();
+            linkCredit.requestCompleted();
+        }
+
+        // THEN no credit is flowed to the client
+        verify(receiver, never()).flow(anyInt());
+
+        // WHEN another request is completed after the client's credit has dropped to half of the window
+        when(receiver.getCredit()).thenReturn(5);
+        linkCredit.requestReceived();
+        linkCredit.requestCompleted();
+
+        // THEN all completed requests' credits are flowed to the client at once
+        verify(receiver).flow(5);
+    }
+
+    /**
+     * Verifies that a link with a window of a single credit gets its credit
+     * replenished after each request.
+     */
+    @Test
+    public void testSingleCreditIsReplenishedImmediately() {
+
+        final ReceiverLinkCredit linkCredit = ReceiverLinkCredit.getInstance(receiver, 1);
+        linkCredit.open();
+        reset(receiver);
+
+        when(receiver.getCredit()).thenReturn(0);
+        assertThat(linkCredit.requestReceived(), is(1));
+        linkCredit.requestCompleted();
+
+        verify(receiver).flow(1);
+        assertThat(linkCredit.getOutstandingRequests(), is(0));
+    }
+}
@@ -24,6 +24,7 @@ import static org.mockito.hamcrest.MockitoHamcrest.booleanThat;
 import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.messaging.Rejected;
 import org.apache.qpid.proton.amqp.transport.DeliveryState;
+import org.apache.qpid.proton.engine.impl.RecordImpl;
 import org.apache.qpid.proton.message.Message;
 import org.eclipse.hono.auth.HonoUser;
 import org.eclipse.hono.config.ServiceConfigProperties;
@@ -86,6 +87,7 @@ public class RequestResponseEndpointTest {
         when(receiver.setAutoAccept(any(Boolean.class))).thenReturn(receiver);
         when(receiver.setPrefetch(any(Integer.class))).thenReturn(receiver);
         when(receiver.setQoS(any(ProtonQoS.class))).thenReturn(receiver);
+        when(receiver.attachments()).thenReturn(new RecordImpl());
 
         when(vertx.eventBus()).thenReturn(eventBus);
 
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.auth.delegating;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.eclipse.hono.auth.AuthoritiesImpl;
+import org.eclipse.hono.auth.HonoUser;
+import org.eclipse.hono.config.SignatureSupportingConfigProperties;
+import org.eclipse.hono.connection.ConnectionFactory;
+import org.eclipse.hono.service.auth.AuthTokenHelperImpl;
+import org.eclipse.hono.util.AuthenticationConstants;
+import org.eclipse.hono.util.MessageHelper;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.proton.ProtonConnection;
+import io.vertx.proton.ProtonDelivery;
+import io.vertx.proton.ProtonMessageHandler;
+import io.vertx.proton.ProtonReceiver;
+
+/**
+ * Verifies behavior of {@link DelegatingAuthenticationService}.
+ *
+ */
+public class DelegatingAuthenticationServiceTest {
+
+    private static final String SECRET = "dafhkjsdahfuksahuioahgfqgpsgjkhfdjkg";
+
+    private static Vertx vertx;
+
+    private ConnectionFactory factory;
+    private List<Handler<AsyncResult<ProtonConnection>>> connectionAttempts;
+    private AuthenticationServerClientConfigProperties config;
+    private DelegatingAuthenticationService service;
+
+    /**
+     * Sets up vert.x.
+     */
+    @BeforeClass
+    public static void init() {
+        vertx = Vertx.vertx();
+    }
+
+    /**
+     * Closes vert.x.
+     */
+    @AfterClass
+    public static void shutDown() {
+        vertx.close();
+    }
+
+    /**
+     * Sets up the fixture.
+     */
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+
+        connectionAttempts = new ArrayList<>();
+        factory = mock(ConnectionFactory.class);
+        doAnswer(invocation -> {
+            connectionAttempts.add(invocation.getArgument(5));
+            return null;
+        }).when(factory).connect(any(), anyString(), anyString(), any(), any(), any(Handler.class));
+        config = new AuthenticationServerClientConfigProperties();
+        service = new DelegatingAuthenticationService();
+    }
+
+    /**
+     * Stops the service.
+     */
+    @After
+    public void stopService() {
+        service.stop(Future.future());
+    }
+
+    /**
+     * Verifies that a token issued by the Authentication service is reused for
+     * authenticating the same credentials but not for different credentials.
+     */
+    @Test
+    public void testVerifyPlainUsesCachedToken() {
+
+        // GIVEN a started service
+        startService();
+        final String token = createToken(100);
+
+        // WHEN authenticating credentials for which the Authentication service issues a token
+        final AtomicReference<AsyncResult<HonoUser>> firstResult = new AtomicReference<>();
+        service.verifyPlain(null, "user", "pwd", firstResult::set);
+        issueToken(0, token);
+
+        // and then authenticating the same credentials again
+        final AtomicReference<AsyncResult<HonoUser>> secondResult = new AtomicReference<>();
+        service.verifyPlain(null, "user", "pwd", secondResult::set);
+
+        // THEN the Authentication service has been invoked once only
+        assertThat(connectionAttempts.size(), is(1));
+        assertThat(firstResult.get().result().getToken(), is(token));
+        assertThat(secondResult.get().result().getToken(), is(token));
+
+        // and different credentials are authenticated by the Authentication service
+        service.verifyPlain(null, "user", "other-pwd", r -> {});
+        assertThat(connectionAttempts.size(), is(2));
+    }
+
+    /**
+     * Verifies that concurrent requests for authenticating the same credentials
+     * are forwarded to the Authentication service only once.
+     */
+    @Test
+    public void testVerifyPlainCoalescesConcurrentRequests() {
+
+        // GIVEN a started service
+        startService();
+        final String token = createToken(100);
+
+        // WHEN the same credentials are authenticated twice before the
+        // Authentication service has issued a token
+        final AtomicReference<AsyncResult<HonoUser>> firstResult = new AtomicReference<>();
+        final AtomicReference<AsyncResult<HonoUser>> secondResult = new AtomicReference<>();
+        service.verifyPlain(null, "user", "pwd", firstResult::set);
+        service.verifyPlain(null, "user", "pwd", secondResult::set);
+
+        // THEN only one request is sent to the Authentication service
+        assertThat(connectionAttempts.size(), is(1));
+
+        // and both requests are completed once the token has been issued
+        issueToken(0, token);
+        assertThat(firstResult.get().result().getToken(), is(token));
+        assertThat(secondResult.get().result().getToken(), is(token));
+    }
+
+    /**
+     * Verifies that a token that expires within the expiration margin is not
+     * reused.
+     */
+    @Test
+    public void testVerifyPlainDoesNotReuseTokenExpiringWithinMargin() {
+
+        // GIVEN a started service
+        startService();
+
+        // WHEN the Authentication service issues a token that expires in 20 seconds
+        service.verifyPlain(null, "user", "pwd", r -> {});
+        issueToken(0, createToken(20));
+
+        // THEN authenticating the same credentials again is forwarded to the Authentication service
+        service.verifyPlain(null, "user", "pwd", r -> {});
+        assertThat(connectionAttempts.size(), is(2));
+    }
+
+    /**
+     * Verifies that tokens are not cached if the maximum cache size is 0.
+     */
+    @Test
+    public void testVerifyPlainDoesNotCacheTokensIfDisabled() {
+
+        // GIVEN a service with caching disabled
+        config.setTokenCacheMaxSize(0);
+        startService();
+
+        // WHEN authenticating the same credentials twice
+        service.verifyPlain(null, "user", "pwd", r -> {});
+        issueToken(0, createToken(100));
+        service.verifyPlain(null, "user", "pwd", r -> {});
+
+        // THEN both requests are forwarded to the Authentication service
+        assertThat(connectionAttempts.size(), is(2));
+    }
+
+    private void startService() {
+        service.setConfig(config);
+        service.setConnectionFactory(factory);
+        service.init(vertx, vertx.getOrCreateContext());
+        service.start(Future.future());
+    }
+
+    private static String createToken(final long expirationSeconds) {
+        final SignatureSupportingConfigProperties props = new SignatureSupportingConfigProperties();
+        props.setSharedSecret(SECRET);
+        props.setTokenExpiration(expirationSeconds);
+        return AuthTokenHelperImpl.forSigning(vertx, props).createToken("authId", new AuthoritiesImpl());
+    }
+
+    /**
+     * Lets the Authentication service issue a token on a pending connection attempt.
+     *
+     * @param connectionAttempt The index of the connection attempt.
+     * @param token The token to issue.
+     */
+    @SuppressWarnings("unchecked")
+    private void issueToken(final int connectionAttempt, final String token) {
+
+        final Message message = new MessageImpl();
+        MessageHelper.addProperty(message, AuthenticationConstants.APPLICATION_PROPERTY_TYPE,
+                AuthenticationConstants.TYPE_AMQP_JWT);
+        message.setBody(new AmqpValue(token));
+
+        final ProtonReceiver receiver = mock(ProtonReceiver.class);
+        final AtomicReference<Handler<AsyncResult<ProtonReceiver>>> openHandler = new AtomicReference<>();
+        final AtomicReference<ProtonMessageHandler> messageHandler = new AtomicReference<>();
+        when(receiver.openHandler(any(Handler.class))).thenAnswer(invocation -> {
+            openHandler.set(invocation.getArgument(0));
+            return receiver;
+        });
+        when(receiver.handler(any(ProtonMessageHandler.class))).thenAnswer(invocation -> {
+            messageHandler.set(invocation.getArgument(0));
+            return receiver;
+        });
+        when(receiver.open()).thenAnswer(invocation -> {
+            openHandler.get().handle(Future.succeededFuture(receiver));
+            messageHandler.get().handle(mock(ProtonDelivery.class), message);
+            return receiver;
+        });
+        final ProtonConnection con = mock(ProtonConnection.class);
+        when(con.createReceiver(anyString())).thenReturn(receiver);
+
+        connectionAttempts.get(connectionAttempt).handle(Future.succeededFuture(con));
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Vertx;
+
+/**
+ * Verifies behavior of {@link EventLoopMetrics}.
+ *
+ */
+public class EventLoopMetricsTest {
+
+    /**
+     * Time out each test after 5 seconds.
+     */
+    @Rule
+    public Timeout timeout = Timeout.seconds(5);
+
+    private Vertx vertx;
+    private MeterRegistry registry;
+    private EventLoopMetrics metrics;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+        registry = new SimpleMeterRegistry();
+        metrics = new EventLoopMetrics(vertx, registry);
+        metrics.setProbeInterval(0);
+        metrics.start();
+    }
+
+    /**
+     * Cleans up the fixture.
+     */
+    @After
+    public void tearDown() {
+        metrics.stop();
+        vertx.close();
+    }
+
+    /**
+     * Verifies that gauges are registered for the event loops and the worker pool.
+     */
+    @Test
+    public void testStartRegistersGauges() {
+
+        assertFalse(registry.find(EventLoopMetrics.METER_EVENT_LOOP_PENDING_TASKS).gauges().isEmpty());
+        assertNotNull(registry.find(EventLoopMetrics.METER_WORKER_UTILIZATION).gauge());
+    }
+
+    /**
+     * Verifies that probing the event loops records their scheduling lag.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the probes.
+     */
+    @Test
+    public void testProbeRecordsLagOfEachEventLoop() throws InterruptedException {
+
+        metrics.probe();
+
+        assertFalse(registry.find(EventLoopMetrics.METER_EVENT_LOOP_LAG).timers().isEmpty());
+        for (final Timer timer : registry.find(EventLoopMetrics.METER_EVENT_LOOP_LAG).timers()) {
+            while (timer.count() == 0) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -14,8 +14,10 @@
 
 package org.eclipse.hono.service.metric;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
 
 import org.eclipse.hono.service.metric.MetricsTags.QoS;
 import org.eclipse.hono.service.metric.MetricsTags.TtdStatus;
@@ -24,6 +26,7 @@ import org.junit.Test;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 
@@ -72,4 +75,78 @@ public class MicrometerBasedMetricsTest {
         assertNull(registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED)
                 .tags(expectedTags).tagKeys(MetricsTags.TtdStatus.TAG_NAME).timer());
     }
+
+    /**
+     * Verifies that messages reported with the same tags are recorded by
+     * the same meters while messages reported with different tags are recorded
+     * by different meters.
+     */
+    @Test
+    public void testReportTelemetryRecordsMessagesPerTagCombination() {
+
+        for (int i = 0; i < 3; i++) {
+            metrics.reportTelemetry(
+                    MetricsTags.EndpointType.EVENT,
+                    "tenant",
+                    MetricsTags.ProcessingOutcome.FORWARDED,
+                    MetricsTags.QoS.AT_LEAST_ONCE,
+                    10,
+                    MetricsTags.TtdStatus.COMMAND,
+                    metrics.startTimer());
+        }
+        metrics.reportTelemetry(
+                MetricsTags.EndpointType.EVENT,
+                "other-tenant",
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                MetricsTags.QoS.AT_LEAST_ONCE,
+                10,
+                MetricsTags.TtdStatus.COMMAND,
+                metrics.startTimer());
+
+        final Tags expectedTags = Tags.of(MetricsTags.EndpointType.EVENT.asTag())
+                .and(MetricsTags.getTenantTag("tenant"))
+                .and(MetricsTags.ProcessingOutcome.FORWARDED.asTag());
+
+        final Timer timer = registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED)
+                .tags(expectedTags)
+                .tags(MetricsTags.QoS.AT_LEAST_ONCE.asTag().getKey(), MetricsTags.QoS.AT_LEAST_ONCE.asTag().getValue())
+                .tags(MetricsTags.TtdStatus.COMMAND.asTag().getKey(), MetricsTags.TtdStatus.COMMAND.asTag().getValue())
+                .timer();
+        assertThat(timer.count(), is(3L));
+        assertThat(registry.find(MicrometerBasedMetrics.METER_MESSAGES_PAYLOAD).tags(expectedTags).summary().totalAmount(),
+                is(30.0));
+        assertThat(registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED)
+                .tags(MetricsTags.getTenantTag("other-tenant").getKey(), "other-tenant")
+                .timer().count(), is(1L));
+    }
+
+    /**
+     * Verifies that commands are recorded with tags for the direction, tenant
+     * and outcome.
+     */
+    @Test
+    public void testReportCommandRecordsCommandsPerTagCombination() {
+
+        metrics.reportCommand(
+                MetricsTags.Direction.REQUEST,
+                "tenant",
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                20,
+                metrics.startTimer());
+        metrics.reportCommand(
+                MetricsTags.Direction.RESPONSE,
+                "tenant",
+                MetricsTags.ProcessingOutcome.FORWARDED,
+                20,
+                metrics.startTimer());
+
+        final Tags expectedTags = Tags.of(MetricsTags.Direction.REQUEST.asTag())
+                .and(MetricsTags.getTenantTag("tenant"))
+                .and(MetricsTags.ProcessingOutcome.FORWARDED.asTag());
+
+        assertThat(registry.find(MicrometerBasedMetrics.METER_COMMANDS_RECEIVED).tags(expectedTags).timer().count(),
+                is(1L));
+        assertThat(registry.find(MicrometerBasedMetrics.METER_COMMANDS_PAYLOAD).tags(expectedTags).summary().count(),
+                is(1L));
+    }
 }
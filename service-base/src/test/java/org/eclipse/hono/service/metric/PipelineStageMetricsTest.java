@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.hono.service.metric.MetricsTags.PipelineStage;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+
+/**
+ * Verifies behavior of {@link PipelineStageMetrics}.
+ *
+ */
+public class PipelineStageMetricsTest {
+
+    private MeterRegistry registry;
+    private PipelineStageMetrics metrics;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineStageMetrics(registry);
+    }
+
+    private Timer getTimer(final PipelineStage stage) {
+        return registry.find(PipelineStageMetrics.METER_STAGE_DURATION)
+                .tags(stage.asTag().getKey(), stage.asTag().getValue())
+                .timer();
+    }
+
+    /**
+     * Verifies that the outcome of an operation is not intercepted while
+     * recording is disabled.
+     */
+    @Test
+    public void testTimeDoesNotRecordIfDisabled() {
+
+        final Future<String> operation = Future.future();
+        final Future<String> result = metrics.time(PipelineStage.TENANT, () -> operation);
+        operation.complete("done");
+
+        assertTrue(result == operation);
+        assertThat(getTimer(PipelineStage.TENANT).count(), is(0L));
+    }
+
+    /**
+     * Verifies that the duration of a stage is recorded once the operation
+     * executing the stage completes.
+     */
+    @Test
+    public void testTimeRecordsDurationOnCompletion() {
+
+        metrics.setEnabled(true);
+        final Future<String> operation = Future.future();
+        final Future<String> result = metrics.time(PipelineStage.SENDER, () -> operation);
+        assertThat(getTimer(PipelineStage.SENDER).count(), is(0L));
+
+        operation.fail(new IllegalStateException());
+
+        assertTrue(result.failed());
+        assertThat(getTimer(PipelineStage.SENDER).count(), is(1L));
+        assertThat(getTimer(PipelineStage.TENANT).count(), is(0L));
+    }
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2019 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.hono.service.metric;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Verifies behavior of {@link TenantCardinalityLimiter}.
+ *
+ */
+public class TenantCardinalityLimiterTest {
+
+    private MeterRegistry registry;
+    private Clock clock;
+    private TenantCardinalityLimiter limiter;
+
+    /**
+     * Sets up the fixture.
+     */
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        limiter = new TenantCardinalityLimiter(registry, 2, Duration.ofSeconds(10), clock);
+    }
+
+    /**
+     * Verifies that the first tenants get their own tag value until the maximum
+     * number of tagged tenants has been reached.
+     */
+    @Test
+    public void testFirstTenantsGetOwnTagValue() {
+
+        limiter.recordTraffic("tenant1");
+        limiter.recordTraffic("tenant2");
+        limiter.recordTraffic("tenant3");
+
+        assertThat(limiter.getTenantTagValue("tenant1"), is("tenant1"));
+        assertThat(limiter.getTenantTagValue("tenant2"), is("tenant2"));
+        assertThat(limiter.getTenantTagValue("tenant3"), is(TenantCardinalityLimiter.TENANT_OTHER));
+        assertThat(registry.find(TenantCardinalityLimiter.METER_TENANTS_TAGGED).gauge().value(), is(2.0));
+    }
+
+    /**
+     * Verifies that a folded tenant gets promoted once its traffic exceeds the traffic
+     * of the least active tagged tenant by the promotion factor.
+     */
+    @Test
+    public void testActiveTenantGetsPromoted() {
+
+        // GIVEN two tagged tenants and a folded tenant
+        limiter.recordTraffic("tenant1");
+        limiter.recordTraffic("tenant2");
+        // WHEN the folded tenant sends more messages than the tagged ones
+        for (int i = 0; i < 10; i++) {
+            limiter.recordTraffic("tenant1");
+            limiter.recordTraffic("tenant3");
+        }
+        limiter.recordTraffic("tenant3");
+        assertThat(limiter.getTenantTagValue("tenant3"), is(TenantCardinalityLimiter.TENANT_OTHER));
+
+        // and the traffic is evaluated
+        when(clock.millis()).thenReturn(10_000L);
+        limiter.recordTraffic("tenant3");
+
+        // THEN the folded tenant is promoted and the least active tenant is demoted
+        assertThat(limiter.getTenantTagValue("tenant3"), is("tenant3"));
+        assertThat(limiter.getTenantTagValue("tenant1"), is("tenant1"));
+        assertThat(limiter.getTenantTagValue("tenant2"), is(TenantCardinalityLimiter.TENANT_OTHER));
+        assertThat(registry.find(TenantCardinalityLimiter.METER_TENANTS_PROMOTED).counter().count(), is(1.0));
+        assertThat(registry.find(TenantCardinalityLimiter.METER_TENANTS_DEMOTED).counter().count(), is(1.0));
+    }
+
+    /**
+     * Verifies that a folded tenant does not get promoted if its traffic is
+     * similar to the traffic of the tagged tenants.
+     */
+    @Test
+    public void testTenantWithSimilarTrafficIsNotPromoted() {
+
+        for (int i = 0; i < 10; i++) {
+            limiter.recordTraffic("tenant1");
+            limiter.recordTraffic("tenant2");
+            limiter.recordTraffic("tenant3");
+        }
+        limiter.evaluate();
+
+        assertThat(limiter.getTenantTagValue("tenant3"), is(TenantCardinalityLimiter.TENANT_OTHER));
+        assertThat(registry.find(TenantCardinalityLimiter.METER_TENANTS_FOLDED).gauge().value(), is(1.0));
+    }
+
+    /**
+     * Verifies that the metrics report folded tenants using the common tag value.
+     */
+    @Test
+    public void testMetricsReportFoldedTenantsInCommonBucket() {
+
+        final MicrometerBasedMetrics metrics = new MicrometerBasedMetrics(registry);
+        metrics.setTenantCardinalityLimiter(limiter);
+        for (final String tenant : new String[] { "tenant1", "tenant2", "tenant3", "tenant4" }) {
+            metrics.reportTelemetry(
+                    MetricsTags.EndpointType.TELEMETRY,
+                    tenant,
+                    MetricsTags.ProcessingOutcome.FORWARDED,
+                    MetricsTags.QoS.AT_MOST_ONCE,
+                    10,
+                    metrics.startTimer());
+        }
+
+        assertThat(registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED)
+                .tags(Tags.of(MetricsTags.getTenantTag(TenantCardinalityLimiter.TENANT_OTHER)))
+                .timer().count(), is(2L));
+        assertNotNull(registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED)
+                .tags(Tags.of(MetricsTags.getTenantTag("tenant1"))).timer());
+        assertThat(registry.find(MicrometerBasedMetrics.METER_MESSAGES_RECEIVED).timers().size(), is(3));
+    }
+
+    /**
+     * Verifies that the connections of a tenant are reported under the tenant's
+     * current tag value after the tenant has been promoted.
+     */
+    @Test
+    public void testConnectionsFollowPromotedTenant() {
+
+        // GIVEN two tagged tenants and a folded tenant having connected devices
+        final MicrometerBasedMetrics metrics = new MicrometerBasedMetrics(registry);
+        metrics.setTenantCardinalityLimiter(limiter);
+        limiter.recordTraffic("tenant1");
+        limiter.recordTraffic("tenant2");
+        metrics.incrementConnections("tenant2");
+        metrics.incrementConnections("tenant3");
+        metrics.incrementConnections("tenant3");
+        assertThat(getAuthenticatedConnections(TenantCardinalityLimiter.TENANT_OTHER), is(2.0));
+        assertThat(getAuthenticatedConnections("tenant2"), is(1.0));
+
+        // WHEN the folded tenant gets promoted
+        for (int i = 0; i < 10; i++) {
+            limiter.recordTraffic("tenant1");
+            limiter.recordTraffic("tenant3");
+        }
+        limiter.evaluate();
+
+        // THEN its connections are reported under its own tag value
+        assertThat(getAuthenticatedConnections("tenant3"), is(2.0));
+        // and the connections of the demoted tenant are reported in the common bucket
+        assertThat(getAuthenticatedConnections("tenant2"), is(0.0));
+        assertThat(getAuthenticatedConnections(TenantCardinalityLimiter.TENANT_OTHER), is(1.0));
+
+        // and closing a connection is reported under the current tag value
+        metrics.decrementConnections("tenant3");
+        assertThat(getAuthenticatedConnections("tenant3"), is(1.0));
+    }
+
+    /**
+     * Verifies that a tenant using the common bucket's tag value as its identifier
+     * is not reported in the common bucket.
+     */
+    @Test
+    public void testTenantNamedLikeCommonBucketIsReportedSeparately() {
+
+        limiter.recordTraffic("other");
+        assertThat(limiter.getTenantTagValue("other"), is("other"));
+        assertThat(limiter.getTenantTagValue("tenant1"), is(not("other")));
+    }
+
+    /**
+     * Verifies that the limiter cannot be created without limiting the number of tag values.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testLimiterRequiresPositiveMaximum() {
+
+        new TenantCardinalityLimiter(registry, 0, Duration.ofSeconds(10), clock);
+    }
+
+    private double getAuthenticatedConnections(final String tenantTagValue) {
+        return registry.find(MicrometerBasedMetrics.METER_CONNECTIONS_AUTHENTICATED)
+                .tags(Tags.of(MetricsTags.getTenantTag(tenantTagValue)))
+                .gauge().value();
+    }
+}
@@ -13,12 +13,11 @@
 
 package org.eclipse.hono.deviceregistry;
 
-import java.util.Optional;
-
 import org.eclipse.hono.auth.HonoPasswordEncoder;
 import org.eclipse.hono.auth.SpringBasedHonoPasswordEncoder;
 import org.eclipse.hono.config.ApplicationConfigProperties;
 import org.eclipse.hono.config.ServiceConfigProperties;
+import org.eclipse.hono.config.TracingSamplingProperties;
 import org.eclipse.hono.config.VertxProperties;
 import org.eclipse.hono.service.HealthCheckServer;
 import org.eclipse.hono.service.VertxBasedHealthCheckServer;
@@ -31,6 +30,7 @@ import org.eclipse.hono.service.registration.RegistrationAssertionHelperImpl;
 import org.eclipse.hono.service.registration.RegistrationHttpEndpoint;
 import org.eclipse.hono.service.tenant.TenantAmqpEndpoint;
 import org.eclipse.hono.service.tenant.TenantHttpEndpoint;
+import org.eclipse.hono.tracing.SamplingAwareTracer;
 import org.eclipse.hono.util.Constants;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ObjectFactoryCreatingFactoryBean;
@@ -82,20 +82,40 @@ public class ApplicationConfig {
         return new VertxProperties();
     }
 
+    /**
+     * Exposes properties for configuring the ratio of traces being sampled.
+     *
+     * @return The properties.
+     */
+    @ConfigurationProperties(prefix = "hono.tracing.sampling")
+    @Bean
+    public TracingSamplingProperties tracingSamplingProperties() {
+        return new TracingSamplingProperties();
+    }
+
     /**
      * Exposes an OpenTracing {@code Tracer} as a Spring Bean.
      * <p>
      * The Tracer will be resolved by means of a Java service lookup.
-     * If no tracer can be resolved this way, the {@code NoopTracer} is
-     * returned.
+     * If the sampling properties exclude any traces from being sampled,
+     * the resolved tracer is wrapped in a {@link SamplingAwareTracer}.
+     * If no tracer can be resolved this way, a {@code SamplingAwareTracer}
+     * that does not sample any traces is returned, so that no effort
+     * is spent on creating spans that are discarded anyway.
      * 
      * @return The tracer.
      */
     @Bean
     public Tracer getTracer() {
 
-        return Optional.ofNullable(TracerResolver.resolveTracer())
-                .orElse(NoopTracerFactory.create());
+        final Tracer tracer = TracerResolver.resolveTracer();
+        if (tracer == null) {
+            final TracingSamplingProperties noSampling = new TracingSamplingProperties();
+            noSampling.setRate(0.0);
+            return new SamplingAwareTracer(NoopTracerFactory.create(), noSampling);
+        }
+        final TracingSamplingProperties samplingProperties = tracingSamplingProperties();
+        return samplingProperties.isRestricted() ? new SamplingAwareTracer(tracer, samplingProperties) : tracer;
     }
 
     /**